@@ -442,13 +442,9 @@ public class AdobepassRestClient {
             NoSuchPaddingException {
 
         String timeMillis = Long.toString(System.currentTimeMillis());
-        String publicKey =
-                decryptKey(paramContext,
-                           paramContext.getString(R.string.encrypted_adobe_pass_public_key));
+        String publicKey = decryptKey(paramContext, R.string.encrypted_adobe_pass_public_key);
 
-        String privateKey =
-                decryptKey(paramContext,
-                           paramContext.getString(R.string.encrypted_adobe_pass_private_key));
+        String privateKey = decryptKey(paramContext, R.string.encrypted_adobe_pass_private_key);
 
         String message = "POST requestor_id=" +
                 paramContext.getString(R.string.adobe_pass_requestor_id) + ", nonce=" +
@@ -460,18 +456,19 @@ public class AdobepassRestClient {
     }
 
     /**
-     * Decrypts the given key.
+     * Decrypts the given key resource.
      *
      * @param appContext The application context. We need this to access application resources.
-     * @param key        The key to decrypt.
+     * @param keyId      The resource id of the key to decrypt.
      * @return The decrypted key in plain text.
      */
-    private static String decryptKey(Context appContext, String key) throws
+    private static String decryptKey(Context appContext, int keyId) throws
             UnsupportedEncodingException, InvalidAlgorithmParameterException,
             NoSuchAlgorithmException, NoSuchPaddingException, BadPaddingException,
             IllegalBlockSizeException, InvalidKeyException {
 
-        return ResourceObfuscator.unobfuscate(key, getRandomStringsForKey(appContext),
+        return ResourceObfuscator.unobfuscate(appContext, keyId,
+                                              getRandomStringsForKey(appContext),
                                               getRandomStringsForIv(appContext));
     }
 
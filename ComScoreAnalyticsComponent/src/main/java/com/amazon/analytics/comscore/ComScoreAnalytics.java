@@ -165,7 +165,7 @@ public class ComScoreAnalytics implements IAnalytics {
      */
     private String getClientId(Context context) throws Exception {
 
-        return ResourceObfuscator.unobfuscate(context.getString(R.string.encrypted_comscore_client_id),
+        return ResourceObfuscator.unobfuscate(context, R.string.encrypted_comscore_client_id,
                                               getRandomStringsForKey(context),
                                               getRandomStringsForIv(context));
     }
@@ -178,7 +178,8 @@ public class ComScoreAnalytics implements IAnalytics {
      */
     private String getPublisherSecret(Context context) throws Exception {
 
-        return ResourceObfuscator.unobfuscate(context.getString(R.string.encrypted_comscore_publisher_secret),
+        return ResourceObfuscator.unobfuscate(context,
+                                              R.string.encrypted_comscore_publisher_secret,
                                               getRandomStringsForKey(context),
                                               getRandomStringsForIv(context));
     }
@@ -299,4 +299,66 @@ public class RecentDatabaseHelperTest {
         assertEquals(0, recentDatabaseHelper.getUnfinishedRecords(context, 10000).size());
         
     }
+    
+    /**
+     * Test the playback location is compared to the grace period as a number.
+     */
+    @Test
+    public void testGetUnfinishedRecordsComparesNumbers() throws Exception {
+        
+        RecentDatabaseHelper recentDatabaseHelper = RecentDatabaseHelper.getInstance();
+        assertNotNull(recentDatabaseHelper);
+        Context context = InstrumentationRegistry.getContext();
+        recentDatabaseHelper.clearDatabase(context);
+        
+        // "9000" is greater than "10000" as a string but not as a number.
+        recentDatabaseHelper.addRecord(context, "ContentId1", 9000, false,
+                                       DateAndTimeHelper.getCurrentDate().getTime(), 20000);
+        assertEquals(0, recentDatabaseHelper.getUnfinishedRecords(context, 10000).size());
+    }
+    
+    /**
+     * Test pruning records by age and by count, over more records than one batch.
+     */
+    @Test
+    public void testPruneRecords() throws Exception {
+        
+        RecentDatabaseHelper recentDatabaseHelper = RecentDatabaseHelper.getInstance();
+        assertNotNull(recentDatabaseHelper);
+        Context context = InstrumentationRegistry.getContext();
+        recentDatabaseHelper.clearDatabase(context);
+        
+        long now = DateAndTimeHelper.getCurrentDate().getTime();
+        long day = 24 * 60 * 60 * 1000L;
+        int numOld = RecentDatabaseHelper.PRUNE_BATCH_SIZE + 50;
+        for (int i = 0; i < numOld; i++) {
+            recentDatabaseHelper.addRecord(context, "Old" + i, 0, false, now - 10 * day - i,
+                                           20000);
+        }
+        for (int i = 0; i < 20; i++) {
+            recentDatabaseHelper.addRecord(context, "New" + i, 0, false, now - i, 20000);
+        }
+        
+        // Nothing is old enough or beyond the count.
+        assertEquals(0, recentDatabaseHelper.pruneRecords(context, 30 * day, 1000));
+        
+        // Prune by age.
+        assertEquals(numOld, recentDatabaseHelper.pruneRecords(context, 5 * day, 0));
+        assertEquals(20, recentDatabaseHelper.getCount(context));
+        assertFalse(recentDatabaseHelper.recordExists(context, "Old0"));
+        
+        // Prune by count; the least recently watched go first.
+        assertEquals(15, recentDatabaseHelper.pruneRecords(context, 0, 5));
+        assertTrue(recentDatabaseHelper.recordExists(context, "New0"));
+        assertTrue(recentDatabaseHelper.recordExists(context, "New4"));
+        assertFalse(recentDatabaseHelper.recordExists(context, "New5"));
+        
+        RecentDatabaseHelper.PruneMetrics metrics = recentDatabaseHelper.getPruneMetrics();
+        assertEquals(5, metrics.getTableSize());
+        assertEquals(3, metrics.getPruneCount());
+        assertEquals(15, metrics.getLastPrunedCount());
+        assertEquals(numOld + 15, metrics.getTotalPrunedCount());
+        
+        recentDatabaseHelper.getDatabase(context).close();
+    }
 }
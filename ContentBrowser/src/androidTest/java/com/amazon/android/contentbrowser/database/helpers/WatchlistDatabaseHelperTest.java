@@ -27,7 +27,9 @@ import android.support.test.InstrumentationRegistry;
 import android.support.test.runner.AndroidJUnit4;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -205,4 +207,45 @@ public class WatchlistDatabaseHelperTest {
         watchlistDatabaseHelper.getDatabase(context).close();
         
     }
+    
+    /**
+     * Test reading, testing and deleting many records at once, with more ids than fit in a single
+     * query.
+     */
+    @Test
+    public void testBatchOperations() throws Exception {
+        
+        WatchlistDatabaseHelper watchlistDatabaseHelper = WatchlistDatabaseHelper.getInstance();
+        assertNotNull(watchlistDatabaseHelper);
+        Context context = InstrumentationRegistry.getContext();
+        watchlistDatabaseHelper.clearDatabase(context);
+        
+        List<String> requestedIds = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            if (i % 2 == 0) {
+                watchlistDatabaseHelper.addRecord(context, "id" + i);
+            }
+            requestedIds.add("id" + i);
+        }
+        
+        Map<String, WatchlistRecord> records =
+                watchlistDatabaseHelper.getRecords(context, requestedIds);
+        assertEquals("Only stored records should have been found.", 600, records.size());
+        assertEquals("Record id2 should have been found in database.",
+                     new WatchlistRecord("id2"), records.get("id2"));
+        assertFalse("Record id3 should not have been found.", records.containsKey("id3"));
+        
+        Map<String, Boolean> exist = watchlistDatabaseHelper.recordsExist(context, requestedIds);
+        assertEquals("Every requested id should have an answer.", 1200, exist.size());
+        assertTrue("Record should exist in database.", exist.get("id1198"));
+        assertFalse("Record should not exist in database.", exist.get("id1199"));
+        
+        assertEquals("All stored records should have been deleted.", 600,
+                     watchlistDatabaseHelper.deleteRecords(context, requestedIds));
+        assertEquals("No record should be left.", 0, watchlistDatabaseHelper.getCount(context));
+        assertTrue("Nothing should be found for no ids.",
+                   watchlistDatabaseHelper.getRecords(context, new ArrayList<>()).isEmpty());
+        
+        watchlistDatabaseHelper.getDatabase(context).close();
+    }
 }
@@ -35,6 +35,7 @@ import com.amazon.android.module.ModularApplication;
 import com.amazon.android.navigator.Navigator;
 import com.amazon.android.navigator.UINode;
 import com.amazon.android.recipe.Recipe;
+import com.amazon.android.scheduler.TaskExecutors;
 import com.amazon.android.search.ISearchAlgo;
 import com.amazon.android.search.ISearchResult;
 import com.amazon.android.search.SearchManager;
@@ -54,6 +55,7 @@ import android.app.Activity;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.support.v17.leanback.widget.SparseArrayObjectAdapter;
 import android.util.Log;
 
@@ -62,12 +64,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import rx.Observable;
+import rx.Subscriber;
 import rx.Subscription;
 import rx.android.schedulers.AndroidSchedulers;
-import rx.schedulers.Schedulers;
 import rx.subscriptions.CompositeSubscription;
+import rx.subscriptions.Subscriptions;
 
 import static com.amazon.android.contentbrowser.helper.LauncherIntegrationManager
         .getSourceOfContentPlayRequest;
@@ -82,11 +87,6 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
      */
     private static final String TAG = ContentBrowser.class.getSimpleName();
 
-    /**
-     * Debug recipe chain flag.
-     */
-    private static final boolean DEBUG_RECIPE_CHAIN = false;
-
     /**
      * Cause a feed error flag for debugging.
      */
@@ -466,6 +466,7 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
 
 
             List<String> contendIds = databaseHelper.getWatchlistContentIds(mAppContext);
+            List<String> invalidContentIds = new ArrayList<>();
 
             for (String contentId : contendIds) {
 
@@ -477,9 +478,10 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
                 // The content is no longer valid so remove from database.
                 else {
                     Log.d(TAG, "Content no longer valid");
-                    databaseHelper.deleteRecord(mAppContext, contentId);
+                    invalidContentIds.add(contentId);
                 }
             }
+            databaseHelper.deleteRecords(mAppContext, invalidContentIds);
         }
         return contentList;
     }
@@ -522,6 +524,28 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
         void onSearchRequested(String query, ISearchResult iSearchResult);
     }
 
+    /**
+     * Listener of a search that runs off the main thread. All methods are called on the main
+     * thread.
+     */
+    public interface ISearchProgressListener {
+
+        /**
+         * Called with the results of one category as soon as the category has been searched.
+         *
+         * @param results The content of the category that matched, never empty.
+         */
+        void onCategoryResults(List<Content> results);
+
+        /**
+         * Called once all categories have been searched. It is not called for a cancelled or
+         * failed search.
+         *
+         * @param latencyMs The time from the start of the search until it completed.
+         */
+        void onSearchCompleted(long latencyMs);
+    }
+
     /**
      * Root content container listener.
      */
@@ -669,6 +693,7 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
             public void onApplicationGoesToBackground() {
 
                 Log.d(TAG, "onApplicationGoesToBackground:");
+                pruneRecentRecords();
                 if (mCompositeSubscription.hasSubscriptions()) {
                     Log.d(TAG, "mCompositeSubscription.unsubscribe");
                     mCompositeSubscription.unsubscribe();
@@ -1230,6 +1255,157 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
         }
     }
 
+    /**
+     * Search content off the main thread. The top level containers of the root container are
+     * searched one after the other, and the results of each are passed to the listener as soon
+     * as it is done, so results can be shown before the whole catalog has been searched. Content
+     * is visited in the same order as searching the whole root container: content directly in
+     * the root container first, then the containers in reverse order. The containers to search
+     * are taken when this is called, so a root container loaded during the search is not mixed
+     * in. With a custom search handler, all results are passed at once when the handler reports
+     * it is done; the handler is called on the calling thread, the same as by
+     * {@link #search(String, ISearchResult)}.
+     *
+     * @param query    Query string.
+     * @param listener Search progress listener.
+     * @return The subscription of the search; unsubscribe to cancel it.
+     */
+    public Subscription searchInBackground(String query, ISearchProgressListener listener) {
+
+        long startTime = SystemClock.elapsedRealtime();
+        Observable<List<Content>> search;
+        if (mICustomSearchHandler != null) {
+            search = Observable.create(
+                    (Observable.OnSubscribe<List<Content>>) subscriber ->
+                            searchWithCustomHandler(query, subscriber));
+        }
+        else {
+            // The content loader replaces the root container when it reloads, so take its
+            // containers here rather than on the search thread.
+            ContentContainer root = mContentLoader.getRootContentContainer();
+            String rootName = root.getName();
+            List<Content> rootContents = new ArrayList<>(root.getContents());
+            List<ContentContainer> topLevel = new ArrayList<>(root.getContentContainers());
+            AtomicBoolean cancelled = new AtomicBoolean();
+            search = Observable
+                    .create((Observable.OnSubscribe<List<Content>>) subscriber -> {
+                        subscriber.add(Subscriptions.create(() -> cancelled.set(true)));
+                        searchByCategory(query, rootName, rootContents, topLevel, subscriber,
+                                         cancelled);
+                    })
+                    .subscribeOn(TaskExecutors.uiCriticalScheduler());
+        }
+
+        return search
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(listener::onCategoryResults,
+                           throwable -> Log.e(TAG, "Search for " + query + " failed", throwable),
+                           () -> listener.onSearchCompleted(
+                                   SystemClock.elapsedRealtime() - startTime));
+    }
+
+    /**
+     * Search the top level containers of the root container one after the other and emit the
+     * results of each. The containers and their sub containers are visited in the order of
+     * {@link ContentContainer#iterator()}, so the results are ordered as before they were
+     * streamed.
+     *
+     * @param query        Query string.
+     * @param rootName     Name of the root container.
+     * @param rootContents Content directly in the root container.
+     * @param topLevel     Top level containers of the root container.
+     * @param subscriber   The subscriber to emit results to.
+     * @param cancelled    Set when the search is cancelled.
+     */
+    private void searchByCategory(String query, String rootName, List<Content> rootContents,
+                                  List<ContentContainer> topLevel,
+                                  Subscriber<? super List<Content>> subscriber,
+                                  AtomicBoolean cancelled) {
+
+        List<ContentContainer> categories = new ArrayList<>();
+        if (!rootContents.isEmpty()) {
+            ContentContainer rootCategory = new ContentContainer(rootName);
+            for (Content content : rootContents) {
+                rootCategory.addContent(content);
+            }
+            categories.add(rootCategory);
+        }
+        for (int i = topLevel.size() - 1; i >= 0; i--) {
+            List<ContentContainer> subtree = new ArrayList<>();
+            addSubtree(subtree, topLevel.get(i));
+            ContentContainer categoryContents = new ContentContainer(topLevel.get(i).getName());
+            for (int j = subtree.size() - 1; j >= 0; j--) {
+                for (Content content : subtree.get(j).getContents()) {
+                    categoryContents.addContent(content);
+                }
+            }
+            categories.add(categoryContents);
+        }
+
+        for (ContentContainer category : categories) {
+            List<Content> results = new ArrayList<>();
+            boolean completed = mSearchManager.syncSearch(DEFAULT_SEARCH_ALGO_NAME, query,
+                                                          (t, done) -> {
+                                                              if (!done) {
+                                                                  results.add((Content) t);
+                                                              }
+                                                          },
+                                                          category, cancelled);
+            if (!completed) {
+                return;
+            }
+            if (!results.isEmpty()) {
+                subscriber.onNext(results);
+            }
+        }
+        subscriber.onCompleted();
+    }
+
+    /**
+     * Add a container and all its sub containers to a list, each container before its sub
+     * containers.
+     *
+     * @param containers The list to add to.
+     * @param container  The container.
+     */
+    private static void addSubtree(List<ContentContainer> containers,
+                                   ContentContainer container) {
+
+        containers.add(container);
+        for (ContentContainer subContainer : container.getContentContainers()) {
+            addSubtree(containers, subContainer);
+        }
+    }
+
+    /**
+     * Search with the custom search handler and emit all results once it is done.
+     *
+     * @param query      Query string.
+     * @param subscriber The subscriber to emit results to.
+     */
+    private void searchWithCustomHandler(String query,
+                                         Subscriber<? super List<Content>> subscriber) {
+
+        List<Content> results = new ArrayList<>();
+        mICustomSearchHandler.onSearchRequested(query, (t, done) -> {
+            if (subscriber.isUnsubscribed()) {
+                return;
+            }
+            synchronized (results) {
+                if (!done) {
+                    if (t instanceof Content) {
+                        results.add((Content) t);
+                    }
+                    return;
+                }
+                if (!results.isEmpty()) {
+                    subscriber.onNext(new ArrayList<>(results));
+                }
+            }
+            subscriber.onCompleted();
+        });
+    }
+
     /**
      * Setting action selected.
      *
@@ -1512,9 +1688,7 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
         RecentRecord record = null;
         RecentDatabaseHelper databaseHelper = RecentDatabaseHelper.getInstance();
         if (databaseHelper != null) {
-            if (databaseHelper.recordExists(mAppContext, content.getId())) {
-                record = databaseHelper.getRecord(mAppContext, content.getId());
-            }
+            record = databaseHelper.getRecord(mAppContext, content.getId());
         }
         else {
             Log.e(TAG, "Unable to load content because database is null");
@@ -1549,6 +1723,22 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
         return contentList;
     }
 
+    /**
+     * Prune the recent records in the background, following the retention values located in the
+     * custom.xml as recent_retention_max_age_days and recent_retention_max_count.
+     */
+    private void pruneRecentRecords() {
+
+        RecentDatabaseHelper databaseHelper = RecentDatabaseHelper.getInstance();
+        if (databaseHelper != null) {
+            long maxAgeMs = TimeUnit.DAYS.toMillis(mAppContext.getResources().getInteger(
+                    R.integer.recent_retention_max_age_days));
+            int maxCount = mAppContext.getResources().getInteger(
+                    R.integer.recent_retention_max_count);
+            databaseHelper.schedulePrune(mAppContext, maxAgeMs, maxCount);
+        }
+    }
+
     /**
      * Set subscribed flag.
      *
@@ -1996,54 +2186,19 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
 
 
     /**
-     * Run global recipes.
+     * Run global recipes. If the content is already being loaded, for example to send
+     * recommendations, this joins that load instead of starting another one, see
+     * {@link ContentLoader#loadRootContentContainer()}.
      */
     public void runGlobalRecipes(Activity activity, ICancellableLoad cancellable) {
 
-        final ContentContainer root = new ContentContainer("Root");
         Subscription subscription =
-                Observable.range(0, mNavigator.getNavigatorModel().getGlobalRecipes().size())
-                          // Do this first to make sure were running in new thread right a way.
-                          .subscribeOn(Schedulers.newThread())
-                          .concatMap(index -> mContentLoader.runGlobalRecipeAtIndex(index, root))
-                          .onBackpressureBuffer() // This must be right after concatMap.
-                          .doOnNext(o -> {
-                              if (DEBUG_RECIPE_CHAIN) {
-                                  Log.d(TAG, "doOnNext");
-                              }
-                          })
-                          // This should be last so the rest is running on a separate thread.
-                          .observeOn(AndroidSchedulers.mainThread())
-                          .subscribe(objectPair -> {
-                              if (DEBUG_RECIPE_CHAIN) {
-                                  Log.d(TAG, "subscriber onNext called");
-                              }
-                          }, throwable -> {
-                              Log.e(TAG, "Recipe chain failed:", throwable);
-                              ErrorHelper.injectErrorFragment(
-                                      mNavigator.getActiveActivity(),
-                                      ErrorUtils.ERROR_CATEGORY.FEED_ERROR,
-                                      (errorDialogFragment, errorButtonType,
-                                       errorCategory) -> {
-                                          if (errorButtonType ==
-                                                  ErrorUtils.ERROR_BUTTON_TYPE.EXIT_APP) {
-                                              mNavigator.getActiveActivity().finishAffinity();
-                                          }
-                                      });
-
-                          }, () -> {
-
-                              Log.v(TAG, "Recipe chain completed");
-                              // Remove empty sub containers.
-                              root.removeEmptySubContainers();
-
-                              mContentLoader.setRootContentContainer(root);
+                mContentLoader.loadRootContentContainer()
+                          .subscribe(root -> {
                               if (mIRootContentContainerListener != null) {
                                   mIRootContentContainerListener.onRootContentContainerPopulated
-                                          (mContentLoader.getRootContentContainer());
+                                          (root);
                               }
-                              mContentLoader.setContentReloadRequired(false);
-                              mContentLoader.setContentLoaded(true);
                               if (cancellable != null && cancellable.isLoadingCancelled()) {
                                   Log.d(TAG, "Content load complete but app has been cancelled, " +
                                           "returning from here");
@@ -2145,6 +2300,19 @@ public class ContentBrowser implements IContentBrowser, ICancellableLoad {
                                       switchToHomeScreen();
                                   }
                               }
+                          }, throwable -> {
+                              Log.e(TAG, "Recipe chain failed:", throwable);
+                              ErrorHelper.injectErrorFragment(
+                                      mNavigator.getActiveActivity(),
+                                      ErrorUtils.ERROR_CATEGORY.FEED_ERROR,
+                                      (errorDialogFragment, errorButtonType,
+                                       errorCategory) -> {
+                                          if (errorButtonType ==
+                                                  ErrorUtils.ERROR_BUTTON_TYPE.EXIT_APP) {
+                                              mNavigator.getActiveActivity().finishAffinity();
+                                          }
+                                      });
+
                           });
 
         mCompositeSubscription.add(subscription);
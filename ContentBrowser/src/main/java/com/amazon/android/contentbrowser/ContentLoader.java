@@ -22,6 +22,7 @@ import com.amazon.android.navigator.Navigator;
 import com.amazon.android.navigator.NavigatorModel;
 import com.amazon.android.navigator.NavigatorModelParser;
 import com.amazon.android.recipe.Recipe;
+import com.amazon.android.scheduler.TaskExecutors;
 import com.amazon.dataloader.dataloadmanager.DataLoadManager;
 import com.amazon.dynamicparser.DynamicParser;
 import com.amazon.utils.model.Data;
@@ -35,6 +36,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import rx.Observable;
+import rx.android.schedulers.AndroidSchedulers;
 
 /**
  * Class that initializes the content for the app. This includes running the recipes that download
@@ -92,6 +94,17 @@ public class ContentLoader {
      */
     private ContentContainer mRootContentContainer = new ContentContainer("Root");
 
+    /**
+     * The running load of the root content container, shared by all its subscribers; null when no
+     * load is running.
+     */
+    private Observable<ContentContainer> mSharedLoad;
+
+    /**
+     * Id of the latest shared load, so a finished load does not clear a newer one.
+     */
+    private int mSharedLoadId;
+
     /**
      * Constructor. Initializes the {@link NavigatorModel}, {@link DataLoadManager}, and
      * {@link DynamicParser} that is required to load data.
@@ -326,9 +339,16 @@ public class ContentLoader {
 
         // Add any extra configurations that the parser recipe needs from the navigator recipe.
         if (recipe.getRecipeConfig() != null) {
-            // Add if the recipe is for live feed data.
-            dynamicParserRecipeForContents.getMap().put(Recipe.LIVE_FEED_TAG,
-                                                        recipe.getRecipeConfig().liveContent);
+            // Add if the recipe is for live feed data. The recipe map cannot be modified, so a
+            // changed copy is set, and only when the value changes so that the recipe keeps its
+            // resolved items on later runs.
+            Boolean liveContent = recipe.getRecipeConfig().liveContent;
+            Map recipeMap = dynamicParserRecipeForContents.getMap();
+            if (!liveContent.equals(recipeMap.get(Recipe.LIVE_FEED_TAG))) {
+                Map<Object, Object> changedMap = new HashMap<>(recipeMap);
+                changedMap.put(Recipe.LIVE_FEED_TAG, liveContent);
+                dynamicParserRecipeForContents.setMap(changedMap);
+            }
         }
 
         String hardCodedCategoryName = recipe.getCategories().name;
@@ -341,6 +361,70 @@ public class ContentLoader {
                                          root);
     }
 
+    /**
+     * Load the root content container by running all global recipes. The load is shared: while
+     * it runs, every call returns the same observable, so the feeds are downloaded and parsed once
+     * no matter how many screens and services wait for them. The load keeps running as long as it
+     * has at least one subscriber and is stopped when the last one unsubscribes; a call after the
+     * load finished or stopped starts a new load.
+     *
+     * When the load completes, the root content container, the content loaded flag and the
+     * content reload required flag of this loader are updated on the main thread, before the
+     * root is emitted to the subscribers.
+     *
+     * @return An observable emitting the loaded root content container on the main thread.
+     */
+    public synchronized Observable<ContentContainer> loadRootContentContainer() {
+
+        if (mSharedLoad == null) {
+            final int loadId = ++mSharedLoadId;
+            mSharedLoad = Observable
+                    .defer(() -> {
+                        ContentContainer root = new ContentContainer("Root");
+                        return Observable
+                                .range(0, mNavigatorModel.getGlobalRecipes().size())
+                                .concatMap(index -> runGlobalRecipeAtIndex(index, root))
+                                .onBackpressureBuffer() // This must be right after concatMap.
+                                .doOnNext(o -> {
+                                    if (DEBUG_RECIPE_CHAIN) {
+                                        Log.d(TAG, "doOnNext");
+                                    }
+                                })
+                                .ignoreElements()
+                                .cast(ContentContainer.class)
+                                .concatWith(Observable.just(root));
+                    })
+                    // Do this first to make sure were running in the I/O pool right a way.
+                    .subscribeOn(TaskExecutors.ioScheduler())
+                    .observeOn(AndroidSchedulers.mainThread())
+                    .doOnNext(root -> {
+                        Log.v(TAG, "Recipe chain completed");
+                        // Remove empty sub containers.
+                        root.removeEmptySubContainers();
+
+                        setRootContentContainer(root);
+                        setContentReloadRequired(false);
+                        setContentLoaded(true);
+                    })
+                    .doOnTerminate(() -> clearSharedLoad(loadId))
+                    .doOnUnsubscribe(() -> clearSharedLoad(loadId))
+                    .share();
+        }
+        return mSharedLoad;
+    }
+
+    /**
+     * Forget a shared load that finished or stopped.
+     *
+     * @param loadId The id of the load.
+     */
+    private synchronized void clearSharedLoad(int loadId) {
+
+        if (loadId == mSharedLoadId) {
+            mSharedLoad = null;
+        }
+    }
+
     /**
      * Run recommendation recipe at index.
      *
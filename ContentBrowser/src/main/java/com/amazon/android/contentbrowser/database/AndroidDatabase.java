@@ -0,0 +1,241 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.Map;
+
+/**
+ * The {@link IDatabase} implementation running on an Android {@link SQLiteDatabase}.
+ */
+public class AndroidDatabase implements IDatabase {
+
+    /**
+     * The SQLiteDatabase instance.
+     */
+    private final SQLiteDatabase mDB;
+
+    /**
+     * Constructor.
+     *
+     * @param db The SQLiteDatabase.
+     */
+    public AndroidDatabase(SQLiteDatabase db) {
+
+        mDB = db;
+    }
+
+    /**
+     * Get the wrapped database.
+     *
+     * @return The SQLiteDatabase.
+     */
+    public SQLiteDatabase getSQLiteDatabase() {
+
+        return mDB;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDatabaseCursor rawQuery(String sql, String[] selectionArgs) {
+
+        Cursor cursor = mDB.rawQuery(sql, selectionArgs);
+        return cursor != null ? new AndroidCursor(cursor) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long insert(String table, DatabaseValues values) {
+
+        return mDB.insert(table, null, toContentValues(values));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int update(String table, DatabaseValues values, String whereClause,
+                      String[] whereArgs) {
+
+        return mDB.update(table, toContentValues(values), whereClause, whereArgs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int delete(String table, String whereClause, String[] whereArgs) {
+
+        return mDB.delete(table, whereClause, whereArgs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execSQL(String sql) {
+
+        mDB.execSQL(sql);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long queryNumEntries(String table) {
+
+        return DatabaseUtils.queryNumEntries(mDB, table);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void beginTransaction() {
+
+        mDB.beginTransaction();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setTransactionSuccessful() {
+
+        mDB.setTransactionSuccessful();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endTransaction() {
+
+        mDB.endTransaction();
+    }
+
+    /**
+     * Copy database values to content values.
+     *
+     * @param values The database values.
+     * @return The content values.
+     */
+    private static ContentValues toContentValues(DatabaseValues values) {
+
+        ContentValues contentValues = new ContentValues(values.size());
+        for (Map.Entry<String, Object> entry : values.valueSet()) {
+            Object value = entry.getValue();
+            if (value == null) {
+                contentValues.putNull(entry.getKey());
+            }
+            else if (value instanceof Boolean) {
+                contentValues.put(entry.getKey(), (Boolean) value);
+            }
+            else if (value instanceof Integer) {
+                contentValues.put(entry.getKey(), (Integer) value);
+            }
+            else if (value instanceof Long) {
+                contentValues.put(entry.getKey(), (Long) value);
+            }
+            else {
+                contentValues.put(entry.getKey(), value.toString());
+            }
+        }
+        return contentValues;
+    }
+
+    /**
+     * The {@link IDatabaseCursor} implementation over an Android {@link Cursor}.
+     */
+    private static class AndroidCursor implements IDatabaseCursor {
+
+        /**
+         * The cursor.
+         */
+        private final Cursor mCursor;
+
+        /**
+         * Constructor.
+         *
+         * @param cursor The cursor.
+         */
+        AndroidCursor(Cursor cursor) {
+
+            mCursor = cursor;
+        }
+
+        @Override
+        public boolean moveToFirst() {
+
+            return mCursor.moveToFirst();
+        }
+
+        @Override
+        public boolean moveToNext() {
+
+            return mCursor.moveToNext();
+        }
+
+        @Override
+        public int getCount() {
+
+            return mCursor.getCount();
+        }
+
+        @Override
+        public int getColumnIndex(String columnName) {
+
+            return mCursor.getColumnIndex(columnName);
+        }
+
+        @Override
+        public String getString(int columnIndex) {
+
+            return mCursor.getString(columnIndex);
+        }
+
+        @Override
+        public int getInt(int columnIndex) {
+
+            return mCursor.getInt(columnIndex);
+        }
+
+        @Override
+        public long getLong(int columnIndex) {
+
+            return mCursor.getLong(columnIndex);
+        }
+
+        @Override
+        public boolean isNull(int columnIndex) {
+
+            return mCursor.isNull(columnIndex);
+        }
+
+        @Override
+        public void close() {
+
+            mCursor.close();
+        }
+    }
+}
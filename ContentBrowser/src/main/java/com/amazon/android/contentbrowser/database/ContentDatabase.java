@@ -44,7 +44,19 @@ public class ContentDatabase extends SQLiteOpenHelper {
      * The database version. If this is changed onUpgrade will be called. Put any logic needed to
      * change or maintain database in that method.
      */
-    private static int DATABASE_VERSION = 3;
+    private static int DATABASE_VERSION = 5;
+    
+    /**
+     * The statements creating the tables and indexes of the current database version, in order.
+     */
+    static final String[] SQL_CREATE_STATEMENTS = {
+            RecommendationTable.SQL_CREATE_TABLE,
+            RecommendationTable.SQL_CREATE_EXPIRATION_INDEX,
+            RecentTable.SQL_CREATE_TABLE,
+            RecentTable.SQL_CREATE_UNFINISHED_INDEX,
+            RecentTable.SQL_CREATE_LAST_WATCHED_INDEX,
+            WatchlistTable.SQL_CREATE_TABLE
+    };
     
     /**
      * The SQLiteDatabase instance.
@@ -125,6 +137,13 @@ public class ContentDatabase extends SQLiteOpenHelper {
         if (oldVersion < 3 && newVersion >= 3) {
             db.execSQL(WatchlistTable.SQL_CREATE_TABLE);
         }
+        if (oldVersion < 4 && newVersion >= 4) {
+            db.execSQL(RecentTable.SQL_CREATE_UNFINISHED_INDEX);
+            db.execSQL(RecentTable.SQL_CREATE_LAST_WATCHED_INDEX);
+        }
+        if (oldVersion < 5 && newVersion >= 5) {
+            db.execSQL(RecommendationTable.SQL_CREATE_EXPIRATION_INDEX);
+        }
     }
     
     /**
@@ -136,9 +155,9 @@ public class ContentDatabase extends SQLiteOpenHelper {
     private boolean createTables(SQLiteDatabase db) {
         
         try {
-            db.execSQL(RecommendationTable.SQL_CREATE_TABLE);
-            db.execSQL(RecentTable.SQL_CREATE_TABLE);
-            db.execSQL(WatchlistTable.SQL_CREATE_TABLE);
+            for (String statement : SQL_CREATE_STATEMENTS) {
+                db.execSQL(statement);
+            }
         }
         catch (Exception e) {
             Log.e(TAG, "Error creating database tables: " + e);
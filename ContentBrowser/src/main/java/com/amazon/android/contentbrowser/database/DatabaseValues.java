@@ -0,0 +1,115 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.database;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The column values of a row to insert or update, like {@link android.content.ContentValues} but
+ * usable without Android. Values are kept in the order they were put.
+ */
+public class DatabaseValues {
+
+    /**
+     * Map from column name to value.
+     */
+    private final Map<String, Object> mValues = new LinkedHashMap<>();
+
+    /**
+     * Put a string value.
+     *
+     * @param column The column name.
+     * @param value  The value.
+     */
+    public void put(String column, String value) {
+
+        mValues.put(column, value);
+    }
+
+    /**
+     * Put an integer value.
+     *
+     * @param column The column name.
+     * @param value  The value.
+     */
+    public void put(String column, Integer value) {
+
+        mValues.put(column, value);
+    }
+
+    /**
+     * Put a long value.
+     *
+     * @param column The column name.
+     * @param value  The value.
+     */
+    public void put(String column, Long value) {
+
+        mValues.put(column, value);
+    }
+
+    /**
+     * Put a boolean value. SQLite stores it as 1 or 0.
+     *
+     * @param column The column name.
+     * @param value  The value.
+     */
+    public void put(String column, Boolean value) {
+
+        mValues.put(column, value);
+    }
+
+    /**
+     * Get a value.
+     *
+     * @param column The column name.
+     * @return The value, or null if there is no value for the column.
+     */
+    public Object get(String column) {
+
+        return mValues.get(column);
+    }
+
+    /**
+     * Get the number of values.
+     *
+     * @return The number of values.
+     */
+    public int size() {
+
+        return mValues.size();
+    }
+
+    /**
+     * Get the values.
+     *
+     * @return Unmodifiable set of the column name and value entries, in the order they were put.
+     */
+    public Set<Map.Entry<String, Object>> valueSet() {
+
+        return Collections.unmodifiableMap(mValues).entrySet();
+    }
+
+    @Override
+    public String toString() {
+
+        return "DatabaseValues{" +
+                "mValues=" + mValues +
+                '}';
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.database;
+
+/**
+ * The database operations used by the tables of the content database. The tables and helpers only
+ * use this interface, so their logic can run on the Android SQLite database through
+ * {@link AndroidDatabase} or on any other SQLite database, like an embedded one on the JVM. The
+ * methods behave like the {@link android.database.sqlite.SQLiteDatabase} methods of the same
+ * name.
+ */
+public interface IDatabase {
+
+    /**
+     * Run a query.
+     *
+     * @param sql           The SQL query. It may contain ? placeholders.
+     * @param selectionArgs The values of the placeholders, bound as strings, or null.
+     * @return A cursor over the result, positioned before the first row. The caller closes it.
+     */
+    IDatabaseCursor rawQuery(String sql, String[] selectionArgs);
+
+    /**
+     * Insert a row.
+     *
+     * @param table  The table name.
+     * @param values The column values of the row.
+     * @return The row id of the new row, or -1 if there was an error.
+     */
+    long insert(String table, DatabaseValues values);
+
+    /**
+     * Update rows.
+     *
+     * @param table       The table name.
+     * @param values      The column values to set.
+     * @param whereClause The WHERE clause, without the WHERE keyword, or null to update all rows.
+     * @param whereArgs   The values of the placeholders of the WHERE clause, or null.
+     * @return The number of rows updated.
+     */
+    int update(String table, DatabaseValues values, String whereClause, String[] whereArgs);
+
+    /**
+     * Delete rows.
+     *
+     * @param table       The table name.
+     * @param whereClause The WHERE clause, without the WHERE keyword, or null to delete all rows.
+     * @param whereArgs   The values of the placeholders of the WHERE clause, or null.
+     * @return The number of rows deleted.
+     */
+    int delete(String table, String whereClause, String[] whereArgs);
+
+    /**
+     * Run a single SQL statement that returns no data.
+     *
+     * @param sql The SQL statement.
+     */
+    void execSQL(String sql);
+
+    /**
+     * Count the rows of a table.
+     *
+     * @param table The table name.
+     * @return The number of rows.
+     */
+    long queryNumEntries(String table);
+
+    /**
+     * Begin a transaction. Transactions can be nested; the changes are only committed if every
+     * nested transaction was marked successful.
+     */
+    void beginTransaction();
+
+    /**
+     * Mark the current transaction as successful.
+     */
+    void setTransactionSuccessful();
+
+    /**
+     * End the current transaction, committing or rolling back the changes when it is the
+     * outermost one.
+     */
+    void endTransaction();
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.database;
+
+/**
+ * A cursor over the rows returned by {@link IDatabase#rawQuery(String, String[])}. The methods
+ * behave like the {@link android.database.Cursor} methods of the same name.
+ */
+public interface IDatabaseCursor {
+
+    /**
+     * Move to the first row.
+     *
+     * @return False if there are no rows; true otherwise.
+     */
+    boolean moveToFirst();
+
+    /**
+     * Move to the next row.
+     *
+     * @return False if the cursor was on the last row; true otherwise.
+     */
+    boolean moveToNext();
+
+    /**
+     * Get the number of rows.
+     *
+     * @return The number of rows.
+     */
+    int getCount();
+
+    /**
+     * Get the index of a column.
+     *
+     * @param columnName The column name.
+     * @return The zero based index, or -1 if there is no such column.
+     */
+    int getColumnIndex(String columnName);
+
+    /**
+     * Get the value of a column of the current row as a string.
+     *
+     * @param columnIndex The zero based column index.
+     * @return The value, or null if it is null.
+     */
+    String getString(int columnIndex);
+
+    /**
+     * Get the value of a column of the current row as an int.
+     *
+     * @param columnIndex The zero based column index.
+     * @return The value, or 0 if it is null.
+     */
+    int getInt(int columnIndex);
+
+    /**
+     * Get the value of a column of the current row as a long.
+     *
+     * @param columnIndex The zero based column index.
+     * @return The value, or 0 if it is null.
+     */
+    long getLong(int columnIndex);
+
+    /**
+     * Check if the value of a column of the current row is null.
+     *
+     * @param columnIndex The zero based column index.
+     * @return True if the value is null; false otherwise.
+     */
+    boolean isNull(int columnIndex);
+
+    /**
+     * Close the cursor, releasing its resources.
+     */
+    void close();
+}
@@ -14,7 +14,9 @@
  */
 package com.amazon.android.contentbrowser.database.helpers;
 
+import com.amazon.android.contentbrowser.database.AndroidDatabase;
 import com.amazon.android.contentbrowser.database.ContentDatabase;
+import com.amazon.android.contentbrowser.database.IDatabase;
 import com.amazon.android.contentbrowser.database.records.Record;
 import com.amazon.android.contentbrowser.database.tables.Table;
 import com.amazon.utils.StringManipulation;
@@ -24,6 +26,10 @@ import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
 import android.util.Log;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * A base helper class for the use of the content database. This helper class contains method
  * signatures for basic CRUD methods for the database. Other classes should extend this class and
@@ -38,6 +44,11 @@ public abstract class DatabaseHelper {
      */
     private Table mTable;
 
+    /**
+     * The database used instead of the content database, or null to use the content database.
+     */
+    private volatile IDatabase mDatabaseOverride;
+
     /**
      * Constructor.
      * @param table The database table.
@@ -71,6 +82,34 @@ public abstract class DatabaseHelper {
         return null;
     }
     
+    /**
+     * Get the database the table operations run on. This is the content database unless another
+     * database was set with {@link #setDatabaseOverride(IDatabase)}.
+     *
+     * @param context The context.
+     * @return The database, or null if the content database can not be instantiated.
+     */
+    IDatabase getTableDatabase(Context context) {
+        
+        IDatabase override = mDatabaseOverride;
+        if (override != null) {
+            return override;
+        }
+        SQLiteDatabase db = getDatabase(context);
+        return db != null ? new AndroidDatabase(db) : null;
+    }
+    
+    /**
+     * Run the table operations of this helper on the given database instead of the content
+     * database. This lets the helper run without a device, on an embedded SQLite database.
+     *
+     * @param database The database, or null to go back to the content database.
+     */
+    public void setDatabaseOverride(IDatabase database) {
+        
+        mDatabaseOverride = database;
+    }
+    
     /**
      * Delete a record from the database that matches the content id.
      *
@@ -84,9 +123,24 @@ public abstract class DatabaseHelper {
             Log.e(TAG, "Content id cannot be null or empty when deleting a record from database");
             return false;
         }
-        return mTable.deleteByContentId(getDatabase(context), contentId);
+        return mTable.deleteByContentId(getTableDatabase(context), contentId);
     }
     
+    /**
+     * Delete the records from the database that match any of the content ids.
+     *
+     * @param context    The context.
+     * @param contentIds The content ids.
+     * @return The number of records deleted.
+     */
+    public int deleteRecords(Context context, Collection<String> contentIds) {
+
+        if (contentIds == null || contentIds.isEmpty()) {
+            return 0;
+        }
+        return mTable.deleteByContentIds(getTableDatabase(context), contentIds);
+    }
+
     /**
      * Clear the database of all records.
      *
@@ -94,7 +148,7 @@ public abstract class DatabaseHelper {
      */
     public void clearDatabase(Context context) {
 
-        mTable.deleteAll(getDatabase(context));
+        mTable.deleteAll(getTableDatabase(context));
     }
     
     /**
@@ -111,9 +165,25 @@ public abstract class DatabaseHelper {
             return null;
         }
 
-        return mTable.read(getDatabase(context), contentId);
+        return mTable.read(getTableDatabase(context), contentId);
     }
     
+    /**
+     * Get the records from the database that match any of the content ids.
+     *
+     * @param context    The context.
+     * @param contentIds The content ids.
+     * @return Map from content id to record, containing only the content ids that were found.
+     */
+    public Map<String, ? extends Record> getRecords(Context context,
+                                                    Collection<String> contentIds) {
+
+        if (contentIds == null || contentIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return mTable.readByContentIds(getTableDatabase(context), contentIds);
+    }
+
     /**
      * Test for a existence of a record with the given content id in the database.
      *
@@ -123,10 +193,30 @@ public abstract class DatabaseHelper {
      */
     public boolean recordExists(Context context, String contentId) {
 
-        long rowId = mTable.findRowId(getDatabase(context), contentId);
+        long rowId = mTable.findRowId(getTableDatabase(context), contentId);
         return (rowId != -1);
     }
     
+    /**
+     * Test for the existence of records with the given content ids in the database.
+     *
+     * @param context    The context.
+     * @param contentIds The content ids.
+     * @return Map from each content id to true if a record was found for it; false otherwise.
+     */
+    public Map<String, Boolean> recordsExist(Context context, Collection<String> contentIds) {
+
+        Map<String, Boolean> exist = new HashMap<>();
+        if (contentIds == null || contentIds.isEmpty()) {
+            return exist;
+        }
+        Map<String, Long> rowIds = mTable.findRowIds(getTableDatabase(context), contentIds);
+        for (String contentId : contentIds) {
+            exist.put(contentId, rowIds.containsKey(contentId));
+        }
+        return exist;
+    }
+
     /**
      * Get the count of records in the database.
      *
@@ -135,7 +225,7 @@ public abstract class DatabaseHelper {
      */
     public int getCount(Context context) {
 
-        return mTable.getCount(getDatabase(context));
+        return mTable.getCount(getTableDatabase(context));
     }
     
     /**
@@ -146,7 +236,7 @@ public abstract class DatabaseHelper {
      */
     public boolean purgeExpiredRecords(Context context) {
 
-        return mTable.purge(getDatabase(context));
+        return mTable.purge(getTableDatabase(context));
     }
     
     /**
@@ -158,7 +248,7 @@ public abstract class DatabaseHelper {
      */
     boolean writeRecord(Context context, Record record) {
 
-        long rowId = getTable().write(getDatabase(context), record);
+        long rowId = getTable().write(getTableDatabase(context), record);
         return (rowId != -1);
     }
 }
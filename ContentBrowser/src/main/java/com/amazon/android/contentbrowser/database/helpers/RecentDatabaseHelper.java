@@ -15,14 +15,20 @@
 package com.amazon.android.contentbrowser.database.helpers;
 
 
+import com.amazon.android.contentbrowser.database.IDatabase;
 import com.amazon.android.contentbrowser.database.records.RecentRecord;
 import com.amazon.android.contentbrowser.database.tables.RecentTable;
+import com.amazon.android.scheduler.TaskExecutors;
+import com.amazon.utils.DateAndTimeHelper;
 import com.amazon.utils.StringManipulation;
 
 import android.content.Context;
 import android.util.Log;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Helper database class that has all the functionality specific to the {@link RecentTable}.
@@ -36,6 +42,47 @@ public class RecentDatabaseHelper extends DatabaseHelper {
      */
     private static RecentDatabaseHelper sInstance;
     
+    /**
+     * The maximum number of records deleted by one statement while pruning, so other database
+     * users never wait long for a prune to finish.
+     */
+    static final int PRUNE_BATCH_SIZE = 100;
+    
+    /**
+     * Lock guarding the prune metrics.
+     */
+    private final Object mMetricsLock = new Object();
+    
+    /**
+     * The number of records in the table after the last prune, or -1 before the first prune.
+     */
+    private long mTableSize = -1;
+    
+    /**
+     * The number of prunes run.
+     */
+    private int mPruneCount;
+    
+    /**
+     * The number of records deleted by the last prune.
+     */
+    private int mLastPrunedCount;
+    
+    /**
+     * The number of records deleted by all prunes.
+     */
+    private long mTotalPrunedCount;
+    
+    /**
+     * The duration of the last prune in milliseconds.
+     */
+    private long mLastPruneMs;
+    
+    /**
+     * The duration of the longest prune in milliseconds.
+     */
+    private long mMaxPruneMs;
+    
     /**
      * Get the recent database helper instance.
      *
@@ -101,7 +148,215 @@ public class RecentDatabaseHelper extends DatabaseHelper {
      */
     public List<RecentRecord> getUnfinishedRecords(Context context, int gracePeriod) {
         
-        return ((RecentTable) getTable()).getUnFinishedRecords(getDatabase(context), gracePeriod);
+        return ((RecentTable) getTable()).getUnFinishedRecords(getTableDatabase(context),
+                                                               gracePeriod);
+        
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, RecentRecord> getRecords(Context context, Collection<String> contentIds) {
+        
+        return (Map<String, RecentRecord>) super.getRecords(context, contentIds);
+    }
+    
+    /**
+     * Prune the recent records on the batch thread pool. See
+     * {@link #pruneRecords(Context, long, int)}.
+     *
+     * @param maxAgeMs The maximum time since a record was last watched in milliseconds, or 0 to
+     *                 keep records of any age.
+     * @param maxCount The maximum number of records to keep, or 0 to keep any number.
+     */
+    public void schedulePrune(Context context, final long maxAgeMs, final int maxCount) {
+        
+        final Context appContext = context.getApplicationContext();
+        try {
+            TaskExecutors.batch().execute(() -> pruneRecords(appContext, maxAgeMs, maxCount));
+        }
+        catch (RejectedExecutionException e) {
+            Log.w(TAG, "Batch pool is full, not pruning recent records this time", e);
+        }
+    }
+    
+    /**
+     * Delete the records that were last watched longer than max age ago, then the least recently
+     * watched records beyond max count. Records are deleted in batches of at most
+     * {@link #PRUNE_BATCH_SIZE}, each in its own statement, so the table is never locked for long.
+     * Runs on the calling thread, which should not be the main thread.
+     *
+     * @param maxAgeMs The maximum time since a record was last watched in milliseconds, or 0 to
+     *                 keep records of any age.
+     * @param maxCount The maximum number of records to keep, or 0 to keep any number.
+     * @return The number of records deleted.
+     */
+    public synchronized int pruneRecords(Context context, long maxAgeMs, int maxCount) {
+        
+        IDatabase db = getTableDatabase(context);
+        if (db == null) {
+            Log.e(TAG, "Database can not be instantiated so cannot prune recent records.");
+            return 0;
+        }
+        RecentTable table = (RecentTable) getTable();
+        long start = System.nanoTime();
+        int deleted = 0;
         
+        if (maxAgeMs > 0) {
+            long before = DateAndTimeHelper.getCurrentDate().getTime() - maxAgeMs;
+            int batch;
+            do {
+                batch = table.deleteWatchedBefore(db, before, PRUNE_BATCH_SIZE);
+                deleted += batch;
+            } while (batch == PRUNE_BATCH_SIZE);
+        }
+        
+        long size = table.getRowCount(db);
+        if (maxCount > 0) {
+            while (size > maxCount) {
+                int batch = table.deleteLeastRecentlyWatched(
+                        db, (int) Math.min(size - maxCount, PRUNE_BATCH_SIZE));
+                if (batch == 0) {
+                    break;
+                }
+                deleted += batch;
+                size -= batch;
+            }
+        }
+        
+        long durationMs = (System.nanoTime() - start) / 1000000;
+        synchronized (mMetricsLock) {
+            mTableSize = size;
+            mPruneCount++;
+            mLastPrunedCount = deleted;
+            mTotalPrunedCount += deleted;
+            mLastPruneMs = durationMs;
+            mMaxPruneMs = Math.max(mMaxPruneMs, durationMs);
+        }
+        Log.d(TAG, "Pruned " + deleted + " recent records in " + durationMs + "ms, " + size +
+                " left");
+        return deleted;
+    }
+    
+    /**
+     * Get a snapshot of the prune metrics.
+     *
+     * @return The metrics.
+     */
+    public PruneMetrics getPruneMetrics() {
+        
+        synchronized (mMetricsLock) {
+            return new PruneMetrics(mTableSize, mPruneCount, mLastPrunedCount, mTotalPrunedCount,
+                                    mLastPruneMs, mMaxPruneMs);
+        }
+    }
+    
+    /**
+     * A snapshot of the size of the recent table and of the work done pruning it.
+     */
+    public static class PruneMetrics {
+        
+        private final long mTableSize;
+        private final int mPruneCount;
+        private final int mLastPrunedCount;
+        private final long mTotalPrunedCount;
+        private final long mLastPruneMs;
+        private final long mMaxPruneMs;
+        
+        /**
+         * Constructor.
+         *
+         * @param tableSize        The number of records after the last prune.
+         * @param pruneCount       The number of prunes run.
+         * @param lastPrunedCount  The number of records deleted by the last prune.
+         * @param totalPrunedCount The number of records deleted by all prunes.
+         * @param lastPruneMs      The duration of the last prune in milliseconds.
+         * @param maxPruneMs       The duration of the longest prune in milliseconds.
+         */
+        PruneMetrics(long tableSize, int pruneCount, int lastPrunedCount, long totalPrunedCount,
+                     long lastPruneMs, long maxPruneMs) {
+            
+            mTableSize = tableSize;
+            mPruneCount = pruneCount;
+            mLastPrunedCount = lastPrunedCount;
+            mTotalPrunedCount = totalPrunedCount;
+            mLastPruneMs = lastPruneMs;
+            mMaxPruneMs = maxPruneMs;
+        }
+        
+        /**
+         * Get the number of records in the table after the last prune.
+         *
+         * @return The number of records, or -1 if no prune ran yet.
+         */
+        public long getTableSize() {
+            
+            return mTableSize;
+        }
+        
+        /**
+         * Get the number of prunes run.
+         *
+         * @return The number of prunes.
+         */
+        public int getPruneCount() {
+            
+            return mPruneCount;
+        }
+        
+        /**
+         * Get the number of records deleted by the last prune.
+         *
+         * @return The number of records.
+         */
+        public int getLastPrunedCount() {
+            
+            return mLastPrunedCount;
+        }
+        
+        /**
+         * Get the number of records deleted by all prunes.
+         *
+         * @return The number of records.
+         */
+        public long getTotalPrunedCount() {
+            
+            return mTotalPrunedCount;
+        }
+        
+        /**
+         * Get the duration of the last prune.
+         *
+         * @return The duration in milliseconds.
+         */
+        public long getLastPruneMs() {
+            
+            return mLastPruneMs;
+        }
+        
+        /**
+         * Get the duration of the longest prune.
+         *
+         * @return The duration in milliseconds.
+         */
+        public long getMaxPruneMs() {
+            
+            return mMaxPruneMs;
+        }
+        
+        @Override
+        public String toString() {
+            
+            return "PruneMetrics{" +
+                    "mTableSize=" + mTableSize +
+                    ", mPruneCount=" + mPruneCount +
+                    ", mLastPrunedCount=" + mLastPrunedCount +
+                    ", mTotalPrunedCount=" + mTotalPrunedCount +
+                    ", mLastPruneMs=" + mLastPruneMs +
+                    ", mMaxPruneMs=" + mMaxPruneMs +
+                    '}';
+        }
     }
 }
@@ -14,6 +14,7 @@
  */
 package com.amazon.android.contentbrowser.database.helpers;
 
+import com.amazon.android.contentbrowser.database.IDatabase;
 import com.amazon.android.contentbrowser.database.records.RecommendationRecord;
 import com.amazon.android.contentbrowser.database.tables.RecommendationTable;
 import com.amazon.utils.DateAndTimeHelper;
@@ -23,7 +24,9 @@ import android.content.Context;
 import android.util.Log;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Helper class that has all the functionality specific to the {@link RecommendationTable}.
@@ -105,8 +108,8 @@ public class RecommendationDatabaseHelper extends DatabaseHelper {
      */
     public boolean deleteByRecId(Context context, long recommendationId) {
         
-        return ((RecommendationTable) getTable()).deleteByRecommendationId(getDatabase(context),
-                                                             recommendationId);
+        return ((RecommendationTable) getTable())
+                .deleteByRecommendationId(getTableDatabase(context), recommendationId);
     }
     
     /**
@@ -123,8 +126,8 @@ public class RecommendationDatabaseHelper extends DatabaseHelper {
             return false;
         }
         
-        return ((RecommendationTable) getTable()).deleteAllRecordsWithType(getDatabase(context),
-                                                                           type);
+        return ((RecommendationTable) getTable())
+                .deleteAllRecordsWithType(getTableDatabase(context), type);
     }
     
     /**
@@ -143,10 +146,59 @@ public class RecommendationDatabaseHelper extends DatabaseHelper {
         }
         RecommendationTable table = (RecommendationTable) getTable();
         return (List<RecommendationRecord>)
-                table.readMultipleRecords(getDatabase(context),
+                table.readMultipleRecords(getTableDatabase(context),
                                           table.getRecommendationTableSelectTypeQuery(type));
     }
     
+    /**
+     * Get all recommendation records, oldest expiration first, with a single query.
+     *
+     * @return List of recommendation records.
+     */
+    public List<RecommendationRecord> getAllRecs(Context context) {
+        
+        RecommendationTable table = (RecommendationTable) getTable();
+        return (List<RecommendationRecord>)
+                table.readMultipleRecords(getTableDatabase(context),
+                                          table.getRecommendationTableSelectAllQuery());
+    }
+    
+    /**
+     * Deletes and writes recommendation records in a single transaction. Either all changes are
+     * stored or none are.
+     *
+     * @param recsToDelete The records to delete, by recommendation id.
+     * @param recsToWrite  The records to insert or update, by content id.
+     * @return True if the changes were stored; false otherwise.
+     */
+    public boolean applyChanges(Context context, List<RecommendationRecord> recsToDelete,
+                                List<RecommendationRecord> recsToWrite) {
+        
+        IDatabase db = getTableDatabase(context);
+        if (db == null) {
+            Log.e(TAG, "Database can not be instantiated so cannot apply recommendation changes.");
+            return false;
+        }
+        RecommendationTable table = (RecommendationTable) getTable();
+        db.beginTransaction();
+        try {
+            for (RecommendationRecord record : recsToDelete) {
+                table.deleteByRecommendationId(db, record.getRecommendationId());
+            }
+            for (RecommendationRecord record : recsToWrite) {
+                if (table.write(db, record) == -1) {
+                    Log.e(TAG, "Unable to write recommendation " + record + ", rolling back.");
+                    return false;
+                }
+            }
+            db.setTransactionSuccessful();
+            return true;
+        }
+        finally {
+            db.endTransaction();
+        }
+    }
+    
     /**
      * Gets the recommendation record for the given recommendation id.
      *
@@ -161,7 +213,7 @@ public class RecommendationDatabaseHelper extends DatabaseHelper {
             return null;
         }
         
-        return ((RecommendationTable) getTable()).read(getDatabase(context), recommendationId);
+        return ((RecommendationTable) getTable()).read(getTableDatabase(context), recommendationId);
     }
     
     /**
@@ -172,40 +224,61 @@ public class RecommendationDatabaseHelper extends DatabaseHelper {
      */
     public long updateRecord(Context context, RecommendationRecord record) {
         
-        return getTable().write(getDatabase(context), record);
+        return getTable().write(getTableDatabase(context), record);
     }
     
     /**
-     * Giving a list of content ids, return a list of records for any existing records with an id
-     * from the list.
+     * Get the list of expired recommendation records from the database. Recommendations are
+     * expired if their expiration date has been reached.
+     *
+     * @return The list of expired recommendations.
+     */
+    public List<RecommendationRecord> getExpiredRecommendations(Context context) {
+        
+        return ((RecommendationTable) getTable())
+                .getExpiredRecommendations(getTableDatabase(context),
+                                           DateAndTimeHelper.getCurrentDate().getTime());
+    }
+    
+    /**
+     * Reads and deletes the recommendation records that expired at or before the given time, in
+     * a single transaction.
      *
-     * @param contentIds List of content ids.
-     * @return List of records containing the the same content ids.
+     * @param currentTime The time to use to calculate if the recommendation is expired.
+     * @return The list of deleted recommendations.
      */
-    public List<RecommendationRecord> getExistingRecommendationsByContentIds(Context context,
-                                                                             List<String>
-                                                                                     contentIds) {
+    public List<RecommendationRecord> removeExpiredRecommendations(Context context,
+                                                                   long currentTime) {
         
-        List<RecommendationRecord> matchingRecords = new ArrayList<>();
-        for (String contentId : contentIds) {
-            if (recordExists(context, contentId)) {
-                matchingRecords.add(getRecord(context, contentId));
+        IDatabase db = getTableDatabase(context);
+        if (db == null) {
+            Log.e(TAG, "Database can not be instantiated so cannot remove expired " +
+                    "recommendations.");
+            return new ArrayList<>();
+        }
+        RecommendationTable table = (RecommendationTable) getTable();
+        db.beginTransaction();
+        try {
+            List<RecommendationRecord> records = table.getExpiredRecommendations(db, currentTime);
+            if (!records.isEmpty()) {
+                table.deleteExpiredRecommendations(db, currentTime);
             }
+            db.setTransactionSuccessful();
+            return records;
+        }
+        finally {
+            db.endTransaction();
         }
-        return matchingRecords;
     }
     
     /**
-     * Get the list of expired recommendation records from the database. Recommendations are
-     * expired if their expiration date has been reached.
+     * Get the earliest expiration time of the recommendations in the database.
      *
-     * @return The list of expired recommendations.
+     * @return The expiration time in milliseconds, or -1 if there are no recommendations.
      */
-    public List<RecommendationRecord> getExpiredRecommendations(Context context) {
+    public long getNextExpiration(Context context) {
         
-        return ((RecommendationTable) getTable()).getExpiredRecommendations(getDatabase(context),
-                                                              DateAndTimeHelper.getCurrentDate()
-                                                                               .getTime());
+        return ((RecommendationTable) getTable()).getNextExpiration(getTableDatabase(context));
     }
     
     /**
@@ -215,7 +288,7 @@ public class RecommendationDatabaseHelper extends DatabaseHelper {
      */
     public List<Integer> getAllRecommendationsIds(Context context) {
         
-        return ((RecommendationTable) getTable()).getRecommendationIds(getDatabase(context));
+        return ((RecommendationTable) getTable()).getRecommendationIds(getTableDatabase(context));
     }
     
     /**
@@ -226,4 +299,15 @@ public class RecommendationDatabaseHelper extends DatabaseHelper {
         
         return (RecommendationRecord) super.getRecord(context, contentId);
     }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, RecommendationRecord> getRecords(Context context,
+                                                        Collection<String> contentIds) {
+        
+        return (Map<String, RecommendationRecord>) super.getRecords(context, contentIds);
+    }
 }
@@ -21,7 +21,9 @@ import com.amazon.utils.StringManipulation;
 import android.content.Context;
 import android.util.Log;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Helper database class that has all the functionality specific to the {@link WatchlistTable}.
@@ -82,7 +84,7 @@ public class WatchlistDatabaseHelper extends DatabaseHelper {
      */
     public List<String> getWatchlistContentIds(Context context) {
         
-        return ((WatchlistTable) getTable()).getContentIds(getDatabase(context));
+        return ((WatchlistTable) getTable()).getContentIds(getTableDatabase(context));
     }
     
     /**
@@ -94,5 +96,13 @@ public class WatchlistDatabaseHelper extends DatabaseHelper {
         return (WatchlistRecord) super.getRecord(context, contentId);
     }
     
-    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, WatchlistRecord> getRecords(Context context, Collection<String> contentIds) {
+        
+        return (Map<String, WatchlistRecord>) super.getRecords(context, contentIds);
+    }
 }
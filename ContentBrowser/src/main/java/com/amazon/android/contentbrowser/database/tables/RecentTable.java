@@ -14,13 +14,13 @@
  */
 package com.amazon.android.contentbrowser.database.tables;
 
+import com.amazon.android.contentbrowser.database.DatabaseValues;
+import com.amazon.android.contentbrowser.database.IDatabase;
+import com.amazon.android.contentbrowser.database.IDatabaseCursor;
 import com.amazon.android.contentbrowser.database.records.RecentRecord;
 import com.amazon.android.contentbrowser.database.records.Record;
 import com.amazon.utils.DateAndTimeHelper;
 
-import android.content.ContentValues;
-import android.database.Cursor;
-import android.database.sqlite.SQLiteDatabase;
 import android.util.Log;
 
 import java.util.Date;
@@ -94,6 +94,24 @@ public class RecentTable extends Table {
     public static final String SQL_ALTER_TO_VERSION_2 = "ALTER TABLE " + TABLE_NAME +
             " ADD COLUMN " + COLUMN_DURATION + " INTEGER DEFAULT 0";
     
+    /**
+     * The string used in a SQL query to create the index serving
+     * {@link #getUnFinishedRecords(IDatabase, int)}. Rows are found by the completed flag in
+     * last watched order, and the playback location is checked without reading the row.
+     */
+    public static final String SQL_CREATE_UNFINISHED_INDEX =
+            "CREATE INDEX IF NOT EXISTS " + TABLE_NAME + "_unfinished_index ON " + TABLE_NAME +
+                    " (" + COLUMN_COMPLETED + ", " + COLUMN_LAST_WATCHED + ", " +
+                    COLUMN_PLAYBACK_LOCATION + ")";
+    
+    /**
+     * The string used in a SQL query to create the index on the last watched time, used to prune
+     * the least recently watched records.
+     */
+    public static final String SQL_CREATE_LAST_WATCHED_INDEX =
+            "CREATE INDEX IF NOT EXISTS " + TABLE_NAME + "_last_watched_index ON " + TABLE_NAME +
+                    " (" + COLUMN_LAST_WATCHED + ")";
+    
     /**
      * Constructor.
      */
@@ -109,7 +127,7 @@ public class RecentTable extends Table {
      * @return True if at least one record was deleteByRecommendationId; false otherwise.
      */
     @Override
-    public boolean purge(SQLiteDatabase db) {
+    public boolean purge(IDatabase db) {
         
         Date current = DateAndTimeHelper.getCurrentDate();
         return deleteExpired(db, COLUMN_EXPIRATION, current.getTime());
@@ -123,12 +141,52 @@ public class RecentTable extends Table {
      * @param gracePeriod The grace period in milliseconds.
      * @return A list of recent records.
      */
-    public List<RecentRecord> getUnFinishedRecords(SQLiteDatabase db, int gracePeriod) {
+    public List<RecentRecord> getUnFinishedRecords(IDatabase db, int gracePeriod) {
         
         return (List<RecentRecord>) readMultipleRecords(db, getSqlSelectAllColumnsQuery() + " " +
-                "WHERE " + COLUMN_COMPLETED + "='0' AND " + COLUMN_PLAYBACK_LOCATION + ">'" +
-                gracePeriod + "' ORDER BY " + COLUMN_LAST_WATCHED + " DESC ");
+                "WHERE " + COLUMN_COMPLETED + "=0 AND " + COLUMN_PLAYBACK_LOCATION + ">" +
+                gracePeriod + " ORDER BY " + COLUMN_LAST_WATCHED + " DESC ");
+        
+    }
+    
+    /**
+     * Get the number of records in the table, without reading them.
+     *
+     * @param db The database.
+     * @return The number of records.
+     */
+    public long getRowCount(IDatabase db) {
+        
+        return db.queryNumEntries(TABLE_NAME);
+    }
+    
+    /**
+     * Delete up to limit of the least recently watched records that were last watched before the
+     * given time.
+     *
+     * @param db     The database.
+     * @param before The time in milliseconds (EPOCH); records last watched earlier are deleted.
+     * @param limit  The maximum number of records to delete.
+     * @return The number of records deleted.
+     */
+    public int deleteWatchedBefore(IDatabase db, long before, int limit) {
+        
+        return db.delete(TABLE_NAME, _ID + " IN (SELECT " + _ID + " FROM " + TABLE_NAME +
+                " WHERE " + COLUMN_LAST_WATCHED + "<" + before +
+                " ORDER BY " + COLUMN_LAST_WATCHED + " ASC LIMIT " + limit + ")", null);
+    }
+    
+    /**
+     * Delete up to limit of the least recently watched records.
+     *
+     * @param db    The database.
+     * @param limit The maximum number of records to delete.
+     * @return The number of records deleted.
+     */
+    public int deleteLeastRecentlyWatched(IDatabase db, int limit) {
         
+        return db.delete(TABLE_NAME, _ID + " IN (SELECT " + _ID + " FROM " + TABLE_NAME +
+                " ORDER BY " + COLUMN_LAST_WATCHED + " ASC LIMIT " + limit + ")", null);
     }
     
     /**
@@ -138,7 +196,7 @@ public class RecentTable extends Table {
      * @return The recent record.
      */
     @Override
-    public RecentRecord readRecordFromCursor(Cursor cursor) {
+    public RecentRecord readRecordFromCursor(IDatabaseCursor cursor) {
         
         if (cursor == null) {
             return null;
@@ -169,9 +227,9 @@ public class RecentTable extends Table {
      * @return The content values.
      */
     @Override
-    public ContentValues writeContentValues(Record record) {
+    public DatabaseValues writeContentValues(Record record) {
         
-        ContentValues contentValues = new ContentValues();
+        DatabaseValues contentValues = new DatabaseValues();
         
         
         RecentRecord recentRecord = (RecentRecord) record;
@@ -14,13 +14,13 @@
  */
 package com.amazon.android.contentbrowser.database.tables;
 
+import com.amazon.android.contentbrowser.database.DatabaseValues;
+import com.amazon.android.contentbrowser.database.IDatabase;
+import com.amazon.android.contentbrowser.database.IDatabaseCursor;
 import com.amazon.android.contentbrowser.database.records.RecommendationRecord;
 import com.amazon.android.contentbrowser.database.records.Record;
 import com.amazon.utils.DateAndTimeHelper;
 
-import android.content.ContentValues;
-import android.database.Cursor;
-import android.database.sqlite.SQLiteDatabase;
 import android.util.Log;
 
 import java.util.ArrayList;
@@ -76,6 +76,14 @@ public class RecommendationTable extends Table {
                     COLUMN_TYPE + " TEXT, " +
                     COLUMN_EXPIRATION + " INTEGER)";
     
+    /**
+     * The string used in a SQL query to create the index on the expiration column, used to find
+     * the next and the expired recommendations without scanning the table.
+     */
+    public static final String SQL_CREATE_EXPIRATION_INDEX =
+            "CREATE INDEX IF NOT EXISTS " + TABLE_NAME + "_expiration_index ON " + TABLE_NAME +
+                    " (" + COLUMN_EXPIRATION + ")";
+    
     /**
      * The string used to select the recommendation id column.
      */
@@ -103,6 +111,17 @@ public class RecommendationTable extends Table {
                 type + "' ORDER BY " + COLUMN_EXPIRATION + " ASC ";
     }
     
+    /**
+     * Returns a query string that selects all recommendations from the database, oldest
+     * expiration first.
+     *
+     * @return The SQL query.
+     */
+    public String getRecommendationTableSelectAllQuery() {
+        
+        return getSqlSelectAllColumnsQuery() + " ORDER BY " + COLUMN_EXPIRATION + " ASC ";
+    }
+    
     /**
      * Returns a query string that selects expired recommendations.
      *
@@ -112,7 +131,7 @@ public class RecommendationTable extends Table {
     private String getSqlSelectExpiredQuery(long currentTime) {
         
         return getSqlSelectAllColumnsQuery() +
-                " WHERE " + COLUMN_EXPIRATION + " - " + currentTime + " <= 0";
+                " WHERE " + COLUMN_EXPIRATION + " <= " + currentTime;
     }
     
     
@@ -123,7 +142,7 @@ public class RecommendationTable extends Table {
      * @param recommendationId The recommendation id of the record to deleteByRecommendationId.
      * @return True if a row was deleted; false otherwise.
      */
-    public boolean deleteByRecommendationId(SQLiteDatabase db, long recommendationId) {
+    public boolean deleteByRecommendationId(IDatabase db, long recommendationId) {
         
         int affectedRows = db.delete(TABLE_NAME, COLUMN_RECOMMENDATION_ID + "=" +
                 recommendationId + " ", null);
@@ -138,7 +157,7 @@ public class RecommendationTable extends Table {
      * @param type The type of recommendation to deleteByRecommendationId.
      * @return True if at least one row was deleted; false otherwise.
      */
-    public boolean deleteAllRecordsWithType(SQLiteDatabase db, String type) {
+    public boolean deleteAllRecordsWithType(IDatabase db, String type) {
         
         Log.d(TAG, "deleting all recommendation records with type " + type);
         int affectedRows = db.delete(TABLE_NAME, COLUMN_TYPE + "='" + type + "' ", null);
@@ -153,11 +172,11 @@ public class RecommendationTable extends Table {
      * @param recommendationId The recommendation id of the recommendation to read.
      * @return The recommendation record.
      */
-    public RecommendationRecord read(SQLiteDatabase db, long recommendationId) {
+    public RecommendationRecord read(IDatabase db, long recommendationId) {
         
-        Cursor cursor = db.rawQuery(getSqlSelectAllColumnsQuery() + " WHERE " +
-                                            COLUMN_RECOMMENDATION_ID + "=" + recommendationId +
-                                            " ", null);
+        IDatabaseCursor cursor = db.rawQuery(getSqlSelectAllColumnsQuery() + " WHERE " +
+                                                     COLUMN_RECOMMENDATION_ID + "=" +
+                                                     recommendationId + " ", null);
         
         return (RecommendationRecord) readSingleRecord(cursor);
     }
@@ -170,7 +189,7 @@ public class RecommendationTable extends Table {
      * @return The recommendation record.
      */
     @Override
-    public RecommendationRecord readRecordFromCursor(Cursor cursor) {
+    public RecommendationRecord readRecordFromCursor(IDatabaseCursor cursor) {
         
         if (cursor == null) {
             return null;
@@ -197,11 +216,11 @@ public class RecommendationTable extends Table {
      * @return The content values.
      */
     @Override
-    public ContentValues writeContentValues(Record record) {
+    public DatabaseValues writeContentValues(Record record) {
         
         RecommendationRecord recommendation = (RecommendationRecord) record;
         
-        ContentValues contentValues = new ContentValues();
+        DatabaseValues contentValues = new DatabaseValues();
         
         contentValues.put(COLUMN_CONTENT_ID, recommendation.getContentId());
         contentValues.put(COLUMN_RECOMMENDATION_ID, recommendation.getRecommendationId());
@@ -222,11 +241,11 @@ public class RecommendationTable extends Table {
      * @param db The database.
      * @return A list of recommendation ids.
      */
-    public List<Integer> getRecommendationIds(SQLiteDatabase db) {
+    public List<Integer> getRecommendationIds(IDatabase db) {
         
         List<Integer> ids = new ArrayList<>();
         
-        Cursor cursor = db.rawQuery(SQL_SELECT_REC_ID_COLUMN, null);
+        IDatabaseCursor cursor = db.rawQuery(SQL_SELECT_REC_ID_COLUMN, null);
         
         if (cursor != null && cursor.moveToFirst()) {
             
@@ -250,13 +269,48 @@ public class RecommendationTable extends Table {
      * @param currentTime The time to use to calculate if the recommendation is expired.
      * @return The list of expired recommendation records.
      */
-    public List<RecommendationRecord> getExpiredRecommendations(SQLiteDatabase db,
+    public List<RecommendationRecord> getExpiredRecommendations(IDatabase db,
                                                                 long currentTime) {
         
         return (List<RecommendationRecord>)
                 readMultipleRecords(db, getSqlSelectExpiredQuery(currentTime));
     }
     
+    /**
+     * Delete the recommendation records that expired at or before the given time.
+     *
+     * @param db          The database.
+     * @param currentTime The time to use to calculate if the recommendation is expired.
+     * @return True if at least one record was deleted; false otherwise.
+     */
+    public boolean deleteExpiredRecommendations(IDatabase db, long currentTime) {
+        
+        return deleteExpired(db, COLUMN_EXPIRATION, currentTime);
+    }
+    
+    /**
+     * Get the earliest expiration time of the recommendation records.
+     *
+     * @param db The database.
+     * @return The expiration time in milliseconds, or -1 if the table is empty.
+     */
+    public long getNextExpiration(IDatabase db) {
+        
+        long expiration = -1;
+        IDatabaseCursor cursor = db.rawQuery("SELECT MIN(" + COLUMN_EXPIRATION + ") FROM " +
+                                                     TABLE_NAME, null);
+        
+        if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) {
+            expiration = cursor.getLong(0);
+        }
+        
+        if (cursor != null) {
+            cursor.close();
+        }
+        
+        return expiration;
+    }
+    
     /**
      * Purges all expired recommendation records from the database.
      *
@@ -264,7 +318,7 @@ public class RecommendationTable extends Table {
      * @return True if at least one record was deleted; false otherwise.
      */
     @Override
-    public boolean purge(SQLiteDatabase db) {
+    public boolean purge(IDatabase db) {
         
         long currentTime = DateAndTimeHelper.getCurrentDate().getTime();
         return deleteExpired(db, COLUMN_EXPIRATION, currentTime);
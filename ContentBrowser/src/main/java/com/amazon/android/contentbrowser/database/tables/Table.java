@@ -14,16 +14,21 @@
  */
 package com.amazon.android.contentbrowser.database.tables;
 
-import android.content.ContentValues;
-import android.database.Cursor;
-import android.database.sqlite.SQLiteDatabase;
 import android.provider.BaseColumns;
 import android.util.Log;
 
+import com.amazon.android.contentbrowser.database.DatabaseValues;
+import com.amazon.android.contentbrowser.database.IDatabase;
+import com.amazon.android.contentbrowser.database.IDatabaseCursor;
 import com.amazon.android.contentbrowser.database.records.Record;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Base class for the tables of the content database. Handles common functionality amongst all the
@@ -43,6 +48,12 @@ public abstract class Table implements BaseColumns {
      */
     private static final String SQL_SELECT_ALL_COLUMNS = "SELECT * FROM ";
 
+    /**
+     * The maximum number of content ids bound to a single multi-key query. SQLite limits the
+     * number of bound arguments of a statement to 999 by default.
+     */
+    static final int MAX_KEYS_PER_QUERY = 500;
+
     /**
      * The table's name.
      */
@@ -58,6 +69,16 @@ public abstract class Table implements BaseColumns {
         mTableName = tableName;
     }
 
+    /**
+     * Get the table's name.
+     *
+     * @return The table's name.
+     */
+    public String getTableName() {
+
+        return mTableName;
+    }
+
     /**
      * Gets the query statement for selecting all columns from the table.
      *
@@ -85,13 +106,13 @@ public abstract class Table implements BaseColumns {
      * @param contentId The content id of the row to find.
      * @return The row id, or -1 if the query resulted in zero results.
      */
-    public long findRowId(SQLiteDatabase db, String contentId) {
+    public long findRowId(IDatabase db, String contentId) {
 
         String query = "SELECT " + _ID +
                 " FROM " + mTableName +
                 " WHERE " + COLUMN_CONTENT_ID + "='" + contentId + "' ";
 
-        Cursor cursor = db.rawQuery(query, null);
+        IDatabaseCursor cursor = db.rawQuery(query, null);
 
         long rowId = -1;
 
@@ -106,12 +127,43 @@ public abstract class Table implements BaseColumns {
         return rowId;
     }
 
+    /**
+     * Find the rows of the records in the database containing any of the given content ids. The
+     * ids are looked up with one query per {@link #MAX_KEYS_PER_QUERY} ids.
+     *
+     * @param db         The database to query.
+     * @param contentIds The content ids of the rows to find.
+     * @return Map from content id to row id, containing only the content ids that were found.
+     */
+    public Map<String, Long> findRowIds(IDatabase db, Collection<String> contentIds) {
+
+        Map<String, Long> rowIds = new HashMap<>();
+        for (String[] keys : chunkKeys(contentIds)) {
+            String query = "SELECT " + _ID + ", " + COLUMN_CONTENT_ID +
+                    " FROM " + mTableName +
+                    " WHERE " + COLUMN_CONTENT_ID + " IN (" + buildPlaceholders(keys.length) + ")";
+
+            IDatabaseCursor cursor = db.rawQuery(query, keys);
+
+            if (cursor != null && cursor.moveToFirst()) {
+                do {
+                    rowIds.put(cursor.getString(1), cursor.getLong(0));
+                } while (cursor.moveToNext());
+            }
+
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return rowIds;
+    }
+
     /**
      * Deletes all records in the table.
      *
      * @param db The database.
      */
-    public void deleteAll(SQLiteDatabase db) {
+    public void deleteAll(IDatabase db) {
 
         Log.d(TAG, "Deleting all records from table " + mTableName);
         db.delete(mTableName, null, null);
@@ -125,7 +177,7 @@ public abstract class Table implements BaseColumns {
      * @param contentId The content id of the record to delete.
      * @return True if a row was deleted; false otherwise.
      */
-    public boolean deleteByContentId(SQLiteDatabase db, String contentId) {
+    public boolean deleteByContentId(IDatabase db, String contentId) {
 
         Log.d(TAG, "Deleting from table " + mTableName + " record with content id " + contentId);
         int affectedRows = db.delete(mTableName, COLUMN_CONTENT_ID + "='" + contentId + "'", null);
@@ -133,6 +185,26 @@ public abstract class Table implements BaseColumns {
         return (affectedRows > 0);
     }
 
+    /**
+     * Delete the records with any of the given content ids from the table. The ids are deleted
+     * with one statement per {@link #MAX_KEYS_PER_QUERY} ids.
+     *
+     * @param db         The database.
+     * @param contentIds The content ids of the records to delete.
+     * @return The number of rows deleted.
+     */
+    public int deleteByContentIds(IDatabase db, Collection<String> contentIds) {
+
+        Log.d(TAG, "Deleting from table " + mTableName + " records with content ids " +
+                contentIds);
+        int affectedRows = 0;
+        for (String[] keys : chunkKeys(contentIds)) {
+            affectedRows += db.delete(mTableName, COLUMN_CONTENT_ID + " IN (" +
+                    buildPlaceholders(keys.length) + ")", keys);
+        }
+        return affectedRows;
+    }
+
     /**
      * Delete expired records from the table.
      *
@@ -141,11 +213,10 @@ public abstract class Table implements BaseColumns {
      * @param currentTime  The current time to use to determine if the record is expired.
      * @return True if at least one record was deleted; false otherwise.
      */
-    boolean deleteExpired(SQLiteDatabase db, String expireColumn, long currentTime) {
+    boolean deleteExpired(IDatabase db, String expireColumn, long currentTime) {
 
         Log.d(TAG, "Deleting expired records from table " + mTableName);
-        int affectedRows = db.delete(mTableName, expireColumn + " - " + currentTime + " <= 0",
-                                     null);
+        int affectedRows = db.delete(mTableName, expireColumn + " <= " + currentTime, null);
 
         return (affectedRows > 0);
     }
@@ -156,10 +227,10 @@ public abstract class Table implements BaseColumns {
      * @param db The database.
      * @return The count.
      */
-    public int getCount(SQLiteDatabase db) {
+    public int getCount(IDatabase db) {
 
         int count = -1;
-        Cursor cursor = db.rawQuery(getSqlSelectAllColumnsQuery(), null);
+        IDatabaseCursor cursor = db.rawQuery(getSqlSelectAllColumnsQuery(), null);
         if (cursor != null) {
             count = cursor.getCount();
             cursor.close();
@@ -176,16 +247,16 @@ public abstract class Table implements BaseColumns {
      * @param record The record to write.
      * @return The row of the record or -1 if there was an error.
      */
-    public long write(SQLiteDatabase db, Record record) {
+    public long write(IDatabase db, Record record) {
 
         Log.d(TAG, "writing to database table " + mTableName + ": " + record.toString());
 
-        ContentValues contentValues = writeContentValues(record);
+        DatabaseValues contentValues = writeContentValues(record);
 
         // Check if the row exists
         long rowId = findRowId(db, record.getContentId());
         if (rowId == -1) {
-            rowId = db.insert(mTableName, null, contentValues);
+            rowId = db.insert(mTableName, contentValues);
         }
         else {
             rowId = db.update(mTableName, contentValues, _ID + "=" + rowId, null);
@@ -202,11 +273,11 @@ public abstract class Table implements BaseColumns {
      * @param contentId The content id of the recommendation to read.
      * @return The record.
      */
-    public Record read(SQLiteDatabase db, String contentId) {
+    public Record read(IDatabase db, String contentId) {
 
-        Cursor cursor = db.rawQuery(getSqlSelectAllColumnsQuery() + " WHERE " + COLUMN_CONTENT_ID
-                                            + "='" +
-                                            contentId + "' ", null);
+        IDatabaseCursor cursor = db.rawQuery(getSqlSelectAllColumnsQuery() + " WHERE " +
+                                                     COLUMN_CONTENT_ID + "='" + contentId + "' ",
+                                             null);
 
         return readSingleRecord(cursor);
     }
@@ -217,7 +288,7 @@ public abstract class Table implements BaseColumns {
      * @param cursor The cursor containing the data to read.
      * @return The record.
      */
-    Record readSingleRecord(Cursor cursor) {
+    Record readSingleRecord(IDatabaseCursor cursor) {
 
         Record record = null;
 
@@ -233,6 +304,30 @@ public abstract class Table implements BaseColumns {
 
     }
 
+    /**
+     * Read the records from the database with any of the given content ids. The ids are read
+     * with one query per {@link #MAX_KEYS_PER_QUERY} ids.
+     *
+     * @param db         The database.
+     * @param contentIds The content ids of the records to read.
+     * @return Map from content id to record, containing only the content ids that were found.
+     */
+    public Map<String, ? extends Record> readByContentIds(IDatabase db,
+                                                          Collection<String> contentIds) {
+
+        Map<String, Record> records = new HashMap<>();
+        for (String[] keys : chunkKeys(contentIds)) {
+            IDatabaseCursor cursor = db.rawQuery(getSqlSelectAllColumnsQuery() + " WHERE " +
+                                                         COLUMN_CONTENT_ID + " IN (" +
+                                                         buildPlaceholders(keys.length) + ")",
+                                                 keys);
+            for (Record record : readRecords(cursor)) {
+                records.put(record.getContentId(), record);
+            }
+        }
+        return records;
+    }
+
     /**
      * Reads records from the database that are returned as a result of the query.
      *
@@ -240,11 +335,20 @@ public abstract class Table implements BaseColumns {
      * @param query The query
      * @return List of records.
      */
-    public List<? extends Record> readMultipleRecords(SQLiteDatabase db, String query) {
+    public List<? extends Record> readMultipleRecords(IDatabase db, String query) {
 
-        List<Record> records = new ArrayList<>();
+        return readRecords(db.rawQuery(query, null));
+    }
 
-        Cursor cursor = db.rawQuery(query, null);
+    /**
+     * Reads all records from a cursor, closes the cursor once finished.
+     *
+     * @param cursor The cursor containing the data to read.
+     * @return List of records.
+     */
+    List<Record> readRecords(IDatabaseCursor cursor) {
+
+        List<Record> records = new ArrayList<>();
 
         if (cursor != null && cursor.moveToFirst()) {
 
@@ -263,13 +367,58 @@ public abstract class Table implements BaseColumns {
         return records;
     }
 
+    /**
+     * Splits content ids into arrays of at most {@link #MAX_KEYS_PER_QUERY} distinct, non-null
+     * ids, to be bound as the arguments of multi-key queries.
+     *
+     * @param contentIds The content ids.
+     * @return The arrays of ids.
+     */
+    static List<String[]> chunkKeys(Collection<String> contentIds) {
+
+        Set<String> keys = new LinkedHashSet<>(contentIds);
+        keys.remove(null);
+
+        List<String[]> chunks = new ArrayList<>();
+        List<String> chunk = new ArrayList<>(Math.min(keys.size(), MAX_KEYS_PER_QUERY));
+        for (String key : keys) {
+            chunk.add(key);
+            if (chunk.size() == MAX_KEYS_PER_QUERY) {
+                chunks.add(chunk.toArray(new String[chunk.size()]));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk.toArray(new String[chunk.size()]));
+        }
+        return chunks;
+    }
+
+    /**
+     * Builds the comma separated placeholders for the arguments of an IN clause.
+     *
+     * @param count The number of arguments.
+     * @return The placeholders, e.g. "?,?,?".
+     */
+    static String buildPlaceholders(int count) {
+
+        StringBuilder placeholders = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                placeholders.append(',');
+            }
+            placeholders.append('?');
+        }
+        return placeholders.toString();
+    }
+
     /**
      * Reads a record from a cursor. Does not close the cursor when finished.
      *
      * @param cursor The cursor containing the data to read.
      * @return The record.
      */
-    public abstract Record readRecordFromCursor(Cursor cursor);
+    public abstract Record readRecordFromCursor(IDatabaseCursor cursor);
 
     /**
      * Fills the content values with the necessary information to save the record to the database.
@@ -277,7 +426,7 @@ public abstract class Table implements BaseColumns {
      * @param record The record.
      * @return The content values.
      */
-    public abstract ContentValues writeContentValues(Record record);
+    public abstract DatabaseValues writeContentValues(Record record);
 
     /**
      * Purges all expired records from the database.
@@ -285,5 +434,5 @@ public abstract class Table implements BaseColumns {
      * @param db The database.
      * @return True if at least one record was deleted; false otherwise.
      */
-    public abstract boolean purge(SQLiteDatabase db);
+    public abstract boolean purge(IDatabase db);
 }
@@ -14,12 +14,12 @@
  */
 package com.amazon.android.contentbrowser.database.tables;
 
+import com.amazon.android.contentbrowser.database.DatabaseValues;
+import com.amazon.android.contentbrowser.database.IDatabase;
+import com.amazon.android.contentbrowser.database.IDatabaseCursor;
 import com.amazon.android.contentbrowser.database.records.Record;
 import com.amazon.android.contentbrowser.database.records.WatchlistRecord;
 
-import android.content.ContentValues;
-import android.database.Cursor;
-import android.database.sqlite.SQLiteDatabase;
 import android.util.Log;
 
 import java.util.ArrayList;
@@ -63,7 +63,7 @@ public class WatchlistTable extends Table {
      * @return The watchlist record.
      */
     @Override
-    public WatchlistRecord readRecordFromCursor(Cursor cursor) {
+    public WatchlistRecord readRecordFromCursor(IDatabaseCursor cursor) {
 
         if (cursor == null) {
             return null;
@@ -85,9 +85,9 @@ public class WatchlistTable extends Table {
      * @return The content values.
      */
     @Override
-    public ContentValues writeContentValues(Record record) {
+    public DatabaseValues writeContentValues(Record record) {
 
-        ContentValues contentValues = new ContentValues();
+        DatabaseValues contentValues = new DatabaseValues();
 
         contentValues.put(COLUMN_CONTENT_ID, record.getContentId());
 
@@ -101,7 +101,7 @@ public class WatchlistTable extends Table {
      * @return False.
      */
     @Override
-    public boolean purge(SQLiteDatabase db) {
+    public boolean purge(IDatabase db) {
 
         return false;
     }
@@ -112,11 +112,11 @@ public class WatchlistTable extends Table {
      * @param db The database instance.
      * @return List of strings.
      */
-    public List<String> getContentIds(SQLiteDatabase db) {
+    public List<String> getContentIds(IDatabase db) {
 
         List<String> ids = new ArrayList<>();
 
-        Cursor cursor = db.rawQuery(getSqlSelectAllColumnsQuery(), null);
+        IDatabaseCursor cursor = db.rawQuery(getSqlSelectAllColumnsQuery(), null);
 
         if (cursor != null && cursor.moveToFirst()) {
 
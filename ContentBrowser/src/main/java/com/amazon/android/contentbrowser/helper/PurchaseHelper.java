@@ -20,6 +20,7 @@ import com.amazon.android.model.content.Content;
 import com.amazon.android.model.event.ProgressOverlayDismissEvent;
 import com.amazon.android.module.ModuleManager;
 import com.amazon.android.recipe.Recipe;
+import com.amazon.android.scheduler.TaskExecutors;
 import com.amazon.android.ui.fragments.ProgressDialogFragment;
 import com.amazon.android.utils.ErrorUtils;
 import com.amazon.android.utils.FileHelper;
@@ -43,7 +44,6 @@ import java.util.Map;
 import rx.Observable;
 import rx.Subscriber;
 import rx.android.schedulers.AndroidSchedulers;
-import rx.schedulers.Schedulers;
 
 /**
  * Helper class to perform purchase related actions.
@@ -376,7 +376,7 @@ public class PurchaseHelper {
     private void handlePurchaseChain(Activity activity, String sku) {
 
         purchaseSkuObservable(sku)
-                .subscribeOn(Schedulers.newThread()) //this needs to be first make sure
+                .subscribeOn(TaskExecutors.ioScheduler()) //this needs to be first make sure
                 .observeOn(AndroidSchedulers.mainThread()) //this needs to be last to
                         // make sure rest is running on separate thread.
                 .subscribe(resultBundle -> {
@@ -0,0 +1,140 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.recommendations;
+
+import com.amazon.android.contentbrowser.database.records.RecommendationRecord;
+import com.amazon.android.scheduler.Clock;
+
+import java.util.List;
+
+/**
+ * This class removes expired recommendations and schedules its next run at the moment the next
+ * recommendation expires, instead of checking for expired recommendations periodically. It only
+ * holds the scheduling logic; the recommendation storage and the alarm are given to it, so it can
+ * be tested without a device.
+ */
+class RecommendationExpirySweeper {
+
+    /**
+     * Storage of the recommendations.
+     */
+    interface Store {
+
+        /**
+         * Get the earliest expiration time of the stored recommendations.
+         *
+         * @return The time in milliseconds since the epoch, or -1 if there are no recommendations.
+         */
+        long getNextExpiration();
+
+        /**
+         * Remove the recommendations that expired at or before the given time.
+         *
+         * @param now The current time in milliseconds since the epoch.
+         * @return The removed recommendations.
+         */
+        List<RecommendationRecord> removeExpired(long now);
+    }
+
+    /**
+     * An alarm that runs the sweeper again at a given time.
+     */
+    interface Alarm {
+
+        /**
+         * Set the alarm, replacing any alarm set before.
+         *
+         * @param time The time in milliseconds since the epoch.
+         */
+        void setAt(long time);
+
+        /**
+         * Cancel the alarm, if set.
+         */
+        void cancel();
+    }
+
+    /**
+     * The clock.
+     */
+    private final Clock mClock;
+
+    /**
+     * The recommendation storage.
+     */
+    private final Store mStore;
+
+    /**
+     * The alarm.
+     */
+    private final Alarm mAlarm;
+
+    /**
+     * Constructor.
+     *
+     * @param clock The clock.
+     * @param store The recommendation storage.
+     * @param alarm The alarm to run the sweeper again.
+     */
+    RecommendationExpirySweeper(Clock clock, Store store, Alarm alarm) {
+
+        mClock = clock;
+        mStore = store;
+        mAlarm = alarm;
+    }
+
+    /**
+     * Remove the expired recommendations and set the alarm for the next expiration. The caller
+     * cancels the notifications of the returned recommendations.
+     *
+     * @return The expired recommendations.
+     */
+    List<RecommendationRecord> sweep() {
+
+        long now = mClock.currentTimeMillis();
+        List<RecommendationRecord> expired = mStore.removeExpired(now);
+        schedule(now);
+        return expired;
+    }
+
+    /**
+     * Set the alarm for the next expiration, after recommendations were added or changed.
+     *
+     * @return The time the alarm was set at, or -1 if there are no recommendations to expire.
+     */
+    long reschedule() {
+
+        return schedule(mClock.currentTimeMillis());
+    }
+
+    /**
+     * Set the alarm for the next expiration, or cancel it if nothing will expire.
+     *
+     * @param now The current time in milliseconds since the epoch.
+     * @return The time the alarm was set at, or -1 if it was cancelled.
+     */
+    private long schedule(long now) {
+
+        long next = mStore.getNextExpiration();
+        if (next < 0) {
+            mAlarm.cancel();
+            return -1;
+        }
+        // A recommendation may have expired since the sweep; run again right away.
+        long time = Math.max(next, now);
+        mAlarm.setAt(time);
+        return time;
+    }
+}
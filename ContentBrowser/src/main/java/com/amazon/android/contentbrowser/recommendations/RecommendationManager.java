@@ -19,20 +19,25 @@ import com.amazon.android.contentbrowser.database.helpers.RecommendationDatabase
 import com.amazon.android.contentbrowser.database.records.RecommendationRecord;
 import com.amazon.android.contentbrowser.helper.AnalyticsHelper;
 import com.amazon.android.model.content.Content;
-import com.amazon.android.model.content.ContentContainer;
+import com.amazon.android.scheduler.Clock;
+import com.amazon.android.scheduler.SerialExecutor;
+import com.amazon.android.scheduler.TaskExecutors;
 
+import android.app.AlarmManager;
 import android.app.NotificationManager;
+import android.app.PendingIntent;
 import android.content.Context;
+import android.content.Intent;
 import android.os.AsyncTask;
 import android.util.Log;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import rx.Observable;
 import rx.Subscription;
 import rx.android.schedulers.AndroidSchedulers;
-import rx.schedulers.Schedulers;
 import rx.subscriptions.CompositeSubscription;
 
 /**
@@ -71,6 +76,17 @@ public class RecommendationManager {
      */
     static final String NOTIFICATION_ID_TAG = "notification_id";
 
+    /**
+     * Request code of the pending intent of the expiry alarm.
+     */
+    private static final int EXPIRY_ALARM_REQUEST_CODE = 1;
+
+    /**
+     * Runs the recommendation tasks of all managers one at a time on the batch pool, so sending
+     * recommendations and rescheduling the expiry alarm do not race each other.
+     */
+    private static final Executor TASK_EXECUTOR = new SerialExecutor(TaskExecutors.batch());
+
     /**
      * The context.
      */
@@ -101,6 +117,11 @@ public class RecommendationManager {
      */
     private int mMaxGlobal;
 
+    /**
+     * Removes expired recommendations when they expire.
+     */
+    private RecommendationExpirySweeper mExpirySweeper;
+
     /**
      * Constructor.
      *
@@ -124,6 +145,8 @@ public class RecommendationManager {
 
         mSender = new RecommendationSender(mContext, mContentLoader.getRootContentContainer(),
                                            true);
+        mExpirySweeper = new RecommendationExpirySweeper(Clock.SYSTEM, createExpiryStore(),
+                                                         createExpiryAlarm());
     }
 
     /**
@@ -169,6 +192,7 @@ public class RecommendationManager {
                 mSender.sendRecommendationsForType(RecommendationRecord.RELATED,
                                                    relatedIds,
                                                    mMaxRelated);
+                mExpirySweeper.reschedule();
                 AnalyticsHelper.trackUpdateRelatedRecommendations(content);
                 return null;
             }
@@ -180,7 +204,7 @@ public class RecommendationManager {
                 Log.d(TAG, "Done sending related recommendations.");
             }
 
-        }).execute();
+        }).executeOnExecutor(TASK_EXECUTOR);
     }
 
     /**
@@ -205,14 +229,14 @@ public class RecommendationManager {
     }
 
     /**
-     * Cleans the database of any expired records, includes recommendations and recently watched
-     * content. Tells notification manager to cancel the expired recommendations.
+     * Cleans the database of expired recommendations and tells notification manager to cancel
+     * them. The expired records are read and deleted in one transaction, then an alarm is set to
+     * clean the database again when the next recommendation expires.
      */
     public void cleanDatabase() {
 
         Log.d(TAG, "Starting to clean database of old records");
-        RecommendationDatabaseHelper databaseHelper = RecommendationDatabaseHelper.getInstance();
-        if (databaseHelper == null) {
+        if (RecommendationDatabaseHelper.getInstance() == null) {
             Log.e(TAG, "Cannot clean database because database is null");
             return;
         }
@@ -224,12 +248,11 @@ public class RecommendationManager {
             return;
         }
 
-        List<RecommendationRecord> records = databaseHelper.getExpiredRecommendations(mContext);
+        List<RecommendationRecord> records = mExpirySweeper.sweep();
         for (RecommendationRecord record : records) {
 
             notificationManager.cancel(record.getRecommendationId());
         }
-        databaseHelper.purgeExpiredRecords(mContext);
         AnalyticsHelper.trackExpiredRecommendations(records.size());
         Log.d(TAG, "Done cleaning database");
     }
@@ -271,47 +294,25 @@ public class RecommendationManager {
     }
 
     /**
-     * Runs the app's global recipes in order to have content data loaded so the recommendations
-     * can be built.
+     * Loads the content data so the recommendations can be built. While the app is loading the
+     * content, this joins that load; otherwise, for example when recommendations are updated at
+     * boot, it runs the app's global recipes itself. See
+     * {@link ContentLoader#loadRootContentContainer()}.
      *
      * @param context The context.
      */
     private void loadDataForRecommendations(Context context) {
 
         Log.d(TAG, "Loading data for recommendations");
-        final ContentContainer root = new ContentContainer("Root");
 
         Subscription subscription =
-                Observable.range(0, mContentLoader.getNavigatorModel().getGlobalRecipes().size())
-                          // Do this first to make sure were running in new thread right a way.
-                          .subscribeOn(Schedulers.newThread())
-                          .concatMap(index -> mContentLoader.runGlobalRecipeAtIndex(index, root))
-                          .onBackpressureBuffer() // This must be right after concatMap.
-                          .doOnNext(o -> {
-                              if (DEBUG_RECIPE_CHAIN) {
-                                  Log.d(TAG, "doOnNext");
-                              }
-                          })
-                          // This should be last so the rest is running on a separate thread.
-                          .observeOn(AndroidSchedulers.mainThread())
-                          .subscribe(objectPair -> {
-                              if (DEBUG_RECIPE_CHAIN) {
-                                  Log.d(TAG, "subscriber onNext called");
-                              }
-                          }, throwable -> {
-                              Log.e(TAG, "Recipe chain failed:", throwable);
-
-                          }, () -> {
-                              Log.v(TAG, "Recipe chain completed");
-                              // Remove empty sub containers.
-                              root.removeEmptySubContainers();
-
-                              mSender.setRootContentContainer(root);
-                              mContentLoader.setContentReloadRequired(false);
-                              mContentLoader.setContentLoaded(true);
-
-                              updateGlobalRecommendations(context);
-                          });
+                mContentLoader.loadRootContentContainer()
+                              .subscribe(root -> {
+                                  mSender.setRootContentContainer(root);
+                                  updateGlobalRecommendations(context);
+                              }, throwable -> {
+                                  Log.e(TAG, "Recipe chain failed:", throwable);
+                              });
 
         mCompositeSubscription.add(subscription);
     }
@@ -328,8 +329,8 @@ public class RecommendationManager {
         Subscription subscription =
                 Observable.range(0, mContentLoader.getNavigatorModel().getRecommendationRecipes()
                                                   .size())
-                          // Do this first to make sure were running in new thread right a way.
-                          .subscribeOn(Schedulers.newThread())
+                          // Do this first to make sure were running in the batch pool right a way.
+                          .subscribeOn(TaskExecutors.batchScheduler())
                           .concatMap(index -> mContentLoader.runRecommendationRecipeAtIndex
                                   (index, root))
                           .onBackpressureBuffer() // This must be right after concatMap.
@@ -358,6 +359,100 @@ public class RecommendationManager {
         mCompositeSubscription.add(subscription);
     }
 
+    /**
+     * Creates the recommendation storage of the expiry sweeper, backed by the database. Without
+     * a database there is nothing to expire.
+     *
+     * @return The store.
+     */
+    private RecommendationExpirySweeper.Store createExpiryStore() {
+
+        return new RecommendationExpirySweeper.Store() {
+            @Override
+            public long getNextExpiration() {
+
+                RecommendationDatabaseHelper databaseHelper =
+                        RecommendationDatabaseHelper.getInstance();
+                if (databaseHelper == null) {
+                    Log.e(TAG, "Cannot get next expiration because database is null");
+                    return -1;
+                }
+                return databaseHelper.getNextExpiration(mContext);
+            }
+
+            @Override
+            public List<RecommendationRecord> removeExpired(long now) {
+
+                RecommendationDatabaseHelper databaseHelper =
+                        RecommendationDatabaseHelper.getInstance();
+                if (databaseHelper == null) {
+                    Log.e(TAG, "Cannot remove expired recommendations because database is null");
+                    return new ArrayList<>();
+                }
+                return databaseHelper.removeExpiredRecommendations(mContext, now);
+            }
+        };
+    }
+
+    /**
+     * Creates the alarm of the expiry sweeper. It starts {@link UpdateRecommendationsService} to
+     * clean the database. The alarm does not wake the device up; if it is asleep, the database
+     * is cleaned when it wakes up.
+     *
+     * @return The alarm.
+     */
+    private RecommendationExpirySweeper.Alarm createExpiryAlarm() {
+
+        return new RecommendationExpirySweeper.Alarm() {
+            @Override
+            public void setAt(long time) {
+
+                AlarmManager alarmManager = getAlarmManager();
+                if (alarmManager != null) {
+                    Log.d(TAG, "Next recommendation expires at " + time);
+                    alarmManager.set(AlarmManager.RTC, time, createExpiryIntent());
+                }
+            }
+
+            @Override
+            public void cancel() {
+
+                AlarmManager alarmManager = getAlarmManager();
+                if (alarmManager != null) {
+                    alarmManager.cancel(createExpiryIntent());
+                }
+            }
+        };
+    }
+
+    /**
+     * Get the alarm manager.
+     *
+     * @return The alarm manager, or null if it is not available.
+     */
+    private AlarmManager getAlarmManager() {
+
+        AlarmManager alarmManager =
+                (AlarmManager) mContext.getSystemService(Context.ALARM_SERVICE);
+        if (alarmManager == null) {
+            Log.e(TAG, "Cannot schedule recommendation expiry because alarm manager is null");
+        }
+        return alarmManager;
+    }
+
+    /**
+     * Creates the pending intent the expiry alarm fires.
+     *
+     * @return The pending intent.
+     */
+    private PendingIntent createExpiryIntent() {
+
+        Intent intent = new Intent(mContext, UpdateRecommendationsService.class);
+        intent.setAction(UpdateRecommendationsService.ACTION_EXPIRE_RECOMMENDATIONS);
+        return PendingIntent.getService(mContext, EXPIRY_ALARM_REQUEST_CODE, intent,
+                                        PendingIntent.FLAG_UPDATE_CURRENT);
+    }
+
     /**
      * Sends global recommendations in an async task.
      *
@@ -372,6 +467,7 @@ public class RecommendationManager {
 
                 mSender.sendRecommendationsForType(RecommendationRecord.GLOBAL, contentIds,
                                                    mMaxGlobal);
+                mExpirySweeper.reschedule();
                 return null;
             }
 
@@ -390,6 +486,6 @@ public class RecommendationManager {
                 }
             }
 
-        }).execute();
+        }).executeOnExecutor(TASK_EXECUTOR);
     }
 }
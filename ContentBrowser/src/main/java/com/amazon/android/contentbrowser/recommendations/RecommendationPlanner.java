@@ -0,0 +1,218 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.recommendations;
+
+import com.amazon.android.contentbrowser.database.records.RecommendationRecord;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class computes the changes needed to go from the recommendations currently stored in the
+ * database to the recommendations that should be sent for a type. It has no side effects; the
+ * resulting {@link Plan} is applied by {@link RecommendationSender}.
+ *
+ * The rules are:
+ * <ul>
+ * <li>The first max distinct content ids are recommended.</li>
+ * <li>A content that already has a recommendation, of any type, keeps its recommendation id and
+ * is updated to the new type.</li>
+ * <li>Recommendations of the type that are no longer wanted are cancelled, oldest first, only
+ * as far as needed to stay within max recommendations of the type.</li>
+ * <li>New recommendations get the lowest recommendation ids not used by a remaining
+ * recommendation.</li>
+ * </ul>
+ */
+final class RecommendationPlanner {
+
+    /**
+     * Static class, not to be instantiated.
+     */
+    private RecommendationPlanner() {
+
+    }
+
+    /**
+     * Plan the changes for sending recommendations of the given type.
+     *
+     * @param type            The type of recommendation.
+     * @param contentIds      Ids of the contents to recommend, in order of preference.
+     * @param max             The maximum number of recommendations of the type.
+     * @param existingRecords All recommendation records in the database, oldest first.
+     * @return The plan.
+     */
+    static Plan plan(String type, List<String> contentIds, int max,
+                     List<RecommendationRecord> existingRecords) {
+
+        Set<String> desiredContentIds = new LinkedHashSet<>();
+        for (String contentId : contentIds) {
+            if (desiredContentIds.size() >= max) {
+                break;
+            }
+            if (contentId != null) {
+                desiredContentIds.add(contentId);
+            }
+        }
+
+        Map<String, RecommendationRecord> existingByContentId = new HashMap<>();
+        for (RecommendationRecord record : existingRecords) {
+            if (!existingByContentId.containsKey(record.getContentId())) {
+                existingByContentId.put(record.getContentId(), record);
+            }
+        }
+
+        List<RecommendationRecord> updates = new ArrayList<>();
+        List<String> contentIdsToAdd = new ArrayList<>();
+        for (String contentId : desiredContentIds) {
+            RecommendationRecord existing = existingByContentId.get(contentId);
+            if (existing != null) {
+                updates.add(new RecommendationRecord(contentId, existing.getRecommendationId(),
+                                                     type));
+            }
+            else {
+                contentIdsToAdd.add(contentId);
+            }
+        }
+
+        // Recommendations of the type that stay untouched still count towards max.
+        int numUntouched = 0;
+        for (RecommendationRecord record : existingRecords) {
+            if (type.equals(record.getType()) &&
+                    !desiredContentIds.contains(record.getContentId())) {
+                numUntouched++;
+            }
+        }
+
+        List<RecommendationRecord> cancels = new ArrayList<>();
+        int numToCancel = numUntouched + desiredContentIds.size() - max;
+        Set<Integer> usedIds = new HashSet<>();
+        for (RecommendationRecord record : existingRecords) {
+            if (numToCancel > 0 && type.equals(record.getType()) &&
+                    !desiredContentIds.contains(record.getContentId())) {
+                cancels.add(record);
+                numToCancel--;
+            }
+            else {
+                usedIds.add(record.getRecommendationId());
+            }
+        }
+
+        // Walk the free ids in ascending order, skipping the ones still in use.
+        List<RecommendationRecord> adds = new ArrayList<>();
+        int nextId = 1;
+        for (String contentId : contentIdsToAdd) {
+            while (usedIds.contains(nextId)) {
+                nextId++;
+            }
+            adds.add(new RecommendationRecord(contentId, nextId++, type));
+        }
+
+        return new Plan(adds, updates, cancels);
+    }
+
+    /**
+     * The changes to apply to the recommendations.
+     */
+    static final class Plan {
+
+        /**
+         * New recommendations, with their allocated recommendation ids.
+         */
+        private final List<RecommendationRecord> mAdds;
+
+        /**
+         * Existing recommendations to update, with the new type.
+         */
+        private final List<RecommendationRecord> mUpdates;
+
+        /**
+         * Existing recommendations to cancel.
+         */
+        private final List<RecommendationRecord> mCancels;
+
+        /**
+         * Constructor.
+         *
+         * @param adds    New recommendations.
+         * @param updates Existing recommendations to update.
+         * @param cancels Existing recommendations to cancel.
+         */
+        Plan(List<RecommendationRecord> adds, List<RecommendationRecord> updates,
+             List<RecommendationRecord> cancels) {
+
+            mAdds = adds;
+            mUpdates = updates;
+            mCancels = cancels;
+        }
+
+        /**
+         * Get the new recommendations.
+         *
+         * @return The records to add.
+         */
+        List<RecommendationRecord> getAdds() {
+
+            return mAdds;
+        }
+
+        /**
+         * Get the existing recommendations to update.
+         *
+         * @return The records to update.
+         */
+        List<RecommendationRecord> getUpdates() {
+
+            return mUpdates;
+        }
+
+        /**
+         * Get the existing recommendations to cancel.
+         *
+         * @return The records to cancel.
+         */
+        List<RecommendationRecord> getCancels() {
+
+            return mCancels;
+        }
+
+        /**
+         * Get the records to write to the database, the updates followed by the adds.
+         *
+         * @return The records to write.
+         */
+        List<RecommendationRecord> getWrites() {
+
+            List<RecommendationRecord> writes = new ArrayList<>(mUpdates.size() + mAdds.size());
+            writes.addAll(mUpdates);
+            writes.addAll(mAdds);
+            return writes;
+        }
+
+        @Override
+        public String toString() {
+
+            return "Plan{" +
+                    "mAdds=" + mAdds +
+                    ", mUpdates=" + mUpdates +
+                    ", mCancels=" + mCancels +
+                    '}';
+        }
+    }
+}
@@ -31,7 +31,9 @@ import android.content.pm.PackageManager;
 import android.util.Log;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.amazon.android.contentbrowser.helper.LauncherIntegrationManager.CONTENT_SOURCE;
 import static com.amazon.android.contentbrowser.helper.LauncherIntegrationManager
@@ -41,7 +43,8 @@ import static com.amazon.android.contentbrowser.helper.LauncherIntegrationManage
  * This class contains functionality to send, build, update, and dismiss recommendations. This is a
  * helper class for {@link RecommendationManager}. The method containing the main logic for sending
  * recommendations is {@link #sendRecommendationsForType(String, List, int)}.
- * This class relies heavily on {@link RecommendationDatabaseHelper} for database transactions.
+ * The changes to make are computed by {@link RecommendationPlanner}. This class relies heavily on
+ * {@link RecommendationDatabaseHelper} for database transactions.
  */
 class RecommendationSender {
 
@@ -94,30 +97,17 @@ class RecommendationSender {
                 return false;
             }
 
-            // Trim down any excess content ids since we can only send max recommendations.
-            List<String> contentIdsOfNewRecs = contentIds;
-            if (contentIds.size() > max) {
-                contentIdsOfNewRecs = contentIds.subList(0, max);
-            }
-
-            // A list of ids to use for new recommendations.
-            ArrayList<Integer> idsForNewRecs = buildRecommendationIdList(max);
-
-            // Get the list of recommendations records that will be updated.
-            List<RecommendationRecord> recsToUpdate =
-                    databaseHelper.getExistingRecommendationsByContentIds(mContext, contentIdsOfNewRecs);
-
-            // Get the list of recommendations that need to be deleted to send the new ones
-            List<RecommendationRecord> recsToDelete =
-                    getRecordsToDelete(type, contentIdsOfNewRecs.size(), recsToUpdate,
-                                       max);
+            // Plan all changes from the current state, loaded with a single query.
+            RecommendationPlanner.Plan plan =
+                    RecommendationPlanner.plan(type, contentIds, max,
+                                               databaseHelper.getAllRecs(mContext));
 
-            updateExistingRecommendations(type, recsToUpdate, contentIdsOfNewRecs,
-                                          idsForNewRecs);
-
-            deleteRecommendations(recsToDelete);
+            if (!databaseHelper.applyChanges(mContext, plan.getCancels(), plan.getWrites())) {
+                Log.e(TAG, "Unable to store recommendation changes " + plan);
+                return false;
+            }
 
-            sendNewRecommendations(type, idsForNewRecs, contentIdsOfNewRecs);
+            sendPlannedNotifications(plan);
 
         }
         catch (Exception e) {
@@ -127,6 +117,56 @@ class RecommendationSender {
         return true;
     }
 
+    /**
+     * Sends the notification changes of a plan that was stored in the database to notification
+     * manager, if {@link #mSendToNotificationManager} is true. Cancels go first since a new
+     * recommendation may reuse the id of a cancelled one.
+     *
+     * @param plan The plan.
+     */
+    private void sendPlannedNotifications(RecommendationPlanner.Plan plan) {
+
+        if (!mSendToNotificationManager) {
+            return;
+        }
+        for (RecommendationRecord record : plan.getCancels()) {
+            mNotificationManager.cancel(record.getRecommendationId());
+        }
+        for (RecommendationRecord record : plan.getUpdates()) {
+            mNotificationManager.cancel(record.getRecommendationId());
+        }
+        List<RecommendationRecord> writes = plan.getWrites();
+        Map<String, RecentRecord> recentRecords = getRecentRecords(writes);
+        for (RecommendationRecord record : writes) {
+            Notification notification =
+                    buildRecommendation(record.getContentId(), record.getRecommendationId(),
+                                        record.getType(),
+                                        recentRecords.get(record.getContentId()));
+            sendToNotificationManager(mContext, record.getRecommendationId(), notification);
+        }
+    }
+
+    /**
+     * Reads the recent records of the contents of the given recommendations with a single query.
+     *
+     * @param records The recommendation records.
+     * @return Map from content id to recent record, for the contents that have one.
+     */
+    private Map<String, RecentRecord> getRecentRecords(List<RecommendationRecord> records) {
+
+        RecentDatabaseHelper database = RecentDatabaseHelper.getInstance();
+        if (database == null) {
+            Log.e(TAG, "Could not get recent playback progress for content because database is " +
+                    "null");
+            return new HashMap<>();
+        }
+        List<String> contentIds = new ArrayList<>(records.size());
+        for (RecommendationRecord record : records) {
+            contentIds.add(record.getContentId());
+        }
+        return database.getRecords(mContext, contentIds);
+    }
+
     /**
      * Creates recommendations, stores them to the database, and sends them to notification
      * manager (if {@link #mSendToNotificationManager} is true. If the list of recommendation ids
@@ -292,7 +332,8 @@ class RecommendationSender {
     }
 
     /**
-     * Builds the recommendation.
+     * Builds the recommendation, reading the playback progress of the content from the recent
+     * database.
      *
      * @param contentId        The content id.
      * @param recommendationId The recommendation id.
@@ -302,6 +343,30 @@ class RecommendationSender {
     Notification buildRecommendation(String contentId, int
             recommendationId, String group) {
 
+        RecentRecord record = null;
+        RecentDatabaseHelper database = RecentDatabaseHelper.getInstance();
+        if (database != null) {
+            record = database.getRecord(mContext, contentId);
+        }
+        else {
+            Log.e(TAG, "Could not get recent playback progress for content because database is " +
+                    "null");
+        }
+        return buildRecommendation(contentId, recommendationId, group, record);
+    }
+
+    /**
+     * Builds the recommendation.
+     *
+     * @param contentId        The content id.
+     * @param recommendationId The recommendation id.
+     * @param group            The recommendation type.
+     * @param recentRecord     The recent record of the content, or null if it has none.
+     * @return The recommendation.
+     */
+    Notification buildRecommendation(String contentId, int recommendationId, String group,
+                                     RecentRecord recentRecord) {
+
         Content content = getContentFromRoot(contentId);
         if (content == null) {
             Log.e(TAG, "Could not build recommendation for content with id " + contentId + " " +
@@ -312,17 +377,9 @@ class RecommendationSender {
         // Try getting the content's playback progress (if it exists)
         int playbackProgress = 0;
         long lastWatchedDateTime = 0;
-        RecentDatabaseHelper database = RecentDatabaseHelper.getInstance();
-        if (database != null) {
-            if (database.recordExists(mContext, contentId)) { // Need to get recent db from content browser. Maybe shoudl do that for all instead of passing?
-                RecentRecord record = database.getRecord(mContext, contentId);
-                playbackProgress = (int) record.getPlaybackLocation();
-                lastWatchedDateTime = record.getLastWatched();
-            }
-        }
-        else {
-            Log.e(TAG, "Could not get recent playback progress for content because database is " +
-                    "null");
+        if (recentRecord != null) {
+            playbackProgress = (int) recentRecord.getPlaybackLocation();
+            lastWatchedDateTime = recentRecord.getLastWatched();
         }
 
         // Create the recommendation builder.
@@ -419,29 +476,6 @@ class RecommendationSender {
         return mRootContentContainer;
     }
 
-    /**
-     * Generates of list of recommendation ids to use from 1 to the n, the max number of
-     * recommendations to send at one time.
-     *
-     * @param max      The max number of recommendations to send at one time.
-     * @return List of recommendation ids.
-     */
-    private ArrayList<Integer> buildRecommendationIdList(int max) {
-
-        ArrayList<Integer> ids = new ArrayList<>();
-        RecommendationDatabaseHelper databaseHelper = RecommendationDatabaseHelper.getInstance();
-        
-        List<Integer> usedIds = databaseHelper.getAllRecommendationsIds(mContext);
-        int i = 1;
-        while (ids.size() < max) {
-            if (!usedIds.contains(i)) {
-                ids.add(i);
-            }
-            i++;
-        }
-        return ids;
-    }
-
     /**
      * Builds the content intent for the recommendation. Needs to use reflection to get the Class
      * of the activity to be launched with the Intent, since this module may not know about the
@@ -23,12 +23,19 @@ import android.content.Intent;
 import android.util.Log;
 
 /**
- * This service starts the recommendation update process.
+ * This service starts the recommendation update process. Started with
+ * {@link #ACTION_EXPIRE_RECOMMENDATIONS}, it only removes the expired recommendations.
  */
 public class UpdateRecommendationsService extends IntentService {
 
     private static final String TAG = UpdateRecommendationsService.class.getSimpleName();
 
+    /**
+     * Intent action to only remove the expired recommendations, without sending new ones.
+     */
+    static final String ACTION_EXPIRE_RECOMMENDATIONS =
+            "com.amazon.android.contentbrowser.recommendations.EXPIRE_RECOMMENDATIONS";
+
     /**
      * Constructs the update service.
      */
@@ -40,12 +47,17 @@ public class UpdateRecommendationsService extends IntentService {
     @Override
     protected void onHandleIntent(Intent intent) {
 
-        Log.d(TAG, "Updating recommendations");
-
         RecommendationManager manager = new RecommendationManager(getApplicationContext());
 
         manager.cleanDatabase();
 
+        if (intent != null && ACTION_EXPIRE_RECOMMENDATIONS.equals(intent.getAction())) {
+            Log.d(TAG, "Removed expired recommendations");
+            return;
+        }
+
+        Log.d(TAG, "Updating recommendations");
+
         // Send recommendations if authentication is not required or the user is logged in.
         if (!Navigator.isScreenAccessVerificationRequired(
                 manager.getContentLoader().getNavigatorModel()) ||
@@ -0,0 +1,516 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link IDatabase} running on an embedded SQLite database through JDBC, so the tables and
+ * helpers of the content database can be tested and benchmarked on the JVM. It mirrors the
+ * behavior of the Android database the code relies on: arguments are bound as strings, booleans
+ * are stored as 1 or 0, transactions nest, and compiled statements are cached.
+ */
+public class JdbcDatabase implements IDatabase {
+
+    /**
+     * The number of compiled statements kept, the same as the default of Android.
+     */
+    private static final int STATEMENT_CACHE_SIZE = 25;
+
+    /**
+     * The connection.
+     */
+    private final Connection mConnection;
+
+    /**
+     * Cache of compiled statements by SQL, least recently used first.
+     */
+    private final Map<String, PreparedStatement> mStatements =
+            new LinkedHashMap<String, PreparedStatement>(STATEMENT_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+
+                    if (size() > STATEMENT_CACHE_SIZE) {
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+
+    /**
+     * The depth of nested transactions.
+     */
+    private int mTransactionDepth;
+
+    /**
+     * True if the current transaction was marked successful.
+     */
+    private boolean mTransactionSuccessful;
+
+    /**
+     * True if a nested transaction ended without being marked successful.
+     */
+    private boolean mTransactionFailed;
+
+    /**
+     * Constructor.
+     *
+     * @param url The JDBC url of the SQLite database.
+     */
+    public JdbcDatabase(String url) {
+
+        try {
+            mConnection = DriverManager.getConnection(url);
+        }
+        catch (SQLException e) {
+            throw new IllegalStateException("Could not open database " + url, e);
+        }
+    }
+
+    /**
+     * Open an empty in-memory content database, with the tables and indexes of the current
+     * database version.
+     *
+     * @return The database.
+     */
+    public static JdbcDatabase openContentDatabase() {
+
+        JdbcDatabase db = new JdbcDatabase("jdbc:sqlite::memory:");
+        for (String statement : ContentDatabase.SQL_CREATE_STATEMENTS) {
+            db.execSQL(statement);
+        }
+        return db;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDatabaseCursor rawQuery(String sql, String[] selectionArgs) {
+
+        try {
+            PreparedStatement statement = prepare(sql);
+            bindArgs(statement, 1, selectionArgs);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return new ListCursor(resultSet);
+            }
+        }
+        catch (SQLException e) {
+            throw new IllegalStateException("Query failed: " + sql, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long insert(String table, DatabaseValues values) {
+
+        StringBuilder columns = new StringBuilder();
+        StringBuilder placeholders = new StringBuilder();
+        for (Map.Entry<String, Object> entry : values.valueSet()) {
+            if (columns.length() > 0) {
+                columns.append(',');
+                placeholders.append(',');
+            }
+            columns.append(entry.getKey());
+            placeholders.append('?');
+        }
+        String sql = "INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders + ")";
+        try {
+            PreparedStatement statement = prepare(sql);
+            bindValues(statement, values);
+            statement.executeUpdate();
+            try (ResultSet resultSet = prepare("SELECT last_insert_rowid()").executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : -1;
+            }
+        }
+        catch (SQLException e) {
+            // Like Android, an insert error is reported by the return value.
+            return -1;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int update(String table, DatabaseValues values, String whereClause,
+                      String[] whereArgs) {
+
+        StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : values.valueSet()) {
+            if (!first) {
+                sql.append(',');
+            }
+            sql.append(entry.getKey()).append("=?");
+            first = false;
+        }
+        appendWhere(sql, whereClause);
+        try {
+            PreparedStatement statement = prepare(sql.toString());
+            bindValues(statement, values);
+            bindArgs(statement, values.size() + 1, whereArgs);
+            return statement.executeUpdate();
+        }
+        catch (SQLException e) {
+            throw new IllegalStateException("Update failed: " + sql, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int delete(String table, String whereClause, String[] whereArgs) {
+
+        StringBuilder sql = new StringBuilder("DELETE FROM ").append(table);
+        appendWhere(sql, whereClause);
+        try {
+            PreparedStatement statement = prepare(sql.toString());
+            bindArgs(statement, 1, whereArgs);
+            return statement.executeUpdate();
+        }
+        catch (SQLException e) {
+            throw new IllegalStateException("Delete failed: " + sql, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execSQL(String sql) {
+
+        try (Statement statement = mConnection.createStatement()) {
+            statement.execute(sql);
+        }
+        catch (SQLException e) {
+            throw new IllegalStateException("Statement failed: " + sql, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long queryNumEntries(String table) {
+
+        IDatabaseCursor cursor = rawQuery("SELECT COUNT(*) FROM " + table, null);
+        try {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void beginTransaction() {
+
+        try {
+            if (mTransactionDepth == 0) {
+                mConnection.setAutoCommit(false);
+                mTransactionFailed = false;
+            }
+            mTransactionDepth++;
+            mTransactionSuccessful = false;
+        }
+        catch (SQLException e) {
+            throw new IllegalStateException("Could not begin transaction", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setTransactionSuccessful() {
+
+        if (mTransactionDepth == 0) {
+            throw new IllegalStateException("No transaction in progress");
+        }
+        mTransactionSuccessful = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endTransaction() {
+
+        if (mTransactionDepth == 0) {
+            throw new IllegalStateException("No transaction in progress");
+        }
+        if (!mTransactionSuccessful) {
+            mTransactionFailed = true;
+        }
+        // The enclosing transaction has to be marked successful again.
+        mTransactionSuccessful = false;
+        mTransactionDepth--;
+        if (mTransactionDepth > 0) {
+            return;
+        }
+        try {
+            if (mTransactionFailed) {
+                mConnection.rollback();
+            }
+            else {
+                mConnection.commit();
+            }
+            mConnection.setAutoCommit(true);
+        }
+        catch (SQLException e) {
+            throw new IllegalStateException("Could not end transaction", e);
+        }
+    }
+
+    /**
+     * Close the database.
+     */
+    public void close() {
+
+        for (PreparedStatement statement : mStatements.values()) {
+            closeQuietly(statement);
+        }
+        mStatements.clear();
+        try {
+            mConnection.close();
+        }
+        catch (SQLException e) {
+            throw new IllegalStateException("Could not close database", e);
+        }
+    }
+
+    /**
+     * Get a compiled statement from the cache, compiling it if needed.
+     *
+     * @param sql The SQL statement.
+     * @return The compiled statement.
+     */
+    private PreparedStatement prepare(String sql) throws SQLException {
+
+        PreparedStatement statement = mStatements.get(sql);
+        if (statement == null) {
+            statement = mConnection.prepareStatement(sql);
+            mStatements.put(sql, statement);
+        }
+        else {
+            statement.clearParameters();
+        }
+        return statement;
+    }
+
+    /**
+     * Bind string arguments.
+     *
+     * @param statement The statement.
+     * @param index     The index of the first parameter to bind, starting at 1.
+     * @param args      The arguments, or null.
+     */
+    private static void bindArgs(PreparedStatement statement, int index, String[] args)
+            throws SQLException {
+
+        if (args == null) {
+            return;
+        }
+        for (String arg : args) {
+            statement.setString(index++, arg);
+        }
+    }
+
+    /**
+     * Bind the database values, from the first parameter on.
+     *
+     * @param statement The statement.
+     * @param values    The values.
+     */
+    private static void bindValues(PreparedStatement statement, DatabaseValues values)
+            throws SQLException {
+
+        int index = 1;
+        for (Map.Entry<String, Object> entry : values.valueSet()) {
+            Object value = entry.getValue();
+            if (value instanceof Boolean) {
+                statement.setLong(index++, (Boolean) value ? 1 : 0);
+            }
+            else {
+                statement.setObject(index++, value);
+            }
+        }
+    }
+
+    /**
+     * Append a WHERE clause, if any.
+     *
+     * @param sql         The SQL statement.
+     * @param whereClause The WHERE clause, without the WHERE keyword, or null.
+     */
+    private static void appendWhere(StringBuilder sql, String whereClause) {
+
+        if (whereClause != null && !whereClause.isEmpty()) {
+            sql.append(" WHERE ").append(whereClause);
+        }
+    }
+
+    /**
+     * Close a statement, ignoring errors.
+     *
+     * @param statement The statement.
+     */
+    private static void closeQuietly(Statement statement) {
+
+        try {
+            statement.close();
+        }
+        catch (SQLException e) {
+            // Nothing left to do with the statement.
+        }
+    }
+
+    /**
+     * A cursor over rows read entirely from a result set, like the window of an Android cursor.
+     */
+    private static class ListCursor implements IDatabaseCursor {
+
+        /**
+         * The column names.
+         */
+        private final List<String> mColumns = new ArrayList<>();
+
+        /**
+         * The rows.
+         */
+        private final List<Object[]> mRows = new ArrayList<>();
+
+        /**
+         * The current row position, -1 before the first row.
+         */
+        private int mPosition = -1;
+
+        /**
+         * Constructor.
+         *
+         * @param resultSet The result set to read.
+         */
+        ListCursor(ResultSet resultSet) throws SQLException {
+
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            int columnCount = metaData.getColumnCount();
+            for (int i = 1; i <= columnCount; i++) {
+                mColumns.add(metaData.getColumnLabel(i));
+            }
+            while (resultSet.next()) {
+                Object[] row = new Object[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = resultSet.getObject(i + 1);
+                }
+                mRows.add(row);
+            }
+        }
+
+        @Override
+        public boolean moveToFirst() {
+
+            mPosition = 0;
+            return !mRows.isEmpty();
+        }
+
+        @Override
+        public boolean moveToNext() {
+
+            if (mPosition < mRows.size()) {
+                mPosition++;
+            }
+            return mPosition < mRows.size();
+        }
+
+        @Override
+        public int getCount() {
+
+            return mRows.size();
+        }
+
+        @Override
+        public int getColumnIndex(String columnName) {
+
+            return mColumns.indexOf(columnName);
+        }
+
+        @Override
+        public String getString(int columnIndex) {
+
+            Object value = get(columnIndex);
+            return value != null ? value.toString() : null;
+        }
+
+        @Override
+        public int getInt(int columnIndex) {
+
+            return (int) getLong(columnIndex);
+        }
+
+        @Override
+        public long getLong(int columnIndex) {
+
+            Object value = get(columnIndex);
+            if (value instanceof Number) {
+                return ((Number) value).longValue();
+            }
+            return value != null ? Long.parseLong(value.toString()) : 0;
+        }
+
+        @Override
+        public boolean isNull(int columnIndex) {
+
+            return get(columnIndex) == null;
+        }
+
+        @Override
+        public void close() {
+
+            mRows.clear();
+        }
+
+        /**
+         * Get a value of the current row.
+         *
+         * @param columnIndex The zero based column index.
+         * @return The value.
+         */
+        private Object get(int columnIndex) {
+
+            if (mPosition < 0 || mPosition >= mRows.size()) {
+                throw new IllegalStateException("Cursor is not on a row: " + mPosition);
+            }
+            return mRows.get(mPosition)[columnIndex];
+        }
+    }
+}
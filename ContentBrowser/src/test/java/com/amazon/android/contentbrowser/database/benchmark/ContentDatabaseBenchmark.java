@@ -0,0 +1,243 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.database.benchmark;
+
+import com.amazon.android.contentbrowser.database.JdbcDatabase;
+import com.amazon.android.contentbrowser.database.records.RecentRecord;
+import com.amazon.android.contentbrowser.database.records.RecommendationRecord;
+import com.amazon.android.contentbrowser.database.records.Record;
+import com.amazon.android.contentbrowser.database.tables.RecentTable;
+import com.amazon.android.contentbrowser.database.tables.RecommendationTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the content database tables on an embedded SQLite database, at several table
+ * sizes. They measure the queries the app runs most: reading one record and a batch of records,
+ * writing a record, the unfinished recent records query of the continue watching row, and the
+ * expiry queries of the recommendation sweeper.
+ *
+ * Run them with the main method, or through {@link ContentDatabaseBenchmarkTest}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentDatabaseBenchmark {
+
+    /**
+     * The number of ids read by the batch read.
+     */
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * The number of random keys cycled through by the benchmarks.
+     */
+    private static final int KEY_COUNT = 1024;
+
+    /**
+     * The grace period of the unfinished records query, the default recent_grace_period.
+     */
+    private static final int GRACE_PERIOD = 10000;
+
+    /**
+     * The number of rows in each table.
+     */
+    @Param({"10", "1000", "100000"})
+    public int rows;
+
+    private JdbcDatabase mDb;
+    private RecentTable mRecentTable;
+    private RecommendationTable mRecommendationTable;
+    private RecentRecord[] mRecentRecords;
+    private int[] mKeys;
+    private List<List<String>> mBatches;
+    private int mNextKey;
+    private long mNow;
+
+    /**
+     * Fill the recent and recommendation tables. A quarter of the recent records are completed
+     * and the playback locations are spread around the grace period. About 1% of the
+     * recommendations, and at least one, are expired. The rows are inserted directly; writing
+     * them would look each one up first, which scans the table.
+     */
+    @Setup
+    public void setUp() {
+
+        mDb = JdbcDatabase.openContentDatabase();
+        mRecentTable = new RecentTable();
+        mRecommendationTable = new RecommendationTable();
+        Random random = new Random(rows);
+        long start = System.currentTimeMillis();
+
+        int defaultTtl = RecommendationTable.RECORD_TTL;
+        int expiredCount = Math.max(1, rows / 100);
+        mRecentRecords = new RecentRecord[rows];
+        mDb.beginTransaction();
+        try {
+            for (int i = 0; i < rows; i++) {
+                String contentId = contentId(i);
+                mRecentRecords[i] = new RecentRecord(contentId, random.nextInt(4 * GRACE_PERIOD),
+                                                     i % 4 == 0, start - (rows - i) * 1000L,
+                                                     4 * GRACE_PERIOD);
+                mDb.insert(mRecentTable.getTableName(),
+                           mRecentTable.writeContentValues(mRecentRecords[i]));
+
+                RecommendationTable.RECORD_TTL = i < expiredCount ? -1 - i : defaultTtl;
+                mDb.insert(mRecommendationTable.getTableName(),
+                           mRecommendationTable.writeContentValues(new RecommendationRecord(
+                                   contentId, i + 1, RecommendationRecord.GLOBAL)));
+            }
+            mDb.setTransactionSuccessful();
+        }
+        finally {
+            mDb.endTransaction();
+            RecommendationTable.RECORD_TTL = defaultTtl;
+        }
+        mNow = System.currentTimeMillis();
+
+        mKeys = new int[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            mKeys[i] = random.nextInt(rows);
+        }
+        mBatches = new ArrayList<>();
+        for (int i = 0; i < KEY_COUNT / BATCH_SIZE; i++) {
+            List<String> batch = new ArrayList<>(BATCH_SIZE);
+            for (int j = 0; j < BATCH_SIZE; j++) {
+                batch.add(contentId(random.nextInt(rows)));
+            }
+            mBatches.add(batch);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+
+        mDb.close();
+    }
+
+    /**
+     * Read one recent record by content id.
+     */
+    @Benchmark
+    public Record singleRead() {
+
+        return mRecentTable.read(mDb, contentId(nextKey()));
+    }
+
+    /**
+     * Read {@link #BATCH_SIZE} recent records by content id.
+     */
+    @Benchmark
+    public Map<String, ? extends Record> batchRead() {
+
+        return mRecentTable.readByContentIds(mDb, mBatches.get(nextKey() % mBatches.size()));
+    }
+
+    /**
+     * Write an existing recent record with a new playback location. The row count stays the
+     * same, so every write takes the update path.
+     */
+    @Benchmark
+    public long upsert() {
+
+        RecentRecord record = mRecentRecords[nextKey()];
+        record.setPlaybackLocation(record.getPlaybackLocation() + 1);
+        return mRecentTable.write(mDb, record);
+    }
+
+    /**
+     * Read the unfinished recent records, most recently watched first.
+     */
+    @Benchmark
+    public List<RecentRecord> unfinishedRecords() {
+
+        return mRecentTable.getUnFinishedRecords(mDb, GRACE_PERIOD);
+    }
+
+    /**
+     * Read the expired recommendations.
+     */
+    @Benchmark
+    public List<RecommendationRecord> expiredRecommendations() {
+
+        return mRecommendationTable.getExpiredRecommendations(mDb, mNow);
+    }
+
+    /**
+     * Read the next recommendation expiration, which the sweeper schedules its alarm at.
+     */
+    @Benchmark
+    public long nextExpiration() {
+
+        return mRecommendationTable.getNextExpiration(mDb);
+    }
+
+    /**
+     * Get the next random row index.
+     *
+     * @return The row index.
+     */
+    private int nextKey() {
+
+        mNextKey = (mNextKey + 1) % KEY_COUNT;
+        return mKeys[mNextKey];
+    }
+
+    /**
+     * Get the content id of a row.
+     *
+     * @param index The row index.
+     * @return The content id.
+     */
+    private static String contentId(int index) {
+
+        return "content-" + index;
+    }
+
+    /**
+     * Run all the benchmarks.
+     *
+     * @param args Not used.
+     */
+    public static void main(String[] args) throws RunnerException {
+
+        new Runner(new OptionsBuilder()
+                           .include(ContentDatabaseBenchmark.class.getSimpleName())
+                           .build()).run();
+    }
+}
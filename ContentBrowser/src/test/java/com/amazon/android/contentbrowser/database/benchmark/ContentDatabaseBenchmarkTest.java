@@ -0,0 +1,43 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.database.benchmark;
+
+import org.junit.Test;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Runs {@link ContentDatabaseBenchmark} as a unit test, so it can be started from Gradle. It is
+ * skipped unless the runBenchmarks system property is true, e.g.
+ * {@code ./gradlew :ContentBrowser:testDebugUnitTest --tests '*ContentDatabaseBenchmarkTest'
+ * -DrunBenchmarks=true}.
+ */
+public class ContentDatabaseBenchmarkTest {
+
+    /**
+     * Runs the benchmarks in the test JVM. Forked JVMs would not get the test class path.
+     */
+    @Test
+    public void runBenchmarks() throws Exception {
+
+        assumeTrue(Boolean.getBoolean("runBenchmarks"));
+        new Runner(new OptionsBuilder()
+                           .include(ContentDatabaseBenchmark.class.getSimpleName())
+                           .forks(0)
+                           .build()).run();
+    }
+}
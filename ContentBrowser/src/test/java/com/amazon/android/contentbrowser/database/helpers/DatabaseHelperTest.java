@@ -0,0 +1,138 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.database.helpers;
+
+import com.amazon.android.contentbrowser.database.JdbcDatabase;
+import com.amazon.android.contentbrowser.database.records.RecentRecord;
+import com.amazon.android.contentbrowser.database.records.RecommendationRecord;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link DatabaseHelper} classes, run on an embedded SQLite database set with
+ * {@link DatabaseHelper#setDatabaseOverride}. No context is needed.
+ */
+public class DatabaseHelperTest {
+
+    private JdbcDatabase mDb;
+    private RecentDatabaseHelper mRecentHelper;
+    private RecommendationDatabaseHelper mRecommendationHelper;
+    private WatchlistDatabaseHelper mWatchlistHelper;
+
+    @Before
+    public void setUp() throws Exception {
+
+        mDb = JdbcDatabase.openContentDatabase();
+        mRecentHelper = RecentDatabaseHelper.getInstance();
+        mRecommendationHelper = RecommendationDatabaseHelper.getInstance();
+        mWatchlistHelper = WatchlistDatabaseHelper.getInstance();
+        mRecentHelper.setDatabaseOverride(mDb);
+        mRecommendationHelper.setDatabaseOverride(mDb);
+        mWatchlistHelper.setDatabaseOverride(mDb);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        mRecentHelper.setDatabaseOverride(null);
+        mRecommendationHelper.setDatabaseOverride(null);
+        mWatchlistHelper.setDatabaseOverride(null);
+        mDb.close();
+    }
+
+    /**
+     * Tests the multi-key read, exists and delete.
+     */
+    @Test
+    public void testMultiKeyOperations() throws Exception {
+
+        mWatchlistHelper.addRecord(null, "1");
+        mWatchlistHelper.addRecord(null, "2");
+
+        Map<String, Boolean> exist = mWatchlistHelper.recordsExist(null,
+                                                                   Arrays.asList("1", "3"));
+        assertTrue(exist.get("1"));
+        assertFalse(exist.get("3"));
+        assertEquals(2, mWatchlistHelper.getRecords(null, Arrays.asList("1", "2", "3")).size());
+        assertEquals(2, mWatchlistHelper.deleteRecords(null, Arrays.asList("1", "2", "3")));
+        assertEquals(0, mWatchlistHelper.getCount(null));
+    }
+
+    /**
+     * Tests pruning keeps the most recently watched records and updates the metrics.
+     */
+    @Test
+    public void testPruneRecords() throws Exception {
+
+        int count = RecentDatabaseHelper.PRUNE_BATCH_SIZE + 50;
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            mRecentHelper.addRecord(null, Integer.toString(i), 1000, false, now - count + i, 5000);
+        }
+        // One record not watched for a long time.
+        mRecentHelper.addRecord(null, "old", 1000, false, now - 1000000, 5000);
+
+        int totalBefore = mRecentHelper.getPruneMetrics().getPruneCount();
+        assertEquals(1, mRecentHelper.pruneRecords(null, 100000, 0));
+        assertEquals(count - 10, mRecentHelper.pruneRecords(null, 0, 10));
+
+        List<RecentRecord> records = mRecentHelper.getUnfinishedRecords(null, 0);
+        assertEquals(10, records.size());
+        assertEquals(Integer.toString(count - 1), records.get(0).getContentId());
+
+        RecentDatabaseHelper.PruneMetrics metrics = mRecentHelper.getPruneMetrics();
+        assertEquals(totalBefore + 2, metrics.getPruneCount());
+        assertEquals(10, metrics.getTableSize());
+        assertEquals(count - 10, metrics.getLastPrunedCount());
+    }
+
+    /**
+     * Tests recommendation changes are applied together, and expired recommendations are read and
+     * removed together.
+     */
+    @Test
+    public void testRecommendationChanges() throws Exception {
+
+        RecommendationRecord first = new RecommendationRecord("1", 1, RecommendationRecord.GLOBAL);
+        RecommendationRecord second = new RecommendationRecord("2", 2,
+                                                               RecommendationRecord.GLOBAL);
+        assertTrue(mRecommendationHelper.applyChanges(
+                null, Collections.<RecommendationRecord>emptyList(), Arrays.asList(first, second)));
+
+        RecommendationRecord replacement = new RecommendationRecord("3", 1,
+                                                                    RecommendationRecord.RELATED);
+        assertTrue(mRecommendationHelper.applyChanges(null, Collections.singletonList(first),
+                                                      Collections.singletonList(replacement)));
+        assertEquals(Arrays.asList(second, replacement), mRecommendationHelper.getAllRecs(null));
+
+        long next = mRecommendationHelper.getNextExpiration(null);
+        assertTrue(mRecommendationHelper.removeExpiredRecommendations(null, next - 1).isEmpty());
+        List<RecommendationRecord> expired =
+                mRecommendationHelper.removeExpiredRecommendations(null, Long.MAX_VALUE);
+        assertEquals(2, expired.size());
+        assertEquals(-1, mRecommendationHelper.getNextExpiration(null));
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.database.tables;
+
+import com.amazon.android.contentbrowser.database.JdbcDatabase;
+import com.amazon.android.contentbrowser.database.records.RecentRecord;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for the {@link RecentTable} class, run on an embedded SQLite database.
+ */
+public class RecentTableTest {
+
+    private JdbcDatabase mDb;
+    private RecentTable mTable;
+
+    @Before
+    public void setUp() throws Exception {
+
+        mDb = JdbcDatabase.openContentDatabase();
+        mTable = new RecentTable();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        mDb.close();
+    }
+
+    /**
+     * Tests only unfinished records past the grace period are returned, most recently watched
+     * first, comparing playback locations as numbers.
+     */
+    @Test
+    public void testGetUnFinishedRecords() throws Exception {
+
+        RecentRecord finished = new RecentRecord("1", 50000, true, 4000, 60000);
+        RecentRecord inGracePeriod = new RecentRecord("2", 900, false, 5000, 60000);
+        RecentRecord older = new RecentRecord("3", 10000, false, 1000, 60000);
+        RecentRecord newer = new RecentRecord("4", 9000, false, 3000, 60000);
+        for (RecentRecord record : Arrays.asList(finished, inGracePeriod, older, newer)) {
+            mTable.write(mDb, record);
+        }
+
+        List<RecentRecord> records = mTable.getUnFinishedRecords(mDb, 1000);
+        assertEquals(Arrays.asList(newer, older), records);
+    }
+
+    /**
+     * Tests pruning by age deletes the oldest records up to the limit.
+     */
+    @Test
+    public void testDeleteWatchedBefore() throws Exception {
+
+        for (int i = 1; i <= 5; i++) {
+            mTable.write(mDb, new RecentRecord(Integer.toString(i), 100, false, i * 1000, 1000));
+        }
+
+        assertEquals(2, mTable.deleteWatchedBefore(mDb, 4000, 2));
+        assertNull(mTable.read(mDb, "1"));
+        assertNull(mTable.read(mDb, "2"));
+        assertEquals(1, mTable.deleteWatchedBefore(mDb, 4000, 2));
+        assertEquals(0, mTable.deleteWatchedBefore(mDb, 4000, 2));
+        assertEquals(2, mTable.getRowCount(mDb));
+    }
+
+    /**
+     * Tests pruning by count deletes the least recently watched records.
+     */
+    @Test
+    public void testDeleteLeastRecentlyWatched() throws Exception {
+
+        mTable.write(mDb, new RecentRecord("1", 100, false, 3000, 1000));
+        mTable.write(mDb, new RecentRecord("2", 100, false, 1000, 1000));
+        mTable.write(mDb, new RecentRecord("3", 100, false, 2000, 1000));
+
+        assertEquals(2, mTable.deleteLeastRecentlyWatched(mDb, 2));
+        assertEquals(1, mTable.getRowCount(mDb));
+        assertNotNull(mTable.read(mDb, "1"));
+    }
+}
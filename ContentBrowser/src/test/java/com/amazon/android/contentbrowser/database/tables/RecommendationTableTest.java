@@ -0,0 +1,98 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.database.tables;
+
+import com.amazon.android.contentbrowser.database.JdbcDatabase;
+import com.amazon.android.contentbrowser.database.records.RecommendationRecord;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link RecommendationTable} class, run on an embedded SQLite database.
+ */
+public class RecommendationTableTest {
+
+    private static final int DEFAULT_TTL = RecommendationTable.RECORD_TTL;
+
+    private JdbcDatabase mDb;
+    private RecommendationTable mTable;
+
+    @Before
+    public void setUp() throws Exception {
+
+        mDb = JdbcDatabase.openContentDatabase();
+        mTable = new RecommendationTable();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        RecommendationTable.RECORD_TTL = DEFAULT_TTL;
+        mDb.close();
+    }
+
+    /**
+     * Tests the expiry queries find and delete only the expired recommendations.
+     */
+    @Test
+    public void testExpiry() throws Exception {
+
+        long now = System.currentTimeMillis();
+        assertEquals(-1, mTable.getNextExpiration(mDb));
+
+        RecommendationTable.RECORD_TTL = -10;
+        RecommendationRecord expired = new RecommendationRecord("1", 1,
+                                                                RecommendationRecord.GLOBAL);
+        mTable.write(mDb, expired);
+        RecommendationTable.RECORD_TTL = 100;
+        mTable.write(mDb, new RecommendationRecord("2", 2, RecommendationRecord.RELATED));
+
+        long next = mTable.getNextExpiration(mDb);
+        assertTrue(next < now);
+
+        List<RecommendationRecord> records = mTable.getExpiredRecommendations(mDb, now);
+        assertEquals(Collections.singletonList(expired), records);
+
+        assertTrue(mTable.deleteExpiredRecommendations(mDb, now));
+        assertFalse(mTable.deleteExpiredRecommendations(mDb, now));
+        assertEquals(1, mTable.getCount(mDb));
+        assertTrue(mTable.getNextExpiration(mDb) > now);
+    }
+
+    /**
+     * Tests reading and deleting by recommendation id.
+     */
+    @Test
+    public void testRecommendationIds() throws Exception {
+
+        RecommendationRecord record = new RecommendationRecord("1", 7,
+                                                               RecommendationRecord.GLOBAL);
+        mTable.write(mDb, record);
+
+        assertEquals(record, mTable.read(mDb, 7));
+        assertEquals(Collections.singletonList(7), mTable.getRecommendationIds(mDb));
+        assertTrue(mTable.deleteByRecommendationId(mDb, 7));
+        assertEquals(0, mTable.getCount(mDb));
+    }
+}
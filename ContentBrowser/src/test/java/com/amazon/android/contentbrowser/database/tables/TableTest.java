@@ -0,0 +1,141 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.database.tables;
+
+import com.amazon.android.contentbrowser.database.JdbcDatabase;
+import com.amazon.android.contentbrowser.database.records.RecentRecord;
+import com.amazon.android.contentbrowser.database.records.Record;
+import com.amazon.android.contentbrowser.database.records.WatchlistRecord;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link Table} class, run on an embedded SQLite database.
+ */
+public class TableTest {
+
+    private JdbcDatabase mDb;
+    private RecentTable mRecentTable;
+    private WatchlistTable mWatchlistTable;
+
+    @Before
+    public void setUp() throws Exception {
+
+        mDb = JdbcDatabase.openContentDatabase();
+        mRecentTable = new RecentTable();
+        mWatchlistTable = new WatchlistTable();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        mDb.close();
+    }
+
+    /**
+     * Tests writing a record inserts it once, and writing it again updates the same row.
+     */
+    @Test
+    public void testWriteInsertsThenUpdates() throws Exception {
+
+        RecentRecord record = new RecentRecord("1", 100, false, 1000, 5000);
+        long rowId = mRecentTable.write(mDb, record);
+        assertNotEquals(-1, rowId);
+        assertEquals(rowId, mRecentTable.findRowId(mDb, "1"));
+        assertEquals(record, mRecentTable.read(mDb, "1"));
+
+        record.setPlaybackLocation(200);
+        record.setPlaybackComplete(true);
+        mRecentTable.write(mDb, record);
+
+        assertEquals(1, mRecentTable.getCount(mDb));
+        assertEquals(rowId, mRecentTable.findRowId(mDb, "1"));
+        assertEquals(record, mRecentTable.read(mDb, "1"));
+    }
+
+    /**
+     * Tests reading and finding a missing record.
+     */
+    @Test
+    public void testReadMissingRecord() throws Exception {
+
+        assertNull(mRecentTable.read(mDb, "1"));
+        assertEquals(-1, mRecentTable.findRowId(mDb, "1"));
+        assertFalse(mRecentTable.deleteByContentId(mDb, "1"));
+    }
+
+    /**
+     * Tests the multi-key operations with more ids than fit in one query.
+     */
+    @Test
+    public void testMultiKeyOperations() throws Exception {
+
+        int count = Table.MAX_KEYS_PER_QUERY * 2 + 10;
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(Integer.toString(i));
+            mWatchlistTable.write(mDb, new WatchlistRecord(Integer.toString(i)));
+        }
+
+        List<String> lookup = new ArrayList<>(ids);
+        lookup.add("missing");
+        lookup.add(null);
+
+        Map<String, Long> rowIds = mWatchlistTable.findRowIds(mDb, lookup);
+        assertEquals(count, rowIds.size());
+        assertEquals(Long.valueOf(mWatchlistTable.findRowId(mDb, "42")), rowIds.get("42"));
+
+        Map<String, ? extends Record> records = mWatchlistTable.readByContentIds(mDb, lookup);
+        assertEquals(count, records.size());
+        assertEquals(new WatchlistRecord("7"), records.get("7"));
+
+        assertEquals(count, mWatchlistTable.deleteByContentIds(mDb, lookup));
+        assertEquals(0, mWatchlistTable.getCount(mDb));
+    }
+
+    /**
+     * Tests ids are split into distinct chunks of at most {@link Table#MAX_KEYS_PER_QUERY}.
+     */
+    @Test
+    public void testChunkKeys() throws Exception {
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < Table.MAX_KEYS_PER_QUERY + 1; i++) {
+            ids.add(Integer.toString(i));
+        }
+        ids.add("0");
+        ids.add(null);
+
+        List<String[]> chunks = Table.chunkKeys(ids);
+        assertEquals(2, chunks.size());
+        assertEquals(Table.MAX_KEYS_PER_QUERY, chunks.get(0).length);
+        assertTrue(Arrays.equals(new String[]{Integer.toString(Table.MAX_KEYS_PER_QUERY)},
+                                 chunks.get(1)));
+        assertEquals("?,?,?", Table.buildPlaceholders(3));
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.recommendations;
+
+import com.amazon.android.contentbrowser.database.records.RecommendationRecord;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link RecommendationExpirySweeper} class.
+ */
+public class RecommendationExpirySweeperTest {
+
+    private long mNow;
+    private long mAlarmTime;
+    private TreeMap<Long, RecommendationRecord> mStore;
+    private RecommendationExpirySweeper mSweeper;
+
+    @Before
+    public void setUp() throws Exception {
+
+        mNow = 1000;
+        mAlarmTime = -1;
+        mStore = new TreeMap<>();
+        mSweeper = new RecommendationExpirySweeper(
+                () -> mNow,
+                new RecommendationExpirySweeper.Store() {
+                    @Override
+                    public long getNextExpiration() {
+
+                        return mStore.isEmpty() ? -1 : mStore.firstKey();
+                    }
+
+                    @Override
+                    public List<RecommendationRecord> removeExpired(long now) {
+
+                        List<RecommendationRecord> removed = new ArrayList<>();
+                        Iterator<Map.Entry<Long, RecommendationRecord>> iterator =
+                                mStore.headMap(now, true).entrySet().iterator();
+                        while (iterator.hasNext()) {
+                            removed.add(iterator.next().getValue());
+                            iterator.remove();
+                        }
+                        return removed;
+                    }
+                },
+                new RecommendationExpirySweeper.Alarm() {
+                    @Override
+                    public void setAt(long time) {
+
+                        mAlarmTime = time;
+                    }
+
+                    @Override
+                    public void cancel() {
+
+                        mAlarmTime = -1;
+                    }
+                });
+    }
+
+    /**
+     * Tests the alarm follows the next expiration, and is cancelled when nothing is left.
+     */
+    @Test
+    public void testSweepSchedulesNextExpiration() throws Exception {
+
+        RecommendationRecord r1 = addRecord("1", 1, 2000);
+        RecommendationRecord r2 = addRecord("2", 2, 3000);
+
+        assertEquals(2000, mSweeper.reschedule());
+        assertEquals(2000, mAlarmTime);
+
+        // Nothing expired yet.
+        assertTrue(mSweeper.sweep().isEmpty());
+        assertEquals(2000, mAlarmTime);
+
+        // The alarm fires.
+        mNow = 2000;
+        List<RecommendationRecord> expired = mSweeper.sweep();
+        assertEquals(1, expired.size());
+        assertEquals(r1, expired.get(0));
+        assertEquals(3000, mAlarmTime);
+
+        // The alarm fires late.
+        mNow = 5000;
+        expired = mSweeper.sweep();
+        assertEquals(1, expired.size());
+        assertEquals(r2, expired.get(0));
+        assertEquals(-1, mAlarmTime);
+    }
+
+    /**
+     * Tests the alarm is not set in the past when a recommendation is already expired.
+     */
+    @Test
+    public void testRescheduleWithExpiredRecommendation() throws Exception {
+
+        addRecord("1", 1, 500);
+
+        assertEquals(1000, mSweeper.reschedule());
+        assertEquals(1000, mAlarmTime);
+    }
+
+    /**
+     * Tests the alarm is cancelled when there are no recommendations.
+     */
+    @Test
+    public void testRescheduleWithoutRecommendations() throws Exception {
+
+        mAlarmTime = 4000;
+
+        assertEquals(-1, mSweeper.reschedule());
+        assertEquals(-1, mAlarmTime);
+    }
+
+    private RecommendationRecord addRecord(String contentId, int recommendationId,
+                                           long expiration) {
+
+        RecommendationRecord record = new RecommendationRecord(contentId, recommendationId,
+                                                               RecommendationRecord.GLOBAL);
+        mStore.put(expiration, record);
+        return record;
+    }
+}
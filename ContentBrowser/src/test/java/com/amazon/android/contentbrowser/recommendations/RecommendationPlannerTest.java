@@ -0,0 +1,137 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.contentbrowser.recommendations;
+
+import com.amazon.android.contentbrowser.database.records.RecommendationRecord;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link RecommendationPlanner} class.
+ */
+public class RecommendationPlannerTest {
+
+    private static final String GLOBAL = RecommendationRecord.GLOBAL;
+    private static final String RELATED = RecommendationRecord.RELATED;
+
+    /**
+     * Tests that everything is added, with ids from 1, when there are no recommendations yet.
+     */
+    @Test
+    public void testPlanFromEmpty() throws Exception {
+
+        RecommendationPlanner.Plan plan =
+                RecommendationPlanner.plan(GLOBAL, Arrays.asList("1", "2", "3"), 5,
+                                           Collections.<RecommendationRecord>emptyList());
+
+        assertEquals(Arrays.asList(rec("1", 1, GLOBAL), rec("2", 2, GLOBAL), rec("3", 3, GLOBAL)),
+                     plan.getAdds());
+        assertTrue(plan.getUpdates().isEmpty());
+        assertTrue(plan.getCancels().isEmpty());
+    }
+
+    /**
+     * Tests the content ids are trimmed to max distinct ids.
+     */
+    @Test
+    public void testPlanTrimsAndRemovesDuplicates() throws Exception {
+
+        RecommendationPlanner.Plan plan =
+                RecommendationPlanner.plan(RELATED, Arrays.asList("2", "3", "2", null, "4", "5"),
+                                           3, Collections.<RecommendationRecord>emptyList());
+
+        assertEquals(Arrays.asList(rec("2", 1, RELATED), rec("3", 2, RELATED),
+                                   rec("4", 3, RELATED)), plan.getAdds());
+    }
+
+    /**
+     * Tests existing recommendations keep their ids, unwanted ones are cancelled oldest first, and
+     * new ones take the free ids.
+     */
+    @Test
+    public void testPlanUpdatesCancelsAndAdds() throws Exception {
+
+        // Oldest first.
+        List<RecommendationRecord> existing = Arrays.asList(rec("2", 2, GLOBAL),
+                                                            rec("3", 3, GLOBAL),
+                                                            rec("1", 1, GLOBAL),
+                                                            rec("4", 4, GLOBAL));
+
+        RecommendationPlanner.Plan plan =
+                RecommendationPlanner.plan(GLOBAL, Arrays.asList("1", "5", "6", "4", "7", "8"), 5,
+                                           existing);
+
+        assertEquals(Arrays.asList(rec("1", 1, GLOBAL), rec("4", 4, GLOBAL)), plan.getUpdates());
+        assertEquals(Arrays.asList(rec("2", 2, GLOBAL), rec("3", 3, GLOBAL)), plan.getCancels());
+        assertEquals(Arrays.asList(rec("5", 2, GLOBAL), rec("6", 3, GLOBAL), rec("7", 5, GLOBAL)),
+                     plan.getAdds());
+    }
+
+    /**
+     * Tests only as many recommendations are cancelled as needed to stay within max.
+     */
+    @Test
+    public void testPlanCancelsOnlyWhatIsNeeded() throws Exception {
+
+        List<RecommendationRecord> existing = Arrays.asList(rec("1", 1, GLOBAL),
+                                                            rec("2", 2, GLOBAL),
+                                                            rec("3", 3, GLOBAL));
+
+        RecommendationPlanner.Plan plan =
+                RecommendationPlanner.plan(GLOBAL, Arrays.asList("4", "5", "6", "7"), 5, existing);
+
+        assertEquals(Arrays.asList(rec("1", 1, GLOBAL), rec("2", 2, GLOBAL)), plan.getCancels());
+        assertEquals(Arrays.asList(rec("4", 1, GLOBAL), rec("5", 2, GLOBAL), rec("6", 4, GLOBAL),
+                                   rec("7", 5, GLOBAL)), plan.getAdds());
+
+        plan = RecommendationPlanner.plan(GLOBAL, Collections.singletonList("4"), 5, existing);
+        assertTrue(plan.getCancels().isEmpty());
+        assertEquals(Collections.singletonList(rec("4", 4, GLOBAL)), plan.getAdds());
+    }
+
+    /**
+     * Tests recommendations of another type are never cancelled, are moved to the new type when
+     * wanted, and keep their ids reserved.
+     */
+    @Test
+    public void testPlanLeavesOtherTypes() throws Exception {
+
+        List<RecommendationRecord> existing = new ArrayList<>();
+        existing.add(rec("1", 1, RELATED));
+        existing.add(rec("2", 2, RELATED));
+        existing.add(rec("3", 3, GLOBAL));
+
+        RecommendationPlanner.Plan plan =
+                RecommendationPlanner.plan(GLOBAL, Arrays.asList("2", "4"), 2, existing);
+
+        assertEquals(Collections.singletonList(rec("2", 2, GLOBAL)), plan.getUpdates());
+        assertEquals(Collections.singletonList(rec("3", 3, GLOBAL)), plan.getCancels());
+        assertEquals(Collections.singletonList(rec("4", 3, GLOBAL)), plan.getAdds());
+        assertEquals(Arrays.asList(rec("2", 2, GLOBAL), rec("4", 3, GLOBAL)), plan.getWrites());
+    }
+
+    private static RecommendationRecord rec(String contentId, int recommendationId, String type) {
+
+        return new RecommendationRecord(contentId, recommendationId, type);
+    }
+}
@@ -14,6 +14,7 @@
  */
 package com.amazon.android.model.content;
 
+import com.amazon.android.utils.SearchTextHelper;
 import com.amazon.utils.ListUtils;
 
 import org.json.JSONArray;
@@ -141,6 +142,18 @@ public class Content implements Serializable {
      */
     private Map<String, Object> mExtras;
 
+    /**
+     * Normalized search form of the title, built lazily by {@link #searchInFields(String,
+     * String[])}. It remembers the title it was built from so a title set by reflection is also
+     * picked up.
+     */
+    private transient SearchTextHelper.NormalizedText mSearchTitle;
+
+    /**
+     * Normalized search form of the description, see {@link #mSearchTitle}.
+     */
+    private transient SearchTextHelper.NormalizedText mSearchDescription;
+
     /**
      * Constant for matching the title field name.
      */
@@ -373,6 +386,7 @@ public class Content implements Serializable {
     public void setTitle(String title) {
 
         mTitle = title;
+        mSearchTitle = null;
     }
 
     /**
@@ -433,6 +447,7 @@ public class Content implements Serializable {
     public void setDescription(String description) {
 
         mDescription = description;
+        mSearchDescription = null;
     }
 
     /**
@@ -493,6 +508,8 @@ public class Content implements Serializable {
     public void setLocale(Locale locale) {
 
         mLocale = locale;
+        mSearchTitle = null;
+        mSearchDescription = null;
     }
 
     /**
@@ -930,7 +947,10 @@ public class Content implements Serializable {
     }
 
     /**
-     * Search query under provided fieldNames.
+     * Search query under provided fieldNames. The query and the fields are compared in their
+     * normalized search form, i.e. lowercased, accent-folded and with whitespace collapsed. The
+     * normalized fields are cached on the content and the normalized query is reused across calls
+     * with the same query, so repeated searches do not allocate.
      *
      * @param query      Query string.
      * @param fieldNames Field names to be searched.
@@ -938,21 +958,46 @@ public class Content implements Serializable {
      */
     public boolean searchInFields(String query, String[] fieldNames) {
 
-        boolean result = false;
-
-        if (fieldNames == null ||
-                fieldNames.length == 0) {
+        if (query == null || fieldNames == null || fieldNames.length == 0) {
             return false;
         }
 
+        String normalizedQuery = SearchTextHelper.normalizeQuery(query, mLocale);
         for (String fieldName : fieldNames) {
-            if (getStringFieldByName(fieldName) != null) {
-                result |= getStringFieldByName(fieldName)
-                        .toLowerCase(mLocale)
-                        .contains(query.toLowerCase(mLocale));
+            String normalizedField = getNormalizedStringFieldByName(fieldName);
+            if (normalizedField != null && normalizedField.contains(normalizedQuery)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the normalized search form of a searchable field, building it if the field changed
+     * since it was last built.
+     *
+     * @param name Name of the field.
+     * @return Normalized field value, or null if the field is not searchable or not set.
+     */
+    private String getNormalizedStringFieldByName(String name) {
+
+        if (TITLE_FIELD_NAME.equals(name)) {
+            SearchTextHelper.NormalizedText searchTitle = mSearchTitle;
+            if (searchTitle == null || !searchTitle.isFor(mTitle, mLocale)) {
+                searchTitle = new SearchTextHelper.NormalizedText(mTitle, mLocale);
+                mSearchTitle = searchTitle;
             }
+            return searchTitle.getNormalized();
         }
-        return result;
+        else if (DESCRIPTION_FIELD_NAME.equals(name)) {
+            SearchTextHelper.NormalizedText searchDescription = mSearchDescription;
+            if (searchDescription == null || !searchDescription.isFor(mDescription, mLocale)) {
+                searchDescription = new SearchTextHelper.NormalizedText(mDescription, mLocale);
+                mSearchDescription = searchDescription;
+            }
+            return searchDescription.getNormalized();
+        }
+        return null;
     }
 
     @Override
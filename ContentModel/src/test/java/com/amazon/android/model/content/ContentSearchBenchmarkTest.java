@@ -0,0 +1,170 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.model.content;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static junit.framework.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Benchmark for {@link Content#searchInFields(String, String[])} simulating type-ahead search
+ * over a small catalog. Time and allocated bytes per keystroke are printed to standard out for
+ * the previous lowercase-per-comparison approach and the normalized search form; assertions only
+ * check both find the same matches. It is skipped unless the runBenchmarks system property is
+ * true, e.g. {@code ./gradlew :ContentModel:testDebugUnitTest --tests
+ * '*ContentSearchBenchmarkTest' -DrunBenchmarks=true}. The search itself is tested by
+ * {@link ContentTest}.
+ */
+public class ContentSearchBenchmarkTest {
+
+    /**
+     * Number of contents in the catalog.
+     */
+    private static final int CATALOG_SIZE = 5000;
+
+    /**
+     * Keystrokes of the simulated type-ahead query.
+     */
+    private static final String QUERY = "episode 42";
+
+    /**
+     * Searched fields.
+     */
+    private static final String[] FIELDS = new String[]{Content.TITLE_FIELD_NAME,
+            Content.DESCRIPTION_FIELD_NAME};
+
+    /**
+     * Times and measures allocations of a type-ahead search over the catalog.
+     */
+    @Test
+    public void benchmarkTypeAheadSearch() {
+
+        assumeTrue(Boolean.getBoolean("runBenchmarks"));
+        List<Content> catalog = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            Content content = new Content("Season " + (i % 7) + " Episode " + i);
+            content.setDescription("The Description Of Episode " + i + " With Some Words");
+            catalog.add(content);
+        }
+
+        // Warm up and check both approaches agree.
+        for (int length = 1; length <= QUERY.length(); length++) {
+            String query = QUERY.substring(0, length);
+            assertEquals(searchLowercase(catalog, query), searchNormalized(catalog, query));
+        }
+
+        long[] lowercase = measure(catalog, false);
+        long[] normalized = measure(catalog, true);
+
+        System.out.println("Type-ahead over " + CATALOG_SIZE + " contents, per keystroke:");
+        System.out.println("  lowercase:  " + lowercase[0] / 1000 + "us, " + lowercase[1] +
+                                   " bytes");
+        System.out.println("  normalized: " + normalized[0] / 1000 + "us, " + normalized[1] +
+                                   " bytes");
+    }
+
+    /**
+     * Run the whole type-ahead query once.
+     *
+     * @param catalog    Contents to search.
+     * @param normalized True to use {@link Content#searchInFields(String, String[])}.
+     * @return Average nanoseconds and allocated bytes per keystroke, -1 bytes if the JVM does not
+     * report allocations.
+     */
+    private long[] measure(List<Content> catalog, boolean normalized) {
+
+        long bytesBefore = getAllocatedBytes();
+        long start = System.nanoTime();
+        for (int length = 1; length <= QUERY.length(); length++) {
+            String query = QUERY.substring(0, length);
+            if (normalized) {
+                searchNormalized(catalog, query);
+            }
+            else {
+                searchLowercase(catalog, query);
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        long bytesAfter = getAllocatedBytes();
+        long bytes = bytesBefore < 0 ? -1 : (bytesAfter - bytesBefore) / QUERY.length();
+        return new long[]{nanos / QUERY.length(), bytes};
+    }
+
+    /**
+     * Count matches the way searchInFields did before, lowercasing both sides per comparison.
+     *
+     * @param catalog Contents to search.
+     * @param query   Query string.
+     * @return Number of matching contents.
+     */
+    private int searchLowercase(List<Content> catalog, String query) {
+
+        int matches = 0;
+        for (Content content : catalog) {
+            boolean result = false;
+            for (String field : FIELDS) {
+                String value = content.getStringFieldByName(field);
+                if (value != null) {
+                    result |= value.toLowerCase(Locale.ENGLISH)
+                                   .contains(query.toLowerCase(Locale.ENGLISH));
+                }
+            }
+            if (result) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Count matches with {@link Content#searchInFields(String, String[])}.
+     *
+     * @param catalog Contents to search.
+     * @param query   Query string.
+     * @return Number of matching contents.
+     */
+    private int searchNormalized(List<Content> catalog, String query) {
+
+        int matches = 0;
+        for (Content content : catalog) {
+            if (content.searchInFields(query, FIELDS)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Get the number of bytes allocated by the current thread so far.
+     *
+     * @return Allocated bytes, or -1 if the JVM does not support allocation measurement.
+     */
+    private long getAllocatedBytes() {
+
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -17,6 +17,7 @@ package com.amazon.android.model.content;
 import org.junit.Test;
 
 import java.lang.Exception;
+import java.lang.reflect.Field;
 import java.util.Locale;
 
 import static junit.framework.Assert.assertEquals;
@@ -192,6 +193,68 @@ public class ContentTest {
 
         // Empty field array case.
         assertFalse(content.searchInFields("123", new String[]{}));
+
+        // Null query case.
+        assertFalse(content.searchInFields(null, new String[]{Content.TITLE_FIELD_NAME}));
+    }
+
+    /**
+     * Test that search in fields compares the normalized forms of the query and the fields.
+     */
+    @Test
+    public void testSearchInFieldsNormalized() throws Exception {
+
+        Content content = new Content();
+        content.setTitle("  Caf\u00e9   Society ");
+        content.setDescription("Une CR\u00c8ME br\u00fbl\u00e9e");
+
+        String[] fields = new String[]{Content.TITLE_FIELD_NAME, Content.DESCRIPTION_FIELD_NAME};
+        assertTrue(content.searchInFields("cafe society", fields));
+        assertTrue(content.searchInFields("CAF\u00c9  SOC", fields));
+        assertTrue(content.searchInFields("creme brulee", fields));
+        assertFalse(content.searchInFields("society cafe", fields));
+
+        // The cached search form is invalidated by the setters.
+        content.setTitle("Other");
+        assertFalse(content.searchInFields("cafe", new String[]{Content.TITLE_FIELD_NAME}));
+        assertTrue(content.searchInFields("other", new String[]{Content.TITLE_FIELD_NAME}));
+    }
+
+    /**
+     * Test that search in fields picks up fields set with reflection, the way the dynamic parser
+     * populates content.
+     */
+    @Test
+    public void testSearchInFieldsSetByReflection() throws Exception {
+
+        Content content = new Content();
+        content.setTitle("first");
+        assertTrue(content.searchInFields("first", new String[]{Content.TITLE_FIELD_NAME}));
+
+        Field field = Content.class.getDeclaredField(Content.TITLE_FIELD_NAME);
+        field.setAccessible(true);
+        field.set(content, "Second");
+
+        assertFalse(content.searchInFields("first", new String[]{Content.TITLE_FIELD_NAME}));
+        assertTrue(content.searchInFields("second", new String[]{Content.TITLE_FIELD_NAME}));
+    }
+
+    /**
+     * Test that renaming a content makes search match the new title and not the old one.
+     */
+    @Test
+    public void testSearchInFieldsAfterRename() throws Exception {
+
+        String[] fields = new String[]{Content.TITLE_FIELD_NAME};
+        Content content = new Content("Old Title");
+        assertTrue(content.searchInFields("old title", fields));
+
+        content.setTitle("New Title");
+        assertFalse(content.searchInFields("old", fields));
+        assertTrue(content.searchInFields("new title", fields));
+
+        content.setTitle(null);
+        assertFalse(content.searchInFields("new", fields));
     }
 
     /**
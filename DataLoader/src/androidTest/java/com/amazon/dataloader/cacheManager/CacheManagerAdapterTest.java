@@ -107,6 +107,24 @@ public class CacheManagerAdapterTest {
         verify(verifyUtil).verified();
     }
 
+    /**
+     * Tests that recipes with the same items in a different order share a cache entry.
+     */
+    @Test
+    public void testEqualRecipesShareCacheEntry() throws NoSuchAlgorithmException {
+
+        Recipe reordered = Recipe.newInstance("{\"testKey3\":{\"testKey4\":\"testValue4\"}," +
+                                                      "\"testKey1\":[\"testValue1\"," +
+                                                      "\"testValue2\"],\"testKey\":\"testValue\"}");
+        Recipe original = Recipe.newInstance("{\"testKey\":\"testValue\",\"testKey1\":" +
+                                                     "[\"testValue1\",\"testValue2\"]," +
+                                                     "\"testKey3\":{\"testKey4\":\"testValue4\"}}");
+
+        mCacheManagerAdapter.storeData(original, params, testPayload);
+        mCacheManagerAdapter.loadData(reordered, params, createSuccessfulRequestHandle(testPayload));
+        verify(verifyUtil).verified();
+    }
+
     /**
      * Tests the {@link CacheManagerAdapter#storeDataAsync(Recipe, String[], Data)} method.
      */
@@ -16,17 +16,14 @@ package com.amazon.dataloader.cacheManager;
 
 import com.amazon.android.cache.ICacheManager;
 import com.amazon.android.cache.MemoryBasedCacheManager;
-import com.amazon.android.utils.Helpers;
+import com.amazon.android.scheduler.TaskExecutors;
+import com.amazon.android.utils.DigestHelper;
 import com.amazon.dataloader.datadownloader.IDataLoader;
 import com.amazon.android.recipe.Recipe;
-import com.amazon.android.utils.JsonHelper;
 import com.amazon.utils.model.Data;
 
-import android.os.AsyncTask;
-import android.util.Base64;
 import android.util.Log;
 
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 /**
@@ -137,7 +134,7 @@ public class CacheManagerAdapter implements IDataLoader {
 
     /**
      * Stores the data corresponding to the {@link Recipe} asynchronously.
-     * This methods uses an {@link android.os.AsyncTask} to perform the storing of the data.
+     * This methods stores the data on the {@link TaskExecutors#batch()} pool.
      * This method fails silently (with logging) if the data storage fails.
      *
      * @param dataLoadRecipe The recipe.
@@ -147,25 +144,20 @@ public class CacheManagerAdapter implements IDataLoader {
     public void storeDataAsync(final Recipe dataLoadRecipe, final String[] recipeParams,
                                final Data data) {
 
-        new AsyncTask<Void, Void, Void>() {
-            @Override
-            protected Void doInBackground(Void... params) {
-
-                try {
-                    storeData(dataLoadRecipe, recipeParams, data);
-                }
-                catch (Exception e) {
-                    Log.e(TAG, "Failed to put data in cache for recipe ", e);
-                }
-                return null;
+        TaskExecutors.batch().execute(() -> {
+            try {
+                storeData(dataLoadRecipe, recipeParams, data);
             }
-        }.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+            catch (Exception e) {
+                Log.e(TAG, "Failed to put data in cache for recipe ", e);
+            }
+        });
     }
 
     /**
      * Computes a key for the recipe and parameters required by the recipe.
-     * It calculates the Base63 encoded SHA1 of the recipe and each parameter and appends them
-     * together to get the final key.
+     * It uses the canonical key of the recipe, which is computed once per recipe instance, and
+     * appends the hex encoded SHA-1 of each parameter to get the final key.
      *
      * @param dataLoadRecipe The recipe.
      * @param params         Parameters that are required for the recipe.
@@ -174,29 +166,15 @@ public class CacheManagerAdapter implements IDataLoader {
     protected static String generateKey(Recipe dataLoadRecipe, String[] params) throws
             NoSuchAlgorithmException {
 
-        String sha1ForRecipe = computeSha1(JsonHelper.mapToString(dataLoadRecipe.getMap()));
-        StringBuilder builder = new StringBuilder(sha1ForRecipe);
-
-        if (params != null) {
-            for (String param : params) {
-                builder.append(computeSha1(param));
+        String recipeKey = dataLoadRecipe.getCanonicalKey();
+        if (params == null || params.length == 0) {
+            return recipeKey;
+        }
 
-            }
+        StringBuilder builder = new StringBuilder(recipeKey);
+        for (String param : params) {
+            builder.append(DigestHelper.sha1Hex(param));
         }
         return builder.toString();
     }
-
-    /**
-     * Algorithm to compute sha1 of a string and return a Base64 encoding.
-     *
-     * @param str String to compute the sha1 for.
-     * @return Base64 encoding of the sha1.
-     */
-    private static String computeSha1(String str) throws NoSuchAlgorithmException {
-
-        MessageDigest digest = MessageDigest.getInstance("SHA-1");
-        digest.reset();
-        digest.update(str.getBytes(Helpers.getDefaultAppCharset()));
-        return Base64.encodeToString(digest.digest(), Base64.DEFAULT);
-    }
 }
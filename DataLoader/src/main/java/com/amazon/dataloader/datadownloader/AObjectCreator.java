@@ -15,7 +15,6 @@
 package com.amazon.dataloader.datadownloader;
 
 import com.amazon.android.recipe.Recipe;
-import com.amazon.android.utils.FileHelper;
 import com.amazon.utils.ObjectVerification;
 
 import android.content.Context;
@@ -100,9 +99,7 @@ public abstract class AObjectCreator {
         try {
             this.mContext = ObjectVerification.notNull(context.getApplicationContext(), "Could " +
                     "not extract application context from context");
-            this.mConfiguration = Recipe.newInstance(FileHelper.readFile(mContext,
-                                                                         getConfigFilePath
-                                                                                 (mContext)));
+            this.mConfiguration = Recipe.newInstance(mContext, getConfigFilePath(mContext));
         }
         catch (Exception e) {
             throw new ObjectCreatorException("Could not read configuration from file ", e);
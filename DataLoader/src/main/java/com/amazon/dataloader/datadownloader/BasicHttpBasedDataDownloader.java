@@ -115,8 +115,9 @@ public class BasicHttpBasedDataDownloader extends ADataDownloader {
 
         // Starting with an empty map and replacing it with a map from recipe if one exists.
         Map urlGeneratorRecipeMap = Collections.emptyMap();
-        if (dataLoadRecipe.getMap().containsKey(URL_GENERATOR_RECIPE)) {
-            urlGeneratorRecipeMap = (Map) dataLoadRecipe.getMap().get(URL_GENERATOR_RECIPE);
+        Map recipeMap = dataLoadRecipe.getMap();
+        if (recipeMap.containsKey(URL_GENERATOR_RECIPE)) {
+            urlGeneratorRecipeMap = (Map) recipeMap.get(URL_GENERATOR_RECIPE);
         }
         // Get the url.
         String url = mUrlGenerator.getUrl(urlGeneratorRecipeMap);
@@ -20,6 +20,7 @@ import com.amazon.dataloader.datadownloader.IDataLoader;
 import com.amazon.android.recipe.IRecipeCooker;
 import com.amazon.android.recipe.IRecipeCookerCallbacks;
 import com.amazon.android.recipe.Recipe;
+import com.amazon.android.scheduler.TaskExecutors;
 import com.amazon.utils.ObjectVerification;
 import com.amazon.utils.model.Data;
 
@@ -31,7 +32,6 @@ import android.util.Log;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ThreadPoolExecutor;
 
 import rx.Observable;
 
@@ -44,8 +44,6 @@ import rx.Observable;
 class DataLoaderModule extends ADataModule implements IRecipeCooker {
 
     private static final String TAG = DataLoaderModule.class.getSimpleName();
-    private static final ThreadPoolExecutor EXECUTOR
-            = (ThreadPoolExecutor) AsyncTask.THREAD_POOL_EXECUTOR;
     private final List<LoadDataTask> mRunningAsyncTaskList;
 
     /**
@@ -265,8 +263,8 @@ class DataLoaderModule extends ADataModule implements IRecipeCooker {
         public void loadDataAsync() {
 
             mRunningAsyncTaskList.add(this);
-            // Using the executor to allow parallel requests to run.
-            this.executeOnExecutor(EXECUTOR);
+            // Using the I/O pool to allow parallel requests to run.
+            this.executeOnExecutor(TaskExecutors.io());
         }
 
     }
@@ -207,14 +207,14 @@ public class DynamicParserTest {
 
         // Create a translation recipe for json sample feed.
         Recipe recipe = createJsonSampleVideoContainerReflectionRecipe();
-        recipe.getMap().put(DynamicParser.TRANSLATOR_TAG, "ContainerTranslator");
+        putRecipeItem(recipe, DynamicParser.TRANSLATOR_TAG, "ContainerTranslator");
 
         // Validate the translation recipe.
         assertTrue(dynamicParser.validateRecipe(recipe));
 
         // Create a translation recipe for xml sample feed.
         Recipe recipe2 = createXmlSampleVideoContainterReflectionRecipe();
-        recipe2.getMap().put(DynamicParser.TRANSLATOR_TAG, "ContainerTranslator");
+        putRecipeItem(recipe2, DynamicParser.TRANSLATOR_TAG, "ContainerTranslator");
 
         // Validate the translation recipe.
         assertTrue(dynamicParser.validateRecipe(recipe2));
@@ -246,7 +246,7 @@ public class DynamicParserTest {
 
         // Remove the format field from recipes.
         Recipe recipe = createJsonSampleVideoContainerReflectionRecipe();
-        recipe.getMap().remove(DynamicParser.FORMAT_TAG);
+        removeRecipeItem(recipe, DynamicParser.FORMAT_TAG);
 
         // Recipe should not be valid.
         dynamicParser.validateRecipe(recipe);
@@ -263,7 +263,7 @@ public class DynamicParserTest {
 
         // Remove the recipeCooker field from recipe.
         Recipe recipe = createJsonSampleVideoContainerReflectionRecipe();
-        recipe.getMap().remove(DynamicParser.COOKER_TAG);
+        removeRecipeItem(recipe, DynamicParser.COOKER_TAG);
 
         // Recipe should not be valid.
         dynamicParser.validateRecipe(recipe);
@@ -281,7 +281,7 @@ public class DynamicParserTest {
 
         // Remove the model field from recipe.
         Recipe recipe = createJsonSampleVideoContainerReflectionRecipe();
-        recipe.getMap().remove(DynamicParser.MODEL_TAG);
+        removeRecipeItem(recipe, DynamicParser.MODEL_TAG);
 
         // Recipe should not be valid.
         dynamicParser.validateRecipe(recipe);
@@ -298,7 +298,7 @@ public class DynamicParserTest {
 
         // Remove the modelType field from recipe.
         Recipe recipe = createJsonSampleVideoContainerReflectionRecipe();
-        recipe.getMap().remove(DynamicParser.MODEL_TYPE_TAG);
+        removeRecipeItem(recipe, DynamicParser.MODEL_TYPE_TAG);
 
         // Recipe should not be valid.
         dynamicParser.validateRecipe(recipe);
@@ -315,7 +315,7 @@ public class DynamicParserTest {
 
         // Remove the query field from recipe.
         Recipe recipe = createJsonSampleVideoContainerReflectionRecipe();
-        recipe.getMap().remove(DynamicParser.QUERY_TAG);
+        removeRecipeItem(recipe, DynamicParser.QUERY_TAG);
 
         // Recipe should not be valid.
         dynamicParser.validateRecipe(recipe);
@@ -332,7 +332,7 @@ public class DynamicParserTest {
 
         // Remove the matchList field from recipe.
         Recipe recipe = createJsonSampleVideoContainerReflectionRecipe();
-        recipe.getMap().remove(DynamicParser.MATCH_LIST_TAG);
+        removeRecipeItem(recipe, DynamicParser.MATCH_LIST_TAG);
 
         // Recipe should not be valid.
         dynamicParser.validateRecipe(recipe);
@@ -349,10 +349,10 @@ public class DynamicParserTest {
 
         // Remove the keyDataPath field from recipes.
         Recipe recipe = createJsonSampleVideoContainerReflectionRecipe();
-        recipe.getMap().remove(DynamicParser.KEY_DATA_PATH_TAG);
+        removeRecipeItem(recipe, DynamicParser.KEY_DATA_PATH_TAG);
 
         Recipe recipe2 = createXmlSampleVideoContainterReflectionRecipe();
-        recipe2.getMap().remove(DynamicParser.KEY_DATA_PATH_TAG);
+        removeRecipeItem(recipe2, DynamicParser.KEY_DATA_PATH_TAG);
 
         // Recipes are still valid.
         assertTrue(dynamicParser.validateRecipe(recipe));
@@ -484,14 +484,14 @@ public class DynamicParserTest {
 
         // Make the recipe use translation.
         Recipe recipe = createJsonSampleVideoContainerReflectionRecipe();
-        recipe.getMap().put(DynamicParser.TRANSLATOR_TAG, translator.getName());
+        putRecipeItem(recipe, DynamicParser.TRANSLATOR_TAG, translator.getName());
 
         dynamicParser.cookRecipe(recipe, mJsonSampleFeed,
                                  getCallbackForExpectedResult(DummyContainer.class),
                                  null, null);
 
         Recipe recipe2 = createXmlSampleVideoContainterReflectionRecipe();
-        recipe2.getMap().put(DynamicParser.TRANSLATOR_TAG, translator.getName());
+        putRecipeItem(recipe2, DynamicParser.TRANSLATOR_TAG, translator.getName());
 
         dynamicParser.cookRecipe(recipe2, mXmlSampleFeed,
                                  getCallbackForExpectedResult(DummyContainer.class),
@@ -548,7 +548,7 @@ public class DynamicParserTest {
         DynamicParser dynamicParser = new DynamicParser();
 
         Recipe recipe = createJsonSampleVideoContainerReflectionRecipe();
-        recipe.getMap().put(DynamicParser.QUERY_TAG, "badQuery");
+        putRecipeItem(recipe, DynamicParser.QUERY_TAG, "badQuery");
 
         dynamicParser.cookRecipe(recipe, mJsonSampleFeed,
                                  getCallbackWithExpectedException(IParser.InvalidQueryException
@@ -590,7 +590,7 @@ public class DynamicParserTest {
         DynamicParser dynamicParser = new DynamicParser();
 
         Recipe recipe = createJsonSampleVideoContainerReflectionRecipe();
-        recipe.getMap().put(DynamicParser.FORMAT_TAG, "invalidParser");
+        putRecipeItem(recipe, DynamicParser.FORMAT_TAG, "invalidParser");
 
         dynamicParser.cookRecipe(recipe, mJsonSampleFeed,
                                  getCallbackWithExpectedException(
@@ -598,7 +598,7 @@ public class DynamicParserTest {
                                  null, null);
 
         Recipe recipe2 = createXmlSampleVideoContainterReflectionRecipe();
-        recipe2.getMap().put(DynamicParser.FORMAT_TAG, "invalidParser");
+        putRecipeItem(recipe2, DynamicParser.FORMAT_TAG, "invalidParser");
 
         dynamicParser.cookRecipe(recipe2, mXmlSampleFeed,
                                  getCallbackWithExpectedException(
@@ -789,14 +789,14 @@ public class DynamicParserTest {
         DynamicParser dynamicParser = new DynamicParser();
 
         Recipe recipe = createJsonSampleVideoContainerReflectionRecipe();
-        recipe.getMap().put(DynamicParser.COOKER_TAG, "someCooker");
+        putRecipeItem(recipe, DynamicParser.COOKER_TAG, "someCooker");
 
         dynamicParser.cookRecipe(recipe, mJsonSampleFeed, getCallbackWithExpectedException(
                 DynamicParser.InvalidParserRecipeException.class, false),
                                  null, null);
 
         Recipe recipe2 = createXmlSampleVideoContainterReflectionRecipe();
-        recipe2.getMap().put(DynamicParser.COOKER_TAG, "someCooker");
+        putRecipeItem(recipe2, DynamicParser.COOKER_TAG, "someCooker");
 
         dynamicParser.cookRecipe(recipe2, mXmlSampleFeed, getCallbackWithExpectedException(
                 DynamicParser.InvalidParserRecipeException.class, false),
@@ -814,10 +814,10 @@ public class DynamicParserTest {
 
         // Change the recipe to use an unknown translator.
         Recipe recipe = createJsonSampleVideoContainerReflectionRecipe();
-        recipe.getMap().put(DynamicParser.TRANSLATOR_TAG, "fakeTranslator");
+        putRecipeItem(recipe, DynamicParser.TRANSLATOR_TAG, "fakeTranslator");
 
         Recipe recipe2 = createXmlSampleVideoContainterReflectionRecipe();
-        recipe2.getMap().put(DynamicParser.TRANSLATOR_TAG, "fakeTranslator");
+        putRecipeItem(recipe2, DynamicParser.TRANSLATOR_TAG, "fakeTranslator");
 
         // Expecting an translator not found error.
         dynamicParser.cookRecipe(recipe, mJsonSampleFeed,
@@ -907,13 +907,13 @@ public class DynamicParserTest {
         ArrayList<String> matchList =
                 (ArrayList<String>) recipe.getItemAsStringList(DynamicParser.MATCH_LIST_TAG);
         matchList.add("fakePath@value");
-        recipe.getMap().put(DynamicParser.TRANSLATOR_TAG, translator.getName());
+        putRecipeItem(recipe, DynamicParser.TRANSLATOR_TAG, translator.getName());
 
         Recipe recipe2 = createXmlSampleVideoContainterReflectionRecipe();
         ArrayList<String> matchList2 =
                 (ArrayList<String>) recipe2.getItemAsStringList(DynamicParser.MATCH_LIST_TAG);
         matchList2.add("fakePath@value");
-        recipe2.getMap().put(DynamicParser.TRANSLATOR_TAG, translator.getName());
+        putRecipeItem(recipe2, DynamicParser.TRANSLATOR_TAG, translator.getName());
 
         // Expecting a value not found exception.
         dynamicParser.cookRecipe(recipe, mJsonSampleFeed, getCallbackWithExpectedException(
@@ -932,13 +932,13 @@ public class DynamicParserTest {
         DynamicParser dynamicParser = new DynamicParser();
 
         Recipe recipe = createJsonSampleVideoContainerReflectionRecipe();
-        recipe.getMap().put(DynamicParser.MODEL_TAG, "unknownModel");
+        putRecipeItem(recipe, DynamicParser.MODEL_TAG, "unknownModel");
 
         dynamicParser.cookRecipe(recipe, mJsonSampleFeed, getCallbackWithExpectedException(
                 ClassNotFoundException.class, true), null, null);
 
         Recipe recipe2 = createXmlSampleVideoContainterReflectionRecipe();
-        recipe2.getMap().put(DynamicParser.MODEL_TAG, "unknownModel");
+        putRecipeItem(recipe2, DynamicParser.MODEL_TAG, "unknownModel");
 
         dynamicParser.cookRecipe(recipe2, mXmlSampleFeed, getCallbackWithExpectedException(
                 ClassNotFoundException.class, true), null, null);
@@ -976,7 +976,7 @@ public class DynamicParserTest {
         // Create reflection recipe
         Recipe reflectionRecipe = new Recipe();
         reflectionRecipe.setMap(translationRecipe.getMap());
-        reflectionRecipe.getMap().remove(DynamicParser.TRANSLATOR_TAG);
+        removeRecipeItem(reflectionRecipe, DynamicParser.TRANSLATOR_TAG);
 
         dynamicParser.addTranslatorImpl(translator.getName(), translator);
 
@@ -1049,7 +1049,7 @@ public class DynamicParserTest {
         // Create reflection recipe
         Recipe reflectionRecipe = new Recipe();
         reflectionRecipe.setMap(translationRecipe.getMap());
-        reflectionRecipe.getMap().remove(DynamicParser.TRANSLATOR_TAG);
+        removeRecipeItem(reflectionRecipe, DynamicParser.TRANSLATOR_TAG);
 
         dynamicParser.addTranslatorImpl(translator.getName(), translator);
 
@@ -1120,7 +1120,7 @@ public class DynamicParserTest {
 
         Recipe translationRecipe = new Recipe();
         translationRecipe.setMap(reflectionRecipe.getMap());
-        translationRecipe.getMap().put(DynamicParser.TRANSLATOR_TAG, translator.getName());
+        putRecipeItem(translationRecipe, DynamicParser.TRANSLATOR_TAG, translator.getName());
 
 
         dynamicParser.addTranslatorImpl(translator.getName(), translator);
@@ -1167,7 +1167,7 @@ public class DynamicParserTest {
 
         Recipe translationRecipe = new Recipe();
         translationRecipe.setMap(reflectionRecipe.getMap());
-        translationRecipe.getMap().put(DynamicParser.TRANSLATOR_TAG, translator.getName());
+        putRecipeItem(translationRecipe, DynamicParser.TRANSLATOR_TAG, translator.getName());
 
 
         dynamicParser.addTranslatorImpl(translator.getName(), translator);
@@ -1214,7 +1214,7 @@ public class DynamicParserTest {
 
         Recipe translationRecipe = new Recipe();
         translationRecipe.setMap(reflectionRecipe.getMap());
-        translationRecipe.getMap().put(DynamicParser.TRANSLATOR_TAG, translator.getName());
+        putRecipeItem(translationRecipe, DynamicParser.TRANSLATOR_TAG, translator.getName());
 
         dynamicParser.addTranslatorImpl(translator.getName(), translator);
 
@@ -1261,7 +1261,7 @@ public class DynamicParserTest {
 
         Recipe translationRecipe = new Recipe();
         translationRecipe.setMap(reflectionRecipe.getMap());
-        translationRecipe.getMap().put(DynamicParser.TRANSLATOR_TAG, translator.getName());
+        putRecipeItem(translationRecipe, DynamicParser.TRANSLATOR_TAG, translator.getName());
 
         dynamicParser.addTranslatorImpl(translator.getName(), translator);
 
@@ -1306,7 +1306,7 @@ public class DynamicParserTest {
 
         Recipe translationRecipe = new Recipe();
         translationRecipe.setMap(reflectionRecipe.getMap());
-        translationRecipe.getMap().put(DynamicParser.TRANSLATOR_TAG, translator.getName());
+        putRecipeItem(translationRecipe, DynamicParser.TRANSLATOR_TAG, translator.getName());
 
         dynamicParser.addTranslatorImpl(translator.getName(), translator);
 
@@ -1351,7 +1351,7 @@ public class DynamicParserTest {
 
         Recipe translationRecipe = new Recipe();
         translationRecipe.setMap(reflectionRecipe.getMap());
-        translationRecipe.getMap().put(DynamicParser.TRANSLATOR_TAG, translator.getName());
+        putRecipeItem(translationRecipe, DynamicParser.TRANSLATOR_TAG, translator.getName());
 
         dynamicParser.addTranslatorImpl(translator.getName(), translator);
 
@@ -1517,7 +1517,7 @@ public class DynamicParserTest {
 
         Recipe translationRecipe = new Recipe();
         translationRecipe.setMap(reflectionRecipe.getMap());
-        translationRecipe.getMap().put(DynamicParser.TRANSLATOR_TAG, translator.getName());
+        putRecipeItem(translationRecipe, DynamicParser.TRANSLATOR_TAG, translator.getName());
 
         dynamicParser.addTranslatorImpl(translator.getName(), translator);
 
@@ -1619,7 +1619,7 @@ public class DynamicParserTest {
 
         Recipe translationRecipe = new Recipe();
         translationRecipe.setMap(reflectionRecipe.getMap());
-        translationRecipe.getMap().put(DynamicParser.TRANSLATOR_TAG, translator.getName());
+        putRecipeItem(translationRecipe, DynamicParser.TRANSLATOR_TAG, translator.getName());
 
         dynamicParser.addTranslatorImpl(translator.getName(), translator);
 
@@ -1670,7 +1670,7 @@ public class DynamicParserTest {
 
         Recipe translationRecipe = new Recipe();
         translationRecipe.setMap(reflectionRecipe.getMap());
-        translationRecipe.getMap().put(DynamicParser.TRANSLATOR_TAG, translator.getName());
+        putRecipeItem(translationRecipe, DynamicParser.TRANSLATOR_TAG, translator.getName());
 
         dynamicParser.addTranslatorImpl(translator.getName(), translator);
 
@@ -1724,7 +1724,7 @@ public class DynamicParserTest {
 
         Recipe translationRecipe = new Recipe();
         translationRecipe.setMap(reflectionRecipe.getMap());
-        translationRecipe.getMap().put(DynamicParser.TRANSLATOR_TAG, translator.getName());
+        putRecipeItem(translationRecipe, DynamicParser.TRANSLATOR_TAG, translator.getName());
 
         dynamicParser.addTranslatorImpl(translator.getName(), translator);
 
@@ -1777,7 +1777,7 @@ public class DynamicParserTest {
 
         Recipe translationRecipe = new Recipe();
         translationRecipe.setMap(reflectionRecipe.getMap());
-        translationRecipe.getMap().put(DynamicParser.TRANSLATOR_TAG, translator.getName());
+        putRecipeItem(translationRecipe, DynamicParser.TRANSLATOR_TAG, translator.getName());
 
         dynamicParser.addTranslatorImpl(translator.getName(), translator);
 
@@ -1829,7 +1829,7 @@ public class DynamicParserTest {
 
         Recipe translationRecipe = new Recipe();
         translationRecipe.setMap(reflectionRecipe.getMap());
-        translationRecipe.getMap().put(DynamicParser.TRANSLATOR_TAG, translator.getName());
+        putRecipeItem(translationRecipe, DynamicParser.TRANSLATOR_TAG, translator.getName());
 
         dynamicParser.addTranslatorImpl(translator.getName(), translator);
 
@@ -2209,4 +2209,30 @@ public class DynamicParserTest {
         return recipe;
     }
 
+    /**
+     * Sets a recipe item. The recipe map cannot be modified, so a changed copy is set.
+     *
+     * @param recipe The recipe.
+     * @param name   The item name.
+     * @param value  The item value.
+     */
+    private static void putRecipeItem(Recipe recipe, String name, Object value) {
+
+        Map<Object, Object> map = new HashMap<>(recipe.getMap());
+        map.put(name, value);
+        recipe.setMap(map);
+    }
+
+    /**
+     * Removes a recipe item. The recipe map cannot be modified, so a changed copy is set.
+     *
+     * @param recipe The recipe.
+     * @param name   The item name.
+     */
+    private static void removeRecipeItem(Recipe recipe, String name) {
+
+        Map<Object, Object> map = new HashMap<>(recipe.getMap());
+        map.remove(name);
+        recipe.setMap(map);
+    }
 }
@@ -0,0 +1,503 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.dynamicparser;
+
+import android.os.Bundle;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.amazon.android.model.AModelTranslator;
+import com.amazon.android.recipe.IRecipeCookerCallbacks;
+import com.amazon.android.recipe.Recipe;
+import com.amazon.dynamicparser.impl.JsonParser;
+import com.amazon.dynamicparser.testResources.DummyContent;
+import com.amazon.dynamicparser.testResources.DummyContentTranslator;
+import com.amazon.feeds.formats.SampleFormatA;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rx.Subscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests and benchmark of the translation stage of {@link DynamicParser} on feeds made by the
+ * {@link com.amazon.feeds.SampleFeedGenerator} formats. Feeds of at least two
+ * {@link DynamicParser#TRANSLATION_CHUNK_SIZE chunks} are translated in chunks on several
+ * threads; the tests check the models and errors still come out in feed order on the calling
+ * thread and that cancelling stops the translation. The benchmark compares translating the parsed
+ * maps on one thread with cooking the recipe in batch mode. It is skipped unless the
+ * runBenchmarks instrumentation argument is true, e.g. {@code ./gradlew
+ * :DynamicParser:connectedAndroidTest
+ * -Pandroid.testInstrumentationRunnerArguments.runBenchmarks=true}; its timings are logged.
+ */
+@RunWith(AndroidJUnit4.class)
+@SuppressWarnings("unchecked")
+public class TranslationBenchmarkTest {
+
+    /**
+     * Debug tag.
+     */
+    private static final String TAG = TranslationBenchmarkTest.class.getSimpleName();
+
+    /**
+     * Number of timed iterations per feed size.
+     */
+    private static final int ITERATIONS = 5;
+
+    /**
+     * Feed sizes, from below one chunk to many chunks.
+     */
+    private static final int[] SIZES = {100, 500, 5000, 20000};
+
+    /**
+     * Size of the feeds of the tests: several chunks, the last one partly filled.
+     */
+    private static final int CHUNKED_SIZE = 5 * DynamicParser.TRANSLATION_CHUNK_SIZE + 17;
+
+    /**
+     * Query selecting the items of a {@link SampleFormatA} feed.
+     */
+    private static final String QUERY = "$.results[*]";
+
+    /**
+     * Translator accepting items without tags, which the sample feeds do not have in the format
+     * {@link DummyContent} expects.
+     */
+    private final DummyContentTranslator mTranslator = new TestTranslator();
+
+    /**
+     * Tests that models translated in chunks are reported one by one in feed order, and that
+     * only the last one is reported as done.
+     */
+    @Test
+    public void testChunkedTranslationKeepsFeedOrder() throws Exception {
+
+        final List<String> ids = new ArrayList<>();
+        final List<Boolean> doneFlags = new ArrayList<>();
+        DynamicParser dynamicParser = createDynamicParser(mTranslator, false);
+
+        assertTrue(dynamicParser.cookRecipe(createRecipe(), createFeed(CHUNKED_SIZE),
+                                            new FailOnErrorCallbacks() {
+                                                @Override
+                                                public void onRecipeCooked(Recipe recipe,
+                                                                           Object output,
+                                                                           Bundle bundle,
+                                                                           boolean done) {
+
+                                                    ids.add(((DummyContent) output).getId());
+                                                    doneFlags.add(done);
+                                                }
+                                            }, null, null));
+
+        assertEquals(CHUNKED_SIZE, ids.size());
+        for (int i = 0; i < CHUNKED_SIZE; i++) {
+            assertEquals(Integer.toString(i + 1), ids.get(i));
+            assertEquals(i == CHUNKED_SIZE - 1, doneFlags.get(i));
+        }
+
+        // Batch mode returns the same models in one list.
+        List<Object> models = cook(createDynamicParser(mTranslator, true), createRecipe(),
+                                   createFeed(CHUNKED_SIZE));
+        assertEquals(CHUNKED_SIZE, models.size());
+        for (int i = 0; i < CHUNKED_SIZE; i++) {
+            assertEquals(ids.get(i), ((DummyContent) models.get(i)).getId());
+        }
+    }
+
+    /**
+     * Tests that errors recorded while chunks are translated on other threads are reported on
+     * the calling thread, between the models of the items before and after them.
+     */
+    @Test
+    public void testChunkedTranslationReplaysErrorsInOrder() throws Exception {
+
+        final Thread callingThread = Thread.currentThread();
+        final List<String> events = new ArrayList<>();
+        DynamicParser dynamicParser = createDynamicParser(new TestTranslator(100, -1, null),
+                                                          false);
+
+        assertTrue(dynamicParser.cookRecipe(createRecipe(), createFeed(CHUNKED_SIZE),
+                                            new IRecipeCookerCallbacks() {
+                                                @Override
+                                                public void onPreRecipeCook(Recipe recipe,
+                                                                            Object output,
+                                                                            Bundle bundle) {
+
+                                                }
+
+                                                @Override
+                                                public void onRecipeCooked(Recipe recipe,
+                                                                           Object output,
+                                                                           Bundle bundle,
+                                                                           boolean done) {
+
+                                                    assertSame(callingThread,
+                                                               Thread.currentThread());
+                                                    events.add("model " +
+                                                                       ((DummyContent) output)
+                                                                               .getId());
+                                                }
+
+                                                @Override
+                                                public void onPostRecipeCooked(Recipe recipe,
+                                                                               Object output,
+                                                                               Bundle bundle) {
+
+                                                }
+
+                                                @Override
+                                                public void onRecipeError(Recipe recipe,
+                                                                          Exception e,
+                                                                          String msg) {
+
+                                                    assertSame(callingThread,
+                                                               Thread.currentThread());
+                                                    events.add("error " + e.getMessage());
+                                                }
+                                            }, null, null));
+
+        List<String> expected = new ArrayList<>();
+        for (int id = 1; id <= CHUNKED_SIZE; id++) {
+            expected.add(id % 100 == 0 ? "error Item " + id : "model " + id);
+        }
+        assertEquals(expected, events);
+    }
+
+    /**
+     * Tests that an exception thrown while a later chunk is translated on another thread is only
+     * reported once the models of all items before it were reported, and that nothing is
+     * reported after it.
+     */
+    @Test
+    public void testChunkedTranslationReportsFailureInOrder() throws Exception {
+
+        final int failingId = 3 * DynamicParser.TRANSLATION_CHUNK_SIZE + 10;
+        final List<String> ids = new ArrayList<>();
+        final List<Exception> errors = new ArrayList<>();
+        DynamicParser dynamicParser = createDynamicParser(new TestTranslator(0, failingId, null),
+                                                          false);
+
+        assertFalse(dynamicParser.cookRecipe(createRecipe(), createFeed(CHUNKED_SIZE),
+                                             new FailOnErrorCallbacks() {
+                                                 @Override
+                                                 public void onRecipeCooked(Recipe recipe,
+                                                                            Object output,
+                                                                            Bundle bundle,
+                                                                            boolean done) {
+
+                                                     assertTrue(errors.isEmpty());
+                                                     ids.add(((DummyContent) output).getId());
+                                                 }
+
+                                                 @Override
+                                                 public void onRecipeError(Recipe recipe,
+                                                                           Exception e,
+                                                                           String msg) {
+
+                                                     errors.add(e);
+                                                 }
+                                             }, null, null));
+
+        assertEquals(failingId - 1, ids.size());
+        assertEquals(Integer.toString(failingId - 1), ids.get(ids.size() - 1));
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof IllegalStateException);
+        assertEquals("Item " + failingId, errors.get(0).getMessage());
+    }
+
+    /**
+     * Tests that unsubscribing from {@link DynamicParser#cookRecipeObservable(Recipe, Object,
+     * Bundle, String[])} stops the chunked translation and that nothing more is emitted.
+     */
+    @Test
+    public void testChunkedTranslationStopsWhenCancelled() throws Exception {
+
+        final int size = 100 * DynamicParser.TRANSLATION_CHUNK_SIZE;
+        final AtomicInteger translated = new AtomicInteger();
+        final List<Object> received = new ArrayList<>();
+        final List<Throwable> errors = new ArrayList<>();
+        final boolean[] completed = new boolean[1];
+        DynamicParser dynamicParser = createDynamicParser(new TestTranslator(0, -1, translated),
+                                                          false);
+
+        dynamicParser.cookRecipeObservable(createRecipe(), createFeed(size), null, null)
+                     .subscribe(new Subscriber<Object>() {
+                         @Override
+                         public void onCompleted() {
+
+                             completed[0] = true;
+                         }
+
+                         @Override
+                         public void onError(Throwable e) {
+
+                             errors.add(e);
+                         }
+
+                         @Override
+                         public void onNext(Object o) {
+
+                             received.add(o);
+                             unsubscribe();
+                         }
+                     });
+
+        assertEquals(1, received.size());
+        assertFalse(completed[0]);
+        assertTrue(errors.isEmpty());
+
+        // Chunks already being translated stop at their next item, the others are skipped.
+        Thread.sleep(200);
+        int translatedAfterCancel = translated.get();
+        Thread.sleep(200);
+        assertEquals(translatedAfterCancel, translated.get());
+        assertTrue("Translated " + translatedAfterCancel + " of " + size + " items",
+                   translatedAfterCancel < size);
+    }
+
+    /**
+     * Times sequential and chunked translation for each feed size.
+     */
+    @Test
+    public void benchmarkTranslation() throws Exception {
+
+        assumeTrue(XmlParserBenchmarkTest.isBenchmarkRun());
+        for (int size : SIZES) {
+            benchmark(size);
+        }
+    }
+
+    /**
+     * Time parsing, sequential translation and cooking a feed of the given size.
+     *
+     * @param size Number of items in the feed.
+     */
+    private void benchmark(int size) throws Exception {
+
+        String feed = createFeed(size);
+        Recipe recipe = createRecipe();
+        DynamicParser dynamicParser = createDynamicParser(mTranslator, true);
+        JsonParser jsonParser = new JsonParser();
+
+        // Warm up.
+        assertEquals(size, cook(dynamicParser, recipe, feed).size());
+
+        long start = System.nanoTime();
+        List<Map<String, Object>> maps = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            maps = (List<Map<String, Object>>) jsonParser.parseWithQuery(feed, QUERY);
+        }
+        long parseNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mTranslator.mapListToModelList(maps, recipe);
+        }
+        long sequentialNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            cook(dynamicParser, recipe, feed);
+        }
+        long cookNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        Log.d(TAG, size + " items: parse " + parseNanos / 1000 + "us, sequential translation " +
+                sequentialNanos / 1000 + "us, chunked translation " +
+                (cookNanos - parseNanos) / 1000 + "us");
+    }
+
+    /**
+     * Create a {@link SampleFormatA} feed.
+     *
+     * @param size Number of items in the feed, with ids from 1 to size.
+     * @return The feed.
+     */
+    private String createFeed(int size) throws Exception {
+
+        SampleFormatA format = new SampleFormatA();
+        format.populate(size);
+        return new ObjectMapper().writeValueAsString(format);
+    }
+
+    /**
+     * Create a dynamic parser translating on the calling thread.
+     *
+     * @param translator The translator.
+     * @param batch      True to report all models in one list.
+     * @return The parser.
+     */
+    private DynamicParser createDynamicParser(DummyContentTranslator translator, boolean batch) {
+
+        DynamicParser dynamicParser = new DynamicParser();
+        dynamicParser.addTranslatorImpl(translator.getName(), translator);
+        dynamicParser.configureSettings(batch, false);
+        return dynamicParser;
+    }
+
+    /**
+     * Cook the recipe in batch mode on the calling thread.
+     *
+     * @param dynamicParser The parser.
+     * @param recipe        The recipe.
+     * @param feed          The feed.
+     * @return The models.
+     */
+    private List<Object> cook(DynamicParser dynamicParser, Recipe recipe, String feed) {
+
+        final List<Object> models = new ArrayList<>();
+        dynamicParser.cookRecipe(recipe, feed, new FailOnErrorCallbacks() {
+            @Override
+            public void onRecipeCooked(Recipe recipe, Object output, Bundle bundle,
+                                       boolean done) {
+
+                assertNotNull(output);
+                models.addAll((List<Object>) output);
+            }
+        }, null, null);
+        return models;
+    }
+
+    /**
+     * Create the recipe translating {@link SampleFormatA} items to {@link DummyContent}.
+     *
+     * @return The recipe.
+     */
+    private Recipe createRecipe() {
+
+        return Recipe.newInstance("{" +
+                                          "\"cooker\": \"DynamicParser\"," +
+                                          "\"format\": \"json\"," +
+                                          "\"model\": \"" + DummyContent.class.getName() + "\"," +
+                                          "\"modelType\": \"array\"," +
+                                          "\"translator\": \"" + mTranslator.getName() + "\"," +
+                                          "\"query\": \"" + QUERY + "\"," +
+                                          "\"matchList\": [" +
+                                          "\"id@" + DummyContent.ID_FIELD_NAME + "\"," +
+                                          "\"title@" + DummyContent.TITLE_FIELD_NAME + "\"," +
+                                          "\"link@" + DummyContent.URL_FIELD_NAME + "\"," +
+                                          "\"description@" +
+                                          DummyContent.DESCRIPTION_FIELD_NAME + "\"" +
+                                          "]}");
+    }
+
+    /**
+     * Callbacks that fail the test on errors and ignore everything else.
+     */
+    private static class FailOnErrorCallbacks implements IRecipeCookerCallbacks {
+
+        @Override
+        public void onPreRecipeCook(Recipe recipe, Object output, Bundle bundle) {
+
+        }
+
+        @Override
+        public void onRecipeCooked(Recipe recipe, Object output, Bundle bundle, boolean done) {
+
+        }
+
+        @Override
+        public void onPostRecipeCooked(Recipe recipe, Object output, Bundle bundle) {
+
+        }
+
+        @Override
+        public void onRecipeError(Recipe recipe, Exception e, String msg) {
+
+            fail("Recipe should have been cooked without error: " + msg);
+        }
+    }
+
+    /**
+     * Translator accepting items without tags, which can also fail on chosen items and count the
+     * items it translates.
+     */
+    private static class TestTranslator extends DummyContentTranslator {
+
+        /**
+         * Items whose id is a multiple of this fail with a translation exception; 0 for none.
+         */
+        private final int mFailEvery;
+
+        /**
+         * Id of the item that fails with a runtime exception; -1 for none.
+         */
+        private final int mThrowAt;
+
+        /**
+         * Counts the translated items, may be null.
+         */
+        private final AtomicInteger mTranslated;
+
+        /**
+         * Constructor of a translator that does not fail.
+         */
+        TestTranslator() {
+
+            this(0, -1, null);
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param failEvery  Items whose id is a multiple of this fail with a translation
+         *                   exception; 0 for none.
+         * @param throwAt    Id of the item that fails with a runtime exception; -1 for none.
+         * @param translated Counts the translated items, may be null.
+         */
+        TestTranslator(int failEvery, int throwAt, AtomicInteger translated) {
+
+            mFailEvery = failEvery;
+            mThrowAt = throwAt;
+            mTranslated = translated;
+        }
+
+        @Override
+        public DummyContent mapToModel(Map<String, Object> map, Recipe recipe) throws
+                AModelTranslator.TranslationException {
+
+            if (mTranslated != null) {
+                mTranslated.incrementAndGet();
+            }
+            int id = Integer.parseInt(String.valueOf(map.get("id")));
+            if (mFailEvery > 0 && id % mFailEvery == 0) {
+                throw new AModelTranslator.TranslationException("Item " + id);
+            }
+            if (id == mThrowAt) {
+                throw new IllegalStateException("Item " + id);
+            }
+            return super.mapToModel(map, recipe);
+        }
+
+        @Override
+        public boolean validateModel(DummyContent model) {
+
+            return model.getId() != null && model.getTitle() != null;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.dynamicparser;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.amazon.android.utils.FileHelper;
+import com.amazon.dynamicparser.impl.XmlParser;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Benchmark comparing the XPath and streaming modes of {@link XmlParser} on the MRSS feeds and the
+ * VAST/VMAP fixtures. The tests checking that both modes agree always run. The timed runs are
+ * skipped unless the runBenchmarks instrumentation argument is true, e.g.
+ * {@code ./gradlew :DynamicParser:connectedAndroidTest
+ * -Pandroid.testInstrumentationRunnerArguments.runBenchmarks=true}; their timings are logged.
+ */
+@RunWith(AndroidJUnit4.class)
+public class XmlParserBenchmarkTest {
+
+    /**
+     * Debug tag.
+     */
+    private static final String TAG = XmlParserBenchmarkTest.class.getSimpleName();
+
+    /**
+     * Number of timed iterations per file and mode.
+     */
+    private static final int ITERATIONS = 20;
+
+    /**
+     * MRSS feeds and the queries their recipes use.
+     */
+    private static final String[][] FEEDS = {
+            {"feeds/TopNews.xml", "//item"},
+            {"feeds/ActionSports.xml", "//item"},
+            {"feeds/Destinations.xml", "//item"},
+            {"feeds/NewsBites.xml", "//item"},
+            {"feeds/WeatherForecast.xml", "//item"},
+            {"feeds/SampleVideoFeed.xml", "/rss/channel/item"}
+    };
+
+    /**
+     * VAST and VMAP fixtures, parsed the way the ads component parses them.
+     */
+    private static final String[] AD_TAGS = {
+            "Vast/vast2Tag.xml",
+            "Vast/vast2WrapperTag.xml",
+            "Vast/vast3WrapperTag.xml",
+            "Vast/vastPreRollTag.xml",
+            "Vast/vmapPreRollTag.xml",
+            "Vast/vmapPreMidPostRollsSingleAdsTag.xml",
+            "Vast/vmapStandardPodWith3AdsBumpersTag.xml"
+    };
+
+    /**
+     * Tests that both modes give the same results on the MRSS feeds.
+     */
+    @Test
+    public void testModesAgreeOnFeeds() throws Exception {
+
+        for (String[] feed : FEEDS) {
+            assertModesAgree(feed[0], feed[1]);
+        }
+    }
+
+    /**
+     * Tests that both modes give the same results on the VAST and VMAP fixtures.
+     */
+    @Test
+    public void testModesAgreeOnAdTags() throws Exception {
+
+        for (String file : AD_TAGS) {
+            assertModesAgree(file, "*");
+        }
+    }
+
+    /**
+     * Times both modes on the MRSS feeds.
+     */
+    @Test
+    public void benchmarkFeeds() throws Exception {
+
+        assumeTrue(isBenchmarkRun());
+        for (String[] feed : FEEDS) {
+            benchmark(feed[0], feed[1]);
+        }
+    }
+
+    /**
+     * Times both modes on the VAST and VMAP fixtures.
+     */
+    @Test
+    public void benchmarkAdTags() throws Exception {
+
+        assumeTrue(isBenchmarkRun());
+        for (String file : AD_TAGS) {
+            benchmark(file, "*");
+        }
+    }
+
+    /**
+     * Check if the benchmarks were asked for with the runBenchmarks instrumentation argument.
+     *
+     * @return True if the benchmarks should run.
+     */
+    static boolean isBenchmarkRun() {
+
+        return Boolean.parseBoolean(InstrumentationRegistry.getArguments()
+                                                           .getString("runBenchmarks"));
+    }
+
+    /**
+     * Parse a file with both modes and check the results are equal.
+     *
+     * @param file  Asset file name.
+     * @param query Query to run.
+     */
+    private void assertModesAgree(String file, String query) throws Exception {
+
+        String data = FileHelper.readFile(InstrumentationRegistry.getContext(), file);
+        assertEquals("Results differ for " + file,
+                     new XmlParser(false).parseWithQuery(data, query),
+                     new XmlParser(true).parseWithQuery(data, query));
+    }
+
+    /**
+     * Parse a file with both modes and log the average time of each mode.
+     *
+     * @param file  Asset file name.
+     * @param query Query to run.
+     */
+    private void benchmark(String file, String query) throws Exception {
+
+        String data = FileHelper.readFile(InstrumentationRegistry.getContext(), file);
+        XmlParser domParser = new XmlParser(false);
+        XmlParser streamingParser = new XmlParser(true);
+
+        // Warm up both modes.
+        domParser.parseWithQuery(data, query);
+        streamingParser.parseWithQuery(data, query);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            domParser.parseWithQuery(data, query);
+        }
+        long domNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            streamingParser.parseWithQuery(data, query);
+        }
+        long streamingNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        Log.d(TAG, file + ": xpath " + domNanos / 1000 + "us, streaming " +
+                streamingNanos / 1000 + "us");
+    }
+}
@@ -23,6 +23,7 @@ import org.junit.Test;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -195,4 +196,54 @@ public class XmlParserTest {
     public void testParseWithInvalidQuery() throws  Exception {
         parser.parseWithQuery(xml1, "doc/p[3]");
     }
+
+    /**
+     * Test that the streaming mode of {@link XmlParser#parseWithQuery(String, String)} produces
+     * the same result as the XPath mode for the queries it handles.
+     */
+    @Test
+    public void testStreamingMatchesXPath() throws Exception {
+
+        XmlParser streamingParser = new XmlParser(true);
+        assertTrue(streamingParser.isStreamingEnabled());
+
+        String[] queries = {"*", "/rss/channel", "/rss/channel/*", "rss/channel/item", "//item",
+                "//title", "//*"};
+        for (String query : queries) {
+            assertEquals("Streaming result differs for " + query,
+                         parser.parseWithQuery(xml2, query),
+                         streamingParser.parseWithQuery(xml2, query));
+        }
+        assertEquals(parser.parse(xml1), streamingParser.parse(xml1));
+    }
+
+    /**
+     * Test that the streaming mode falls back to XPath for queries it does not handle.
+     */
+    @Test
+    public void testStreamingFallsBackToXPath() throws Exception {
+
+        XmlParser streamingParser = new XmlParser(true);
+        final String query = "rss/channel/item/group/content[1]";
+        assertEquals(parser.parseWithQuery(xml2, query),
+                     streamingParser.parseWithQuery(xml2, query));
+    }
+
+    /**
+     * Test the malformed input case for the streaming mode.
+     */
+    @Test(expected = IParser.InvalidDataException.class)
+    public void testStreamingParseMalformedString() throws Exception {
+
+        new XmlParser(true).parse(badXml);
+    }
+
+    /**
+     * Test the empty result case for the streaming mode.
+     */
+    @Test(expected = IParser.InvalidQueryException.class)
+    public void testStreamingParseWithNoMatch() throws Exception {
+
+        new XmlParser(true).parseWithQuery(xml1, "/doc/missing");
+    }
 }
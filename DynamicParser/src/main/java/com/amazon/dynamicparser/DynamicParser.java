@@ -19,6 +19,8 @@ import com.amazon.android.recipe.IRecipeCooker;
 import com.amazon.android.recipe.IRecipeCookerCallbacks;
 import com.amazon.android.recipe.Recipe;
 import com.amazon.android.model.AModelTranslator;
+import com.amazon.android.scheduler.PriorityThreadPoolExecutor;
+import com.amazon.android.scheduler.TaskExecutors;
 import com.amazon.android.utils.PathHelper;
 import com.amazon.dynamicparser.impl.XmlParser;
 import com.amazon.utils.ListUtils;
@@ -34,9 +36,13 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import rx.Observable;
+import rx.subscriptions.Subscriptions;
 
 /**
  * This class is responsible for reading {@link Recipe}s and parsing data according to the {@link
@@ -102,6 +108,12 @@ public class DynamicParser implements IRecipeCooker {
      */
     private static final String TAG = DynamicParser.class.getSimpleName();
 
+    /**
+     * Number of maps translated together by one thread. Result lists of at least two chunks are
+     * translated concurrently on the {@link TaskExecutors#uiCritical()} pool.
+     */
+    static final int TRANSLATION_CHUNK_SIZE = 256;
+
     /**
      * Constant used to separate path and name in a match list.
      */
@@ -131,7 +143,7 @@ public class DynamicParser implements IRecipeCooker {
     /**
      * List of ParseAsyncTasks to handle translating tasks.
      */
-    private final List<AsyncTask> mAsyncTasks;
+    private final List<TranslateAsyncTask> mAsyncTasks;
 
     /**
      * True if the parser should send all translated items at once. False if parser should send
@@ -145,12 +157,6 @@ public class DynamicParser implements IRecipeCooker {
      */
     private boolean mAsyncMode;
 
-    /**
-     * The executor to execute async tasks in parallel.
-     */
-    private static final ThreadPoolExecutor EXECUTOR = (ThreadPoolExecutor) AsyncTask
-            .THREAD_POOL_EXECUTOR;
-
     /**
      * Constructs a dynamic parser. Adds all known parsers into a map for later use. By default the
      * parser does not operate in batch mode or async mode.
@@ -291,8 +297,10 @@ public class DynamicParser implements IRecipeCooker {
     public void cancelTranslationTasks() {
 
         synchronized (mAsyncTasks) {
-            for (AsyncTask task : mAsyncTasks) {
+            for (TranslateAsyncTask task : mAsyncTasks) {
                 if (!task.getStatus().equals(AsyncTask.Status.FINISHED)) {
+                    // Stop the chunks of the task that have not been translated yet.
+                    task.mCancelled.set(true);
                     task.cancel(true);
                 }
             }
@@ -322,6 +330,9 @@ public class DynamicParser implements IRecipeCooker {
 
         Observable<Object> dynamicParserObservable = Observable.create(subscriber -> {
 
+            // Stop translating once the subscriber is gone.
+            AtomicBoolean cancelled = new AtomicBoolean();
+            subscriber.add(Subscriptions.create(() -> cancelled.set(true)));
             try {
                 // Make sure recipe and input is valid.
                 checkCookRecipeInput(recipe, input);
@@ -365,7 +376,7 @@ public class DynamicParser implements IRecipeCooker {
                             subscriber.onError(e);
                         }
                     }
-                }, bundle);
+                }, bundle, cancelled);
 
             }
             catch (Exception e) {
@@ -437,12 +448,12 @@ public class DynamicParser implements IRecipeCooker {
                                                rcCallbacks,
                                                bundle);
                 mAsyncTasks.add(translateAsyncTask);
-                translateAsyncTask.executeOnExecutor(EXECUTOR);
+                translateAsyncTask.executeOnExecutor(TaskExecutors.uiCritical());
             }
             // Otherwise, do translation on the main thread.
             else {
                 translateMapsToObjects(isBatchMode(), recipe, resultList, rcCallbacks,
-                                       bundle);
+                                       bundle, new AtomicBoolean());
             }
         }
         catch (Exception e) {
@@ -595,6 +606,10 @@ public class DynamicParser implements IRecipeCooker {
 
     /**
      * This is a private helper method that handles the translation of the map list to objects.
+     * Large lists are split into chunks that are translated concurrently, see {@link
+     * ChunkedTranslation}; the models and errors are still reported on the calling thread in the
+     * order of the list. Once {@code cancelled} is set the remaining maps are not translated and
+     * nothing more is reported.
      *
      * @param batch                 Whether or not to return items all together as a list or as
      *                              single objects.
@@ -603,9 +618,11 @@ public class DynamicParser implements IRecipeCooker {
      *                              match list.
      * @param recipeCookerCallbacks Recipe cooking callbacks.
      * @param bundle                Extra data
+     * @param cancelled             Set to true to stop the translation.
      */
     private void translateMapsToObjects(boolean batch, Recipe recipe, List<Map<String, Object>>
-            translationMapList, IRecipeCookerCallbacks recipeCookerCallbacks, Bundle bundle) {
+            translationMapList, IRecipeCookerCallbacks recipeCookerCallbacks, Bundle bundle,
+                                        AtomicBoolean cancelled) {
 
         List<Object> translatedObjects = new ArrayList<>();
 
@@ -613,13 +630,29 @@ public class DynamicParser implements IRecipeCooker {
             recipeCookerCallbacks.onRecipeCooked(recipe, null, bundle, true);
         }
 
+        ChunkedTranslation chunkedTranslation = null;
+        if (translationMapList.size() >= 2 * TRANSLATION_CHUNK_SIZE) {
+            chunkedTranslation = new ChunkedTranslation(recipe, translationMapList, cancelled);
+            chunkedTranslation.start();
+        }
+
         for (int index = 0; index < translationMapList.size(); index++) {
 
+            if (cancelled.get()) {
+                return;
+            }
+
             // Is this the last map to translate?
             boolean done = index + 1 == translationMapList.size();
 
-            Object model = translateMapToModel(recipe, recipeCookerCallbacks,
-                                               translationMapList.get(index));
+            Object model;
+            if (chunkedTranslation != null) {
+                model = chunkedTranslation.getModel(index, recipeCookerCallbacks);
+            }
+            else {
+                model = translateMapToModel(recipe, recipeCookerCallbacks,
+                                            translationMapList.get(index));
+            }
             if (model != null) {
 
                 // If batch mode, add model to list
@@ -634,13 +667,13 @@ public class DynamicParser implements IRecipeCooker {
             }
             // Even if there was an error during translation, we need to state that the cooking
             // is completed.
-            else if (done) {
+            else if (done && !cancelled.get()) {
                 recipeCookerCallbacks.onRecipeCooked(recipe, null, bundle, true);
             }
         }
 
         // If batch mode, return all the translated objects via recipe callback at once
-        if (batch) {
+        if (batch && !cancelled.get()) {
             recipeCookerCallbacks.onRecipeCooked(recipe, translatedObjects, bundle, true);
         }
     }
@@ -1030,6 +1063,221 @@ public class DynamicParser implements IRecipeCooker {
         return (new ArrayList<Map<String, Object>>()).getClass();
     }
 
+    /**
+     * Translates a list of maps in chunks of {@link #TRANSLATION_CHUNK_SIZE} maps. The thread
+     * reading the models translates chunks itself and is helped by up to one thread less than the
+     * {@link TaskExecutors#uiCritical()} pool has. Chunks are claimed in order, so the reading
+     * thread only ever waits for chunks that are already being translated, even when the pool is
+     * busy. Errors are recorded with the models and reported by {@link #getModel(int,
+     * IRecipeCookerCallbacks)}, so the callbacks are only called on the reading thread.
+     */
+    private class ChunkedTranslation {
+
+        private final Recipe mRecipe;
+        private final List<Map<String, Object>> mMaps;
+        private final AtomicBoolean mCancelled;
+        private final int mChunkCount;
+        private final Object[] mModels;
+        private final List<RecordedError>[] mErrors;
+        private final RuntimeException[] mFailures;
+        private final int[] mFailureIndexes;
+        private final CountDownLatch[] mChunksDone;
+        private final AtomicInteger mNextChunk = new AtomicInteger();
+        private int mNextError;
+
+        /**
+         * Constructor.
+         *
+         * @param recipe    The parser recipe.
+         * @param maps      The maps to translate.
+         * @param cancelled Set to true to stop translating.
+         */
+        ChunkedTranslation(Recipe recipe, List<Map<String, Object>> maps,
+                           AtomicBoolean cancelled) {
+
+            mRecipe = recipe;
+            mMaps = maps;
+            mCancelled = cancelled;
+            mChunkCount = (maps.size() + TRANSLATION_CHUNK_SIZE - 1) / TRANSLATION_CHUNK_SIZE;
+            mModels = new Object[maps.size()];
+            mErrors = new List[mChunkCount];
+            mFailures = new RuntimeException[mChunkCount];
+            mFailureIndexes = new int[mChunkCount];
+            mChunksDone = new CountDownLatch[mChunkCount];
+            for (int chunk = 0; chunk < mChunkCount; chunk++) {
+                mChunksDone[chunk] = new CountDownLatch(1);
+            }
+        }
+
+        /**
+         * Start the helper threads.
+         */
+        void start() {
+
+            PriorityThreadPoolExecutor executor = TaskExecutors.uiCritical();
+            int helpers = Math.min(mChunkCount, executor.getMaximumPoolSize()) - 1;
+            try {
+                for (int i = 0; i < helpers; i++) {
+                    executor.execute(() -> {
+                        while (translateNextChunk()) {
+                            // Keep translating until all chunks are claimed.
+                        }
+                    });
+                }
+            }
+            catch (RejectedExecutionException e) {
+                // The reading thread translates the chunks the helpers do not.
+                Log.w(TAG, "Translating with fewer threads, the pool is full", e);
+            }
+        }
+
+        /**
+         * Get the model of a map, translating or waiting for its chunk if needed, and report the
+         * errors that occurred while translating the map.
+         *
+         * @param index     The index of the map.
+         * @param callbacks The callbacks to report errors to.
+         * @return The model, or null if the map could not be translated or the translation was
+         * cancelled.
+         */
+        Object getModel(int index, IRecipeCookerCallbacks callbacks) {
+
+            int chunk = index / TRANSLATION_CHUNK_SIZE;
+            if (mChunksDone[chunk].getCount() > 0) {
+                // Help with the next chunks instead of waiting.
+                while (mChunksDone[chunk].getCount() > 0 && translateNextChunk()) {
+                    // Keep translating until the chunk is done or all chunks are claimed.
+                }
+                try {
+                    mChunksDone[chunk].await();
+                }
+                catch (InterruptedException e) {
+                    mCancelled.set(true);
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            if (index % TRANSLATION_CHUNK_SIZE == 0) {
+                mNextError = 0;
+            }
+            List<RecordedError> errors = mErrors[chunk];
+            while (errors != null && mNextError < errors.size() &&
+                    errors.get(mNextError).mIndex == index) {
+                RecordedError error = errors.get(mNextError++);
+                callbacks.onRecipeError(error.mRecipe, error.mException, error.mMessage);
+            }
+            if (mFailures[chunk] != null && mFailureIndexes[chunk] == index) {
+                throw mFailures[chunk];
+            }
+            return mModels[index];
+        }
+
+        /**
+         * Claim and translate the next chunk.
+         *
+         * @return False if all chunks were already claimed.
+         */
+        private boolean translateNextChunk() {
+
+            int chunk = mNextChunk.getAndIncrement();
+            if (chunk >= mChunkCount) {
+                return false;
+            }
+            int end = Math.min((chunk + 1) * TRANSLATION_CHUNK_SIZE, mMaps.size());
+            ErrorRecorder recorder = new ErrorRecorder();
+            try {
+                for (int index = chunk * TRANSLATION_CHUNK_SIZE; index < end; index++) {
+                    if (mCancelled.get()) {
+                        break;
+                    }
+                    recorder.mIndex = index;
+                    mModels[index] = translateMapToModel(mRecipe, recorder, mMaps.get(index));
+                }
+            }
+            catch (RuntimeException e) {
+                mFailures[chunk] = e;
+                mFailureIndexes[chunk] = recorder.mIndex;
+            }
+            finally {
+                mErrors[chunk] = recorder.mErrors;
+                mChunksDone[chunk].countDown();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Records the errors reported while translating a chunk.
+     */
+    private static class ErrorRecorder implements IRecipeCookerCallbacks {
+
+        private List<RecordedError> mErrors;
+        private int mIndex;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onPreRecipeCook(Recipe recipe, Object output, Bundle bundle) {
+
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onRecipeCooked(Recipe recipe, Object output, Bundle bundle, boolean done) {
+
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onPostRecipeCooked(Recipe recipe, Object output, Bundle bundle) {
+
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onRecipeError(Recipe recipe, Exception e, String msg) {
+
+            if (mErrors == null) {
+                mErrors = new ArrayList<>();
+            }
+            mErrors.add(new RecordedError(mIndex, recipe, e, msg));
+        }
+    }
+
+    /**
+     * An error reported while translating a map.
+     */
+    private static class RecordedError {
+
+        private final int mIndex;
+        private final Recipe mRecipe;
+        private final Exception mException;
+        private final String mMessage;
+
+        /**
+         * Constructor.
+         *
+         * @param index     The index of the map.
+         * @param recipe    The recipe.
+         * @param exception The error.
+         * @param message   The error message.
+         */
+        RecordedError(int index, Recipe recipe, Exception exception, String message) {
+
+            mIndex = index;
+            mRecipe = recipe;
+            mException = exception;
+            mMessage = message;
+        }
+    }
+
     /**
      * This task handles translating maps to models asynchronously.
      */
@@ -1040,6 +1288,7 @@ public class DynamicParser implements IRecipeCooker {
         private final Bundle mBundle;
         private final List<Map<String, Object>> mTranslationMapList;
         private final boolean mBatch;
+        private final AtomicBoolean mCancelled = new AtomicBoolean();
 
         /**
          * Constructor of the async translation task.
@@ -1087,7 +1336,7 @@ public class DynamicParser implements IRecipeCooker {
         protected Void doInBackground(Void... params) {
 
             translateMapsToObjects(mBatch, mRecipe, mTranslationMapList, mIRecipeCookerCallbacks,
-                                   mBundle);
+                                   mBundle, mCancelled);
 
             return null;
         }
@@ -18,8 +18,10 @@ import com.amazon.dynamicparser.IParser;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
@@ -31,6 +33,7 @@ import org.xml.sax.InputSource;
 
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
@@ -40,6 +43,10 @@ import android.util.Log;
 
 /**
  * Implements the {@link IParser} interface for the XML format. Uses XPath library.
+ * <p>
+ * Document builders, XPath objects and compiled XPath expressions are kept per thread and reused
+ * across calls. When streaming is enabled, simple path queries such as "*", "/rss/channel/item"
+ * or "//item" are answered by a pull parser without building a DOM; all other queries use XPath.
  */
 public class XmlParser implements IParser {
 
@@ -74,6 +81,68 @@ public class XmlParser implements IParser {
      */
     private final String DEFAULT_QUERY = "*";
 
+    /**
+     * Maximum number of compiled XPath expressions kept per thread.
+     */
+    private static final int MAX_CACHED_EXPRESSIONS = 64;
+
+    /**
+     * Document builder factory, shared by all threads. Only used while holding its lock.
+     */
+    private static final DocumentBuilderFactory sDocumentBuilderFactory =
+            DocumentBuilderFactory.newInstance();
+
+    /**
+     * Document builder per thread.
+     */
+    private static final ThreadLocal<DocumentBuilder> sDocumentBuilder = new ThreadLocal<>();
+
+    /**
+     * XPath object per thread.
+     */
+    private static final ThreadLocal<XPath> sXPath = new ThreadLocal<>();
+
+    /**
+     * Compiled XPath expressions by expression string, per thread since compiled expressions are
+     * not thread safe.
+     */
+    private static final ThreadLocal<Map<String, XPathExpression>> sExpressions =
+            new ThreadLocal<>();
+
+    /**
+     * True if simple path queries should be answered by the pull parser.
+     */
+    private final boolean mStreamingEnabled;
+
+    /**
+     * Constructor, creates a parser that always uses DOM and XPath.
+     */
+    public XmlParser() {
+
+        this(false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param streamingEnabled True to answer simple path queries with a pull parser instead of
+     *                         building a DOM.
+     */
+    public XmlParser(boolean streamingEnabled) {
+
+        mStreamingEnabled = streamingEnabled;
+    }
+
+    /**
+     * Check if streaming is enabled.
+     *
+     * @return True if simple path queries are answered by a pull parser.
+     */
+    public boolean isStreamingEnabled() {
+
+        return mStreamingEnabled;
+    }
+
     /**
      * Parses a XML-encoded string into an object.
      *
@@ -150,39 +219,25 @@ public class XmlParser implements IParser {
             throw new IllegalArgumentException("query can not be null or empty");
         }
 
-        // Document to hold XML data.
-        Document doc;
-
-        try {
-            DocumentBuilder docBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-            doc = docBuilder.parse(new InputSource(new StringReader(data)));
-        }
-        // Catch and log an exception for malformed XML data, then throw it back so the user can
-        // catch it as well.
-        catch (Exception e) {
-            Log.e(TAG, "Error parsing XML string.", e);
-            throw new InvalidDataException("Error parsing XML string.", e);
-        }
-
-        // XPath to select target nodes from the document.
-        XPath xpath = XPathFactory.newInstance().newXPath();
-
-        // NodeList to hold the selected nodes
-        NodeList root;
+        // Translate the matched nodes to a map.
+        Map<String, Object> map;
 
-        try {
-            root = (NodeList) xpath.evaluate(query, doc, XPathConstants.NODESET);
+        XmlStreamParser streamParser = mStreamingEnabled ? XmlStreamParser.compile(query) : null;
+        if (streamParser != null) {
+            try {
+                map = streamParser.parse(data);
+            }
+            // Catch and log an exception for malformed XML data, then throw it back so the user
+            // can catch it as well.
+            catch (Exception e) {
+                Log.e(TAG, "Error parsing XML string.", e);
+                throw new InvalidDataException("Error parsing XML string.", e);
+            }
         }
-        // Catch and log an exception from an invalid query string, then throw it back so the user
-        // can catch it as well.
-        catch (XPathExpressionException e) {
-            Log.e(TAG, "The provided query string is not valid.", e);
-            throw new InvalidQueryException("The provided query string is not valid: " + query, e);
+        else {
+            map = translateNodeListToMap(evaluate(parseDocument(data), query));
         }
 
-        // Translate the NodeList to a map.
-        Map<String, Object> map = translateNodeListToMap(root);
-
         // Object to hold the result.
         Object result;
 
@@ -214,6 +269,96 @@ public class XmlParser implements IParser {
         return result;
     }
 
+    /**
+     * Parse the XML data into a document using the document builder of the calling thread.
+     *
+     * @param data The XML-encoded data string to parse.
+     * @return The document.
+     * @throws InvalidDataException If the XML-encoded data string is malformed.
+     */
+    private Document parseDocument(String data) throws InvalidDataException {
+
+        try {
+            DocumentBuilder docBuilder = sDocumentBuilder.get();
+            if (docBuilder == null) {
+                synchronized (sDocumentBuilderFactory) {
+                    docBuilder = sDocumentBuilderFactory.newDocumentBuilder();
+                }
+                sDocumentBuilder.set(docBuilder);
+            }
+            else {
+                docBuilder.reset();
+            }
+            return docBuilder.parse(new InputSource(new StringReader(data)));
+        }
+        // Catch and log an exception for malformed XML data, then throw it back so the user can
+        // catch it as well.
+        catch (ParserConfigurationException e) {
+            Log.e(TAG, "Error creating XML document builder.", e);
+            throw new InvalidDataException("Error creating XML document builder.", e);
+        }
+        catch (Exception e) {
+            Log.e(TAG, "Error parsing XML string.", e);
+            throw new InvalidDataException("Error parsing XML string.", e);
+        }
+    }
+
+    /**
+     * Evaluate a query on a document using the cached compiled expression of the calling thread.
+     *
+     * @param doc   The document.
+     * @param query The XPath query.
+     * @return The selected nodes.
+     * @throws InvalidQueryException If the query string is not valid.
+     */
+    private NodeList evaluate(Document doc, String query) throws InvalidQueryException {
+
+        try {
+            return (NodeList) getExpression(query).evaluate(doc, XPathConstants.NODESET);
+        }
+        // Catch and log an exception from an invalid query string, then throw it back so the user
+        // can catch it as well.
+        catch (XPathExpressionException e) {
+            Log.e(TAG, "The provided query string is not valid.", e);
+            throw new InvalidQueryException("The provided query string is not valid: " + query, e);
+        }
+    }
+
+    /**
+     * Get the compiled XPath expression for a query, compiling it on first use by this thread.
+     *
+     * @param query The XPath query.
+     * @return The compiled expression.
+     * @throws XPathExpressionException If the query string is not valid.
+     */
+    private static XPathExpression getExpression(String query) throws XPathExpressionException {
+
+        Map<String, XPathExpression> expressions = sExpressions.get();
+        if (expressions == null) {
+            // Access ordered so the least recently used expression is evicted first.
+            expressions = new LinkedHashMap<String, XPathExpression>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+
+                    return size() > MAX_CACHED_EXPRESSIONS;
+                }
+            };
+            sExpressions.set(expressions);
+        }
+
+        XPathExpression expression = expressions.get(query);
+        if (expression == null) {
+            XPath xpath = sXPath.get();
+            if (xpath == null) {
+                xpath = XPathFactory.newInstance().newXPath();
+                sXPath.set(xpath);
+            }
+            expression = xpath.compile(query);
+            expressions.put(query, expression);
+        }
+        return expression;
+    }
+
     /**
      * This is a private helper method that handles the translation of the NodeList to map.
      *
@@ -0,0 +1,379 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.dynamicparser.impl;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Pull parser based alternative to the DOM and XPath path of {@link XmlParser}. It handles the
+ * common path-style queries, such as "*", "/rss/channel/item" or "//item", and builds the same
+ * maps {@link XmlParser} builds from DOM nodes without ever creating a DOM. Queries outside of
+ * that subset are rejected by {@link #compile(String)} and must go through the DOM path.
+ */
+class XmlStreamParser {
+
+    /**
+     * Step of a query that matches any element.
+     */
+    private static final String WILDCARD = "*";
+
+    /**
+     * Node name of comment nodes, matching the DOM node name.
+     */
+    private static final String COMMENT_TAG = "#comment";
+
+    /**
+     * Pattern of a supported query step. Prefixed names are left to XPath since they need a
+     * namespace context there.
+     */
+    private static final Pattern STEP_PATTERN = Pattern.compile("\\*|[A-Za-z_][\\w.\\-]*");
+
+    /**
+     * Pull parser factory, shared by all threads.
+     */
+    private static XmlPullParserFactory sFactory;
+
+    /**
+     * Pull parser per thread.
+     */
+    private static final ThreadLocal<XmlPullParser> sParser = new ThreadLocal<>();
+
+    /**
+     * Element names the query steps must match, from the root element down.
+     */
+    private final String[] mSteps;
+
+    /**
+     * True if the single step may match at any depth, i.e. the query starts with "//".
+     */
+    private final boolean mAnyDepth;
+
+    /**
+     * Constructor.
+     *
+     * @param steps    Query steps.
+     * @param anyDepth True for descendant queries.
+     */
+    private XmlStreamParser(String[] steps, boolean anyDepth) {
+
+        mSteps = steps;
+        mAnyDepth = anyDepth;
+    }
+
+    /**
+     * Compile a query for streaming.
+     *
+     * @param query XPath query.
+     * @return Streaming parser for the query or null if the query is not supported.
+     */
+    static XmlStreamParser compile(String query) {
+
+        if (query == null || query.isEmpty()) {
+            return null;
+        }
+        if (query.startsWith("//")) {
+            String step = query.substring(2);
+            if (STEP_PATTERN.matcher(step).matches()) {
+                return new XmlStreamParser(new String[]{step}, true);
+            }
+            return null;
+        }
+
+        String path = query.startsWith("/") ? query.substring(1) : query;
+        String[] steps = path.split("/", -1);
+        for (String step : steps) {
+            if (!STEP_PATTERN.matcher(step).matches()) {
+                return null;
+            }
+        }
+        return new XmlStreamParser(steps, false);
+    }
+
+    /**
+     * Get the pull parser of the calling thread.
+     *
+     * @return Pull parser.
+     * @throws XmlPullParserException If no parser could be created.
+     */
+    private static XmlPullParser getParser() throws XmlPullParserException {
+
+        XmlPullParser parser = sParser.get();
+        if (parser == null) {
+            synchronized (XmlStreamParser.class) {
+                if (sFactory == null) {
+                    sFactory = XmlPullParserFactory.newInstance();
+                }
+            }
+            parser = sFactory.newPullParser();
+            sParser.set(parser);
+        }
+        return parser;
+    }
+
+    /**
+     * An element being built.
+     */
+    private static class Frame {
+
+        /**
+         * Element name.
+         */
+        final String name;
+
+        /**
+         * Child nodes of the element.
+         */
+        final Map<String, Object> children = new HashMap<>();
+
+        /**
+         * Attributes of the element, null if it has none.
+         */
+        Map<String, Object> attributes;
+
+        /**
+         * Index of the element in the match list, -1 if it did not match the query.
+         */
+        int matchIndex = -1;
+
+        /**
+         * Text collected since the last child node.
+         */
+        StringBuilder text;
+
+        /**
+         * Constructor.
+         *
+         * @param name Element name.
+         */
+        Frame(String name) {
+
+            this.name = name;
+        }
+    }
+
+    /**
+     * Parse the XML data and collect the nodes matching the query, in document order, the same
+     * way {@link XmlParser} translates an XPath node set.
+     *
+     * @param data XML data.
+     * @return Map of matched node names to their values.
+     * @throws XmlPullParserException If the XML is malformed.
+     * @throws IOException            If reading the data fails.
+     */
+    Map<String, Object> parse(String data) throws XmlPullParserException, IOException {
+
+        XmlPullParser parser = getParser();
+        parser.setInput(new StringReader(data));
+
+        // Names of all open elements, used to match the query.
+        List<String> path = new ArrayList<>();
+        // Open elements that are being built, a suffix of the open elements.
+        List<Frame> frames = new ArrayList<>();
+        // Matched nodes in document order, filled in once each element is closed.
+        List<Map.Entry<String, Object>> matches = new ArrayList<>();
+
+        int eventType = parser.getEventType();
+        while (eventType != XmlPullParser.END_DOCUMENT) {
+            Frame current = frames.isEmpty() ? null : frames.get(frames.size() - 1);
+            switch (eventType) {
+                case XmlPullParser.START_TAG:
+                    String name = parser.getName();
+                    path.add(name);
+                    boolean matched = matches(path);
+                    if (current != null) {
+                        flushText(current);
+                    }
+                    if (matched || current != null) {
+                        Frame frame = new Frame(name);
+                        int attributeCount = parser.getAttributeCount();
+                        if (attributeCount > 0) {
+                            frame.attributes = new HashMap<>();
+                            for (int i = 0; i < attributeCount; i++) {
+                                frame.attributes.put(parser.getAttributeName(i),
+                                                     parser.getAttributeValue(i));
+                            }
+                        }
+                        if (matched) {
+                            frame.matchIndex = matches.size();
+                            matches.add(null);
+                        }
+                        frames.add(frame);
+                    }
+                    break;
+                case XmlPullParser.END_TAG:
+                    // Once an element is being built all of its descendants are too, so the
+                    // closing element is the current frame if there is one.
+                    if (current != null) {
+                        flushText(current);
+                        frames.remove(frames.size() - 1);
+                        Map<String, Object> value = current.children;
+                        if (!value.containsKey(XmlParser.TEXT_TAG)) {
+                            value.put(XmlParser.TEXT_TAG, "");
+                        }
+                        if (current.attributes != null) {
+                            value.put(XmlParser.ATTRIBUTES_TAG, current.attributes);
+                        }
+                        if (!frames.isEmpty()) {
+                            merge(frames.get(frames.size() - 1).children, current.name, value);
+                        }
+                        if (current.matchIndex >= 0) {
+                            matches.set(current.matchIndex,
+                                        new AbstractMap.SimpleEntry<String, Object>(current.name,
+                                                                                    value));
+                        }
+                    }
+                    path.remove(path.size() - 1);
+                    break;
+                case XmlPullParser.TEXT:
+                case XmlPullParser.ENTITY_REF:
+                case XmlPullParser.IGNORABLE_WHITESPACE:
+                    if (current != null) {
+                        if (current.text == null) {
+                            current.text = new StringBuilder();
+                        }
+                        current.text.append(parser.getText());
+                    }
+                    break;
+                case XmlPullParser.CDSECT:
+                    if (current != null) {
+                        flushText(current);
+                        merge(current.children, XmlParser.CDATA_TAG, parser.getText());
+                    }
+                    break;
+                case XmlPullParser.COMMENT:
+                    if (current != null) {
+                        flushText(current);
+                        merge(current.children, COMMENT_TAG, emptyNode());
+                    }
+                    break;
+                case XmlPullParser.PROCESSING_INSTRUCTION:
+                    if (current != null) {
+                        flushText(current);
+                        String target = parser.getText().trim().split("\\s", 2)[0];
+                        merge(current.children, target, emptyNode());
+                    }
+                    break;
+                default:
+                    break;
+            }
+            eventType = parser.nextToken();
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        for (Map.Entry<String, Object> match : matches) {
+            merge(result, match.getKey(), match.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Check if the open element path matches the query.
+     *
+     * @param path Open element names, the last one being the element to check.
+     * @return True if the element matches.
+     */
+    private boolean matches(List<String> path) {
+
+        String name = path.get(path.size() - 1);
+        if (mAnyDepth) {
+            return stepMatches(mSteps[0], name);
+        }
+        if (path.size() != mSteps.length) {
+            return false;
+        }
+        for (int i = 0; i < mSteps.length; i++) {
+            if (!stepMatches(mSteps[i], path.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if a query step matches an element name.
+     *
+     * @param step Query step.
+     * @param name Element name.
+     * @return True if the step matches.
+     */
+    private static boolean stepMatches(String step, String name) {
+
+        return WILDCARD.equals(step) || step.equals(name);
+    }
+
+    /**
+     * Add the collected text of a frame as a text node.
+     *
+     * @param frame Frame to flush.
+     */
+    private static void flushText(Frame frame) {
+
+        if (frame.text != null) {
+            merge(frame.children, XmlParser.TEXT_TAG, frame.text.toString());
+            frame.text = null;
+        }
+    }
+
+    /**
+     * Create the value of a node without children or attributes.
+     *
+     * @return Node value.
+     */
+    private static Map<String, Object> emptyNode() {
+
+        Map<String, Object> node = new HashMap<>();
+        node.put(XmlParser.TEXT_TAG, "");
+        return node;
+    }
+
+    /**
+     * Add a node to a map, merging nodes with the same name into one list.
+     *
+     * @param map   Map to add to.
+     * @param name  Node name.
+     * @param value Node value.
+     */
+    @SuppressWarnings("unchecked")
+    static void merge(Map<String, Object> map, String name, Object value) {
+
+        Object existing = map.get(name);
+        if (existing == null && !map.containsKey(name)) {
+            map.put(name, value);
+            return;
+        }
+
+        List<Object> list;
+        if (existing instanceof List) {
+            list = (List<Object>) existing;
+        }
+        else {
+            list = new ArrayList<>();
+            list.add(existing);
+        }
+        list.add(value);
+        map.put(name, list);
+    }
+}
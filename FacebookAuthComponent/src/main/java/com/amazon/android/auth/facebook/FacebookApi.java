@@ -171,10 +171,8 @@ public class FacebookApi {
             NoSuchAlgorithmException, NoSuchPaddingException, BadPaddingException,
             IllegalBlockSizeException, InvalidKeyException {
 
-        String encrypted_authentication_client_token =
-                context.getString(R.string.encrypted_authentication_client_token);
-
-        return ResourceObfuscator.unobfuscate(encrypted_authentication_client_token,
+        return ResourceObfuscator.unobfuscate(context,
+                                              R.string.encrypted_authentication_client_token,
                                               getRandomStringsForKey(context),
                                               getRandomStringsForIv(context));
     }
@@ -198,10 +196,7 @@ public class FacebookApi {
             NoSuchAlgorithmException, NoSuchPaddingException, BadPaddingException,
             IllegalBlockSizeException, InvalidKeyException {
 
-        String encrypted_authentication_app_id =
-                context.getString(R.string.encrypted_authentication_app_id);
-
-        return ResourceObfuscator.unobfuscate(encrypted_authentication_app_id,
+        return ResourceObfuscator.unobfuscate(context, R.string.encrypted_authentication_app_id,
                                               getRandomStringsForKey(context),
                                               getRandomStringsForIv(context));
     }
@@ -110,7 +110,7 @@ public class FlurryAnalytics implements IAnalytics {
             NoSuchAlgorithmException, NoSuchPaddingException, BadPaddingException,
             IllegalBlockSizeException, InvalidKeyException {
 
-        return ResourceObfuscator.unobfuscate(context.getString(R.string.encrypted_flurry_api_key),
+        return ResourceObfuscator.unobfuscate(context, R.string.encrypted_flurry_api_key,
                                               getRandomStringsForKey(context),
                                               getRandomStringsForIv(context));
     }
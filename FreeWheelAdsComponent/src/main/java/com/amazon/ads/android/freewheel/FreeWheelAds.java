@@ -15,6 +15,8 @@
 package com.amazon.ads.android.freewheel;
 
 import com.amazon.ads.IAds;
+import com.amazon.android.scheduler.PriorityThreadPoolExecutor;
+import com.amazon.android.scheduler.TaskExecutors;
 
 import android.app.Activity;
 import android.content.Context;
@@ -424,16 +426,15 @@ public class FreeWheelAds implements IAds {
                     }
                 });
 
-        // Create a new thread.
-        Thread t = new Thread(new Runnable() {
+        // Submit request, it must be in a separate thread. Playback is waiting for it, so it runs
+        // with high priority.
+        TaskExecutors.io().execute(new Runnable() {
             @Override
             public void run() {
-                // Submit request, it must be in a separate thread.
+
                 mAdContext.submitRequest(REQUEST_TIMEOUT);
             }
-        });
-        // Start thread.
-        t.start();
+        }, PriorityThreadPoolExecutor.PRIORITY_HIGH);
     }
 
     /**
@@ -24,6 +24,8 @@ import android.content.pm.PackageManager;
 import android.os.Bundle;
 import android.util.Log;
 
+import java.io.File;
+import java.io.IOException;
 
 /**
  * Base class for a modular application.
@@ -54,6 +56,11 @@ public abstract class ModularApplication extends Application {
      */
     public static final String APP_CRASHES_KEY = "appCrashes";
 
+    /**
+     * File name of the exported startup trace inside the app cache directory.
+     */
+    public static final String STARTUP_TRACE_FILE_NAME = "startup_trace.json";
+
     /**
      * onCreate method.
      */
@@ -93,6 +100,8 @@ public abstract class ModularApplication extends Application {
                 else {
                     Preferences.setLong(APP_CRASHES_KEY, 0);
                 }
+                // Write the crash counter before the process is killed.
+                Preferences.flushNow();
                 android.os.Process.killProcess(android.os.Process.myPid());
             }
         });
@@ -155,20 +164,37 @@ public abstract class ModularApplication extends Application {
                             " interfaceName:" + interfaceName +
                             " implCreatorName:" + implCreatorName);
 
-                    Class<?> clazz = Class.forName(implCreatorName);
-
                     if (ModuleManager.getInstance().getModule(interfaceName) == null) {
                         setModuleForInterface(interfaceName);
                     }
+                    Module module = ModuleManager.getInstance().getModule(interfaceName);
 
-                    ModuleManager.getInstance()
-                                 .getModule(interfaceName)
-                                 .setImplCreator(pluginName, (IImplCreator) clazz.newInstance());
+                    if (shouldDeferPlugin(pluginName, interfaceName)) {
+                        module.setDeferredImplCreator(pluginName, implCreatorName);
+                        continue;
+                    }
+
+                    StartupTrace trace = StartupTrace.getInstance();
+                    long begin = trace.begin();
+                    Class<?> clazz = Class.forName(implCreatorName);
+                    long classLoadNanos = trace.end(pluginName, StartupTrace.CATEGORY_CLASS_LOAD,
+                                                    begin);
+
+                    begin = trace.begin();
+                    module.setImplCreator(pluginName, (IImplCreator) clazz.newInstance());
+                    long initNanos = trace.end(pluginName, StartupTrace.CATEGORY_INIT, begin);
+
+                    Log.d(TAG, "pluginName:" + pluginName +
+                            " classLoad(us):" + classLoadNanos / 1000 +
+                            " init(us):" + initNanos / 1000);
                 }
             }
             Log.i(TAG, "All Modules Initialized!");
             mModulesLoaded = true;
             onModulesLoaded();
+            if (isStartupTraceExportEnabled()) {
+                exportStartupTrace(new File(context.getCacheDir(), STARTUP_TRACE_FILE_NAME));
+            }
         }
         catch (PackageManager.NameNotFoundException e) {
             Log.e(TAG, "PackageManager.NameNotFoundException during plugin initialization", e);
@@ -184,6 +210,47 @@ public abstract class ModularApplication extends Application {
         }
     }
 
+    /**
+     * Decides if a plugin should be registered in deferred mode. Deferred plugins only have their
+     * ImplCreator class name recorded at startup; the class is loaded the first time the module
+     * needs the creator. Override to defer plugins found to be slow in the startup trace.
+     *
+     * @param pluginName    Name of the plugin.
+     * @param interfaceName Interface the plugin implements.
+     * @return True if the plugin should be deferred, false to load it eagerly.
+     */
+    protected boolean shouldDeferPlugin(String pluginName, String interfaceName) {
+
+        return false;
+    }
+
+    /**
+     * Decides if the startup trace is written to the cache directory once all modules are
+     * loaded. Spans are always recorded; this only controls the file export.
+     *
+     * @return True to export the trace.
+     */
+    protected boolean isStartupTraceExportEnabled() {
+
+        return false;
+    }
+
+    /**
+     * Write the startup trace collected so far as Chrome trace-event JSON.
+     *
+     * @param file Destination file.
+     */
+    protected void exportStartupTrace(File file) {
+
+        try {
+            StartupTrace.getInstance().writeChromeTrace(file);
+            Log.i(TAG, "Startup trace written to " + file.getAbsolutePath());
+        }
+        catch (IOException e) {
+            Log.e(TAG, "IOException while writing the startup trace", e);
+        }
+    }
+
     /**
      * Creates and sets the modules for the param interfaceName.
      *
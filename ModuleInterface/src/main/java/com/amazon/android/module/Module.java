@@ -50,6 +50,16 @@ public class Module<I> {
      */
     private HashMap<String, IImplCreator> mImplCreators = new HashMap<>();
 
+    /**
+     * Map of ImplCreator class names registered in deferred mode and not yet instantiated.
+     */
+    private HashMap<String, String> mDeferredImplCreators = new HashMap<>();
+
+    /**
+     * Name of the default ImplCreator when it was registered in deferred mode.
+     */
+    private String mDefaultImplCreatorName;
+
     /**
      * Default constructor.
      */
@@ -63,21 +73,54 @@ public class Module<I> {
      * @param name        Name of the implementation creator which is set by the module.
      * @param implCreator Implementation creator instance.
      */
-    public void setImplCreator(String name, IImplCreator implCreator) {
+    public synchronized void setImplCreator(String name, IImplCreator implCreator) {
         // Set the first one as default.
-        if (mImplCreator == null) {
+        if (mImplCreator == null && mDefaultImplCreatorName == null) {
             mImplCreator = implCreator;
         }
+        mDeferredImplCreators.remove(name);
         mImplCreators.put(name, implCreator);
     }
 
+    /**
+     * Set ImplCreator by name in deferred mode. Only the class name is held until the creator is
+     * first needed, at which point the class is loaded and instantiated.
+     *
+     * @param name                 Name of the implementation creator which is set by the
+     *                             module.
+     * @param implCreatorClassName Fully qualified class name of the implementation creator.
+     */
+    public synchronized void setDeferredImplCreator(String name, String implCreatorClassName) {
+        // Set the first one as default.
+        if (mImplCreator == null && mDefaultImplCreatorName == null) {
+            mDefaultImplCreatorName = name;
+        }
+        mImplCreators.remove(name);
+        mDeferredImplCreators.put(name, implCreatorClassName);
+    }
+
+    /**
+     * Check if the ImplCreator by name is registered but not instantiated yet.
+     *
+     * @param name Implementation creator name.
+     * @return True if the creator is still deferred.
+     */
+    public synchronized boolean isImplCreatorDeferred(String name) {
+
+        return mDeferredImplCreators.containsKey(name);
+    }
+
     /**
      * Get the default ImplCreator.
      *
      * @return Implementation creator instance.
      */
-    public IImplCreator getImplCreator() {
+    public synchronized IImplCreator getImplCreator() {
 
+        if (mImplCreator == null && mDefaultImplCreatorName != null) {
+            mImplCreator = getImplCreator(mDefaultImplCreatorName);
+            mDefaultImplCreatorName = null;
+        }
         return mImplCreator;
     }
 
@@ -87,9 +130,36 @@ public class Module<I> {
      * @param name Implementation creator name.
      * @return Implementation creator instance.
      */
-    public IImplCreator getImplCreator(String name) {
+    public synchronized IImplCreator getImplCreator(String name) {
+
+        IImplCreator implCreator = mImplCreators.get(name);
+        if (implCreator == null && mDeferredImplCreators.containsKey(name)) {
+            implCreator = instantiateImplCreator(name, mDeferredImplCreators.remove(name));
+            mImplCreators.put(name, implCreator);
+        }
+        return implCreator;
+    }
 
-        return mImplCreators.get(name);
+    /**
+     * Load and instantiate a deferred ImplCreator, recording the time spent in the startup trace.
+     *
+     * @param name      Implementation creator name.
+     * @param className Implementation creator class name.
+     * @return Implementation creator instance.
+     */
+    private IImplCreator instantiateImplCreator(String name, String className) {
+
+        StartupTrace trace = StartupTrace.getInstance();
+        long begin = trace.begin();
+        try {
+            IImplCreator implCreator = (IImplCreator) Class.forName(className).newInstance();
+            trace.end(name, StartupTrace.CATEGORY_DEFERRED, begin);
+            return implCreator;
+        }
+        catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("Could not instantiate deferred ImplCreator " +
+                                                    className + " for " + name, e);
+        }
     }
 
     /**
@@ -99,7 +169,7 @@ public class Module<I> {
      */
     public I createImpl() {
 
-        return (I) mImplCreator.createImpl();
+        return (I) getImplCreator().createImpl();
     }
 
     /**
@@ -110,7 +180,7 @@ public class Module<I> {
      */
     public I createImpl(String name) {
 
-        return (I) mImplCreators.get(name).createImpl();
+        return (I) getImplCreator(name).createImpl();
     }
 
     /**
@@ -0,0 +1,267 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.module;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Singleton recorder of startup timing spans. Each span is a named, categorized interval on a
+ * thread and the whole trace can be exported in the Chrome trace-event JSON format so it can be
+ * opened in chrome://tracing or Perfetto.
+ */
+public class StartupTrace {
+
+    /**
+     * Category used for plugin class loading spans.
+     */
+    public static final String CATEGORY_CLASS_LOAD = "classLoad";
+
+    /**
+     * Category used for plugin instantiation spans.
+     */
+    public static final String CATEGORY_INIT = "init";
+
+    /**
+     * Category used for spans of plugins that were resolved lazily after startup.
+     */
+    public static final String CATEGORY_DEFERRED = "deferred";
+
+    /**
+     * Singleton.
+     */
+    private static StartupTrace instance = new StartupTrace();
+
+    /**
+     * Recorded spans, in the order they finished.
+     */
+    private final List<Span> mSpans = new ArrayList<>();
+
+    /**
+     * Time base all span timestamps are relative to.
+     */
+    private final long mOriginNanos;
+
+    /**
+     * Constructor, visible for tests.
+     */
+    StartupTrace() {
+
+        mOriginNanos = System.nanoTime();
+    }
+
+    /**
+     * Get singleton instance.
+     *
+     * @return Singleton instance.
+     */
+    public static StartupTrace getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * A single completed span of the trace.
+     */
+    public static class Span {
+
+        /**
+         * Span name, usually the plugin name.
+         */
+        public final String name;
+
+        /**
+         * Span category.
+         */
+        public final String category;
+
+        /**
+         * Start time in nanoseconds relative to the trace origin.
+         */
+        public final long startNanos;
+
+        /**
+         * Duration in nanoseconds.
+         */
+        public final long durationNanos;
+
+        /**
+         * Id of the thread the span was recorded on.
+         */
+        public final long threadId;
+
+        /**
+         * Constructor.
+         *
+         * @param name          Span name.
+         * @param category      Span category.
+         * @param startNanos    Start time relative to the trace origin.
+         * @param durationNanos Duration of the span.
+         * @param threadId      Recording thread id.
+         */
+        Span(String name, String category, long startNanos, long durationNanos, long threadId) {
+
+            this.name = name;
+            this.category = category;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.threadId = threadId;
+        }
+    }
+
+    /**
+     * Get a timestamp to be passed back to {@link #end(String, String, long)}.
+     *
+     * @return Current time in nanoseconds.
+     */
+    public long begin() {
+
+        return System.nanoTime();
+    }
+
+    /**
+     * Record a span that started at the given time and ends now.
+     *
+     * @param name       Span name.
+     * @param category   Span category.
+     * @param beginNanos Value previously returned by {@link #begin()}.
+     * @return Duration of the span in nanoseconds.
+     */
+    public long end(String name, String category, long beginNanos) {
+
+        long duration = System.nanoTime() - beginNanos;
+        Span span = new Span(name, category, beginNanos - mOriginNanos, duration,
+                             Thread.currentThread().getId());
+        synchronized (mSpans) {
+            mSpans.add(span);
+        }
+        return duration;
+    }
+
+    /**
+     * Get a copy of the recorded spans.
+     *
+     * @return List of spans.
+     */
+    public List<Span> getSpans() {
+
+        synchronized (mSpans) {
+            return new ArrayList<>(mSpans);
+        }
+    }
+
+    /**
+     * Remove all recorded spans.
+     */
+    public void clear() {
+
+        synchronized (mSpans) {
+            mSpans.clear();
+        }
+    }
+
+    /**
+     * Export the recorded spans as a Chrome trace-event JSON document. Every span is written as a
+     * complete ("X") event with microsecond timestamps.
+     *
+     * @return Trace JSON string.
+     */
+    public String toChromeTraceJson() {
+
+        StringBuilder builder = new StringBuilder("{\"traceEvents\":[");
+        boolean first = true;
+        for (Span span : getSpans()) {
+            if (!first) {
+                builder.append(',');
+            }
+            first = false;
+            builder.append("{\"name\":");
+            appendQuoted(builder, span.name);
+            builder.append(",\"cat\":");
+            appendQuoted(builder, span.category);
+            builder.append(",\"ph\":\"X\",\"ts\":").append(span.startNanos / 1000)
+                   .append(",\"dur\":").append(span.durationNanos / 1000)
+                   .append(",\"pid\":0,\"tid\":").append(span.threadId)
+                   .append('}');
+        }
+        builder.append("],\"displayTimeUnit\":\"ms\"}");
+        return builder.toString();
+    }
+
+    /**
+     * Write the Chrome trace-event JSON to a file.
+     *
+     * @param file Destination file.
+     * @throws IOException If the file could not be written.
+     */
+    public void writeChromeTrace(File file) throws IOException {
+
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file),
+                                               Charset.forName("UTF-8"));
+        try {
+            writer.write(toChromeTraceJson());
+        }
+        finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Append a JSON string literal to the builder.
+     *
+     * @param builder Destination builder.
+     * @param value   String to quote, null is written as an empty string.
+     */
+    private static void appendQuoted(StringBuilder builder, String value) {
+
+        builder.append('"');
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        builder.append("\\\"");
+                        break;
+                    case '\\':
+                        builder.append("\\\\");
+                        break;
+                    case '\n':
+                        builder.append("\\n");
+                        break;
+                    case '\r':
+                        builder.append("\\r");
+                        break;
+                    case '\t':
+                        builder.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            builder.append(String.format("\\u%04x", (int) c));
+                        }
+                        else {
+                            builder.append(c);
+                        }
+                }
+            }
+        }
+        builder.append('"');
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.module;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link Module} deferred registration and the {@link StartupTrace} export.
+ */
+public class ModuleTest {
+
+    /**
+     * Counts how many times the test creator was instantiated.
+     */
+    static int sCreatorInstances = 0;
+
+    /**
+     * Test ImplCreator that records its instantiation.
+     */
+    public static class TestImplCreator implements IImplCreator<String> {
+
+        public TestImplCreator() {
+
+            sCreatorInstances++;
+        }
+
+        @Override
+        public String createImpl() {
+
+            return "impl";
+        }
+    }
+
+    /**
+     * Tests that a deferred creator is only instantiated when the impl is first requested.
+     */
+    @Test
+    public void testDeferredImplCreator() {
+
+        sCreatorInstances = 0;
+        Module<String> module = new Module<>();
+        module.setDeferredImplCreator("test", TestImplCreator.class.getName());
+
+        assertTrue(module.isImplCreatorDeferred("test"));
+        assertEquals(0, sCreatorInstances);
+
+        assertEquals("impl", module.getImpl(true));
+        assertEquals(1, sCreatorInstances);
+        assertFalse(module.isImplCreatorDeferred("test"));
+
+        assertNotNull(module.getImplCreator("test"));
+        assertEquals(1, sCreatorInstances);
+    }
+
+    /**
+     * Tests that the first registered creator stays the default across both registration modes.
+     */
+    @Test
+    public void testDefaultCreatorOrder() {
+
+        Module<String> module = new Module<>();
+        module.setDeferredImplCreator("deferred", TestImplCreator.class.getName());
+        IImplCreator<String> eager = new IImplCreator<String>() {
+            @Override
+            public String createImpl() {
+
+                return "eager";
+            }
+        };
+        module.setImplCreator("eager", eager);
+
+        assertEquals("impl", module.createImpl());
+        assertEquals("eager", module.createImpl("eager"));
+    }
+
+    /**
+     * Tests an unknown deferred class fails when resolved rather than at registration.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testDeferredImplCreatorMissingClass() {
+
+        Module<String> module = new Module<>();
+        module.setDeferredImplCreator("missing", "com.amazon.android.module.DoesNotExist");
+        module.createImpl();
+    }
+
+    /**
+     * Tests the Chrome trace-event export format.
+     */
+    @Test
+    public void testChromeTraceJson() {
+
+        StartupTrace trace = new StartupTrace();
+        trace.end("Plugin\"A", StartupTrace.CATEGORY_CLASS_LOAD, trace.begin());
+        trace.end("PluginB", StartupTrace.CATEGORY_INIT, trace.begin());
+
+        assertEquals(2, trace.getSpans().size());
+        String json = trace.toChromeTraceJson();
+        assertTrue(json.startsWith("{\"traceEvents\":[{\"name\":\"Plugin\\\"A\",\"cat\":" +
+                                           "\"classLoad\",\"ph\":\"X\""));
+        assertTrue(json.contains("\"name\":\"PluginB\",\"cat\":\"init\""));
+        assertTrue(json.endsWith("],\"displayTimeUnit\":\"ms\"}"));
+
+        trace.clear();
+        assertEquals("{\"traceEvents\":[],\"displayTimeUnit\":\"ms\"}", trace.toChromeTraceJson());
+    }
+}
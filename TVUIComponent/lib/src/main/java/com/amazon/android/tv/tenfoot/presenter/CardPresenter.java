@@ -57,6 +57,16 @@ public class CardPresenter extends Presenter {
 
     private static final String TAG = CardPresenter.class.getSimpleName();
 
+    /**
+     * Width of the card image.
+     */
+    public static final int CARD_WIDTH_PX = 160;
+
+    /**
+     * Height of the card image.
+     */
+    public static final int CARD_HEIGHT_PX = 120;
+
     private int mCardWidthDp;
     private int mCardHeightDp;
 
@@ -95,10 +105,8 @@ public class CardPresenter extends Presenter {
         cardView.setCardType(BaseCardView.CARD_TYPE_INFO_OVER);
         cardView.setInfoVisibility(BaseCardView.CARD_REGION_VISIBLE_ALWAYS);
 
-        int CARD_WIDTH_PX = 160;
         mCardWidthDp = Helpers.convertPixelToDp(mContext, CARD_WIDTH_PX);
 
-        int CARD_HEIGHT_PX = 120;
         mCardHeightDp = Helpers.convertPixelToDp(mContext, CARD_HEIGHT_PX);
 
         TextView subtitle = (TextView) cardView.findViewById(R.id.content_text);
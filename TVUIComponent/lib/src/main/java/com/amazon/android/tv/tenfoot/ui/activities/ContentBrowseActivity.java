@@ -73,7 +73,9 @@ public class ContentBrowseActivity extends BaseActivity implements ContentBrowse
 
     private static final int CONTENT_IMAGE_CROSS_FADE_DURATION = 1000;
     private static final int ACTIVITY_ENTER_TRANSITION_FADE_DURATION = 1500;
-    private static final int UI_UPDATE_DELAY_IN_MS = 0;
+    // Time the selection has to stay on an item before its image is loaded, so only the item
+    // the user settles on is loaded while scrolling.
+    private static final int IMAGE_LOAD_DELAY_IN_MS = 150;
 
     private TextView mContentTitle;
     private TextView mContentDescription;
@@ -113,9 +115,9 @@ public class ContentBrowseActivity extends BaseActivity implements ContentBrowse
         int imageWidth = (int) getResources().getDimension(R.dimen.content_image_width);
         int imageHeight = (int) getResources().getDimension(R.dimen.content_image_height);
         int gradientSize = (int) getResources().getDimension(R.dimen.content_image_gradient_size);
-        // Create the background
+        // Get the background, which is shared and drawn at a reduced resolution
         Bitmap background =
-                BackgroundImageUtils.createBackgroundWithPreviewWindow(
+                BackgroundImageUtils.getSharedBackgroundWithPreviewWindow(
                         windowSize.x,
                         windowSize.y,
                         imageWidth,
@@ -170,7 +172,9 @@ public class ContentBrowseActivity extends BaseActivity implements ContentBrowse
     /**
      * Helper method to subscribe the selected item to the observable that will load the content
      * image into the background. It is okay for the background image URL to be null. A null URL
-     * will result in showing the default background.
+     * will result in showing the default background. The title and description are shown right
+     * away; the image is loaded once the selection stays on the item, and a load that is still
+     * pending when the selection moves on is cancelled.
      *
      * @param title       The title to display.
      * @param description The description to display.
@@ -178,12 +182,19 @@ public class ContentBrowseActivity extends BaseActivity implements ContentBrowse
      */
     public void callImageLoadSubscription(String title, String description, String bgImageUrl) {
 
+        if (mContentImageLoadSubscription != null) {
+            mContentImageLoadSubscription.unsubscribe();
+        }
+
+        runOnUiThread(() -> {
+            mContentTitle.setText(title);
+            mContentDescription.setText(description);
+        });
+
         mContentImageLoadSubscription = Observable
-                .timer(UI_UPDATE_DELAY_IN_MS, TimeUnit.MILLISECONDS)
+                .timer(IMAGE_LOAD_DELAY_IN_MS, TimeUnit.MILLISECONDS)
                 .observeOn(AndroidSchedulers.mainThread()) // This is a must for timer.
                 .subscribe(c -> {
-                    mContentTitle.setText(title);
-                    mContentDescription.setText(description);
                     GlideHelper.loadImageWithCrossFadeTransition(this,
                                                                  mContentImage,
                                                                  bgImageUrl,
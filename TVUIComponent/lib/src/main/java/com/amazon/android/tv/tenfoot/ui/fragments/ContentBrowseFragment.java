@@ -37,6 +37,7 @@ import com.amazon.android.tv.tenfoot.R;
 import com.amazon.android.tv.tenfoot.presenter.CustomListRowPresenter;
 import com.amazon.android.tv.tenfoot.ui.activities.ContentBrowseActivity;
 import com.amazon.android.tv.tenfoot.utils.BrowseHelper;
+import com.amazon.android.tv.tenfoot.utils.BrowseImagePrefetcher;
 import com.amazon.android.ui.constants.PreferencesConstants;
 import com.amazon.android.utils.Preferences;
 
@@ -72,6 +73,7 @@ public class ContentBrowseFragment extends RowsFragment {
     private ListRow mRecentListRow = null;
     private ListRow mWatchlistListRow = null;
     private int mLoginButtonIndex;
+    private BrowseImagePrefetcher mImagePrefetcher;
 
     // Container Activity must implement this interface.
     public interface OnBrowseRowListener {
@@ -108,6 +110,8 @@ public class ContentBrowseFragment extends RowsFragment {
 
         setAdapter(rowsAdapter);
 
+        mImagePrefetcher = new BrowseImagePrefetcher(getActivity());
+
         setOnItemViewClickedListener(new ItemViewClickedListener());
         setOnItemViewSelectedListener(new ItemViewSelectedListener());
 
@@ -139,6 +143,15 @@ public class ContentBrowseFragment extends RowsFragment {
         }
     }
 
+    @Override
+    public void onDestroy() {
+
+        super.onDestroy();
+        if (mImagePrefetcher != null) {
+            mImagePrefetcher.cancelAll();
+        }
+    }
+
     /**
      * Event bus listener method to listen for authentication updates from AuthHelper and update
      * the login action status in settings.
@@ -213,6 +226,7 @@ public class ContentBrowseFragment extends RowsFragment {
                                    RowPresenter.ViewHolder rowViewHolder, Row row) {
 
             mCallback.onItemSelected(item);
+            mImagePrefetcher.onItemSelected(getAdapter(), row, item);
         }
     }
 }
@@ -32,6 +32,7 @@ import com.amazon.android.contentbrowser.ContentBrowser;
 import com.amazon.android.model.Action;
 import com.amazon.android.model.content.Content;
 import com.amazon.android.model.content.ContentContainer;
+import com.amazon.android.utils.BitmapCompositor;
 import com.amazon.android.utils.GlideHelper;
 import com.amazon.android.utils.Helpers;
 import com.amazon.android.tv.tenfoot.R;
@@ -108,6 +109,10 @@ public class ContentDetailsFragment extends android.support.v17.leanback.app.Det
     private DisplayMetrics mMetrics;
     private boolean mShowRelatedContent;
 
+    // Composed images shown by this fragment, released when replaced or destroyed.
+    private Bitmap mBackgroundBitmap;
+    private Bitmap mOverviewBitmap;
+
     SparseArrayObjectAdapter mActionAdapter = new SparseArrayObjectAdapter();
 
     // Decides whether the action button should be enabled or not.
@@ -218,7 +223,7 @@ public class ContentDetailsFragment extends android.support.v17.leanback.app.Det
         getActivity().getWindowManager().getDefaultDisplay().getMetrics(mMetrics);
     }
 
-    private void updateBackground(String uri) {
+    private void updateBackground(final String uri) {
 
         Log.v(TAG, "updateBackground called");
         if (Helpers.DEBUG) {
@@ -231,10 +236,17 @@ public class ContentDetailsFragment extends android.support.v17.leanback.app.Det
             public void onResourceReady(Bitmap resource,
                                         GlideAnimation<? super Bitmap> glideAnimation) {
 
-                Bitmap bitmap = Helpers.adjustOpacity(resource, getResources().getInteger(
-                        R.integer.content_details_fragment_bg_opacity));
+                Bitmap bitmap = BitmapCompositor.compose(
+                        getActivity(), uri, resource, new BitmapCompositor.Composition()
+                                .setOpacity(getResources().getInteger(
+                                        R.integer.content_details_fragment_bg_opacity)));
 
+                // The background manager outlives this fragment and cross fades from the
+                // previous bitmap, so the bitmaps it draws must not be reused or recycled.
+                BitmapCompositor.keepOutOfPool(bitmap);
                 mBackgroundManager.setBitmap(bitmap);
+                BitmapCompositor.release(mBackgroundBitmap);
+                mBackgroundBitmap = bitmap;
             }
         };
 
@@ -300,11 +312,10 @@ public class ContentDetailsFragment extends android.support.v17.leanback.app.Det
                 int cornerRadius =
                         getResources().getInteger(R.integer.details_overview_image_corner_radius);
 
-                Bitmap bitmap = Helpers.roundCornerImage(getActivity(), resource, cornerRadius);
-
-                if (playbackPercentage > 0) {
-                    bitmap = Helpers.addProgress(getActivity(), bitmap, playbackPercentage);
-                }
+                BitmapCompositor.Composition composition =
+                        new BitmapCompositor.Composition()
+                                .setCornerRadius(cornerRadius)
+                                .setPlaybackPercentage(playbackPercentage);
 
                 long secondsRemaining = timeRemaining / MILLISECONDS_IN_SECOND;
 
@@ -331,11 +342,17 @@ public class ContentDetailsFragment extends android.support.v17.leanback.app.Det
                     String durationText = res.getString(R.string.duration, hours, minutes, seconds);
                     String timeRemainingText = res.getString(R.string.time_remaining, durationText);
 
-                    bitmap = Helpers.addTimeRemaining(getActivity(), bitmap, timeRemainingText);
+                    composition.setTimeRemainingText(timeRemainingText);
 
                 }
 
+                Bitmap bitmap = BitmapCompositor.compose(getActivity(),
+                                                         mSelectedContent.getCardImageUrl(),
+                                                         resource, composition);
+
                 row.setImageBitmap(getActivity(), bitmap);
+                BitmapCompositor.release(mOverviewBitmap);
+                mOverviewBitmap = bitmap;
 
                 mAdapter.notifyArrayItemRangeChanged(0, mAdapter.size());
             }
@@ -462,6 +479,17 @@ public class ContentDetailsFragment extends android.support.v17.leanback.app.Det
         mActionInProgress = false;
     }
 
+    @Override
+    public void onDestroy() {
+
+        Log.v(TAG, "onDestroy called.");
+        super.onDestroy();
+        BitmapCompositor.release(mBackgroundBitmap);
+        BitmapCompositor.release(mOverviewBitmap);
+        mBackgroundBitmap = null;
+        mOverviewBitmap = null;
+    }
+
     /**
      * Since we do not have direct access to the details overview actions row, we are adding a
      * delayed handler that waits for some time, searches for the row and then updates the
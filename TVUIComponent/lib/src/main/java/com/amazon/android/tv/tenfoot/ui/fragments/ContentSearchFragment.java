@@ -32,6 +32,7 @@ package com.amazon.android.tv.tenfoot.ui.fragments;
 import com.amazon.android.contentbrowser.ContentBrowser;
 import com.amazon.android.contentbrowser.helper.AnalyticsHelper;
 import com.amazon.android.model.content.Content;
+import com.amazon.android.search.SearchDebouncer;
 import com.amazon.android.search.SearchManager;
 import com.amazon.android.utils.Helpers;
 import com.amazon.android.tv.tenfoot.BuildConfig;
@@ -71,6 +72,10 @@ import android.view.inputmethod.InputMethodManager;
 import android.widget.RelativeLayout;
 import android.widget.Toast;
 
+import java.util.List;
+
+import rx.Subscription;
+
 
 /**
  * This class provides search capabilities by extending the android ContentSearchFragment.
@@ -83,7 +88,6 @@ public class ContentSearchFragment extends android.support.v17.leanback.app.Sear
 
     private static final String TAG = ContentSearchFragment.class.getSimpleName();
     private static final boolean DEBUG = BuildConfig.DEBUG;
-    private static final long SEARCH_DELAY_MS = 1000L;
 
     private final Handler mHandler = new Handler();
     private final Runnable mDelayedLoad = new Runnable() {
@@ -103,6 +107,18 @@ public class ContentSearchFragment extends android.support.v17.leanback.app.Sear
     // A local list row Adapter
     private ArrayObjectAdapter mListRowAdapter;
 
+    // The delay between the last query change and the search, adapted to the search latency.
+    private final SearchDebouncer mSearchDebouncer = new SearchDebouncer();
+
+    // The search in flight, if any.
+    private Subscription mSearchSubscription;
+
+    // The last result row, which is filled before a new row is started.
+    private ArrayObjectAdapter mCurrentRowAdapter;
+
+    // Whether the results of the current search have replaced the previous results.
+    private boolean mResultsShown;
+
     /**
      * This handler will be used to give the focus to search textview.
      * Needs to be attached to this fragment
@@ -299,6 +315,7 @@ public class ContentSearchFragment extends android.support.v17.leanback.app.Sear
 
         mAutoTextViewFocusHandler.removeCallbacksAndMessages(null);
         mHandler.removeCallbacksAndMessages(null);
+        cancelSearch();
         super.onPause();
     }
 
@@ -358,9 +375,11 @@ public class ContentSearchFragment extends android.support.v17.leanback.app.Sear
     private void loadQuery(String query) {
 
         mHandler.removeCallbacks(mDelayedLoad);
+        // The running search is for an older query, so its results are not wanted anymore.
+        cancelSearch();
         if (!TextUtils.isEmpty(query) && !query.equals("nil")) {
             mQuery = query;
-            mHandler.postDelayed(mDelayedLoad, SEARCH_DELAY_MS);
+            mHandler.postDelayed(mDelayedLoad, mSearchDebouncer.getDelayMs());
         }
         // If search query is empty, clear the previous results.
         else {
@@ -371,64 +390,84 @@ public class ContentSearchFragment extends android.support.v17.leanback.app.Sear
 
     private void loadRows() {
 
+        cancelSearch();
         mListRowAdapter = new ArrayObjectAdapter(new CardPresenter());
+        mCurrentRowAdapter = null;
+        mResultsShown = false;
+
+        final String query = mQuery;
+        mSearchSubscription = ContentBrowser.getInstance(getActivity()).searchInBackground(
+                query, new ContentBrowser.ISearchProgressListener() {
+                    @Override
+                    public void onCategoryResults(List<Content> results) {
+
+                        updateResults(query, results);
+                    }
+
+                    @Override
+                    public void onSearchCompleted(long latencyMs) {
 
-        ContentBrowser.getInstance(getActivity())
-                      .search(mQuery, (t, done) -> updateResults(t, done));
+                        mSearchSubscription = null;
+                        mSearchDebouncer.recordLatency(latencyMs);
+                        if (DEBUG) {
+                            Log.d(TAG, "Search for " + query + " took " + latencyMs + "ms, " +
+                                    "next delay " + mSearchDebouncer.getDelayMs() + "ms");
+                        }
+                        // Nothing matched, so the previous results are still shown.
+                        if (!mResultsShown) {
+                            mRowsAdapter.clear();
+                        }
+                    }
+                });
     }
 
     /**
-     * This method is the entry point for new content to be added to the view.
-     * If there is no more new content coming in the current in flight query the boolean is set to
-     * true and we send a new {@link ListRow} to the {@link #mRowsAdapter}
+     * Cancel the search in flight, if any.
+     */
+    private void cancelSearch() {
+
+        if (mSearchSubscription != null) {
+            mSearchSubscription.unsubscribe();
+            mSearchSubscription = null;
+        }
+    }
+
+    /**
+     * This method is the entry point for new content to be added to the view. It is called with
+     * the results of each category as soon as the category has been searched. The first results
+     * of a search replace the results of the previous search, and results are added to the last
+     * row until it is full before a new {@link ListRow} is added to the {@link #mRowsAdapter}.
      *
-     * @param inputContent the new content to be added
-     * @param done         a boolean that tells us that there are no new items coming in the
-     *                     current
-     *                     in flight query
+     * @param query   The query the results are for.
+     * @param results The new content to be added.
      */
-    private void updateResults(Object inputContent, boolean done) {
+    private void updateResults(String query, List<Content> results) {
 
-        // If done then add the content to the mRowsAdapter.
-        if (done) {
+        if (!mResultsShown) {
             mRowsAdapter.clear();
-            HeaderItem header = new HeaderItem(getString(R.string.search_results, mQuery));
-
-            int elementsInRow = (int) getResources().getInteger(R.integer
-                                                                        .num_of_search_elements_in_row);
+            mResultsShown = true;
+        }
 
-            int rows = mListRowAdapter.size() / elementsInRow;
+        int elementsInRow = getResources().getInteger(R.integer.num_of_search_elements_in_row);
 
-            if (mListRowAdapter.size() % elementsInRow > 0) {
-                rows++;
+        for (Content content : results) {
+            // Only add the content if the adapter does not already contain it.
+            if (mListRowAdapter.indexOf(content) != -1) {
+                continue;
             }
+            mListRowAdapter.add(content);
 
-            int index = 0;
-
-            for (int i = 0; i < rows; i++) {
-                ArrayObjectAdapter row = new ArrayObjectAdapter(new CardPresenter());
-
-                for (int j = index; j < (index + elementsInRow) && (j < mListRowAdapter.size());
-                     j++) {
-                    row.add(mListRowAdapter.get(j));
-                }
-
-                if (i > 0) {
-                    mRowsAdapter.add(new ListRow(row));
+            if (mCurrentRowAdapter == null || mCurrentRowAdapter.size() >= elementsInRow) {
+                mCurrentRowAdapter = new ArrayObjectAdapter(new CardPresenter());
+                if (mRowsAdapter.size() == 0) {
+                    HeaderItem header = new HeaderItem(getString(R.string.search_results, query));
+                    mRowsAdapter.add(new ListRow(header, mCurrentRowAdapter));
                 }
                 else {
-                    mRowsAdapter.add(new ListRow(header, row));
+                    mRowsAdapter.add(new ListRow(mCurrentRowAdapter));
                 }
-
-                index += elementsInRow;
-            }
-        }
-        // Add the found content to the mListRowAdapter
-        else {
-            // Only add the content if the adapter does not already contain it.
-            if (mListRowAdapter.indexOf(inputContent) == -1) {
-                mListRowAdapter.add(inputContent);
             }
+            mCurrentRowAdapter.add(content);
         }
     }
 
@@ -0,0 +1,342 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.tv.tenfoot.utils;
+
+import com.amazon.android.model.content.Content;
+import com.amazon.android.tv.tenfoot.presenter.CardPresenter;
+import com.amazon.android.utils.GlideHelper;
+import com.amazon.android.utils.Helpers;
+import com.bumptech.glide.load.resource.drawable.GlideDrawable;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+
+import android.content.Context;
+import android.support.v17.leanback.widget.ListRow;
+import android.support.v17.leanback.widget.ObjectAdapter;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Warms the image cache with the card images the user is likely to see next in the browse rows.
+ * On every selection it predicts the next cards in the direction the user is scrolling in the
+ * selected row and the first cards of the rows above and below, and loads their images at card
+ * size with low priority. Only a few loads run at a time, and loads of cards that are no longer
+ * predicted are cancelled.
+ * <p>
+ * All methods must be called on the main thread.
+ */
+public class BrowseImagePrefetcher {
+
+    private static final String TAG = BrowseImagePrefetcher.class.getSimpleName();
+
+    /**
+     * Number of cards ahead of the selected card in the selected row to prefetch.
+     */
+    private static final int CARDS_AHEAD = 6;
+
+    /**
+     * Number of cards at the start of the adjacent rows to prefetch.
+     */
+    private static final int ADJACENT_ROW_CARDS = 4;
+
+    /**
+     * Maximum number of prefetches running at a time.
+     */
+    private static final int MAX_CONCURRENT_PREFETCHES = 3;
+
+    /**
+     * Maximum number of prefetched URLs remembered, so they are not prefetched again.
+     */
+    private static final int MAX_DONE_URLS = 256;
+
+    /**
+     * The context to load with.
+     */
+    private final Context mContext;
+
+    /**
+     * Width of the card image views.
+     */
+    private final int mCardWidth;
+
+    /**
+     * Height of the card image views.
+     */
+    private final int mCardHeight;
+
+    /**
+     * URLs predicted by the last selection that have not started loading, in priority order.
+     */
+    private final Deque<String> mPending = new ArrayDeque<>();
+
+    /**
+     * Running prefetches by URL.
+     */
+    private final Map<String, Target<GlideDrawable>> mRunning = new HashMap<>();
+
+    /**
+     * Recently prefetched URLs, oldest first.
+     */
+    private final Set<String> mDone = new LinkedHashSet<>();
+
+    /**
+     * Row of the last selection.
+     */
+    private int mLastRow = -1;
+
+    /**
+     * Column of the last selection.
+     */
+    private int mLastColumn = -1;
+
+    /**
+     * Direction of the last horizontal move, 1 for right and -1 for left.
+     */
+    private int mHorizontalDirection = 1;
+
+    /**
+     * Direction of the last vertical move, 1 for down and -1 for up.
+     */
+    private int mVerticalDirection = 1;
+
+    /**
+     * Constructor.
+     *
+     * @param context The context to load with.
+     */
+    public BrowseImagePrefetcher(Context context) {
+
+        mContext = context;
+        // Same size as the main image views of the cards made by CardPresenter.
+        mCardWidth = Helpers.convertPixelToDp(context, CardPresenter.CARD_WIDTH_PX);
+        mCardHeight = Helpers.convertPixelToDp(context, CardPresenter.CARD_HEIGHT_PX);
+    }
+
+    /**
+     * Update the prefetches for a new selection.
+     *
+     * @param rowsAdapter The adapter of the browse rows.
+     * @param row         The selected row, may be null.
+     * @param item        The selected item, may be null.
+     */
+    public void onItemSelected(ObjectAdapter rowsAdapter, Object row, Object item) {
+
+        if (rowsAdapter == null || !(row instanceof ListRow)) {
+            return;
+        }
+        int rowIndex = indexOf(rowsAdapter, row);
+        int columnIndex = indexOf(((ListRow) row).getAdapter(), item);
+        if (rowIndex < 0) {
+            return;
+        }
+        if (rowIndex == mLastRow && columnIndex != mLastColumn && mLastColumn >= 0) {
+            mHorizontalDirection = columnIndex > mLastColumn ? 1 : -1;
+        }
+        else if (rowIndex != mLastRow && mLastRow >= 0) {
+            mVerticalDirection = rowIndex > mLastRow ? 1 : -1;
+        }
+        mLastRow = rowIndex;
+        mLastColumn = columnIndex;
+
+        Set<String> window = predict(rowsAdapter, rowIndex, Math.max(columnIndex, 0));
+
+        // Cancel the prefetches that left the window.
+        Iterator<Map.Entry<String, Target<GlideDrawable>>> iterator =
+                mRunning.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Target<GlideDrawable>> entry = iterator.next();
+            if (!window.contains(entry.getKey())) {
+                GlideHelper.cancel(entry.getValue());
+                iterator.remove();
+            }
+        }
+
+        mPending.clear();
+        for (String url : window) {
+            if (!mRunning.containsKey(url) && !mDone.contains(url)) {
+                mPending.add(url);
+            }
+        }
+        startPending();
+    }
+
+    /**
+     * Cancel all prefetches.
+     */
+    public void cancelAll() {
+
+        mPending.clear();
+        for (Target<GlideDrawable> target : mRunning.values()) {
+            GlideHelper.cancel(target);
+        }
+        mRunning.clear();
+    }
+
+    /**
+     * Get the card image URLs to prefetch, in priority order: the cards ahead in the selected
+     * row, then the first cards of the row in the vertical scroll direction, then those of the
+     * row in the other direction.
+     *
+     * @param rowsAdapter The adapter of the browse rows.
+     * @param row         The selected row.
+     * @param column      The selected column.
+     * @return The URLs.
+     */
+    private Set<String> predict(ObjectAdapter rowsAdapter, int row, int column) {
+
+        Set<String> urls = new LinkedHashSet<>();
+        ObjectAdapter selectedRow = getRowAdapter(rowsAdapter, row);
+        if (selectedRow != null) {
+            for (int i = 1; i <= CARDS_AHEAD; i++) {
+                addCardImageUrl(urls, selectedRow, column + i * mHorizontalDirection);
+            }
+        }
+        for (int adjacent : new int[]{row + mVerticalDirection, row - mVerticalDirection}) {
+            ObjectAdapter adjacentRow = getRowAdapter(rowsAdapter, adjacent);
+            if (adjacentRow != null) {
+                for (int i = 0; i < ADJACENT_ROW_CARDS; i++) {
+                    addCardImageUrl(urls, adjacentRow, i);
+                }
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Start pending prefetches while fewer than the maximum are running.
+     */
+    private void startPending() {
+
+        while (mRunning.size() < MAX_CONCURRENT_PREFETCHES && !mPending.isEmpty()) {
+            final String url = mPending.poll();
+            RequestListener<String, GlideDrawable> listener =
+                    new RequestListener<String, GlideDrawable>() {
+                        @Override
+                        public boolean onException(Exception e, String model,
+                                                   Target<GlideDrawable> target,
+                                                   boolean isFirstResource) {
+
+                            Log.d(TAG, "Prefetch failed for " + model, e);
+                            onPrefetchDone(url, target);
+                            return false;
+                        }
+
+                        @Override
+                        public boolean onResourceReady(GlideDrawable resource, String model,
+                                                       Target<GlideDrawable> target,
+                                                       boolean isFromMemoryCache,
+                                                       boolean isFirstResource) {
+
+                            onPrefetchDone(url, target);
+                            return false;
+                        }
+                    };
+            // The load may finish right away from the memory cache, so it is marked as running
+            // before it starts.
+            mRunning.put(url, null);
+            Target<GlideDrawable> target =
+                    GlideHelper.preloadImage(mContext, url, mCardWidth, mCardHeight, listener);
+            if (mRunning.containsKey(url)) {
+                mRunning.put(url, target);
+            }
+        }
+    }
+
+    /**
+     * Record a finished prefetch and start the next pending one.
+     *
+     * @param url    The URL of the prefetch.
+     * @param target The target of the prefetch.
+     */
+    private void onPrefetchDone(String url, Target<GlideDrawable> target) {
+
+        Target<GlideDrawable> running = mRunning.get(url);
+        if (running != null && running != target) {
+            // A cancelled prefetch of a URL that was prefetched again.
+            return;
+        }
+        mRunning.remove(url);
+        mDone.remove(url);
+        mDone.add(url);
+        if (mDone.size() > MAX_DONE_URLS) {
+            Iterator<String> iterator = mDone.iterator();
+            iterator.next();
+            iterator.remove();
+        }
+        startPending();
+    }
+
+    /**
+     * Add the card image URL of an item of a row, if the item is content with a card image.
+     *
+     * @param urls   The URLs to add to.
+     * @param row    The adapter of the row.
+     * @param column The column of the item.
+     */
+    private static void addCardImageUrl(Set<String> urls, ObjectAdapter row, int column) {
+
+        if (column < 0 || column >= row.size()) {
+            return;
+        }
+        Object item = row.get(column);
+        if (item instanceof Content && ((Content) item).getCardImageUrl() != null) {
+            urls.add(((Content) item).getCardImageUrl());
+        }
+    }
+
+    /**
+     * Get the adapter of a row.
+     *
+     * @param rowsAdapter The adapter of the browse rows.
+     * @param row         The index of the row.
+     * @return The adapter of the row, or null if there is no such list row.
+     */
+    private static ObjectAdapter getRowAdapter(ObjectAdapter rowsAdapter, int row) {
+
+        if (row < 0 || row >= rowsAdapter.size()) {
+            return null;
+        }
+        Object item = rowsAdapter.get(row);
+        return item instanceof ListRow ? ((ListRow) item).getAdapter() : null;
+    }
+
+    /**
+     * Find an item in an adapter.
+     *
+     * @param adapter The adapter, may be null.
+     * @param item    The item.
+     * @return The index of the item, or -1 if it is not in the adapter.
+     */
+    private static int indexOf(ObjectAdapter adapter, Object item) {
+
+        if (adapter == null || item == null) {
+            return -1;
+        }
+        for (int i = 0; i < adapter.size(); i++) {
+            if (adapter.get(i) == item) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -20,8 +20,12 @@ import android.content.Context;
 import android.support.test.InstrumentationRegistry;
 
 import java.io.IOException;
+import java.util.Map;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -60,4 +64,50 @@ public class FileHelperTest {
 
         FileHelper.readFile(InstrumentationRegistry.getContext(), "FakeFile");
     }
+
+    /**
+     * Tests that {@link FileHelper#readText(Context, String)} keeps the content as is and that
+     * {@link FileHelper#readFile(Context, String)} only drops its line breaks.
+     */
+    @Test
+    public void testReadTextKeepsLineBreaks() throws Exception {
+
+        Context context = InstrumentationRegistry.getContext();
+        String text = FileHelper.readText(context, "TestConfiguration.json");
+
+        assertTrue(text.contains("\n"));
+        assertArrayEquals(text.getBytes("UTF-8"),
+                          FileHelper.readBytes(context, "TestConfiguration.json"));
+        assertEquals(text.replace("\n", "").replace("\r", ""),
+                     FileHelper.readFile(context, "TestConfiguration.json"));
+    }
+
+    /**
+     * Tests that {@link FileHelper#readJsonAsset(Context, String)} parses the file and returns a
+     * new copy on each call.
+     */
+    @Test
+    public void testReadJsonAsset() throws Exception {
+
+        Context context = InstrumentationRegistry.getContext();
+        FileHelper.clearJsonAssetCache();
+
+        Map first = FileHelper.readJsonAsset(context, "TestConfiguration.json");
+        assertEquals("testValue", first.get("testKey"));
+        first.put("testKey", "changed");
+
+        Map second = FileHelper.readJsonAsset(context, "TestConfiguration.json");
+        assertNotSame(first, second);
+        assertEquals("testValue", second.get("testKey"));
+        assertTrue(FileHelper.doesFileExist(context, "TestConfiguration.json"));
+    }
+
+    /**
+     * Tests that {@link FileHelper#readJsonAsset(Context, String)} fails for a missing file.
+     */
+    @Test(expected = IOException.class)
+    public void testReadJsonAssetWithBadFilePath() throws Exception {
+
+        FileHelper.readJsonAsset(InstrumentationRegistry.getContext(), "FakeFile");
+    }
 }
@@ -199,6 +199,30 @@ public class JsonHelperTest {
         assertEquals(expected, result);
     }
 
+    /**
+     * Tests that stringToMap and mapToString give the same results as the platform's JSONObject for
+     * strict and lenient input.
+     */
+    @Test
+    public void testCodecMatchesJSONObject() throws Exception {
+
+        String[] inputs = new String[]{
+                data1, data2, data3,
+                "{\"a\":1.5,\"b\":-0,\"c\":1e3,\"d\":12345678901,\"e\":0x1F,\"f\":010}",
+                "{\"s\":\"q\\\" b\\\\ s\\/ t\\t n\\n u\\u0001 \\u00e9\"}",
+                "{/* block */ \"a\" : true, // line\n \"b\" = FALSE; # hash\n \"c\" => null}",
+                "{'single': unquoted, \"dup\": 1, \"other\": 2, \"dup\": 3}",
+                "{\"list\": [1, \"two\", [3], {\"four\": 4}, null, true]}"
+        };
+        for (String input : inputs) {
+            JSONObject object = new JSONObject(input);
+            Map map = JsonHelper.stringToMap(input);
+
+            assertEquals(input, object.toString(), JsonHelper.mapToString(map));
+            assertEquals(input, map, JsonHelper.stringToMap(object.toString()));
+        }
+    }
+
     /*
      * Helper method to return a map that represents the data1 string.
      */
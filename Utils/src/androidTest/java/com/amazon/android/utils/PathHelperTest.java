@@ -17,7 +17,6 @@ package com.amazon.android.utils;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.security.InvalidParameterException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -121,14 +120,16 @@ public class PathHelperTest {
     }
 
     /**
-     * Tests the {@link PathHelper#injectParameters(String, String[])} method with pars greater
-     * than the max value.
+     * Tests the {@link PathHelper#injectParameters(String, String[])} method with more pars than
+     * the single digit injection points used to allow.
      */
-    @Test(expected = InvalidParameterException.class)
-    public void testInjectParametersWithMoreThanMaxPars() throws Exception {
+    @Test
+    public void testInjectParametersWithMoreThanTenPars() throws Exception {
 
         String[] pars = {"0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "10"};
-        PathHelper.injectParameters(testString, pars);
+        assertEquals("I went 0 the 1 yesterday 10.",
+                     PathHelper.injectParameters("I went $$par0$$ the $$par1$$ yesterday " +
+                                                         "$$par10$$.", pars));
     }
 
     /**
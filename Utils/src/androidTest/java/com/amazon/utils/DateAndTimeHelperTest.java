@@ -39,4 +39,19 @@ public class DateAndTimeHelperTest {
         assertTrue(-1 == DateAndTimeHelper.convertDateFormatToSeconds("00:00:0000"));
         assertTrue(360000 == DateAndTimeHelper.convertDateFormatToSeconds("100:00:00"));
     }
+
+    /**
+     * Tests the {@link DateAndTimeHelper#convertDateFormatToSeconds(String)} method with times
+     * that are not in a valid format.
+     */
+    @Test
+    public void testConvertInvalidTimeOffset() throws Exception {
+
+        String[] invalidTimes = {"00:00:00:123", "00:00:001234", "00:00", "00:0:00", ":00:00",
+                "00:00:00.12", "00:00:00.1234", "a0:00:00", "00:00:00 ", "", "50%", "start",
+                "\u0661\u0661:00:00"};
+        for (String time : invalidTimes) {
+            assertTrue(time, -1 == DateAndTimeHelper.convertDateFormatToSeconds(time));
+        }
+    }
 }
@@ -14,10 +14,14 @@
  */
 package com.amazon.utils.security;
 
+import android.content.Context;
+
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * Tests for {@link ResourceObfuscator}
@@ -47,6 +51,34 @@ public class ResourceUnobfuscatorTest {
         assertEquals(actualPlainString, expectedPlainString);
     }
 
+    /**
+     * Test for {@link ResourceObfuscator#unobfuscate(Context, int, String[], String[])}, including
+     * that a memoized value is not returned once the resource value changes.
+     */
+    @Test
+    public void testUnobfuscateResource() throws Exception {
+
+        final int resourceId = 0x7f0a0001;
+        Context context = mock(Context.class);
+        when(context.getString(resourceId)).thenReturn(expectedObfuscatedString);
+
+        ResourceObfuscator.clearCache();
+        for (int i = 0; i < 2; i++) {
+            assertEquals(expectedPlainString,
+                         ResourceObfuscator.unobfuscate(context, resourceId,
+                                                        getRandomStringsForKey(),
+                                                        getRandomStringsForIv()));
+        }
+
+        String otherPlainString = "Another_secret";
+        when(context.getString(resourceId)).thenReturn(
+                ResourceObfuscator.obfuscate(otherPlainString, getRandomStringsForKey(),
+                                             getRandomStringsForIv()));
+        assertEquals(otherPlainString,
+                     ResourceObfuscator.unobfuscate(context, resourceId, getRandomStringsForKey(),
+                                                    getRandomStringsForIv()));
+    }
+
     /**
      * Random keys used to generate encryption key.
      *
@@ -0,0 +1,372 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.navigator;
+
+import org.json.JSONObject;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary form of the parsed navigator file and its recipes. The file starts with the hash
+ * of the assets it was built from and the paths of those assets, so a reader can tell if it is
+ * still current before using the parsed trees that follow. Trees are maps and lists of strings,
+ * numbers, booleans and nulls, as produced by the JSON parsers.
+ */
+final class NavigatorCacheFile {
+
+    /**
+     * Magic number at the start of the file.
+     */
+    private static final int MAGIC = 0x4E415643;
+
+    /**
+     * Version of the format, changed whenever the format changes.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Charset of strings.
+     */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Value tag of null.
+     */
+    private static final int TAG_NULL = 0;
+
+    /**
+     * Value tag of {@link JSONObject#NULL}.
+     */
+    private static final int TAG_JSON_NULL = 1;
+
+    /**
+     * Value tag of false.
+     */
+    private static final int TAG_FALSE = 2;
+
+    /**
+     * Value tag of true.
+     */
+    private static final int TAG_TRUE = 3;
+
+    /**
+     * Value tag of an Integer.
+     */
+    private static final int TAG_INT = 4;
+
+    /**
+     * Value tag of a Long.
+     */
+    private static final int TAG_LONG = 5;
+
+    /**
+     * Value tag of a Double.
+     */
+    private static final int TAG_DOUBLE = 6;
+
+    /**
+     * Value tag of a String.
+     */
+    private static final int TAG_STRING = 7;
+
+    /**
+     * Value tag of a list.
+     */
+    private static final int TAG_LIST = 8;
+
+    /**
+     * Value tag of a map.
+     */
+    private static final int TAG_MAP = 9;
+
+    /**
+     * Hash of the assets.
+     */
+    final byte[] hash;
+
+    /**
+     * Paths of the assets, the navigator file first.
+     */
+    final List<String> assetPaths;
+
+    /**
+     * Parsed navigator file.
+     */
+    final Map<String, Object> navigator;
+
+    /**
+     * Parsed recipes by asset path.
+     */
+    final Map<String, Map<String, Object>> recipes;
+
+    /**
+     * Constructor.
+     *
+     * @param hash       Hash of the assets.
+     * @param assetPaths Paths of the assets, the navigator file first.
+     * @param navigator  Parsed navigator file.
+     * @param recipes    Parsed recipes by asset path.
+     */
+    NavigatorCacheFile(byte[] hash, List<String> assetPaths, Map<String, Object> navigator,
+                       Map<String, Map<String, Object>> recipes) {
+
+        this.hash = hash;
+        this.assetPaths = assetPaths;
+        this.navigator = navigator;
+        this.recipes = recipes;
+    }
+
+    /**
+     * Write the contents to a stream.
+     *
+     * @param outputStream The stream, which is not closed.
+     * @throws IOException If writing failed or a value cannot be written.
+     */
+    void write(OutputStream outputStream) throws IOException {
+
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(hash.length);
+        out.write(hash);
+        out.writeInt(assetPaths.size());
+        for (String path : assetPaths) {
+            writeString(out, path);
+        }
+        writeValue(out, navigator);
+        out.writeInt(recipes.size());
+        for (Map.Entry<String, Map<String, Object>> entry : recipes.entrySet()) {
+            writeString(out, entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+        out.flush();
+    }
+
+    /**
+     * Read contents from a stream.
+     *
+     * @param inputStream The stream, which is not closed.
+     * @return The contents.
+     * @throws IOException If reading failed or the stream is not in this format or version.
+     */
+    @SuppressWarnings("unchecked")
+    static NavigatorCacheFile read(InputStream inputStream) throws IOException {
+
+        DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Unknown navigator cache format");
+        }
+        byte[] hash = new byte[readSize(in)];
+        in.readFully(hash);
+        int pathCount = readSize(in);
+        List<String> assetPaths = new ArrayList<>(pathCount);
+        for (int i = 0; i < pathCount; i++) {
+            assetPaths.add(readString(in));
+        }
+        Map<String, Object> navigator = readMap(in);
+        int recipeCount = readSize(in);
+        Map<String, Map<String, Object>> recipes = new LinkedHashMap<>();
+        for (int i = 0; i < recipeCount; i++) {
+            String path = readString(in);
+            recipes.put(path, readMap(in));
+        }
+        return new NavigatorCacheFile(hash, assetPaths, navigator, recipes);
+    }
+
+    /**
+     * Write a value with its tag.
+     *
+     * @param out   The stream.
+     * @param value The value.
+     * @throws IOException If writing failed or the value has an unsupported type.
+     */
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        }
+        else if (value == JSONObject.NULL) {
+            out.writeByte(TAG_JSON_NULL);
+        }
+        else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TAG_TRUE : TAG_FALSE);
+        }
+        else if (value instanceof Integer) {
+            out.writeByte(TAG_INT);
+            out.writeInt((Integer) value);
+        }
+        else if (value instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) value);
+        }
+        else if (value instanceof Double) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble((Double) value);
+        }
+        else if (value instanceof String) {
+            out.writeByte(TAG_STRING);
+            writeString(out, (String) value);
+        }
+        else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(TAG_MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeString(out, (String) entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        }
+        else if (value instanceof List) {
+            Collection<?> list = (Collection<?>) value;
+            out.writeByte(TAG_LIST);
+            out.writeInt(list.size());
+            for (Object item : list) {
+                writeValue(out, item);
+            }
+        }
+        else {
+            throw new IOException("Unsupported value type " + value.getClass().getName());
+        }
+    }
+
+    /**
+     * Read a tagged value.
+     *
+     * @param in The stream.
+     * @return The value.
+     * @throws IOException If reading failed or the tag is unknown.
+     */
+    private static Object readValue(DataInputStream in) throws IOException {
+
+        int tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_JSON_NULL:
+                return JSONObject.NULL;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_INT:
+                return in.readInt();
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_DOUBLE:
+                return in.readDouble();
+            case TAG_STRING:
+                return readString(in);
+            case TAG_LIST:
+                int size = readSize(in);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            case TAG_MAP:
+                return readMapEntries(in);
+            default:
+                throw new IOException("Unknown value tag " + tag);
+        }
+    }
+
+    /**
+     * Read a tagged value that must be a map.
+     *
+     * @param in The stream.
+     * @return The map.
+     * @throws IOException If reading failed or the value is not a map.
+     */
+    private static Map<String, Object> readMap(DataInputStream in) throws IOException {
+
+        int tag = in.readByte();
+        if (tag != TAG_MAP) {
+            throw new IOException("Expected a map but found tag " + tag);
+        }
+        return readMapEntries(in);
+    }
+
+    /**
+     * Read the entries of a map after its tag.
+     *
+     * @param in The stream.
+     * @return The map.
+     * @throws IOException If reading failed.
+     */
+    private static Map<String, Object> readMapEntries(DataInputStream in) throws IOException {
+
+        int size = readSize(in);
+        Map<String, Object> map = new LinkedHashMap<>(Math.max((int) (size / .75f) + 1, 16));
+        for (int i = 0; i < size; i++) {
+            String key = readString(in);
+            map.put(key, readValue(in));
+        }
+        return map;
+    }
+
+    /**
+     * Write a length-prefixed UTF-8 string.
+     *
+     * @param out   The stream.
+     * @param value The string.
+     * @throws IOException If writing failed.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+
+        byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read a length-prefixed UTF-8 string.
+     *
+     * @param in The stream.
+     * @return The string.
+     * @throws IOException If reading failed.
+     */
+    private static String readString(DataInputStream in) throws IOException {
+
+        byte[] bytes = new byte[readSize(in)];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Read a size, rejecting negative values of a corrupt file.
+     *
+     * @param in The stream.
+     * @return The size.
+     * @throws IOException If reading failed or the size is negative.
+     */
+    private static int readSize(DataInputStream in) throws IOException {
+
+        int size = in.readInt();
+        if (size < 0) {
+            throw new IOException("Invalid size " + size);
+        }
+        return size;
+    }
+}
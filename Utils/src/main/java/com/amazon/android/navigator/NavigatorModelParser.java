@@ -15,85 +15,521 @@
 package com.amazon.android.navigator;
 
 import com.amazon.android.recipe.Recipe;
+import com.amazon.android.scheduler.PriorityThreadPoolExecutor;
+import com.amazon.android.scheduler.TaskExecutors;
+import com.amazon.android.utils.DigestHelper;
 import com.amazon.android.utils.FileHelper;
+import com.amazon.android.utils.JsonHelper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import android.content.Context;
+import android.content.pm.PackageManager;
 import android.util.Log;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
 /**
  * Parses the a file into a {@link NavigatorModel} by use of an {@link ObjectMapper}. Preloads the
  * recipes into the model to be used later.
+ * <p>
+ * The recipe files are loaded concurrently and validated. The parsed navigator file and recipes
+ * are kept as a snapshot for the rest of the process, and every call binds a new model with its
+ * own recipes from it. They are also written to a compact cache file together with a hash of the
+ * paths and sizes of the assets they came from and of the time the app was installed or updated;
+ * as long as the app is not updated, later app starts build the model from that file without
+ * reading the assets or parsing any JSON.
  */
 public class NavigatorModelParser {
 
     private static final String TAG = NavigatorModelParser.class.getSimpleName();
 
+    /**
+     * Prefix of the cache file name, followed by the navigator file path.
+     */
+    private static final String CACHE_FILE_PREFIX = "navigator-";
+
+    /**
+     * Charset used to hash asset paths.
+     */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Parsed navigator trees and recipes by navigator file path, guarded by itself.
+     */
+    private static final Map<String, Snapshot> sSnapshots = new HashMap<>();
+
+    /**
+     * The parsed navigator file and recipes a model is bound from. Neither is handed out, every
+     * model bound from them gets its own copies.
+     */
+    private static class Snapshot {
+
+        /**
+         * The parsed navigator file.
+         */
+        final Map<String, Object> navigatorTree;
+
+        /**
+         * The parsed recipes by path.
+         */
+        final Map<String, Map<String, Object>> recipes;
+
+        /**
+         * True if all recipes were loaded. Only complete snapshots are kept.
+         */
+        final boolean complete;
+
+        /**
+         * Paths of the navigator file and its recipes if they were parsed from the assets, or
+         * null if they were read from the cache file.
+         */
+        final List<String> assetPaths;
+
+        /**
+         * Constructor.
+         *
+         * @param navigatorTree The parsed navigator file.
+         * @param recipes       The parsed recipes by path.
+         * @param complete      True if all recipes were loaded.
+         * @param assetPaths    Paths of the parsed assets, or null if read from the cache file.
+         */
+        Snapshot(Map<String, Object> navigatorTree, Map<String, Map<String, Object>> recipes,
+                 boolean complete, List<String> assetPaths) {
+
+            this.navigatorTree = navigatorTree;
+            this.recipes = recipes;
+            this.complete = complete;
+            this.assetPaths = assetPaths;
+        }
+    }
+
     /**
      * Parses the Navigator JSON file into a {@link NavigatorModel} object. The JSON file is
      * defined
-     * by the {@link Navigator#NAVIGATOR_FILE} string.
+     * by the {@link Navigator#NAVIGATOR_FILE} string. The files are parsed once per process;
+     * afterwards every call binds a new model with its own recipes from the parsed files.
      *
      * @param context The context.
      * @return A NavigatorModel object.
      */
     public static NavigatorModel parse(Context context, String navigatorFile) {
 
-        NavigatorModel navigatorModel = null;
+        ObjectMapper objectMapper = new ObjectMapper();
+        Snapshot snapshot;
+        synchronized (sSnapshots) {
+            snapshot = sSnapshots.get(navigatorFile);
+        }
+
+        if (snapshot == null) {
+            // Load without holding the lock, the recipes are loaded on the io pool.
+            snapshot = readCacheFile(context, navigatorFile, objectMapper);
+            if (snapshot == null) {
+                snapshot = parseAssets(context, navigatorFile, objectMapper);
+            }
+            if (snapshot == null) {
+                return null;
+            }
+            if (snapshot.complete) {
+                boolean published;
+                synchronized (sSnapshots) {
+                    Snapshot existing = sSnapshots.get(navigatorFile);
+                    published = existing == null;
+                    if (published) {
+                        sSnapshots.put(navigatorFile, snapshot);
+                    }
+                    else {
+                        snapshot = existing;
+                    }
+                }
+                if (published && snapshot.assetPaths != null) {
+                    writeCacheFileAsync(context, navigatorFile, snapshot);
+                }
+            }
+        }
+
+        NavigatorModel navigatorModel = bindModel(objectMapper, snapshot.navigatorTree);
+        attachRecipes(navigatorModel, snapshot.recipes);
+        return navigatorModel;
+    }
+
+    /**
+     * Remove the parsed files kept in memory, so the next call to
+     * {@link #parse(Context, String)} builds them again.
+     */
+    static void clearSnapshots() {
+
+        synchronized (sSnapshots) {
+            sSnapshots.clear();
+        }
+    }
+
+    /**
+     * Parse the navigator file and its recipes from the assets.
+     *
+     * @param context       The context.
+     * @param navigatorFile The navigator file path.
+     * @param objectMapper  Mapper binding the navigator tree to the model.
+     * @return The parsed files, without the recipes that failed to load, or null if the navigator
+     * file could not be parsed.
+     */
+    private static Snapshot parseAssets(Context context, String navigatorFile,
+                                        ObjectMapper objectMapper) {
 
+        NavigatorModel navigatorModel;
+        Map<String, Object> navigatorTree;
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            String navigatorFileString = FileHelper.readFile(context, navigatorFile);
-            navigatorModel = objectMapper.readValue(navigatorFileString,
-                                                    NavigatorModel.class);
+            @SuppressWarnings("unchecked")
+            Map<String, Object> tree = objectMapper.readValue(
+                    FileHelper.readFile(context, navigatorFile), LinkedHashMap.class);
+            navigatorTree = tree;
+            navigatorModel = bindModel(objectMapper, navigatorTree);
 
             Log.v(TAG, "Navigator Model: " + navigatorModel.toString());
+        }
+        catch (Exception e) {
+            Log.e(TAG, "Navigator parsing failed!!! ", e);
+            return null;
+        }
+
+        Set<String> recipePaths = getRecipePaths(navigatorModel);
+        Map<String, Map<String, Object>> recipes = loadRecipes(context, recipePaths);
+        List<String> assetPaths = new ArrayList<>(recipePaths.size() + 1);
+        assetPaths.add(navigatorFile);
+        assetPaths.addAll(recipePaths);
+        return new Snapshot(navigatorTree, recipes, recipes.size() == recipePaths.size(),
+                            assetPaths);
+    }
+
+    /**
+     * Read the parsed files from the cache file if the file exists and the app was not updated
+     * since it was written.
+     *
+     * @param context       The context.
+     * @param navigatorFile The navigator file path.
+     * @param objectMapper  Mapper binding the navigator tree to the model.
+     * @return The parsed files, or null if the cache file cannot be used.
+     */
+    private static Snapshot readCacheFile(Context context, String navigatorFile,
+                                          ObjectMapper objectMapper) {
+
+        File file = getCacheFile(context, navigatorFile);
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        try {
+            NavigatorCacheFile cacheFile;
+            InputStream inputStream = new BufferedInputStream(new FileInputStream(file));
+            try {
+                cacheFile = NavigatorCacheFile.read(inputStream);
+            }
+            finally {
+                inputStream.close();
+            }
+
+            if (cacheFile.assetPaths.isEmpty() ||
+                    !navigatorFile.equals(cacheFile.assetPaths.get(0)) ||
+                    !Arrays.equals(cacheFile.hash, hashAssets(context, cacheFile.assetPaths))) {
+                Log.d(TAG, "Navigator cache file is out of date");
+                return null;
+            }
+
+            NavigatorModel navigatorModel = bindModel(objectMapper, cacheFile.navigator);
+            if (!getRecipePaths(navigatorModel).equals(cacheFile.recipes.keySet())) {
+                Log.d(TAG, "Navigator cache file does not match its recipes");
+                return null;
+            }
+            return new Snapshot(cacheFile.navigator, cacheFile.recipes, true, null);
+        }
+        catch (Exception e) {
+            Log.w(TAG, "Could not read navigator cache file " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Write the cache file on the {@link TaskExecutors#batch()} pool.
+     *
+     * @param context       The context.
+     * @param navigatorFile The navigator file path.
+     * @param snapshot      The files parsed from the assets.
+     */
+    private static void writeCacheFileAsync(final Context context, final String navigatorFile,
+                                            final Snapshot snapshot) {
+
+        TaskExecutors.batch().execute(new Runnable() {
+            @Override
+            public void run() {
 
-            // Preload recipes
+                File file = getCacheFile(context, navigatorFile);
+                if (file == null) {
+                    return;
+                }
+                File tempFile = new File(file.getPath() + ".tmp");
+                try {
+                    NavigatorCacheFile cacheFile = new NavigatorCacheFile(
+                            hashAssets(context, snapshot.assetPaths), snapshot.assetPaths,
+                            snapshot.navigatorTree, snapshot.recipes);
+                    OutputStream outputStream =
+                            new BufferedOutputStream(new FileOutputStream(tempFile));
+                    try {
+                        cacheFile.write(outputStream);
+                    }
+                    finally {
+                        outputStream.close();
+                    }
+                    if (!tempFile.renameTo(file)) {
+                        throw new IOException("Could not rename " + tempFile + " to " + file);
+                    }
+                }
+                catch (Exception e) {
+                    Log.w(TAG, "Could not write navigator cache file " + file, e);
+                    if (!tempFile.delete()) {
+                        Log.d(TAG, "No temporary cache file to delete");
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the cache file of a navigator file.
+     *
+     * @param context       The context.
+     * @param navigatorFile The navigator file path.
+     * @return The cache file, or null if there is no cache directory.
+     */
+    private static File getCacheFile(Context context, String navigatorFile) {
+
+        File cacheDir = context.getCacheDir();
+        if (cacheDir == null) {
+            return null;
+        }
+        return new File(cacheDir, CACHE_FILE_PREFIX +
+                navigatorFile.replaceAll("[^A-Za-z0-9._-]", "_") + ".bin");
+    }
+
+    /**
+     * Hash the paths and sizes of assets and the time the app was installed or updated. Assets
+     * only change when the app is updated, so this tells if a cache file is current without
+     * reading the assets.
+     *
+     * @param context    The context.
+     * @param assetPaths The asset paths.
+     * @return The SHA-1 hash.
+     * @throws IOException                           If an asset could not be opened.
+     * @throws NoSuchAlgorithmException              If SHA-1 is not available.
+     * @throws PackageManager.NameNotFoundException If the app's package info is not available.
+     */
+    private static byte[] hashAssets(Context context, List<String> assetPaths) throws
+            IOException, NoSuchAlgorithmException, PackageManager.NameNotFoundException {
+
+        MessageDigest digest = DigestHelper.getSha1Digest();
+        long updateTime = context.getPackageManager()
+                                 .getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+        updateLong(digest, updateTime);
+        for (String path : assetPaths) {
+            digest.update(path.getBytes(UTF_8));
+            digest.update((byte) 0);
+            InputStream inputStream = context.getAssets().open(path);
+            try {
+                // The remaining length of an asset stream is the size of the asset.
+                updateLong(digest, inputStream.available());
+            }
+            finally {
+                inputStream.close();
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Add a long value to a digest, most significant byte first.
+     *
+     * @param digest The digest.
+     * @param value  The value.
+     */
+    private static void updateLong(MessageDigest digest, long value) {
+
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            digest.update((byte) (value >>> shift));
+        }
+    }
+
+    /**
+     * Bind a parsed navigator file to a model and make its collections unmodifiable.
+     *
+     * @param objectMapper  The mapper.
+     * @param navigatorTree The parsed navigator file.
+     * @return The model.
+     */
+    private static NavigatorModel bindModel(ObjectMapper objectMapper,
+                                            Map<String, Object> navigatorTree) {
+
+        NavigatorModel navigatorModel = objectMapper.convertValue(navigatorTree,
+                                                                  NavigatorModel.class);
+        if (navigatorModel.getGlobalRecipes() != null) {
+            navigatorModel.setGlobalRecipes(
+                    Collections.unmodifiableList(navigatorModel.getGlobalRecipes()));
+        }
+        if (navigatorModel.getRecommendationRecipes() != null) {
+            navigatorModel.setRecommendationRecipes(
+                    Collections.unmodifiableList(navigatorModel.getRecommendationRecipes()));
+        }
+        if (navigatorModel.getGraph() != null) {
+            navigatorModel.setGraph(Collections.unmodifiableMap(navigatorModel.getGraph()));
+        }
+        return navigatorModel;
+    }
+
+    /**
+     * Get the recipes the model needs preloaded: the data loader and dynamic parser recipes of
+     * the global categories without a hard coded name, of all global contents and of all
+     * recommendation contents.
+     *
+     * @param navigatorModel The model.
+     * @return The recipe groups.
+     */
+    private static List<NavigatorModel.GlobalRecipes.Recipes> getPreloadedRecipes(
+            NavigatorModel navigatorModel) {
+
+        List<NavigatorModel.GlobalRecipes.Recipes> result = new ArrayList<>();
+        if (navigatorModel.getGlobalRecipes() != null) {
             for (NavigatorModel.GlobalRecipes globalRecipes : navigatorModel.getGlobalRecipes()) {
 
                 // Load category recipes if there is no hard coded name defined.
                 if (globalRecipes.getCategories() != null &&
                         globalRecipes.getCategories().name == null) {
-
-                    globalRecipes.getCategories().dataLoaderRecipe =
-                            Recipe.newInstance(context, globalRecipes.getCategories().dataLoader);
-
-                    globalRecipes.getCategories().dynamicParserRecipe =
-                            Recipe.newInstance(context,
-                                               globalRecipes.getCategories().dynamicParser);
+                    result.add(globalRecipes.getCategories());
                 }
-
                 if (globalRecipes.getContents() != null) {
-                    globalRecipes.getContents().dataLoaderRecipe =
-                            Recipe.newInstance(context, globalRecipes.getContents().dataLoader);
-
-                    globalRecipes.getContents().dynamicParserRecipe =
-                            Recipe.newInstance(context, globalRecipes.getContents().dynamicParser);
+                    result.add(globalRecipes.getContents());
+                }
+            }
+        }
+        if (navigatorModel.getRecommendationRecipes() != null) {
+            for (NavigatorModel.RecommendationRecipes recommendationRecipes :
+                    navigatorModel.getRecommendationRecipes()) {
+                if (recommendationRecipes.getContents() != null) {
+                    result.add(recommendationRecipes.getContents());
                 }
             }
-            // Preload Recommendation recipes
-            if (navigatorModel.getRecommendationRecipes() != null) {
-                for (NavigatorModel.RecommendationRecipes recommendationRecipes :
-                        navigatorModel.getRecommendationRecipes()) {
+        }
+        return result;
+    }
+
+    /**
+     * Get the distinct paths of the recipes the model needs preloaded, in model order.
+     *
+     * @param navigatorModel The model.
+     * @return The recipe paths.
+     */
+    private static Set<String> getRecipePaths(NavigatorModel navigatorModel) {
+
+        Set<String> paths = new LinkedHashSet<>();
+        for (NavigatorModel.GlobalRecipes.Recipes recipes : getPreloadedRecipes(navigatorModel)) {
+            paths.add(recipes.dataLoader);
+            paths.add(recipes.dynamicParser);
+        }
+        return paths;
+    }
 
-                    if (recommendationRecipes.getContents() != null) {
-                        recommendationRecipes.getContents().dataLoaderRecipe =
-                                Recipe.newInstance(context,
-                                                   recommendationRecipes.getContents().dataLoader);
+    /**
+     * Load and validate recipe files concurrently on the {@link TaskExecutors#io()} pool. The
+     * app is waiting for them, so they are loaded with high priority.
+     *
+     * @param context     The context.
+     * @param recipePaths The recipe paths.
+     * @return The parsed recipes by path, without those that failed to load.
+     */
+    private static Map<String, Map<String, Object>> loadRecipes(
+            final Context context, Set<String> recipePaths) {
 
-                        recommendationRecipes.getContents().dynamicParserRecipe =
-                                Recipe.newInstance(context,
-                                                   recommendationRecipes.getContents()
-                                                           .dynamicParser);
+        Map<String, Future<Map<String, Object>>> futures = new LinkedHashMap<>();
+        for (final String path : recipePaths) {
+            futures.put(path, TaskExecutors.io().submit(new Callable<Map<String, Object>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Map<String, Object> call() throws Exception {
 
+                    if (path == null) {
+                        throw new IllegalArgumentException("Recipe file is not defined");
                     }
+                    Map<String, Object> recipe = FileHelper.readJsonAsset(context, path);
+                    if (recipe.isEmpty()) {
+                        throw new IllegalArgumentException("Recipe " + path + " is empty");
+                    }
+                    return recipe;
                 }
+            }, PriorityThreadPoolExecutor.PRIORITY_HIGH));
+        }
+
+        Map<String, Map<String, Object>> recipes = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<Map<String, Object>>> entry : futures.entrySet()) {
+            try {
+                recipes.put(entry.getKey(), entry.getValue().get());
+            }
+            catch (ExecutionException e) {
+                Log.e(TAG, "Recipe parsing failed!!! " + entry.getKey(), e.getCause());
+            }
+            catch (InterruptedException e) {
+                Log.e(TAG, "Recipe loading interrupted", e);
+                Thread.currentThread().interrupt();
+                break;
             }
         }
-        catch (Exception e) {
-            Log.e(TAG, "Navigator parsing failed!!! ", e);
+        return recipes;
+    }
+
+    /**
+     * Attach recipe instances to the model. Every reference gets its own recipe instance.
+     *
+     * @param navigatorModel The model.
+     * @param recipes        The parsed recipes by path; missing recipes are left unset.
+     */
+    private static void attachRecipes(NavigatorModel navigatorModel,
+                                      Map<String, Map<String, Object>> recipes) {
+
+        for (NavigatorModel.GlobalRecipes.Recipes group : getPreloadedRecipes(navigatorModel)) {
+            group.dataLoaderRecipe = newRecipe(recipes.get(group.dataLoader));
+            group.dynamicParserRecipe = newRecipe(recipes.get(group.dynamicParser));
         }
-        return navigatorModel;
+    }
+
+    /**
+     * Create a recipe from its own copy of a parsed recipe.
+     *
+     * @param map The parsed recipe.
+     * @return The recipe, or null if the map is null.
+     */
+    private static Recipe newRecipe(Map<String, Object> map) {
+
+        if (map == null) {
+            return null;
+        }
+        Recipe recipe = new Recipe();
+        recipe.setMap(JsonHelper.copyMap(map));
+        return recipe;
     }
 }
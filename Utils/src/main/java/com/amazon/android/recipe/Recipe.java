@@ -14,13 +14,17 @@
  */
 package com.amazon.android.recipe;
 
+import com.amazon.android.utils.CompiledPath;
+import com.amazon.android.utils.DigestHelper;
 import com.amazon.android.utils.FileHelper;
 import com.amazon.android.utils.JsonHelper;
-import com.amazon.android.utils.PathHelper;
 
 import android.content.Context;
 import android.util.Log;
 
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -50,29 +54,118 @@ public class Recipe {
      */
     public static final String CONTENT_TYPE_TAG = "contentType";
 
+    /**
+     * Marker for items that could not be resolved.
+     */
+    private static final Object MISSING_ITEM = new Object();
+
     /**
      * Map for recipe items.
      */
     private Map mMap;
 
+    /**
+     * Resolved items by name, where the name itself is the key in the map the path leads to.
+     */
+    private final HashMap<String, Object> mResolvedItems = new HashMap<>();
+
+    /**
+     * Resolved items by path, where the last key of the path is the key in the map.
+     */
+    private final HashMap<String, Object> mResolvedPathItems = new HashMap<>();
+
+    /**
+     * Canonical key of the recipe contents, computed on first use.
+     */
+    private String mCanonicalKey;
+
     /**
      * Set map of recipe items.
      *
      * @param map Recipe items map.
      */
-    public void setMap(Map map) {
+    public synchronized void setMap(Map map) {
 
         mMap = map;
+        clearResolvedItems();
     }
 
     /**
-     * Get map of recipe items.
+     * Get map of recipe items. The map cannot be modified, and neither may the maps nested in it;
+     * to change the recipe, set a changed copy of the map with {@link #setMap(Map)}.
      *
      * @return Recipe items map.
      */
-    public Map getMap() {
+    public synchronized Map getMap() {
+
+        return mMap != null ? Collections.unmodifiableMap(mMap) : null;
+    }
+
+    /**
+     * Clear the resolved item caches.
+     */
+    private synchronized void clearResolvedItems() {
 
-        return mMap;
+        mResolvedItems.clear();
+        mResolvedPathItems.clear();
+        mCanonicalKey = null;
+    }
+
+    /**
+     * Get a stable key for the recipe contents. The key is the SHA-1 of the canonical JSON form
+     * of the recipe map, so recipes with equal contents share the same key no matter the order
+     * their items were added in. It is computed once and kept until the map is set or modified.
+     *
+     * @return Hex encoded key.
+     * @throws NoSuchAlgorithmException If SHA-1 is not available.
+     */
+    public synchronized String getCanonicalKey() throws NoSuchAlgorithmException {
+
+        if (mCanonicalKey == null) {
+            mCanonicalKey = DigestHelper.sha1Hex(String.valueOf(
+                    JsonHelper.mapToCanonicalString(mMap)));
+        }
+        return mCanonicalKey;
+    }
+
+    /**
+     * Resolve an item once and cache the result for this recipe.
+     *
+     * @param name      Item name or path.
+     * @param keyByPath True to use the last key of the path as the item key, false to use the
+     *                  name itself.
+     * @return Item value or {@link #MISSING_ITEM} if not found.
+     */
+    private synchronized Object resolveItem(String name, boolean keyByPath) {
+
+        HashMap<String, Object> resolvedItems = keyByPath ? mResolvedPathItems : mResolvedItems;
+        Object value = resolvedItems.get(name);
+        if (value == null && !resolvedItems.containsKey(name)) {
+            value = MISSING_ITEM;
+            CompiledPath path = CompiledPath.compile(name);
+            if (path != null) {
+                Map map = path.getMap(mMap);
+                String key = keyByPath ? path.getKey() : name;
+                if (map != null && map.containsKey(key)) {
+                    value = map.get(key);
+                }
+            }
+            resolvedItems.put(name, value);
+        }
+        return value;
+    }
+
+    /**
+     * Get a resolved item value.
+     *
+     * @param name      Item name or path.
+     * @param keyByPath See {@link #resolveItem(String, boolean)}.
+     * @return Item value or null if not found.
+     */
+    private Object getResolvedItem(String name, boolean keyByPath) {
+
+        Object value = resolveItem(name, keyByPath);
+        return value == MISSING_ITEM ? null : value;
     }
 
     /**
@@ -103,18 +196,7 @@ public class Recipe {
      */
     public boolean containsItem(String name) {
 
-        boolean result = false;
-
-        try {
-            Map map = PathHelper.getMapByPath(mMap, name);
-            result = map.containsKey(name);
-        }
-        catch (Exception e) {
-            // If something goes wrong or item not found we do nothing here.
-            // Result default value which is false will be returned.
-        }
-
-        return result;
+        return resolveItem(name, false) != MISSING_ITEM;
     }
 
     /**
@@ -128,8 +210,7 @@ public class Recipe {
      */
     public boolean getItemAsBoolean(String name) {
 
-        Map map = PathHelper.getMapByPath(mMap, name);
-        return (boolean) map.get(name);
+        return (boolean) getResolvedItem(name, false);
     }
 
     /**
@@ -143,8 +224,7 @@ public class Recipe {
      */
     public int getItemAsInt(String name) {
 
-        Map map = PathHelper.getMapByPath(mMap, name);
-        return (int) map.get(name);
+        return (int) getResolvedItem(name, false);
     }
 
     /**
@@ -158,8 +238,7 @@ public class Recipe {
      */
     public String getItemAsString(String name) {
 
-        Map map = PathHelper.getMapByPath(mMap, name);
-        return (String) map.get(name);
+        return (String) getResolvedItem(name, false);
     }
 
     /**
@@ -173,8 +252,7 @@ public class Recipe {
      */
     public List<String> getItemAsStringList(String name) {
 
-        Map map = PathHelper.getMapByPath(mMap, name);
-        return (List<String>) map.get(name);
+        return (List<String>) getResolvedItem(name, false);
     }
 
     /**
@@ -190,9 +268,7 @@ public class Recipe {
      */
     public <T> T getItem(String name) {
 
-        Map map = PathHelper.getMapByPath(mMap, name);
-        name = PathHelper.getKeyFromPath(name);
-        return (T) map.get(name);
+        return (T) getResolvedItem(name, true);
     }
 
     /**
@@ -215,7 +291,8 @@ public class Recipe {
     }
 
     /**
-     * Reads the file and creates a new recipe based on the file's content.
+     * Reads the file and creates a new recipe based on the file's content. The file is read and
+     * parsed only the first time a recipe is created from it.
      *
      * @param context  The application context.
      * @param fileName The recipe file.
@@ -225,9 +302,7 @@ public class Recipe {
 
         Recipe recipe = new Recipe();
         try {
-            String jsonRecipeString = FileHelper.readFile(context,
-                                                          fileName);
-            recipe.setMap(JsonHelper.stringToMap(JsonHelper.escapeComments(jsonRecipeString)));
+            recipe.setMap(FileHelper.readJsonAsset(context, fileName));
         }
         catch (Exception e) {
             Log.e(TAG, "Recipe parsing failed!!!", e);
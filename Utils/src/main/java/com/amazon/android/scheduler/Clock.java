@@ -0,0 +1,34 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.scheduler;
+
+/**
+ * A source of the current time. Code that schedules work at wall clock times takes a clock
+ * instead of reading the system time, so tests can control time.
+ */
+public interface Clock {
+
+    /**
+     * The clock of the system.
+     */
+    Clock SYSTEM = System::currentTimeMillis;
+
+    /**
+     * Get the current time.
+     *
+     * @return The current time in milliseconds since the epoch.
+     */
+    long currentTimeMillis();
+}
@@ -0,0 +1,526 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.scheduler;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread pool with a fixed maximum number of named threads and a bounded queue that runs
+ * queued tasks by priority, and tasks of the same priority in submission order. It records how
+ * deep its queue gets and how long tasks wait in the queue and run, see {@link #getMetrics()}.
+ */
+public class PriorityThreadPoolExecutor extends ThreadPoolExecutor {
+
+    /**
+     * Priority of tasks that the user is waiting for.
+     */
+    public static final int PRIORITY_HIGH = 10;
+
+    /**
+     * Priority of regular tasks.
+     */
+    public static final int PRIORITY_NORMAL = 0;
+
+    /**
+     * Priority of tasks that can wait for all other tasks.
+     */
+    public static final int PRIORITY_LOW = -10;
+
+    /**
+     * Time in seconds idle threads are kept alive.
+     */
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * Name of the pool, used to name its threads.
+     */
+    private final String mName;
+
+    /**
+     * Maximum number of queued tasks.
+     */
+    private final int mMaxQueueSize;
+
+    /**
+     * Priority of tasks submitted without a priority.
+     */
+    private final int mDefaultPriority;
+
+    /**
+     * Sequence number of the next task, to keep tasks of the same priority in order.
+     */
+    private final AtomicLong mSequence = new AtomicLong();
+
+    /**
+     * Number of tasks accepted that have not started running. A slot is reserved here before a
+     * task is handed to the pool, so concurrent callers cannot queue more than the maximum.
+     */
+    private final AtomicInteger mPendingCount = new AtomicInteger();
+
+    /**
+     * Number of tasks submitted.
+     */
+    private final AtomicLong mSubmittedCount = new AtomicLong();
+
+    /**
+     * Number of tasks that finished running.
+     */
+    private final AtomicLong mCompletedCount = new AtomicLong();
+
+    /**
+     * Number of tasks rejected because the queue was full.
+     */
+    private final AtomicLong mRejectedCount = new AtomicLong();
+
+    /**
+     * Largest queue depth seen.
+     */
+    private final AtomicInteger mMaxQueueDepth = new AtomicInteger();
+
+    /**
+     * Total time in nanoseconds finished tasks waited in the queue.
+     */
+    private final AtomicLong mTotalWaitNanos = new AtomicLong();
+
+    /**
+     * Longest time in nanoseconds a task waited in the queue.
+     */
+    private final AtomicLong mMaxWaitNanos = new AtomicLong();
+
+    /**
+     * Total time in nanoseconds finished tasks ran.
+     */
+    private final AtomicLong mTotalRunNanos = new AtomicLong();
+
+    /**
+     * Longest time in nanoseconds a task ran.
+     */
+    private final AtomicLong mMaxRunNanos = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param name            Name of the pool, used to name its threads.
+     * @param maxThreads      Maximum number of threads.
+     * @param maxQueueSize    Maximum number of queued tasks; more tasks are rejected.
+     * @param threadPriority  The {@link Thread} priority of the threads.
+     * @param defaultPriority Priority of tasks submitted without a priority.
+     */
+    public PriorityThreadPoolExecutor(String name, int maxThreads, int maxQueueSize,
+                                      int threadPriority, int defaultPriority) {
+
+        super(maxThreads, maxThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+              new PriorityBlockingQueue<Runnable>(), new NamedThreadFactory(name, threadPriority));
+        if (maxQueueSize <= 0) {
+            throw new IllegalArgumentException("maxQueueSize must be positive");
+        }
+        mName = name;
+        mMaxQueueSize = maxQueueSize;
+        mDefaultPriority = defaultPriority;
+        allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Get the name of the pool.
+     *
+     * @return The name.
+     */
+    public String getName() {
+
+        return mName;
+    }
+
+    /**
+     * Execute a task with the default priority of the pool.
+     *
+     * @param command The task.
+     * @throws RejectedExecutionException if the queue is full or the pool is shut down.
+     */
+    @Override
+    public void execute(Runnable command) {
+
+        if (command instanceof PrioritizedTask) {
+            enqueue((PrioritizedTask) command);
+        }
+        else {
+            execute(command, mDefaultPriority);
+        }
+    }
+
+    /**
+     * Execute a task with the given priority.
+     *
+     * @param command  The task.
+     * @param priority The priority; higher priorities run first.
+     * @throws RejectedExecutionException if the queue is full or the pool is shut down.
+     */
+    public void execute(Runnable command, int priority) {
+
+        if (command == null) {
+            throw new NullPointerException("command cannot be null");
+        }
+        enqueue(new PrioritizedTask(command, priority, mSequence.getAndIncrement()));
+    }
+
+    /**
+     * Submit a task with the given priority.
+     *
+     * @param task     The task.
+     * @param priority The priority; higher priorities run first.
+     * @param <T>      The type of the result of the task.
+     * @return A future for the result of the task.
+     * @throws RejectedExecutionException if the queue is full or the pool is shut down.
+     */
+    public <T> Future<T> submit(Callable<T> task, int priority) {
+
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(future, priority);
+        return future;
+    }
+
+    /**
+     * Get a snapshot of the metrics of the pool.
+     *
+     * @return The metrics.
+     */
+    public Metrics getMetrics() {
+
+        long completed = mCompletedCount.get();
+        return new Metrics(mName, getQueue().size(), mMaxQueueDepth.get(), getActiveCount(),
+                           mSubmittedCount.get(), completed, mRejectedCount.get(),
+                           average(mTotalWaitNanos.get(), completed), mMaxWaitNanos.get(),
+                           average(mTotalRunNanos.get(), completed), mMaxRunNanos.get());
+    }
+
+    /**
+     * Put a task in the queue, rejecting it if the queue is full.
+     *
+     * @param task The task.
+     */
+    private void enqueue(PrioritizedTask task) {
+
+        int depth;
+        do {
+            depth = mPendingCount.get();
+            if (depth >= mMaxQueueSize) {
+                mRejectedCount.incrementAndGet();
+                throw new RejectedExecutionException("Queue of pool " + mName + " is full");
+            }
+        } while (!mPendingCount.compareAndSet(depth, depth + 1));
+
+        task.mEnqueueNanos = System.nanoTime();
+        try {
+            super.execute(task);
+        }
+        catch (RejectedExecutionException e) {
+            // The pool is shut down, give the slot back.
+            mPendingCount.decrementAndGet();
+            throw e;
+        }
+        mSubmittedCount.incrementAndGet();
+        updateMax(mMaxQueueDepth, depth + 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void beforeExecute(Thread thread, Runnable runnable) {
+
+        super.beforeExecute(thread, runnable);
+        mPendingCount.decrementAndGet();
+    }
+
+    /**
+     * Record the times of a finished task.
+     *
+     * @param waitNanos Time in nanoseconds the task waited in the queue.
+     * @param runNanos  Time in nanoseconds the task ran.
+     */
+    private void recordTask(long waitNanos, long runNanos) {
+
+        mCompletedCount.incrementAndGet();
+        mTotalWaitNanos.addAndGet(waitNanos);
+        mTotalRunNanos.addAndGet(runNanos);
+        updateMax(mMaxWaitNanos, waitNanos);
+        updateMax(mMaxRunNanos, runNanos);
+    }
+
+    /**
+     * Raise a maximum to a value if the value is larger.
+     *
+     * @param max   The maximum.
+     * @param value The value.
+     */
+    private static void updateMax(AtomicLong max, long value) {
+
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Raise a maximum to a value if the value is larger.
+     *
+     * @param max   The maximum.
+     * @param value The value.
+     */
+    private static void updateMax(AtomicInteger max, int value) {
+
+        int current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Compute an average in milliseconds.
+     *
+     * @param totalNanos Total in nanoseconds.
+     * @param count      Number of values.
+     * @return The average in milliseconds, or 0 if there are no values.
+     */
+    private static long average(long totalNanos, long count) {
+
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos / count);
+    }
+
+    /**
+     * A queued task with its priority.
+     */
+    private final class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+
+        private final Runnable mRunnable;
+        private final int mPriority;
+        private final long mSequence;
+        private long mEnqueueNanos;
+
+        /**
+         * Constructor.
+         *
+         * @param runnable The task.
+         * @param priority The priority of the task.
+         * @param sequence The sequence number of the task.
+         */
+        PrioritizedTask(Runnable runnable, int priority, long sequence) {
+
+            mRunnable = runnable;
+            mPriority = priority;
+            mSequence = sequence;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+
+            long start = System.nanoTime();
+            try {
+                mRunnable.run();
+            }
+            finally {
+                recordTask(start - mEnqueueNanos, System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int compareTo(PrioritizedTask other) {
+
+            if (mPriority != other.mPriority) {
+                return mPriority > other.mPriority ? -1 : 1;
+            }
+            return mSequence < other.mSequence ? -1 : (mSequence == other.mSequence ? 0 : 1);
+        }
+    }
+
+    /**
+     * Creates daemon threads named after the pool.
+     */
+    private static final class NamedThreadFactory implements ThreadFactory {
+
+        private final String mName;
+        private final int mPriority;
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        /**
+         * Constructor.
+         *
+         * @param name     Name of the pool.
+         * @param priority The {@link Thread} priority of the threads.
+         */
+        NamedThreadFactory(String name, int priority) {
+
+            mName = name;
+            mPriority = priority;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            Thread thread = new Thread(runnable, mName + "-" + mCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(mPriority);
+            return thread;
+        }
+    }
+
+    /**
+     * A snapshot of the metrics of a pool.
+     */
+    public static final class Metrics {
+
+        private final String mName;
+        private final int mQueueDepth;
+        private final int mMaxQueueDepth;
+        private final int mActiveCount;
+        private final long mSubmittedCount;
+        private final long mCompletedCount;
+        private final long mRejectedCount;
+        private final long mAverageWaitMs;
+        private final long mMaxWaitNanos;
+        private final long mAverageRunMs;
+        private final long mMaxRunNanos;
+
+        /**
+         * Constructor.
+         */
+        Metrics(String name, int queueDepth, int maxQueueDepth, int activeCount,
+                long submittedCount, long completedCount, long rejectedCount, long averageWaitMs,
+                long maxWaitNanos, long averageRunMs, long maxRunNanos) {
+
+            mName = name;
+            mQueueDepth = queueDepth;
+            mMaxQueueDepth = maxQueueDepth;
+            mActiveCount = activeCount;
+            mSubmittedCount = submittedCount;
+            mCompletedCount = completedCount;
+            mRejectedCount = rejectedCount;
+            mAverageWaitMs = averageWaitMs;
+            mMaxWaitNanos = maxWaitNanos;
+            mAverageRunMs = averageRunMs;
+            mMaxRunNanos = maxRunNanos;
+        }
+
+        /**
+         * @return The number of queued tasks.
+         */
+        public int getQueueDepth() {
+
+            return mQueueDepth;
+        }
+
+        /**
+         * @return The largest number of queued tasks seen.
+         */
+        public int getMaxQueueDepth() {
+
+            return mMaxQueueDepth;
+        }
+
+        /**
+         * @return The number of running tasks.
+         */
+        public int getActiveCount() {
+
+            return mActiveCount;
+        }
+
+        /**
+         * @return The number of submitted tasks.
+         */
+        public long getSubmittedCount() {
+
+            return mSubmittedCount;
+        }
+
+        /**
+         * @return The number of tasks that finished running.
+         */
+        public long getCompletedCount() {
+
+            return mCompletedCount;
+        }
+
+        /**
+         * @return The number of tasks rejected because the queue was full.
+         */
+        public long getRejectedCount() {
+
+            return mRejectedCount;
+        }
+
+        /**
+         * @return The average time in milliseconds finished tasks waited in the queue.
+         */
+        public long getAverageWaitMs() {
+
+            return mAverageWaitMs;
+        }
+
+        /**
+         * @return The longest time in milliseconds a task waited in the queue.
+         */
+        public long getMaxWaitMs() {
+
+            return TimeUnit.NANOSECONDS.toMillis(mMaxWaitNanos);
+        }
+
+        /**
+         * @return The average time in milliseconds finished tasks ran.
+         */
+        public long getAverageRunMs() {
+
+            return mAverageRunMs;
+        }
+
+        /**
+         * @return The longest time in milliseconds a task ran.
+         */
+        public long getMaxRunMs() {
+
+            return TimeUnit.NANOSECONDS.toMillis(mMaxRunNanos);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+
+            return mName + "{queue=" + mQueueDepth + ", maxQueue=" + mMaxQueueDepth +
+                    ", active=" + mActiveCount + ", submitted=" + mSubmittedCount +
+                    ", completed=" + mCompletedCount + ", rejected=" + mRejectedCount +
+                    ", avgWaitMs=" + mAverageWaitMs + ", maxWaitMs=" + getMaxWaitMs() +
+                    ", avgRunMs=" + mAverageRunMs + ", maxRunMs=" + getMaxRunMs() + "}";
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * An executor that runs its tasks one at a time, in submission order, on another executor. Tasks
+ * that must not run at the same time can share one of the {@link TaskExecutors} pools this way,
+ * the same way {@link android.os.AsyncTask#SERIAL_EXECUTOR} runs tasks on its thread pool.
+ */
+public class SerialExecutor implements Executor {
+
+    /**
+     * The executor the tasks run on.
+     */
+    private final Executor mExecutor;
+
+    /**
+     * Tasks waiting for the running task to finish, guarded by this.
+     */
+    private final ArrayDeque<Runnable> mTasks = new ArrayDeque<>();
+
+    /**
+     * The task handed to the executor, or null if none is, guarded by this.
+     */
+    private Runnable mActive;
+
+    /**
+     * Constructor.
+     *
+     * @param executor The executor to run the tasks on.
+     */
+    public SerialExecutor(Executor executor) {
+
+        mExecutor = executor;
+    }
+
+    @Override
+    public synchronized void execute(final Runnable command) {
+
+        mTasks.offer(() -> {
+            try {
+                command.run();
+            }
+            finally {
+                scheduleNext();
+            }
+        });
+        if (mActive == null) {
+            scheduleNext();
+        }
+    }
+
+    /**
+     * Hand the next waiting task to the executor.
+     */
+    private synchronized void scheduleNext() {
+
+        mActive = mTasks.poll();
+        if (mActive != null) {
+            try {
+                mExecutor.execute(mActive);
+            }
+            catch (RuntimeException e) {
+                // Do not leave the queue stuck behind a task that will never run.
+                mActive = null;
+                throw e;
+            }
+        }
+    }
+}
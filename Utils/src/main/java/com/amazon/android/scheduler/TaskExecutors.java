@@ -0,0 +1,181 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+/**
+ * The thread pools all background work of the app runs on, and matching RxJava
+ * {@link Scheduler}s.
+ * <ul>
+ * <li>{@link #uiCritical()}: work a visible screen is waiting for, like feed translation and
+ * search.</li>
+ * <li>{@link #io()}: network and disk access.</li>
+ * <li>{@link #batch()}: work nobody is waiting for, like recommendations and cache writes.</li>
+ * </ul>
+ * Each pool has a bounded number of threads and a bounded queue, and runs queued tasks by
+ * priority. Blocking waits that may last indefinitely should not run on these pools.
+ */
+public final class TaskExecutors {
+
+    /**
+     * Number of processors, used to size the pools.
+     */
+    private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximum number of queued tasks in each pool.
+     */
+    private static final int MAX_QUEUE_SIZE = 1024;
+
+    /**
+     * Pool for work a visible screen is waiting for.
+     */
+    private static final PriorityThreadPoolExecutor UI_CRITICAL =
+            new PriorityThreadPoolExecutor("ui-critical", Math.max(2, CPU_COUNT), MAX_QUEUE_SIZE,
+                                           Thread.NORM_PRIORITY,
+                                           PriorityThreadPoolExecutor.PRIORITY_HIGH);
+
+    /**
+     * Pool for network and disk access. It has more threads than processors since its threads
+     * mostly wait.
+     */
+    private static final PriorityThreadPoolExecutor IO =
+            new PriorityThreadPoolExecutor("io", Math.max(4, CPU_COUNT * 2), MAX_QUEUE_SIZE,
+                                           Thread.NORM_PRIORITY,
+                                           PriorityThreadPoolExecutor.PRIORITY_NORMAL);
+
+    /**
+     * Pool for work nobody is waiting for. Its threads run at low priority so they do not take
+     * time from the other pools and the main thread.
+     */
+    private static final PriorityThreadPoolExecutor BATCH =
+            new PriorityThreadPoolExecutor("batch", Math.max(1, CPU_COUNT / 2), MAX_QUEUE_SIZE,
+                                           Thread.MIN_PRIORITY,
+                                           PriorityThreadPoolExecutor.PRIORITY_LOW);
+
+    /**
+     * Scheduler of the UI-critical pool.
+     */
+    private static final Scheduler UI_CRITICAL_SCHEDULER = Schedulers.from(UI_CRITICAL);
+
+    /**
+     * Scheduler of the I/O pool.
+     */
+    private static final Scheduler IO_SCHEDULER = Schedulers.from(IO);
+
+    /**
+     * Scheduler of the batch pool.
+     */
+    private static final Scheduler BATCH_SCHEDULER = Schedulers.from(BATCH);
+
+    /**
+     * Static class, not to be instantiated.
+     */
+    private TaskExecutors() {
+
+    }
+
+    /**
+     * Get the pool for work a visible screen is waiting for.
+     *
+     * @return The pool.
+     */
+    public static PriorityThreadPoolExecutor uiCritical() {
+
+        return UI_CRITICAL;
+    }
+
+    /**
+     * Get the pool for network and disk access.
+     *
+     * @return The pool.
+     */
+    public static PriorityThreadPoolExecutor io() {
+
+        return IO;
+    }
+
+    /**
+     * Get the pool for work nobody is waiting for.
+     *
+     * @return The pool.
+     */
+    public static PriorityThreadPoolExecutor batch() {
+
+        return BATCH;
+    }
+
+    /**
+     * Get the scheduler of the UI-critical pool.
+     *
+     * @return The scheduler.
+     */
+    public static Scheduler uiCriticalScheduler() {
+
+        return UI_CRITICAL_SCHEDULER;
+    }
+
+    /**
+     * Get the scheduler of the I/O pool.
+     *
+     * @return The scheduler.
+     */
+    public static Scheduler ioScheduler() {
+
+        return IO_SCHEDULER;
+    }
+
+    /**
+     * Get the scheduler of the batch pool.
+     *
+     * @return The scheduler.
+     */
+    public static Scheduler batchScheduler() {
+
+        return BATCH_SCHEDULER;
+    }
+
+    /**
+     * Get a scheduler that runs its work on a pool with the given priority.
+     *
+     * @param executor The pool.
+     * @param priority The priority; higher priorities run first.
+     * @return The scheduler.
+     */
+    public static Scheduler scheduler(final PriorityThreadPoolExecutor executor,
+                                      final int priority) {
+
+        return Schedulers.from(command -> executor.execute(command, priority));
+    }
+
+    /**
+     * Get a snapshot of the metrics of all pools.
+     *
+     * @return The metrics.
+     */
+    public static List<PriorityThreadPoolExecutor.Metrics> getMetrics() {
+
+        List<PriorityThreadPoolExecutor.Metrics> metrics = new ArrayList<>(3);
+        metrics.add(UI_CRITICAL.getMetrics());
+        metrics.add(IO.getMetrics());
+        metrics.add(BATCH.getMetrics());
+        return metrics;
+    }
+}
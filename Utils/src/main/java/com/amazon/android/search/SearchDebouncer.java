@@ -0,0 +1,95 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.search;
+
+/**
+ * This class computes how long to wait after the last change of a search query before running
+ * the search. The delay follows the measured search latency: when searches are fast, results
+ * show up soon after typing stops; when they are slow, more keystrokes are gathered into a
+ * single search instead of starting searches that will be superseded anyway.
+ */
+public class SearchDebouncer {
+
+    /**
+     * Shortest delay in milliseconds.
+     */
+    public static final long MIN_DELAY_MS = 150L;
+
+    /**
+     * Longest delay in milliseconds.
+     */
+    public static final long MAX_DELAY_MS = 1000L;
+
+    /**
+     * Delay in milliseconds before any latency was measured.
+     */
+    public static final long INITIAL_DELAY_MS = 400L;
+
+    /**
+     * Factor from the average latency to the delay.
+     */
+    private static final long LATENCY_FACTOR = 2;
+
+    /**
+     * Weight of a new latency in the average, in 1/8ths.
+     */
+    private static final long NEW_LATENCY_WEIGHT = 2;
+
+    /**
+     * The moving average of the latency in milliseconds, or -1 before the first measurement.
+     */
+    private long mAverageLatencyMs = -1;
+
+    /**
+     * Record the latency of a search that completed.
+     *
+     * @param latencyMs The time from the start of the search to its last result in milliseconds.
+     */
+    public synchronized void recordLatency(long latencyMs) {
+
+        long latency = Math.max(latencyMs, 0);
+        if (mAverageLatencyMs < 0) {
+            mAverageLatencyMs = latency;
+        }
+        else {
+            mAverageLatencyMs = (mAverageLatencyMs * (8 - NEW_LATENCY_WEIGHT) +
+                    latency * NEW_LATENCY_WEIGHT) / 8;
+        }
+    }
+
+    /**
+     * Get the moving average of the search latency.
+     *
+     * @return The average latency in milliseconds, or -1 if no search completed yet.
+     */
+    public synchronized long getAverageLatencyMs() {
+
+        return mAverageLatencyMs;
+    }
+
+    /**
+     * Get the delay to wait after the last query change before searching.
+     *
+     * @return The delay in milliseconds.
+     */
+    public synchronized long getDelayMs() {
+
+        if (mAverageLatencyMs < 0) {
+            return INITIAL_DELAY_MS;
+        }
+        return Math.max(MIN_DELAY_MS, Math.min(MAX_DELAY_MS,
+                                               mAverageLatencyMs * LATENCY_FACTOR));
+    }
+}
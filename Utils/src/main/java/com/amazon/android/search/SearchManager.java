@@ -14,12 +14,15 @@
  */
 package com.amazon.android.search;
 
+import com.amazon.android.scheduler.TaskExecutors;
+
 import android.os.AsyncTask;
 import android.support.annotation.NonNull;
 import android.support.annotation.VisibleForTesting;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This class will act as a stand alone class that will run searches on iteratorable generic
@@ -126,7 +129,8 @@ public class SearchManager<ContainerModel extends Iterable<Model>, Model> {
         mSearchTask = new SearchTask(resultCallback);
 
         // Execute the search off the main ui thread.
-        mSearchTask.execute(searchAlgoName, queryString, inputData);
+        mSearchTask.executeOnExecutor(TaskExecutors.uiCritical(), searchAlgoName, queryString,
+                                      inputData);
 
     }
 
@@ -166,6 +170,55 @@ public class SearchManager<ContainerModel extends Iterable<Model>, Model> {
 
     }
 
+    /**
+     * This method will run the search on the calling thread and stop early once the search is
+     * cancelled. It uses {@link #checkSearchInputs(String, String, ISearchResult, Iterable)} to
+     * verify non null arguments are passed in.
+     *
+     * Unlike {@link #syncSearch(String, String, ISearchResult, Iterable)} it does not change the
+     * current search algorithm, so several of these searches can run on different threads at
+     * the same time. The callback is used to report the search is done, unless it was
+     * cancelled.
+     *
+     * @param searchAlgoName The name of the search algorithm to use.
+     * @param queryString    The string that we should search for in the input data.
+     * @param resultCallback This is the callback that will be used to send back data.
+     * @param inputData      The data object that needs to implement iterator.
+     * @param cancelled      Set to true to cancel the search.
+     * @return True if the search completed; false if it was cancelled.
+     * @throws NullPointerException     if any of the inputs are null.
+     * @throws IllegalArgumentException if there is no search algorithm with the given name.
+     */
+    public boolean syncSearch(@NonNull final String searchAlgoName,
+                              @NonNull final String queryString,
+                              @NonNull final ISearchResult resultCallback,
+                              @NonNull final ContainerModel inputData,
+                              @NonNull final AtomicBoolean cancelled) {
+
+        checkSearchInputs(searchAlgoName, queryString, resultCallback, inputData);
+
+        ISearchAlgo<Model> searchAlgo = mSearchAlgoMap.get(searchAlgoName);
+        if (searchAlgo == null) {
+            throw new IllegalArgumentException("No search algorithm named " + searchAlgoName);
+        }
+
+        for (Model entry : inputData) {
+
+            if (cancelled.get()) {
+                return false;
+            }
+
+            if (searchAlgo.onCompare(queryString, entry)) {
+
+                resultCallback.onSearchResult(entry, false);
+            }
+        }
+
+        // Send a callback with the done flag to true, indicating that the search is complete.
+        resultCallback.onSearchResult(null, true);
+        return true;
+    }
+
     /**
      * This helper method checks the input of the searches to ensure none are null.
      *
@@ -26,6 +26,7 @@ import android.graphics.RadialGradient;
 import android.graphics.Rect;
 import android.graphics.Shader;
 import android.util.Log;
+import android.util.LruCache;
 
 /**
  * Utility class to create background images.
@@ -34,6 +35,58 @@ public class BackgroundImageUtils {
 
     public static final String TAG = BackgroundImageUtils.class.getSimpleName();
 
+    /**
+     * Factor by which shared backgrounds are drawn smaller than their display size. The
+     * backgrounds are a solid color and smooth gradients, so they scale up without visible loss.
+     */
+    private static final int SHARED_BACKGROUND_SCALE = 4;
+
+    /**
+     * Maximum number of shared backgrounds kept.
+     */
+    private static final int SHARED_BACKGROUND_CACHE_SIZE = 4;
+
+    /**
+     * Shared backgrounds by their parameters.
+     */
+    private static final LruCache<String, Bitmap> sSharedBackgrounds =
+            new LruCache<>(SHARED_BACKGROUND_CACHE_SIZE);
+
+    /**
+     * Get a shared Bitmap to be used as the background of a view when there is an image preview
+     * in the upper right, like {@link #createBackgroundWithPreviewWindow(int, int, int, int, int,
+     * int)} creates. The Bitmap is drawn at a reduced resolution and is meant to be shown
+     * through a drawable that scales it up to the size of the display. It is created once for
+     * each set of parameters and shared afterwards, so it must not be modified.
+     *
+     * @param backgroundWidth     Width of the background.
+     * @param backgroundHeight    Height of the background.
+     * @param previewWindowWidth  Width of the preview window.
+     * @param previewWindowHeight Height of the preview window.
+     * @param gradientSize        Size of the preview window fade gradient.
+     * @param color               Color of the background.
+     * @return Bitmap for the background with a preview window.
+     */
+    public static Bitmap getSharedBackgroundWithPreviewWindow(int backgroundWidth,
+                                                              int backgroundHeight,
+                                                              int previewWindowWidth,
+                                                              int previewWindowHeight,
+                                                              int gradientSize,
+                                                              int color) {
+
+        String key = backgroundWidth + "x" + backgroundHeight + "|" + previewWindowWidth + "x" +
+                previewWindowHeight + "|" + gradientSize + "|" + color;
+        Bitmap background = sSharedBackgrounds.get(key);
+        if (background == null) {
+            background = drawBackgroundWithPreviewWindow(backgroundWidth, backgroundHeight,
+                                                         previewWindowWidth, previewWindowHeight,
+                                                         gradientSize, color,
+                                                         SHARED_BACKGROUND_SCALE);
+            sSharedBackgrounds.put(key, background);
+        }
+        return background;
+    }
+
     /**
      * Create a Bitmap to be used as the background of a view when there is an image preview in the
      * upper right. The Bitmap will be the size of the display. The Bitmap will have a solid section
@@ -75,6 +128,87 @@ public class BackgroundImageUtils {
         return result;
     }
 
+    /**
+     * Draw a background with a preview window without an intermediate mask Bitmap. The window is
+     * cut out of the background color directly, with the same gradients as
+     * {@link #createPreviewWindowMask(int, int, int)}.
+     *
+     * @param backgroundWidth     Width of the background.
+     * @param backgroundHeight    Height of the background.
+     * @param previewWindowWidth  Width of the preview window.
+     * @param previewWindowHeight Height of the preview window.
+     * @param gradientSize        Size of the preview window fade gradient.
+     * @param color               Color of the background.
+     * @param scale               Factor by which the Bitmap is smaller than the background.
+     * @return Bitmap for the background with a preview window.
+     */
+    private static Bitmap drawBackgroundWithPreviewWindow(int backgroundWidth,
+                                                          int backgroundHeight,
+                                                          int previewWindowWidth,
+                                                          int previewWindowHeight,
+                                                          int gradientSize,
+                                                          int color,
+                                                          int scale) {
+
+        Bitmap result = Bitmap.createBitmap(Math.max(1, backgroundWidth / scale),
+                                            Math.max(1, backgroundHeight / scale),
+                                            Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(result);
+        canvas.scale((float) result.getWidth() / backgroundWidth,
+                     (float) result.getHeight() / backgroundHeight);
+        canvas.drawColor(color);
+        if (previewWindowWidth <= 0 || previewWindowHeight <= 0) {
+            Log.d(TAG, "Background created without a preview window");
+            return result;
+        }
+        canvas.translate(backgroundWidth - previewWindowWidth, 0);
+
+        // Clear the part of the window without gradients
+        int gradient = Math.max(gradientSize, 0);
+        Paint clearPaint = new Paint();
+        clearPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.CLEAR));
+        canvas.drawRect(gradient, 0, previewWindowWidth, previewWindowHeight - gradient,
+                        clearPaint);
+        if (gradient == 0) {
+            return result;
+        }
+
+        // Fade the background out over the gradients, the way the mask does
+        Rect leftGradientRect = new Rect(
+                0, 0, gradient, previewWindowHeight - gradient
+        );
+        Rect bottomGradientRect = new Rect(
+                leftGradientRect.right, previewWindowHeight - gradient, previewWindowWidth,
+                previewWindowHeight
+        );
+        Rect cornerGradientRect = new Rect(
+                leftGradientRect.left,
+                leftGradientRect.bottom,
+                bottomGradientRect.left,
+                bottomGradientRect.bottom
+        );
+
+        Paint gradientPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        gradientPaint.setDither(true);
+        gradientPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.DST_IN));
+
+        gradientPaint.setShader(new LinearGradient(leftGradientRect.left, 0,
+                leftGradientRect.right, 0, Color.BLACK, Color.TRANSPARENT, Shader.TileMode.CLAMP));
+        canvas.drawRect(leftGradientRect, gradientPaint);
+
+        gradientPaint.setShader(new LinearGradient(leftGradientRect.right,
+                bottomGradientRect.bottom, leftGradientRect.right, bottomGradientRect.top,
+                Color.BLACK, Color.TRANSPARENT, Shader.TileMode.CLAMP));
+        canvas.drawRect(bottomGradientRect, gradientPaint);
+
+        gradientPaint.setShader(new RadialGradient(cornerGradientRect.right,
+                cornerGradientRect.top, gradient, Color.TRANSPARENT, Color.BLACK,
+                Shader.TileMode.CLAMP));
+        canvas.drawRect(cornerGradientRect, gradientPaint);
+
+        return result;
+    }
+
     /**
      * Create a Bitmap that will be used as a mask to create the preview window in the background.
      * The Bitmap will be the given width and height. The Bitmap will be transparent except for a
@@ -0,0 +1,416 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.utils;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+import android.graphics.RectF;
+import android.graphics.Shader;
+import android.support.v4.content.ContextCompat;
+import android.util.Log;
+import android.util.LruCache;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Composes images with opacity, round corners, a progress bar and a time remaining overlay in a
+ * single pass over one target bitmap, instead of making a copy of the image for each step the
+ * way the {@link Helpers} methods do.
+ * <p>
+ * Target bitmaps are taken from Glide's bitmap pool and composed images are cached by image URL,
+ * size and composition, with the playback progress rounded into buckets. A composed bitmap is
+ * shared by everyone who composed it, so it must not be modified; callers hand it back with
+ * {@link #release(Bitmap)} once they stop showing it, and it returns to the pool when neither
+ * the cache nor any caller uses it anymore. Images handed to something that may still draw them
+ * after they are released, like the leanback BackgroundManager, are kept out of the pool with
+ * {@link #keepOutOfPool(Bitmap)}.
+ */
+public class BitmapCompositor {
+
+    private static final String TAG = BitmapCompositor.class.getSimpleName();
+
+    /**
+     * Number of buckets the playback progress is rounded into.
+     */
+    static final int PROGRESS_BUCKETS = 100;
+
+    /**
+     * Alpha of the time remaining overlay.
+     */
+    private static final int OVERLAY_ALPHA = 125;
+
+    /**
+     * Share of the maximum memory used by the cache.
+     */
+    private static final int CACHE_MEMORY_DIVISOR = 16;
+
+    /**
+     * Composed images by key, created on first use.
+     */
+    private static LruCache<String, Composed> sCache;
+
+    /**
+     * Composed images in the cache or in use by callers.
+     */
+    private static final Map<Bitmap, Composed> sComposed = new IdentityHashMap<>();
+
+    /**
+     * The pool target bitmaps are taken from and returned to.
+     */
+    private static BitmapPool sBitmapPool;
+
+    /**
+     * Making sure public utility methods remain static.
+     */
+    private BitmapCompositor() {
+
+    }
+
+    /**
+     * A composed image and the number of its users, the cache included.
+     */
+    private static final class Composed {
+
+        /**
+         * The composed bitmap.
+         */
+        private final Bitmap mBitmap;
+
+        /**
+         * Number of users of the bitmap.
+         */
+        private int mReferences;
+
+        /**
+         * False if the bitmap must not be returned to the pool or recycled after the last user.
+         */
+        private boolean mPooled = true;
+
+        /**
+         * Constructor.
+         *
+         * @param bitmap     The composed bitmap.
+         * @param references Number of users of the bitmap.
+         */
+        Composed(Bitmap bitmap, int references) {
+
+            mBitmap = bitmap;
+            mReferences = references;
+        }
+    }
+
+    /**
+     * The steps of a composition. Steps that are not set are skipped.
+     */
+    public static class Composition {
+
+        /**
+         * The opacity of the image, 0 to 255.
+         */
+        private int mOpacity = 255;
+
+        /**
+         * The radius of the round corners.
+         */
+        private float mCornerRadius;
+
+        /**
+         * The playback percentage shown by the progress bar, 0 to 1.
+         */
+        private double mPlaybackPercentage;
+
+        /**
+         * The time remaining text.
+         */
+        private String mTimeRemainingText;
+
+        /**
+         * Set the opacity of the image.
+         *
+         * @param opacity The value of alpha, 0 to 255.
+         * @return The {@link Composition} instance.
+         */
+        public Composition setOpacity(int opacity) {
+
+            mOpacity = opacity & 0xFF;
+            return this;
+        }
+
+        /**
+         * Set the radius of the round corners.
+         *
+         * @param cornerRadius The radius.
+         * @return The {@link Composition} instance.
+         */
+        public Composition setCornerRadius(float cornerRadius) {
+
+            mCornerRadius = cornerRadius;
+            return this;
+        }
+
+        /**
+         * Set the playback percentage shown by the progress bar. No progress bar is drawn if it
+         * is not positive.
+         *
+         * @param playbackPercentage The playback percentage, 0 to 1.
+         * @return The {@link Composition} instance.
+         */
+        public Composition setPlaybackPercentage(double playbackPercentage) {
+
+            mPlaybackPercentage = playbackPercentage;
+            return this;
+        }
+
+        /**
+         * Set the time remaining text. No overlay is drawn if it is null.
+         *
+         * @param timeRemainingText The time remaining text.
+         * @return The {@link Composition} instance.
+         */
+        public Composition setTimeRemainingText(String timeRemainingText) {
+
+            mTimeRemainingText = timeRemainingText;
+            return this;
+        }
+
+        /**
+         * Get the cache key of this composition of an image.
+         *
+         * @param url    The URL of the image.
+         * @param width  The width of the image.
+         * @param height The height of the image.
+         * @return The key.
+         */
+        String getKey(String url, int width, int height) {
+
+            return url + '|' + width + 'x' + height + '|' + mOpacity + '|' + mCornerRadius + '|' +
+                    getProgressBucket(mPlaybackPercentage) + '|' + mTimeRemainingText;
+        }
+    }
+
+    /**
+     * Compose an image. The result may be shared, so it must not be modified; hand it back with
+     * {@link #release(Bitmap)} once it is not shown anymore.
+     *
+     * @param context     The context.
+     * @param url         The URL the image was loaded from, used as cache key; null to not cache
+     *                    the result.
+     * @param source      The image.
+     * @param composition The composition.
+     * @return The composed image.
+     */
+    public static synchronized Bitmap compose(Context context, String url, Bitmap source,
+                                              Composition composition) {
+
+        int width = source.getWidth();
+        int height = source.getHeight();
+        String key = url != null ? composition.getKey(url, width, height) : null;
+        LruCache<String, Composed> cache = getCache();
+        if (key != null) {
+            Composed cached = cache.get(key);
+            if (cached != null) {
+                cached.mReferences++;
+                return cached.mBitmap;
+            }
+        }
+        if (sBitmapPool == null) {
+            sBitmapPool = Glide.get(context.getApplicationContext()).getBitmapPool();
+        }
+
+        Bitmap result = sBitmapPool.get(width, height, Bitmap.Config.ARGB_8888);
+        if (result == null) {
+            result = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        }
+        draw(context, new Canvas(result), source, composition);
+
+        Composed composed = new Composed(result, key != null ? 2 : 1);
+        sComposed.put(result, composed);
+        if (key != null) {
+            cache.put(key, composed);
+        }
+        return result;
+    }
+
+    /**
+     * Hand back a composed image that is not shown anymore. Bitmaps that were not composed by
+     * this class are ignored.
+     *
+     * @param bitmap The composed image, may be null.
+     */
+    public static synchronized void release(Bitmap bitmap) {
+
+        Composed composed = bitmap != null ? sComposed.get(bitmap) : null;
+        if (composed != null) {
+            release(composed);
+        }
+    }
+
+    /**
+     * Keep a composed image out of the pool, so it is left to the garbage collector instead of
+     * being reused or recycled after the last user releases it. Use it for images whose drawing
+     * outlives the caller's reference, like images handed to the BackgroundManager, which keeps
+     * drawing and cross fading them after the caller moved on. Bitmaps that were not composed by
+     * this class are ignored.
+     *
+     * @param bitmap The composed image, may be null.
+     */
+    public static synchronized void keepOutOfPool(Bitmap bitmap) {
+
+        Composed composed = bitmap != null ? sComposed.get(bitmap) : null;
+        if (composed != null) {
+            composed.mPooled = false;
+        }
+    }
+
+    /**
+     * Remove all composed images from the cache. Images in use stay valid until released.
+     */
+    public static synchronized void clearCache() {
+
+        if (sCache != null) {
+            sCache.evictAll();
+        }
+    }
+
+    /**
+     * Round a playback percentage into its progress bucket.
+     *
+     * @param playbackPercentage The playback percentage, 0 to 1.
+     * @return The bucket, 0 if there is no progress and at least 1 otherwise.
+     */
+    static int getProgressBucket(double playbackPercentage) {
+
+        if (!(playbackPercentage > 0)) {
+            return 0;
+        }
+        return (int) Math.max(1, Math.min(PROGRESS_BUCKETS,
+                                          Math.round(playbackPercentage * PROGRESS_BUCKETS)));
+    }
+
+    /**
+     * Draw a composition of an image onto a transparent canvas of the same size.
+     *
+     * @param context     The context.
+     * @param canvas      The canvas.
+     * @param source      The image.
+     * @param composition The composition.
+     */
+    private static void draw(Context context, Canvas canvas, Bitmap source,
+                             Composition composition) {
+
+        int width = source.getWidth();
+        int height = source.getHeight();
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+        paint.setAlpha(composition.mOpacity);
+        if (composition.mCornerRadius > 0) {
+            paint.setShader(new BitmapShader(source, Shader.TileMode.CLAMP,
+                                             Shader.TileMode.CLAMP));
+            canvas.drawRoundRect(new RectF(0, 0, width, height), composition.mCornerRadius,
+                                 composition.mCornerRadius, paint);
+            paint.setShader(null);
+        }
+        else {
+            canvas.drawBitmap(source, 0, 0, paint);
+        }
+
+        int progressBucket = getProgressBucket(composition.mPlaybackPercentage);
+        if (progressBucket > 0) {
+            // Like Helpers.addProgress, the bar only covers the parts of the image that are
+            // drawn, so it follows the round corners.
+            paint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC_IN));
+            int barTop = (int) (height * Helpers.PROGRESS_BAR_TOP_HEIGHT_RATIO);
+            paint.setColor(ContextCompat.getColor(context, android.R.color.darker_gray));
+            canvas.drawRect(0, barTop, width, height, paint);
+            paint.setColor(ContextCompat.getColor(context, android.R.color.white));
+            canvas.drawRect(0, barTop, (int) ((long) width * progressBucket / PROGRESS_BUCKETS),
+                            height, paint);
+            paint.setXfermode(null);
+        }
+
+        if (composition.mTimeRemainingText != null) {
+            paint.setColor(ContextCompat.getColor(context, android.R.color.black));
+            paint.setAlpha(OVERLAY_ALPHA);
+            canvas.drawRect(0, (int) (height * Helpers.OVERLAY_TOP_HEIGHT_RATIO), width,
+                            (int) (height * Helpers.PROGRESS_BAR_TOP_HEIGHT_RATIO), paint);
+
+            paint.setColor(ContextCompat.getColor(context, android.R.color.white));
+            paint.setAlpha(255);
+            paint.setTextSize((int) (height * Helpers.TEXT_HEIGHT_RATIO));
+            paint.setTextAlign(Paint.Align.CENTER);
+            canvas.drawText(composition.mTimeRemainingText, (width / 2),
+                            (int) (height * Helpers.TEXT_BOTTOM_HEIGHT_RATIO), paint);
+        }
+    }
+
+    /**
+     * Get the cache, creating it on first use.
+     *
+     * @return The cache.
+     */
+    private static LruCache<String, Composed> getCache() {
+
+        if (sCache == null) {
+            int maxSize = (int) Math.min(Integer.MAX_VALUE,
+                                         Runtime.getRuntime().maxMemory() / CACHE_MEMORY_DIVISOR);
+            sCache = new LruCache<String, Composed>(maxSize) {
+                @Override
+                protected int sizeOf(String key, Composed value) {
+
+                    return value.mBitmap.getByteCount();
+                }
+
+                @Override
+                protected void entryRemoved(boolean evicted, String key, Composed oldValue,
+                                            Composed newValue) {
+
+                    release(oldValue);
+                }
+            };
+        }
+        return sCache;
+    }
+
+    /**
+     * Drop a user of a composed image, returning the bitmap to the pool after the last one unless
+     * it is kept out of the pool.
+     *
+     * @param composed The composed image.
+     */
+    private static void release(Composed composed) {
+
+        if (--composed.mReferences > 0) {
+            return;
+        }
+        sComposed.remove(composed.mBitmap);
+        if (!composed.mPooled) {
+            return;
+        }
+        if (sBitmapPool == null || !sBitmapPool.put(composed.mBitmap)) {
+            composed.mBitmap.recycle();
+        }
+        if (Helpers.DEBUG) {
+            Log.d(TAG, "Released composed bitmap " + composed.mBitmap);
+        }
+    }
+}
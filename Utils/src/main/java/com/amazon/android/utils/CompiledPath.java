@@ -0,0 +1,158 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A pre-split map path such as 'root/level1/level2'. Paths are compiled once and cached so
+ * repeated lookups with the same path string do not split it again. Traversal follows the same
+ * rules as {@link PathHelper#getMapByPath(Map, String)}.
+ */
+public final class CompiledPath {
+
+    /**
+     * Upper bound of the compiled path cache. Paths come from recipes so the set is normally
+     * small; the cache is dropped if it ever grows past this.
+     */
+    private static final int MAX_CACHE_SIZE = 1024;
+
+    /**
+     * Compiled paths by path string.
+     */
+    private static final ConcurrentHashMap<String, CompiledPath> sCache =
+            new ConcurrentHashMap<>();
+
+    /**
+     * The original path string.
+     */
+    private final String mPath;
+
+    /**
+     * Path split into its keys.
+     */
+    private final String[] mKeys;
+
+    /**
+     * Last key of the path.
+     */
+    private final String mKey;
+
+    /**
+     * Constructor.
+     *
+     * @param path Path string.
+     */
+    private CompiledPath(String path) {
+
+        mPath = path;
+        mKeys = path.split(PathHelper.PATH_SEPARATOR);
+        mKey = PathHelper.getKeyFromPath(path);
+    }
+
+    /**
+     * Get the compiled form of a path, compiling it on first use.
+     *
+     * @param path Path string, each key separated by a '/' character.
+     * @return Compiled path or null if path is null.
+     */
+    public static CompiledPath compile(String path) {
+
+        if (path == null) {
+            return null;
+        }
+        CompiledPath compiledPath = sCache.get(path);
+        if (compiledPath == null) {
+            if (sCache.size() >= MAX_CACHE_SIZE) {
+                sCache.clear();
+            }
+            compiledPath = new CompiledPath(path);
+            CompiledPath existing = sCache.putIfAbsent(path, compiledPath);
+            if (existing != null) {
+                compiledPath = existing;
+            }
+        }
+        return compiledPath;
+    }
+
+    /**
+     * Get the original path string.
+     *
+     * @return Path string.
+     */
+    public String getPath() {
+
+        return mPath;
+    }
+
+    /**
+     * Get the last key of the path.
+     *
+     * @return Key string.
+     */
+    public String getKey() {
+
+        return mKey;
+    }
+
+    /**
+     * Follow the path through a map and return the last map found on it.
+     *
+     * @param map The map to traverse through.
+     * @return Last map for the path or null if the map is null.
+     */
+    public Map getMap(Map<String, Object> map) {
+
+        if (map == null) {
+            return null;
+        }
+
+        for (String key : mKeys) {
+            Object next = map.get(key);
+            // Stop once the path leaves the nested maps.
+            if (!(next instanceof Map)) {
+                break;
+            }
+            //noinspection unchecked
+            map = (Map<String, Object>) next;
+        }
+        return map;
+    }
+
+    /**
+     * Follow the path through a map and return the value at that location.
+     *
+     * @param map The map to traverse through.
+     * @return The value associated with the last key of the path, or null.
+     */
+    public Object getValue(Map<String, Object> map) {
+
+        Map lastMap = getMap(map);
+        if (lastMap == null) {
+            return null;
+        }
+        return lastMap.get(mKey);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+
+        return mPath;
+    }
+}
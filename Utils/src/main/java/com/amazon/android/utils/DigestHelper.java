@@ -0,0 +1,91 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.utils;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Helper for computing message digests. Digest instances are kept per thread so callers do not
+ * pay for {@link MessageDigest#getInstance(String)} on every hash.
+ */
+public class DigestHelper {
+
+    /**
+     * SHA-1 algorithm name.
+     */
+    private static final String SHA1_ALGORITHM = "SHA-1";
+
+    /**
+     * Charset used to turn strings into bytes before hashing.
+     */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Hex digits used for encoding.
+     */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * SHA-1 digest per thread.
+     */
+    private static final ThreadLocal<MessageDigest> sSha1Digest = new ThreadLocal<>();
+
+    /**
+     * Get the SHA-1 digest of the calling thread, reset and ready for use.
+     *
+     * @return SHA-1 message digest.
+     * @throws NoSuchAlgorithmException If SHA-1 is not available.
+     */
+    public static MessageDigest getSha1Digest() throws NoSuchAlgorithmException {
+
+        MessageDigest digest = sSha1Digest.get();
+        if (digest == null) {
+            digest = MessageDigest.getInstance(SHA1_ALGORITHM);
+            sSha1Digest.set(digest);
+        }
+        digest.reset();
+        return digest;
+    }
+
+    /**
+     * Compute the SHA-1 of a string and return it hex encoded.
+     *
+     * @param str String to compute the SHA-1 for.
+     * @return Lower case hex encoding of the SHA-1.
+     * @throws NoSuchAlgorithmException If SHA-1 is not available.
+     */
+    public static String sha1Hex(String str) throws NoSuchAlgorithmException {
+
+        return toHex(getSha1Digest().digest(str.getBytes(UTF_8)));
+    }
+
+    /**
+     * Hex encode bytes.
+     *
+     * @param bytes Bytes to encode.
+     * @return Lower case hex string.
+     */
+    public static String toHex(byte[] bytes) {
+
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
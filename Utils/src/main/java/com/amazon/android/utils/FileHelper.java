@@ -17,21 +17,93 @@ package com.amazon.android.utils;
 import android.content.Context;
 import android.util.Log;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.charset.Charset;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class is a utility class to help with reading files.
+ * <p>
+ * Assets are read into a buffer in bulk and decoded in one step. JSON assets that are read
+ * repeatedly, like recipes and configuration files, can be read through
+ * {@link #readJsonAsset(Context, String)}, which reads and parses each asset once per process.
  */
 public class FileHelper {
 
     private static final String TAG = FileHelper.class.getSimpleName();
 
+    /**
+     * Size of the read buffer.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * UTF-16 big endian charset.
+     */
+    private static final Charset UTF_16BE = Charset.forName("UTF-16BE");
+
+    /**
+     * UTF-16 little endian charset.
+     */
+    private static final Charset UTF_16LE = Charset.forName("UTF-16LE");
+
+    /**
+     * UTF-8 charset.
+     */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Parsed JSON assets by asset path.
+     */
+    private static final ConcurrentHashMap<String, JsonAsset> sJsonAssets =
+            new ConcurrentHashMap<>();
+
+    /**
+     * A JSON asset that is parsed on first use. Concurrent first uses wait for a single parse.
+     */
+    private static class JsonAsset {
+
+        /**
+         * The parsed asset, null until parsed.
+         */
+        private Map mMap;
+
+        /**
+         * Get the parsed asset, reading and parsing it if needed. A failed read is retried on the
+         * next call.
+         *
+         * @param context  The context to access the assets directory from.
+         * @param filePath The path of the file in the assets directory.
+         * @return The parsed asset.
+         * @throws Exception if the file could not be read or is not a JSON object.
+         */
+        synchronized Map get(Context context, String filePath) throws Exception {
+
+            if (mMap == null) {
+                mMap = JsonHelper.stringToMap(JsonHelper.escapeComments(readFile(context,
+                                                                                 filePath)));
+            }
+            return mMap;
+        }
+
+        /**
+         * Check if the asset was parsed.
+         *
+         * @return True if the asset was parsed; false otherwise.
+         */
+        synchronized boolean isLoaded() {
+
+            return mMap != null;
+        }
+    }
+
     /**
      * Reads a file from the assets directory and returns the file contents as {@link String}.
+     * Line breaks are not included in the returned string; use
+     * {@link #readText(Context, String)} to get the content as is.
      *
      * @param context  The context to access the assets directory from.
      * @param filePath The path of the file in the assets directory.
@@ -40,26 +112,85 @@ public class FileHelper {
      */
     public static String readFile(Context context, String filePath) throws IOException {
 
-        StringBuilder stringBuilder;
+        return removeLineBreaks(readText(context, filePath));
+    }
 
-        try {
-            stringBuilder = new StringBuilder();
-            InputStream inputStream = context.getResources().getAssets().open(filePath);
-            BufferedReader in = new BufferedReader(
-                    new InputStreamReader(inputStream, Helpers.getDefaultAppCharset()));
-            String text;
-            while ((text = in.readLine()) != null) {
-                stringBuilder.append(text);
-            }
+    /**
+     * Reads a file from the assets directory and returns its content as {@link String}, line
+     * breaks included. The charset is taken from the byte order mark if the file has one, and is
+     * the app's default charset otherwise.
+     *
+     * @param context  The context to access the assets directory from.
+     * @param filePath The path of the file in the assets directory.
+     * @return The content of the file.
+     * @throws IOException if file not found or problem occurred while reading file.
+     */
+    public static String readText(Context context, String filePath) throws IOException {
+
+        return decode(readBytes(context, filePath));
+    }
+
+    /**
+     * Reads a file from the assets directory and returns its exact bytes.
+     *
+     * @param context  The context to access the assets directory from.
+     * @param filePath The path of the file in the assets directory.
+     * @return The content of the file.
+     * @throws IOException if file not found or problem occurred while reading file.
+     */
+    public static byte[] readBytes(Context context, String filePath) throws IOException {
 
-            in.close();
+        InputStream inputStream = null;
+        try {
+            inputStream = context.getAssets().open(filePath);
+            return readBytes(inputStream);
         }
         catch (IOException e) {
             Log.e(TAG, "Failed to load content from file " + filePath, e);
             throw new IOException("Failed to load content from file " + filePath, e);
         }
+        finally {
+            if (inputStream != null) {
+                try {
+                    inputStream.close();
+                }
+                catch (IOException e) {
+                    Log.w(TAG, "Failed to close file " + filePath, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a JSON file from the assets directory and parses it into a map, the way
+     * {@link com.amazon.android.recipe.Recipe#newInstance(Context, String)} does. Each asset is
+     * read and parsed once per process; every call returns a new copy of the parsed map, which
+     * the caller may modify.
+     *
+     * @param context  The context to access the assets directory from.
+     * @param filePath The path of the file in the assets directory.
+     * @return A map of the JSON object in the file.
+     * @throws Exception if the file could not be read or is not a JSON object.
+     */
+    public static Map readJsonAsset(Context context, String filePath) throws Exception {
+
+        JsonAsset asset = sJsonAssets.get(filePath);
+        if (asset == null) {
+            JsonAsset newAsset = new JsonAsset();
+            asset = sJsonAssets.putIfAbsent(filePath, newAsset);
+            if (asset == null) {
+                asset = newAsset;
+            }
+        }
+        return JsonHelper.copyMap(asset.get(context, filePath));
+    }
+
+    /**
+     * Remove all parsed JSON assets from the cache.
+     */
+    public static void clearJsonAssetCache() {
 
-        return stringBuilder.toString();
+        sJsonAssets.clear();
     }
 
     /**
@@ -71,6 +202,10 @@ public class FileHelper {
      */
     public static boolean doesFileExist(Context context, String filePath) {
 
+        JsonAsset asset = sJsonAssets.get(filePath);
+        if (asset != null && asset.isLoaded()) {
+            return true;
+        }
         try {
             InputStream inputStream = context.getAssets().open(filePath);
             if (inputStream != null) {
@@ -83,4 +218,83 @@ public class FileHelper {
         }
         return false;
     }
-}
\ No newline at end of file
+
+    /**
+     * Read a stream to its end.
+     *
+     * @param inputStream The stream, which is not closed.
+     * @return The bytes read.
+     * @throws IOException if reading failed.
+     */
+    static byte[] readBytes(InputStream inputStream) throws IOException {
+
+        // Assets usually report their full length as available, so most reads fill a buffer of
+        // the exact size in one go.
+        byte[] buffer = new byte[Math.max(inputStream.available(), BUFFER_SIZE)];
+        int length = 0;
+        int count;
+        while ((count = inputStream.read(buffer, length, buffer.length - length)) != -1) {
+            length += count;
+            if (length == buffer.length) {
+                int next = inputStream.read();
+                if (next == -1) {
+                    break;
+                }
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                buffer[length++] = (byte) next;
+            }
+        }
+        return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Decode bytes into a string. A UTF-8 or UTF-16 byte order mark selects the charset and is
+     * not included in the string; without one, the app's default charset is used.
+     *
+     * @param bytes The bytes.
+     * @return The string.
+     */
+    static String decode(byte[] bytes) {
+
+        if (bytes.length >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB &&
+                (bytes[2] & 0xFF) == 0xBF) {
+            return new String(bytes, 3, bytes.length - 3, UTF_8);
+        }
+        else if (bytes.length >= 2 && (bytes[0] & 0xFF) == 0xFE && (bytes[1] & 0xFF) == 0xFF) {
+            return new String(bytes, 2, bytes.length - 2, UTF_16BE);
+        }
+        else if (bytes.length >= 2 && (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xFE) {
+            return new String(bytes, 2, bytes.length - 2, UTF_16LE);
+        }
+        return new String(bytes, Helpers.getDefaultAppCharset());
+    }
+
+    /**
+     * Remove line breaks, giving the same result as concatenating the lines of a
+     * {@link java.io.BufferedReader}.
+     *
+     * @param text The text.
+     * @return The text without "\n" and "\r" characters.
+     */
+    static String removeLineBreaks(String text) {
+
+        int length = text.length();
+        int i = 0;
+        while (i < length && text.charAt(i) != '\n' && text.charAt(i) != '\r') {
+            i++;
+        }
+        if (i == length) {
+            return text;
+        }
+
+        StringBuilder builder = new StringBuilder(length);
+        builder.append(text, 0, i);
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c != '\n' && c != '\r') {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -17,11 +17,15 @@ package com.amazon.android.utils;
 import com.amazon.utils.R;
 import com.bumptech.glide.DrawableRequestBuilder;
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.bumptech.glide.load.resource.drawable.GlideDrawable;
 import com.bumptech.glide.request.RequestListener;
-import com.bumptech.glide.request.animation.GlideAnimation;
+import com.bumptech.glide.request.target.GlideDrawableImageViewTarget;
 import com.bumptech.glide.request.target.ImageViewTarget;
+import com.bumptech.glide.request.target.PreloadTarget;
 import com.bumptech.glide.request.target.SimpleTarget;
+import com.bumptech.glide.request.target.SizeReadyCallback;
 import com.bumptech.glide.request.target.Target;
 
 import android.content.Context;
@@ -35,11 +39,22 @@ import java.util.Locale;
 
 /**
  * This class contains helper methods for loading images into image views using the Glide library.
+ * <p>
+ * Image view sizes are rounded up into a few size buckets that keep the aspect ratio, so the
+ * same image shown by different screens at slightly different sizes is decoded and cached once.
+ * Source images are kept in the disk cache, so a new size does not download the image again.
+ * Simple targets are loaded at the size they ask for. Identical loads in flight are merged by
+ * Glide's engine, while each target keeps its own request so clearing it cancels its load.
  */
 public class GlideHelper {
 
     private static final String TAG = GlideHelper.class.getSimpleName();
 
+    /**
+     * Sizes that the larger dimension of a target is rounded up to.
+     */
+    private static final int[] SIZE_BUCKETS = {128, 192, 256, 384, 512, 768, 1024, 1280, 1920,
+            2560};
 
     /**
      * Loads an image using Glide from a URL into an image view and cross fades it with the image
@@ -54,49 +69,47 @@ public class GlideHelper {
                                                         String url, final int crossFadeDuration,
                                                         int error) {
 
-        // With this listener we override the onResourceReady of the RequestListener to force
-        // the cross fade animation.
-        RequestListener crossFadeListener = new RequestListener<String, GlideDrawable>() {
-            @Override
-            public boolean onException(Exception e, String model, Target<GlideDrawable> target,
-                                       boolean isFirstResource) {
-
-                Log.d(TAG, String.format(Locale.ROOT, "onException(%s, %s, %s, %s)", e, model,
-                                         target, isFirstResource), e);
-                return false;
-            }
-
-            @Override
-            public boolean onResourceReady(GlideDrawable resource, String model,
-                                           Target<GlideDrawable> target, boolean isFromMemoryCache,
-                                           boolean isFirstResource) {
-
-                ImageViewTarget<GlideDrawable> imageTarget
-                        = (ImageViewTarget<GlideDrawable>) target;
-                Drawable current = imageTarget.getCurrentDrawable();
-                if (current != null) {
-                    TransitionDrawable transitionDrawable
-                            = new TransitionDrawable(new Drawable[]{current, resource});
-                    transitionDrawable.setCrossFadeEnabled(true);
-                    transitionDrawable.startTransition(crossFadeDuration);
-                    imageTarget.setDrawable(transitionDrawable);
-                    return true;
-                }
-                else
-                    return false;
-            }
-        };
-
         // With the Glide image managing framework, cross fade animations only take place if the
-        // image is not already downloaded in cache. In order to have the cross fade animation
-        // when the image is in cache, we need to make the following two calls.
-        loadImageIntoView(imageView, context, url, new LoggingListener<>(), error,
-                          imageView.getDrawable());
+        // image is not already in the cache. This listener does the cross fade itself whenever
+        // there is a current image, so a single load gives the cross fade either way.
+        RequestListener<String, GlideDrawable> crossFadeListener =
+                new RequestListener<String, GlideDrawable>() {
+                    @Override
+                    public boolean onException(Exception e, String model,
+                                               Target<GlideDrawable> target,
+                                               boolean isFirstResource) {
+
+                        Log.d(TAG, String.format(Locale.ROOT, "onException(%s, %s, %s, %s)", e,
+                                                 model, target, isFirstResource), e);
+                        return false;
+                    }
+
+                    @Override
+                    public boolean onResourceReady(GlideDrawable resource, String model,
+                                                   Target<GlideDrawable> target,
+                                                   boolean isFromMemoryCache,
+                                                   boolean isFirstResource) {
+
+                        ImageViewTarget<GlideDrawable> imageTarget =
+                                (ImageViewTarget<GlideDrawable>) target;
+                        Drawable current = getFinalDrawable(imageTarget.getCurrentDrawable());
+                        if (current != null && current != resource) {
+                            TransitionDrawable transitionDrawable =
+                                    new TransitionDrawable(new Drawable[]{current, resource});
+                            transitionDrawable.setCrossFadeEnabled(true);
+                            transitionDrawable.startTransition(crossFadeDuration);
+                            imageTarget.setDrawable(transitionDrawable);
+                            return true;
+                        }
+                        else
+                            return false;
+                    }
+                };
 
-        // Adding this second Glide call enables cross-fade transition even if the image is cached.
         createDrawableRequestBuilder(context, url, crossFadeListener, error,
-                                     imageView.getDrawable()).crossFade().into(imageView);
-
+                                     imageView.getDrawable())
+                .crossFade(crossFadeDuration)
+                .into(new BucketedImageViewTarget(imageView));
     }
 
     /**
@@ -113,7 +126,8 @@ public class GlideHelper {
                                          RequestListener<String, GlideDrawable> listener,
                                          int error, Drawable placeholder) {
 
-        createDrawableRequestBuilder(context, url, listener, error, placeholder).into(imageView);
+        createDrawableRequestBuilder(context, url, listener, error, placeholder)
+                .into(new BucketedImageViewTarget(imageView));
     }
 
     /**
@@ -129,7 +143,7 @@ public class GlideHelper {
                                          RequestListener<String, GlideDrawable> listener,
                                          int error) {
 
-        createDrawableRequestBuilder(context, url, listener, error, null).into(imageView);
+        loadImageIntoView(imageView, context, url, listener, error, null);
     }
 
     /**
@@ -149,6 +163,7 @@ public class GlideHelper {
              .load(url)
              .listener(listener)
              .centerCrop()
+             .diskCacheStrategy(DiskCacheStrategy.ALL)
              .into(simpleTarget);
     }
 
@@ -172,9 +187,100 @@ public class GlideHelper {
              .listener(listener)
              .centerCrop()
              .error(error)
+             .diskCacheStrategy(DiskCacheStrategy.ALL)
              .into(simpleTarget);
     }
 
+    /**
+     * Loads an image into the cache with low priority, the way
+     * {@link #loadImageIntoView(ImageView, Context, String, RequestListener, int)} would load it
+     * into an image view of the given size, so a later load into such a view is served from the
+     * memory cache.
+     *
+     * @param context  The context to use.
+     * @param url      The URL that points to the image to load.
+     * @param width    The width of the image view.
+     * @param height   The height of the image view.
+     * @param listener The request listener to use, called when the load finishes or fails but not
+     *                 when it is cancelled.
+     * @return The target of the load, for {@link #cancel(Target)}.
+     */
+    public static Target<GlideDrawable> preloadImage(Context context, String url, int width,
+                                                     int height,
+                                                     RequestListener<String, GlideDrawable>
+                                                             listener) {
+
+        int[] size = bucketSize(width, height);
+        return createDrawableRequestBuilder(context, url, listener, 0, null)
+                .priority(Priority.LOW)
+                .into(PreloadTarget.<GlideDrawable>obtain(size[0], size[1]));
+    }
+
+    /**
+     * Cancels a load and releases its resources.
+     *
+     * @param target The target of the load.
+     */
+    public static void cancel(Target<?> target) {
+
+        Glide.clear(target);
+    }
+
+    /**
+     * Round a target size up into its size bucket. The larger dimension is rounded up to the
+     * next bucket and the smaller one is scaled by the same factor, so the aspect ratio is kept.
+     * Sizes that are not positive, like {@link Target#SIZE_ORIGINAL}, and sizes larger than the
+     * largest bucket are returned as they are.
+     *
+     * @param width  The width of the target.
+     * @param height The height of the target.
+     * @return The bucketed width and height.
+     */
+    static int[] bucketSize(int width, int height) {
+
+        if (width <= 0 || height <= 0) {
+            return new int[]{width, height};
+        }
+        int max = Math.max(width, height);
+        for (int bucket : SIZE_BUCKETS) {
+            if (bucket >= max) {
+                return new int[]{scaleDimension(width, bucket, max),
+                        scaleDimension(height, bucket, max)};
+            }
+        }
+        return new int[]{width, height};
+    }
+
+    /**
+     * Scale a dimension by bucket / max, rounding up.
+     *
+     * @param dimension The dimension.
+     * @param bucket    The bucket of the larger dimension.
+     * @param max       The larger dimension.
+     * @return The scaled dimension.
+     */
+    private static int scaleDimension(int dimension, int bucket, int max) {
+
+        return (int) (((long) dimension * bucket + max - 1) / max);
+    }
+
+    /**
+     * Get the drawable that a drawable finally shows. For a transition that is the last layer, so
+     * cross fades started before the last one ended do not nest.
+     *
+     * @param drawable The drawable.
+     * @return The drawable it finally shows.
+     */
+    private static Drawable getFinalDrawable(Drawable drawable) {
+
+        while (drawable instanceof TransitionDrawable &&
+                ((TransitionDrawable) drawable).getNumberOfLayers() > 0) {
+            TransitionDrawable transitionDrawable = (TransitionDrawable) drawable;
+            drawable = transitionDrawable.getDrawable(transitionDrawable.getNumberOfLayers() - 1);
+        }
+        return drawable;
+    }
+
     /**
      * Creates a Glide drawable request builder using the given parameters for loading an image
      * into an image view.
@@ -188,15 +294,46 @@ public class GlideHelper {
      *                    will be used.
      * @return The request builder.
      */
-    private static DrawableRequestBuilder createDrawableRequestBuilder(Context context, String
-            url, RequestListener<String, GlideDrawable> listener, int error, Drawable placeholder) {
+    private static DrawableRequestBuilder<String> createDrawableRequestBuilder(Context context,
+            String url, RequestListener<String, GlideDrawable> listener, int error,
+            Drawable placeholder) {
 
         return Glide.with(context)
                     .load(url)
                     .listener(listener)
                     .fitCenter()
                     .placeholder(placeholder)
-                    .error(error);
+                    .error(error)
+                    .diskCacheStrategy(DiskCacheStrategy.ALL);
+    }
+
+    /**
+     * An image view target that rounds the size of its view up into its size bucket.
+     */
+    private static final class BucketedImageViewTarget extends GlideDrawableImageViewTarget {
+
+        /**
+         * Constructor.
+         *
+         * @param view The image view.
+         */
+        BucketedImageViewTarget(ImageView view) {
+
+            super(view);
+        }
+
+        @Override
+        public void getSize(final SizeReadyCallback cb) {
+
+            super.getSize(new SizeReadyCallback() {
+                @Override
+                public void onSizeReady(int width, int height) {
+
+                    int[] size = bucketSize(width, height);
+                    cb.onSizeReady(size[0], size[1]);
+                }
+            });
+        }
     }
 
     /**
@@ -64,10 +64,10 @@ public class Helpers {
      */
     private static final String DEFAULT_CHARSET_TEXT = "UTF-8";
 
-    private static final double PROGRESS_BAR_TOP_HEIGHT_RATIO = 0.98;
-    private static final double OVERLAY_TOP_HEIGHT_RATIO = 0.9;
-    private static final double TEXT_BOTTOM_HEIGHT_RATIO = 0.96;
-    private static final double TEXT_HEIGHT_RATIO = 0.05;
+    static final double PROGRESS_BAR_TOP_HEIGHT_RATIO = 0.98;
+    static final double OVERLAY_TOP_HEIGHT_RATIO = 0.9;
+    static final double TEXT_BOTTOM_HEIGHT_RATIO = 0.96;
+    static final double TEXT_HEIGHT_RATIO = 0.05;
 
     /**
      * Making sure public utility methods remain static.
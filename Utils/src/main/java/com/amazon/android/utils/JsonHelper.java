@@ -14,14 +14,14 @@
  */
 package com.amazon.android.utils;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import android.util.Log;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,13 +29,19 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * This is a helper class that parses a JSON-encoded string into a Map. This class uses
- * JSONObject and JSONArray from org.json to handle the JSON manipulation.
+ * This is a helper class that parses a JSON-encoded string into a Map. Strings are parsed and
+ * written in a single pass straight to and from maps and lists, with the same syntax and output as
+ * JSONObject and JSONArray from org.json.
  */
 public class JsonHelper {
 
     private static final String TAG = JsonHelper.class.getSimpleName();
 
+    /**
+     * Unescaped comment start sequence.
+     */
+    private static final String COMMENT_START_SEQUENCE = "/*";
+
     /**
      * Comment start sequence.
      */
@@ -47,11 +53,18 @@ public class JsonHelper {
     private static final String COMMENT_STOP_SEQUENCE_ESCAPED = "\\*\\/";
 
     /**
-     * Turns a Map object into a JSON-encoded string. Uses the JSONObject from org.json to create
-     * the string.
+     * Comment pattern, matching all type of cases including new line.
+     */
+    private static final Pattern COMMENT_PATTERN = Pattern.compile(
+            COMMENT_START_SEQUENCE_ESCAPED + "(.*?|\n)" + COMMENT_STOP_SEQUENCE_ESCAPED);
+
+    /**
+     * Turns a Map object into a JSON-encoded string. The string is the same as the one the
+     * JSONObject from org.json creates for the map, but is written without copying the map first.
      *
      * @param map The Map to convert.
-     * @return A JSON-encoded String that represents the map parameter.
+     * @return A JSON-encoded String that represents the map parameter, or null if the map contains
+     * a number JSON cannot represent.
      */
     public static String mapToString(Map<String, Object> map) {
 
@@ -59,13 +72,80 @@ public class JsonHelper {
             return null;
         }
 
-        JSONObject object = new JSONObject(map);
-        return object.toString();
+        return JsonMapWriter.write(map);
+    }
+
+    /**
+     * Turns a Map object into a canonical JSON-encoded string. Keys of every nested map are
+     * written in sorted order and no whitespace is added, so maps with equal contents always
+     * produce the same string regardless of their insertion order.
+     *
+     * @param map The Map to convert.
+     * @return A canonical JSON-encoded String that represents the map parameter.
+     */
+    public static String mapToCanonicalString(Map<String, Object> map) {
+
+        if (map == null) {
+            return null;
+        }
+
+        StringBuilder builder = new StringBuilder();
+        appendCanonicalValue(builder, map);
+        return builder.toString();
+    }
+
+    /**
+     * Helper method to append a value in canonical JSON form.
+     *
+     * @param builder The builder to append to.
+     * @param value   The value to append.
+     */
+    private static void appendCanonicalValue(StringBuilder builder, Object value) {
+
+        if (value == null || value == JSONObject.NULL) {
+            builder.append("null");
+        }
+        else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            String[] keys = new String[map.size()];
+            int i = 0;
+            for (Object key : map.keySet()) {
+                keys[i++] = String.valueOf(key);
+            }
+            Arrays.sort(keys);
+            builder.append('{');
+            for (i = 0; i < keys.length; i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                builder.append(JSONObject.quote(keys[i])).append(':');
+                appendCanonicalValue(builder, map.get(keys[i]));
+            }
+            builder.append('}');
+        }
+        else if (value instanceof Collection) {
+            builder.append('[');
+            boolean first = true;
+            for (Object item : (Collection<?>) value) {
+                if (!first) {
+                    builder.append(',');
+                }
+                first = false;
+                appendCanonicalValue(builder, item);
+            }
+            builder.append(']');
+        }
+        else if (value instanceof Number || value instanceof Boolean) {
+            builder.append(value.toString());
+        }
+        else {
+            builder.append(JSONObject.quote(value.toString()));
+        }
     }
 
     /**
      * Parses a JSON-encoded string into a Map. If the data string is malformed
-     * in any way, an exception is thrown.
+     * in any way, an exception is thrown. Comments are skipped while parsing.
      *
      * @param data The JSON-encoded string.
      * @return A Map containing the parsed JSON pairs of the string. If the data string is null or
@@ -74,115 +154,64 @@ public class JsonHelper {
      */
     public static Map stringToMap(String data) throws Exception {
 
-        JSONObject jsonObject;
-
         // Return an empty map for null or empty data string.
         if (data == null || data.isEmpty()) {
-            return parseObject(null);
+            return new LinkedHashMap<String, Object>();
         }
 
         try {
-            // Create a JSONObject from the data string.
-            jsonObject = new JSONObject(data);
-
+            return JsonMapReader.readObject(data);
         }
         catch (JSONException e) {
 
             Log.e(TAG, "Error creating JSON Object from string.", e);
             throw new MalformedJSONException("Malformed JSON-encoded string", e);
         }
-        // Parse the object and return its map representation.
-        return parseObject(jsonObject);
-    }
-
-    /**
-     * Helper method to parse a JSONObject.
-     *
-     * @param object The JSONObject to parse.
-     * @return A Map containing the key/value pairs of the JSONObject. If the object passed in is
-     * null, an empty map is returned.
-     * @throws Exception if the JSON-encoded object is malformed.
-     */
-    private static Map parseObject(JSONObject object) throws Exception {
-
-        LinkedHashMap<String, Object> map = new LinkedHashMap<>();
-
-        if (object != null) {
-
-            Iterator<String> keys = object.keys();
-
-            // Loop through all keys
-            while (keys.hasNext()) {
-
-                String key = keys.next();
-
-                try {
-                    // Parse the value associated with the key and add it to the map.
-                    map.put(key, parseValue(object.get(key)));
-
-                }
-                catch (JSONException e) {
+        catch (MalformedJSONException e) {
 
-                    Log.e(TAG, "Invalid key-value mapping for key: " + key, e);
-                    throw new MalformedJSONException("Malformed JSON. Contains a bad key: " +
-                                                             key, e);
-                }
-            }
+            Log.e(TAG, e.getMessage(), e.getCause());
+            throw e;
         }
-        return map;
     }
 
     /**
-     * Helper method to parse a JSONArray.
+     * Copy a map parsed by {@link #stringToMap(String)}, including its nested maps and lists, so
+     * the copy can be modified without affecting the original. Other values are immutable and
+     * shared.
      *
-     * @param array The JSONArray to parse.
-     * @return A List of the Objects from the JSONArray. If the array passed in is null, an empty
-     * ArrayList is returned.
-     * @throws Exception if the JSON-encoded array is malformed.
+     * @param map The map to copy.
+     * @return The copy.
      */
-    private static List parseArray(JSONArray array) throws Exception {
-
-        ArrayList<Object> list = new ArrayList<>();
-
-        if (array != null) {
-
-            // Parse each value in the array and add it to the list.
-            for (int i = 0; i < array.length(); i++) {
-
-                try {
-
-                    list.add(parseValue(array.get(i)));
-
-                }
-                catch (JSONException e) {
-                    Log.e(TAG, "Array contains no value at index: " + i, e);
-                    throw new MalformedJSONException("Malformed JSON. Array contains no value at " +
-                                                             "index: " + i, e);
-                }
+    public static Map copyMap(Map map) {
 
-            }
-        }
-        return list;
+        return (Map) copyValue(map);
     }
 
     /**
-     * Helper method to parse a value.
+     * Helper method to copy a parsed value.
      *
-     * @param value The value to parse.
-     * @return An Object that represents the parsed object.
-     * @throws Exception if the JSON-encoded value is malformed.
+     * @param value The value to copy.
+     * @return The copy of a map or list, or the value itself otherwise.
      */
-    private static Object parseValue(Object value) throws Exception {
-
-        // If value is a JSONObject, parse the JSONObject
-        if (value instanceof JSONObject) {
-            return parseObject((JSONObject) value);
+    private static Object copyValue(Object value) {
+
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            LinkedHashMap<Object, Object> copy = new LinkedHashMap<>(
+                    Math.max((int) (map.size() / .75f) + 1, 16));
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                copy.put(entry.getKey(), copyValue(entry.getValue()));
+            }
+            return copy;
         }
-        // If value is a JSONArray, parse the JSONArray
-        else if (value instanceof JSONArray) {
-            return parseArray((JSONArray) value);
+        else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            ArrayList<Object> copy = new ArrayList<>(list.size());
+            for (Object item : list) {
+                copy.add(copyValue(item));
+            }
+            return copy;
         }
-        // Otherwise the value is an Object, String, int, etc, so just return its value.
         return value;
     }
 
@@ -198,13 +227,13 @@ public class JsonHelper {
             return null;
         }
 
-        String regex = COMMENT_START_SEQUENCE_ESCAPED +
-                "(.*?|\n)" + // Match all type of cases including new line.
-                COMMENT_STOP_SEQUENCE_ESCAPED;
+        // Most strings have no comments; skip the regex for them.
+        if (!jsonString.contains(COMMENT_START_SEQUENCE)) {
+            return jsonString;
+        }
 
         StringBuffer stringBuffer = new StringBuffer(jsonString.length());
-        Pattern pattern = Pattern.compile(regex);
-        Matcher matcher = pattern.matcher(jsonString);
+        Matcher matcher = COMMENT_PATTERN.matcher(jsonString);
         while (matcher.find()) {
             matcher.appendReplacement(stringBuffer, "");
         }
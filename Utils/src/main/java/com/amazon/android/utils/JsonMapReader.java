@@ -0,0 +1,479 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.utils;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass JSON reader that builds {@link LinkedHashMap} and {@link ArrayList} values directly.
+ * It accepts exactly what the platform's org.json tokenizer accepts, including its lenient
+ * extensions: comments ("/* *&#47;", "//" and "#"), single quoted and unquoted strings, "=" and "=>"
+ * name separators, ";" value separators and hexadecimal and octal integers. Values have the same
+ * types as those of a parsed JSONObject: String, Integer, Long, Double, Boolean and
+ * {@link JSONObject#NULL}.
+ */
+final class JsonMapReader {
+
+    /**
+     * Characters that end an unquoted literal, besides line breaks.
+     */
+    private static final String LITERAL_TERMINATORS = "{}[]/\\:,=;# \t\f";
+
+    /**
+     * Placeholder for an array element left empty by a separator, e.g. in "[1,,2]". A parsed
+     * JSONArray holds null there, which cannot be read back as a value.
+     */
+    private static final Object MISSING_ELEMENT = new Object();
+
+    /**
+     * The JSON-encoded string.
+     */
+    private final String mIn;
+
+    /**
+     * Index of the next character to read.
+     */
+    private int mPos;
+
+    /**
+     * True if an array had an empty element.
+     */
+    private boolean mHasMissingElement;
+
+    /**
+     * Constructor.
+     *
+     * @param in The JSON-encoded string.
+     */
+    private JsonMapReader(String in) {
+
+        // A leading byte order mark is ignored.
+        mIn = in.startsWith("\ufeff") ? in.substring(1) : in;
+    }
+
+    /**
+     * Parse a JSON-encoded object into a map. Content after the object is ignored.
+     *
+     * @param data The JSON-encoded string.
+     * @return The map.
+     * @throws JSONException                   If the string is not a JSON object.
+     * @throws JsonHelper.MalformedJSONException If an array has an empty element.
+     */
+    static Map<String, Object> readObject(String data) throws JSONException,
+            JsonHelper.MalformedJSONException {
+
+        JsonMapReader reader = new JsonMapReader(data);
+        Object value = reader.nextValue();
+        if (!(value instanceof Map)) {
+            throw new JSONException("Value " + value + " cannot be converted to JSONObject");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> map = (Map<String, Object>) value;
+        if (reader.mHasMissingElement) {
+            // Report the first empty element still in the result, in the order a tree walk
+            // would reach it.
+            checkNoMissingElement(map);
+        }
+        return map;
+    }
+
+    /**
+     * Throw for the first empty array element found in a value.
+     *
+     * @param value The value to check.
+     * @throws JsonHelper.MalformedJSONException If the value contains an empty array element.
+     */
+    private static void checkNoMissingElement(Object value) throws
+            JsonHelper.MalformedJSONException {
+
+        if (value instanceof Map) {
+            for (Object item : ((Map<?, ?>) value).values()) {
+                checkNoMissingElement(item);
+            }
+        }
+        else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i) == MISSING_ELEMENT) {
+                    throw new JsonHelper.MalformedJSONException(
+                            "Malformed JSON. Array contains no value at index: " + i,
+                            new JSONException("Value at " + i + " is null."));
+                }
+                checkNoMissingElement(list.get(i));
+            }
+        }
+    }
+
+    /**
+     * Read the next value.
+     *
+     * @return The value.
+     * @throws JSONException If the input is malformed.
+     */
+    private Object nextValue() throws JSONException {
+
+        int c = nextClean();
+        switch (c) {
+            case -1:
+                throw syntaxError("End of input");
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '\'':
+            case '"':
+                return nextString((char) c);
+            default:
+                mPos--;
+                return readLiteral();
+        }
+    }
+
+    /**
+     * Skip whitespace and comments.
+     *
+     * @return The next significant character, or -1 at the end of the input.
+     * @throws JSONException If a comment is not terminated.
+     */
+    private int nextClean() throws JSONException {
+
+        while (mPos < mIn.length()) {
+            int c = mIn.charAt(mPos++);
+            switch (c) {
+                case '\t':
+                case ' ':
+                case '\n':
+                case '\r':
+                    continue;
+                case '/':
+                    if (mPos == mIn.length()) {
+                        return c;
+                    }
+                    char peek = mIn.charAt(mPos);
+                    if (peek == '*') {
+                        mPos++;
+                        int commentEnd = mIn.indexOf("*/", mPos);
+                        if (commentEnd == -1) {
+                            throw syntaxError("Unterminated comment");
+                        }
+                        mPos = commentEnd + 2;
+                        continue;
+                    }
+                    else if (peek == '/') {
+                        mPos++;
+                        skipToEndOfLine();
+                        continue;
+                    }
+                    return c;
+                case '#':
+                    skipToEndOfLine();
+                    continue;
+                default:
+                    return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Skip the rest of the current line, including the line break.
+     */
+    private void skipToEndOfLine() {
+
+        for (; mPos < mIn.length(); mPos++) {
+            char c = mIn.charAt(mPos);
+            if (c == '\r' || c == '\n') {
+                mPos++;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Read a string up to the closing quote, resolving escape sequences.
+     *
+     * @param quote The quote character that opened the string.
+     * @return The string.
+     * @throws JSONException If the string or an escape sequence is not terminated.
+     */
+    private String nextString(char quote) throws JSONException {
+
+        StringBuilder builder = null;
+        int start = mPos;
+        while (mPos < mIn.length()) {
+            int c = mIn.charAt(mPos++);
+            if (c == quote) {
+                if (builder == null) {
+                    return mIn.substring(start, mPos - 1);
+                }
+                builder.append(mIn, start, mPos - 1);
+                return builder.toString();
+            }
+            if (c == '\\') {
+                if (mPos == mIn.length()) {
+                    throw syntaxError("Unterminated escape sequence");
+                }
+                if (builder == null) {
+                    builder = new StringBuilder();
+                }
+                builder.append(mIn, start, mPos - 1);
+                builder.append(readEscapeCharacter());
+                start = mPos;
+            }
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    /**
+     * Read the character of an escape sequence, after its backslash.
+     *
+     * @return The escaped character.
+     * @throws JSONException If a unicode escape is incomplete or not hexadecimal.
+     */
+    private char readEscapeCharacter() throws JSONException {
+
+        char escaped = mIn.charAt(mPos++);
+        switch (escaped) {
+            case 'u':
+                if (mPos + 4 > mIn.length()) {
+                    throw syntaxError("Unterminated escape sequence");
+                }
+                String hex = mIn.substring(mPos, mPos + 4);
+                mPos += 4;
+                try {
+                    return (char) Integer.parseInt(hex, 16);
+                }
+                catch (NumberFormatException e) {
+                    throw syntaxError("Invalid escape sequence: " + hex);
+                }
+            case 't':
+                return '\t';
+            case 'b':
+                return '\b';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            default:
+                return escaped;
+        }
+    }
+
+    /**
+     * Read an unquoted literal: null, a boolean, a number or an unquoted string.
+     *
+     * @return The literal value.
+     * @throws JSONException If the literal is empty.
+     */
+    private Object readLiteral() throws JSONException {
+
+        String literal = nextToLiteralEnd();
+        if (literal.length() == 0) {
+            throw syntaxError("Expected literal value");
+        }
+        else if ("null".equalsIgnoreCase(literal)) {
+            return JSONObject.NULL;
+        }
+        else if ("true".equalsIgnoreCase(literal)) {
+            return Boolean.TRUE;
+        }
+        else if ("false".equalsIgnoreCase(literal)) {
+            return Boolean.FALSE;
+        }
+
+        // Try to parse as an integral type, hexadecimal with a "0x" prefix and octal with a
+        // leading zero.
+        if (literal.indexOf('.') == -1) {
+            int base = 10;
+            String number = literal;
+            if (number.startsWith("0x") || number.startsWith("0X")) {
+                number = number.substring(2);
+                base = 16;
+            }
+            else if (number.startsWith("0") && number.length() > 1) {
+                number = number.substring(1);
+                base = 8;
+            }
+            try {
+                long longValue = Long.parseLong(number, base);
+                if (longValue <= Integer.MAX_VALUE && longValue >= Integer.MIN_VALUE) {
+                    return (int) longValue;
+                }
+                return longValue;
+            }
+            catch (NumberFormatException e) {
+                // Too large, exponential form or not a number; try floating point next.
+            }
+        }
+
+        try {
+            return Double.valueOf(literal);
+        }
+        catch (NumberFormatException e) {
+            // Not a number, so it is an unquoted string.
+        }
+        return literal;
+    }
+
+    /**
+     * Read up to the end of a literal.
+     *
+     * @return The literal text, possibly empty.
+     */
+    private String nextToLiteralEnd() {
+
+        int start = mPos;
+        for (; mPos < mIn.length(); mPos++) {
+            char c = mIn.charAt(mPos);
+            if (c == '\r' || c == '\n' || LITERAL_TERMINATORS.indexOf(c) != -1) {
+                return mIn.substring(start, mPos);
+            }
+        }
+        return mIn.substring(start);
+    }
+
+    /**
+     * Read an object after its opening brace.
+     *
+     * @return The object as a map.
+     * @throws JSONException If the object is malformed.
+     */
+    private Map<String, Object> readObject() throws JSONException {
+
+        LinkedHashMap<String, Object> result = new LinkedHashMap<>();
+
+        // Peek to see if this is the empty object.
+        int first = nextClean();
+        if (first == '}') {
+            return result;
+        }
+        else if (first != -1) {
+            mPos--;
+        }
+
+        while (true) {
+            Object name = nextValue();
+            if (!(name instanceof String)) {
+                throw syntaxError("Names must be strings, but " + name + " is of type " +
+                                          name.getClass().getName());
+            }
+
+            // The name/value separator is a colon, an equals sign or an arrow "=>".
+            int separator = nextClean();
+            if (separator != ':' && separator != '=') {
+                throw syntaxError("Expected ':' after " + name);
+            }
+            if (mPos < mIn.length() && mIn.charAt(mPos) == '>') {
+                mPos++;
+            }
+
+            Object value = nextValue();
+            if (value instanceof Number) {
+                double doubleValue = ((Number) value).doubleValue();
+                if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+                    throw new JSONException("Forbidden numeric value: " + value);
+                }
+            }
+            result.put((String) name, value);
+
+            switch (nextClean()) {
+                case '}':
+                    return result;
+                case ';':
+                case ',':
+                    continue;
+                default:
+                    throw syntaxError("Unterminated object");
+            }
+        }
+    }
+
+    /**
+     * Read an array after its opening bracket.
+     *
+     * @return The array as a list.
+     * @throws JSONException If the array is malformed.
+     */
+    private List<Object> readArray() throws JSONException {
+
+        ArrayList<Object> result = new ArrayList<>();
+
+        // To cover input that ends with ",]".
+        boolean hasTrailingSeparator = false;
+
+        while (true) {
+            switch (nextClean()) {
+                case -1:
+                    throw syntaxError("Unterminated array");
+                case ']':
+                    if (hasTrailingSeparator) {
+                        addMissingElement(result);
+                    }
+                    return result;
+                case ',':
+                case ';':
+                    // A separator without a value first means an empty element.
+                    addMissingElement(result);
+                    hasTrailingSeparator = true;
+                    continue;
+                default:
+                    mPos--;
+            }
+
+            result.add(nextValue());
+
+            switch (nextClean()) {
+                case ']':
+                    return result;
+                case ',':
+                case ';':
+                    hasTrailingSeparator = true;
+                    continue;
+                default:
+                    throw syntaxError("Unterminated array");
+            }
+        }
+    }
+
+    /**
+     * Add an empty element to an array.
+     *
+     * @param array The array.
+     */
+    private void addMissingElement(List<Object> array) {
+
+        array.add(MISSING_ELEMENT);
+        mHasMissingElement = true;
+    }
+
+    /**
+     * Create a syntax error for the current position.
+     *
+     * @param message The error message.
+     * @return The exception.
+     */
+    private JSONException syntaxError(String message) {
+
+        return new JSONException(message + " at character " + mPos + " of " + mIn);
+    }
+}
@@ -0,0 +1,255 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Writes a map as a compact JSON-encoded string directly, without building a JSONObject copy of
+ * it first. The output is the same as that of the platform's {@code new JSONObject(map)
+ * .toString()}: values are converted the way {@link JSONObject#wrap(Object)} converts them and
+ * strings, numbers and separators are written the way JSONStringer writes them.
+ */
+final class JsonMapWriter {
+
+    /**
+     * Destination of the encoded string.
+     */
+    private final StringBuilder mOut = new StringBuilder(256);
+
+    /**
+     * True if a number that JSON cannot represent was written, making the whole result null.
+     */
+    private boolean mHasInvalidNumber;
+
+    /**
+     * Constructor.
+     */
+    private JsonMapWriter() {
+
+    }
+
+    /**
+     * Encode a map.
+     *
+     * @param map The map to encode.
+     * @return The JSON-encoded string, or null if the map contains NaN or an infinite number.
+     * @throws ClassCastException   If a key of the map is not a string.
+     * @throws NullPointerException If a key of the map is null.
+     */
+    static String write(Map<?, ?> map) {
+
+        for (Object key : map.keySet()) {
+            if (key == null) {
+                throw new NullPointerException("key == null");
+            }
+            else if (!(key instanceof String)) {
+                throw new ClassCastException(key.getClass().getName() + " cannot be cast to " +
+                                                     String.class.getName());
+            }
+        }
+        JsonMapWriter writer = new JsonMapWriter();
+        writer.writeMap(map);
+        return writer.mHasInvalidNumber ? null : writer.mOut.toString();
+    }
+
+    /**
+     * Write a map whose keys are all strings.
+     *
+     * @param map The map.
+     */
+    private void writeMap(Map<?, ?> map) {
+
+        mOut.append('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!first) {
+                mOut.append(',');
+            }
+            first = false;
+            writeString((String) entry.getKey());
+            mOut.append(':');
+            writeValue(entry.getValue());
+        }
+        mOut.append('}');
+    }
+
+    /**
+     * Write any value, converting it like {@link JSONObject#wrap(Object)} does.
+     *
+     * @param value The value.
+     */
+    private void writeValue(Object value) {
+
+        if (value == null || value == JSONObject.NULL) {
+            mOut.append("null");
+        }
+        else if (value instanceof String) {
+            writeString((String) value);
+        }
+        else if (value instanceof Integer || value instanceof Long || value instanceof Double ||
+                value instanceof Float || value instanceof Short || value instanceof Byte) {
+            writeNumber((Number) value);
+        }
+        else if (value instanceof Boolean) {
+            mOut.append(value);
+        }
+        else if (value instanceof Character) {
+            writeString(value.toString());
+        }
+        else if (value instanceof JSONObject || value instanceof JSONArray) {
+            // Already JSON, it encodes itself the same way.
+            String encoded = value.toString();
+            if (encoded == null) {
+                mHasInvalidNumber = true;
+            }
+            else {
+                mOut.append(encoded);
+            }
+        }
+        else if (value.equals(JSONObject.NULL)) {
+            writeString(value.toString());
+        }
+        else if (value instanceof Map) {
+            // A nested map with a key that is not a string is written as null.
+            Map<?, ?> map = (Map<?, ?>) value;
+            for (Object key : map.keySet()) {
+                if (!(key instanceof String)) {
+                    mOut.append("null");
+                    return;
+                }
+            }
+            writeMap(map);
+        }
+        else if (value instanceof Collection) {
+            mOut.append('[');
+            boolean first = true;
+            for (Object item : (Collection<?>) value) {
+                if (!first) {
+                    mOut.append(',');
+                }
+                first = false;
+                writeValue(item);
+            }
+            mOut.append(']');
+        }
+        else if (value.getClass().isArray()) {
+            mOut.append('[');
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                if (i > 0) {
+                    mOut.append(',');
+                }
+                writeValue(Array.get(value, i));
+            }
+            mOut.append(']');
+        }
+        else {
+            // Other platform types, like BigDecimal, are written as their string form; anything
+            // else is not representable.
+            Package valuePackage = value.getClass().getPackage();
+            if (valuePackage != null && valuePackage.getName().startsWith("java.")) {
+                writeString(value.toString());
+            }
+            else {
+                mOut.append("null");
+            }
+        }
+    }
+
+    /**
+     * Write a number, whole numbers without a fraction.
+     *
+     * @param number The number.
+     */
+    private void writeNumber(Number number) {
+
+        double doubleValue = number.doubleValue();
+        if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+            mHasInvalidNumber = true;
+            return;
+        }
+        if (number.equals(-0.0d)) {
+            mOut.append("-0");
+            return;
+        }
+        long longValue = number.longValue();
+        if (doubleValue == (double) longValue) {
+            mOut.append(longValue);
+        }
+        else {
+            mOut.append(number.toString());
+        }
+    }
+
+    /**
+     * Write a quoted string, escaping quotes, backslashes, slashes and control characters.
+     *
+     * @param value The string.
+     */
+    private void writeString(String value) {
+
+        mOut.append('"');
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c > '/' && c != '\\') {
+                continue;
+            }
+            String escaped;
+            switch (c) {
+                case '"':
+                    escaped = "\\\"";
+                    break;
+                case '\\':
+                    escaped = "\\\\";
+                    break;
+                case '/':
+                    escaped = "\\/";
+                    break;
+                case '\t':
+                    escaped = "\\t";
+                    break;
+                case '\b':
+                    escaped = "\\b";
+                    break;
+                case '\n':
+                    escaped = "\\n";
+                    break;
+                case '\r':
+                    escaped = "\\r";
+                    break;
+                case '\f':
+                    escaped = "\\f";
+                    break;
+                default:
+                    escaped = c <= 0x1F ? String.format("\\u%04x", (int) c) : null;
+                    break;
+            }
+            if (escaped != null) {
+                mOut.append(value, start, i).append(escaped);
+                start = i + 1;
+            }
+        }
+        mOut.append(value, start, length);
+        mOut.append('"');
+    }
+}
@@ -59,8 +59,7 @@ public class MapHelper {
         String fileName = context.getString(fileNameId);
         try {
             if (FileHelper.doesFileExist(context, fileName)) {
-                String fileData = FileHelper.readFile(context, fileName);
-                Map map = JsonHelper.stringToMap(fileData);
+                Map map = FileHelper.readJsonAsset(context, fileName);
 
                 for (Object key : map.keySet()) {
                     result.put((String) key, String.valueOf(map.get(key)));
@@ -95,8 +94,7 @@ public class MapHelper {
         String fileName = context.getString(fileNameId);
         try {
             if (FileHelper.doesFileExist(context, fileName)) {
-                String fileData = FileHelper.readFile(context, fileName);
-                Map map = JsonHelper.stringToMap(fileData);
+                Map map = FileHelper.readJsonAsset(context, fileName);
 
                 for (Object key : map.keySet()) {
                     Object arrayObject = map.get(key);
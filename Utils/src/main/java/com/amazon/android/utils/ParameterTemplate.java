@@ -0,0 +1,232 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A string with $$par#$$ injection points parsed into literal segments and parameter indexes.
+ * Templates are parsed once and cached; rendering is a single pass over the segments into one
+ * StringBuilder. Any number of parameters is supported, e.g. $$par12$$.
+ */
+public final class ParameterTemplate {
+
+    /**
+     * Start and end marker of an injection point.
+     */
+    private static final String MARKER = "$$";
+
+    /**
+     * Word following the start marker of an injection point.
+     */
+    private static final String WORD = "par";
+
+    /**
+     * Upper bound of the template cache, the cache is dropped if it ever grows past this.
+     */
+    private static final int MAX_CACHE_SIZE = 512;
+
+    /**
+     * Parsed templates by template string.
+     */
+    private static final ConcurrentHashMap<String, ParameterTemplate> sCache =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Literal text segments, there is always one more segment than parameters.
+     */
+    private final String[] mSegments;
+
+    /**
+     * Parameter index following each literal segment except the last.
+     */
+    private final int[] mParameterIndexes;
+
+    /**
+     * Total length of the literal segments.
+     */
+    private final int mLiteralLength;
+
+    /**
+     * Constructor.
+     *
+     * @param segments         Literal segments.
+     * @param parameterIndexes Parameter indexes between the segments.
+     */
+    private ParameterTemplate(String[] segments, int[] parameterIndexes) {
+
+        mSegments = segments;
+        mParameterIndexes = parameterIndexes;
+        int length = 0;
+        for (String segment : segments) {
+            length += segment.length();
+        }
+        mLiteralLength = length;
+    }
+
+    /**
+     * Get the parsed form of a template string, parsing it on first use.
+     *
+     * @param template Template string.
+     * @return Parsed template or null if template is null.
+     */
+    public static ParameterTemplate compile(String template) {
+
+        if (template == null) {
+            return null;
+        }
+        ParameterTemplate compiled = sCache.get(template);
+        if (compiled == null) {
+            if (sCache.size() >= MAX_CACHE_SIZE) {
+                sCache.clear();
+            }
+            compiled = parse(template);
+            ParameterTemplate existing = sCache.putIfAbsent(template, compiled);
+            if (existing != null) {
+                compiled = existing;
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Parse a template string into segments.
+     *
+     * @param template Template string.
+     * @return Parsed template.
+     */
+    private static ParameterTemplate parse(String template) {
+
+        List<String> segments = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        int segmentStart = 0;
+        int searchFrom = 0;
+        int markerStart;
+        while ((markerStart = template.indexOf(MARKER, searchFrom)) >= 0) {
+            int end = matchInjectionPoint(template, markerStart);
+            if (end < 0) {
+                // Not an injection point, keep looking after this marker character.
+                searchFrom = markerStart + 1;
+                continue;
+            }
+            int digitsStart = markerStart + MARKER.length() + WORD.length();
+            int digitsEnd = end - MARKER.length();
+            segments.add(template.substring(segmentStart, markerStart));
+            indexes.add(Integer.parseInt(template.substring(digitsStart, digitsEnd)));
+            segmentStart = end;
+            searchFrom = end;
+        }
+        segments.add(template.substring(segmentStart));
+
+        int[] parameterIndexes = new int[indexes.size()];
+        for (int i = 0; i < parameterIndexes.length; i++) {
+            parameterIndexes[i] = indexes.get(i);
+        }
+        return new ParameterTemplate(segments.toArray(new String[segments.size()]),
+                                     parameterIndexes);
+    }
+
+    /**
+     * Check if an injection point starts at the given position.
+     *
+     * @param template Template string.
+     * @param start    Position of the start marker.
+     * @return Position right after the end marker, or -1 if there is no injection point.
+     */
+    private static int matchInjectionPoint(String template, int start) {
+
+        int pos = start + MARKER.length();
+        if (!template.startsWith(WORD, pos)) {
+            return -1;
+        }
+        pos += WORD.length();
+        int digitsStart = pos;
+        // Cap the digit count so the index always fits in an int.
+        while (pos < template.length() && pos - digitsStart < 9 &&
+                Character.isDigit(template.charAt(pos)) && template.charAt(pos) < 128) {
+            pos++;
+        }
+        if (pos == digitsStart || !template.startsWith(MARKER, pos)) {
+            return -1;
+        }
+        return pos + MARKER.length();
+    }
+
+    /**
+     * Check if a string contains at least one injection point.
+     *
+     * @param string String to check.
+     * @return True if an injection point is found.
+     */
+    public static boolean containsParameters(String string) {
+
+        if (string == null) {
+            return false;
+        }
+        int markerStart = string.indexOf(MARKER);
+        while (markerStart >= 0) {
+            if (matchInjectionPoint(string, markerStart) >= 0) {
+                return true;
+            }
+            markerStart = string.indexOf(MARKER, markerStart + 1);
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of injection points in the template.
+     *
+     * @return Injection point count.
+     */
+    public int getParameterCount() {
+
+        return mParameterIndexes.length;
+    }
+
+    /**
+     * Render the template with the given parameters.
+     *
+     * @param pars Parameters, par0 is the first item of the array.
+     * @return Rendered string.
+     * @throws PathHelper.MalformedInjectionStringException If an injection point refers to a
+     *                                                      parameter that was not given.
+     */
+    public String render(String[] pars) throws PathHelper.MalformedInjectionStringException {
+
+        if (mParameterIndexes.length == 0) {
+            return mSegments[0];
+        }
+
+        int length = mLiteralLength;
+        for (int index : mParameterIndexes) {
+            if (index >= pars.length) {
+                throw new PathHelper.MalformedInjectionStringException(
+                        PathHelper.MalformedInjectionStringException.message +
+                                "Couldn't inject parameter at index: " + index,
+                        new ArrayIndexOutOfBoundsException(index));
+            }
+            length += pars[index] == null ? 4 : pars[index].length();
+        }
+
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < mParameterIndexes.length; i++) {
+            builder.append(mSegments[i]).append(pars[mParameterIndexes[i]]);
+        }
+        builder.append(mSegments[mSegments.length - 1]);
+        return builder.toString();
+    }
+}
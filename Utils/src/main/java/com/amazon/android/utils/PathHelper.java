@@ -14,12 +14,7 @@
  */
 package com.amazon.android.utils;
 
-import android.util.Log;
-
-import java.security.InvalidParameterException;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * This class helps with String and Map manipulations. This class contains one
@@ -28,27 +23,13 @@ import java.util.regex.Pattern;
  */
 public class PathHelper {
 
-    private static final String TAG = PathHelper.class.getSimpleName();
-    /*
-     * The regex prefix with escape values.
-     */
-    private static final String REGEX_PREFIX_ESCAPE = "\\$\\$";
-    /*
-     * The regex prefix value.
-     */
-    private static final String REGEX_PREFIX = "$$";
-    /*
-     * The regex for matching a digit with escape value.
-     */
-    private static final String REGEX_INT_ESCAPE = "\\d";
-    /*
-     * The word to search for in the regex.
-     */
-    private static final String REGEX_WORD = "par";
     /**
      * The maximum number of values that the pars array of {@link PathHelper#injectParameters
-     * (String, String[])} will support.
+     * (String, String[])} used to support.
+     *
+     * @deprecated Parameter injection no longer has a limit on the number of parameters.
      */
+    @Deprecated
     public static final int MAX_PARS = 10;
 
     /**
@@ -63,10 +44,8 @@ public class PathHelper {
      * <p>
      * The number found in the pattern corresponds to the string found at
      * that index in the pars array, so par0 equals the first item
-     * in the array. With this pattern, only 10 parameters are supported at a time: par0 - par9.
-     * <p>
-     * If there are more parameters in the pars array than supported an InvalidParameterException
-     * is throw.
+     * in the array. Any number of parameters is supported, e.g. $$par12$$. The data string is
+     * parsed once into a {@link ParameterTemplate} which is reused for later calls.
      * <p>
      * Example:
      * data: "Hello$$par0$$GoodBye$$par1$$"
@@ -85,47 +64,7 @@ public class PathHelper {
             return null;
         }
 
-        // Only support max parameters.
-        if (pars.length > MAX_PARS) {
-            Log.e(TAG, "Too many strings in pars. Method supports only 10.");
-            throw new InvalidParameterException("too many strings in pars. Method ony supports 10" +
-                                                        " but " + pars.length + " were passed in.");
-        }
-
-        // Build the regex that will support max parameters
-        String regex = buildParameterMatchingRegex();
-
-        // Indexing into the pattern to reach start of parameter number. This will be the prefix
-        // without the escape characters and the word that the regex includes.
-        int parIndexStart = REGEX_PREFIX.length() + REGEX_WORD.length();
-
-        // Indexing into the pattern to reach end of the parameter number which will be single
-        // digit.
-        int parIndexEnd = parIndexStart + 1;
-
-        StringBuffer stringBuffer = new StringBuffer(data.length());
-        Pattern pattern = Pattern.compile(regex);
-        Matcher matcher = pattern.matcher(data);
-        int i = 0;
-        while (matcher.find()) {
-            String par = matcher.group(i);
-
-            int parIndex = Integer.valueOf(par.substring(parIndexStart, parIndexEnd));
-
-            try {
-                par = pars[parIndex];
-                matcher.appendReplacement(stringBuffer, Matcher.quoteReplacement(par));
-            }
-            catch (ArrayIndexOutOfBoundsException e) {
-                Log.e(TAG, "Couldn't inject parameter at index: " + parIndex, e);
-                throw new MalformedInjectionStringException(MalformedInjectionStringException
-                                                                    .message + "Couldn't inject " +
-                                                                    "parameter at index: " +
-                                                                    parIndex, e);
-            }
-        }
-        matcher.appendTail(stringBuffer);
-        return stringBuffer.toString();
+        return ParameterTemplate.compile(data).render(pars);
     }
 
     /**
@@ -186,36 +125,7 @@ public class PathHelper {
             return null;
         }
 
-        String[] keys = path.split(PATH_SEPARATOR);
-
-        // Traverse into the map using each key that was a part of the path.
-        for (String key : keys) {
-            Map<String, Object> next;
-            try {
-                // Try to get the next map using the current key
-                //noinspection unchecked
-                next = (Map<String, Object>) map.get(key);
-            }
-            // If using the current key did not retrieve a map object, we are done traversing the
-            // map.
-            catch (ClassCastException e) {
-                // Signifies we are done traversing the map.
-                next = null;
-            }
-
-            // If we are done traversing the map leave the loop because we have found the value
-            // or can't traverse any further down the path.
-            if (next == null) {
-                break;
-            }
-
-            // Set the map to the current map we just found using the key so we can traverse
-            // deeper down the path.
-            map = next;
-        }
-
-        // Using the last map found and the last key provided in the path, return the value.
-        return map;
+        return CompiledPath.compile(path).getMap(map);
     }
 
     /**
@@ -228,15 +138,11 @@ public class PathHelper {
      * @return The value that is associated with the key that the path leads to, or null.
      */
     public static Object getValueByPath(Map<String, Object> map, String path) {
-        // Get the right map by using the path.
-        map = getMapByPath(map, path);
-
-        // Return null if map is null.
-        if (map == null) {
+        if (map == null || path == null) {
             return null;
         }
-        // Return key value.
-        return map.get(getKeyFromPath(path));
+
+        return CompiledPath.compile(path).getValue(map);
     }
 
     /**
@@ -247,21 +153,7 @@ public class PathHelper {
      */
     public static boolean containsParameterMatchingRegex(String string) {
 
-        if (string == null) {
-            return false;
-        }
-        Pattern pattern = Pattern.compile(buildParameterMatchingRegex());
-        Matcher matcher = pattern.matcher(string);
-        return matcher.find();
-    }
-
-    /*
-     * Builds the regex pattern to use for injecting parameter strings into other strings.
-     * $$par#$$
-     */
-    private static String buildParameterMatchingRegex() {
-
-        return REGEX_PREFIX_ESCAPE + REGEX_WORD + REGEX_INT_ESCAPE + REGEX_PREFIX_ESCAPE;
+        return ParameterTemplate.containsParameters(string);
     }
 
     /**
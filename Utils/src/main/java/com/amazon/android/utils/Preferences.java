@@ -14,21 +14,75 @@
  */
 package com.amazon.android.utils;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.content.res.Configuration;
+import android.os.Handler;
+import android.os.Looper;
 import android.preference.PreferenceManager;
 
+import java.util.HashMap;
+import java.util.Map;
+
 
 /**
  * Preferences helper class.
+ * <p>
+ * The default shared preferences are looked up once. Values set through this class are kept in
+ * an in-memory view of pending writes, which reads go through first, and are written together with
+ * a single {@link SharedPreferences.Editor#apply()} shortly after the last set. Pending writes are
+ * also flushed when the app goes to the background.
  */
 public class Preferences {
 
+    /**
+     * Delay in milliseconds between a set and the flush of the pending writes, so sets made in a
+     * tight sequence are written together.
+     */
+    static final long FLUSH_DELAY_MS = 200;
+
     /**
      * Context.
      */
     private static Context sContext;
 
+    /**
+     * Cached shared preferences handle.
+     */
+    private static SharedPreferences sPreferences;
+
+    /**
+     * Values set but not yet written to the shared preferences, guarded by {@link #sLock}.
+     */
+    private static final Map<String, Object> sPendingWrites = new HashMap<>();
+
+    /**
+     * Lock guarding the pending writes and the preferences handle.
+     */
+    private static final Object sLock = new Object();
+
+    /**
+     * True if a flush of the pending writes is scheduled.
+     */
+    private static boolean sFlushScheduled;
+
+    /**
+     * Handler the flushes are scheduled on.
+     */
+    private static Handler sHandler;
+
+    /**
+     * Flushes the pending writes.
+     */
+    private static final Runnable sFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+
+            flush();
+        }
+    };
+
     /**
      * Set context.
      *
@@ -38,6 +92,7 @@ public class Preferences {
 
         if (sContext == null) {
             sContext = context;
+            registerBackgroundFlush(context);
         }
     }
 
@@ -49,11 +104,7 @@ public class Preferences {
      */
     public static void setString(String key, String value) {
 
-        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(sContext);
-        SharedPreferences.Editor editor = prefs.edit();
-
-        editor.putString(key, value);
-        editor.apply();
+        putPending(key, value);
     }
 
     /**
@@ -64,11 +115,7 @@ public class Preferences {
      */
     public static void setBoolean(String key, boolean value) {
 
-        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(sContext);
-        SharedPreferences.Editor editor = prefs.edit();
-
-        editor.putBoolean(key, value);
-        editor.apply();
+        putPending(key, value);
     }
 
     /**
@@ -79,11 +126,7 @@ public class Preferences {
      */
     public static void setLong(String key, long value) {
 
-        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(sContext);
-        SharedPreferences.Editor editor = prefs.edit();
-
-        editor.putLong(key, value);
-        editor.apply();
+        putPending(key, value);
     }
 
     /**
@@ -94,8 +137,14 @@ public class Preferences {
      */
     public static String getString(String key) {
 
-        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(sContext);
-        return prefs.getString(key, "");
+        synchronized (sLock) {
+            if (sPendingWrites.containsKey(key)) {
+                // A null string removes the preference, so it reads back as the default.
+                String value = (String) sPendingWrites.get(key);
+                return value != null ? value : "";
+            }
+            return getPreferences().getString(key, "");
+        }
     }
 
     /**
@@ -106,8 +155,12 @@ public class Preferences {
      */
     public static boolean getBoolean(String key) {
 
-        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(sContext);
-        return prefs.getBoolean(key, false);
+        synchronized (sLock) {
+            if (sPendingWrites.containsKey(key)) {
+                return (Boolean) sPendingWrites.get(key);
+            }
+            return getPreferences().getBoolean(key, false);
+        }
     }
 
     /**
@@ -118,8 +171,12 @@ public class Preferences {
      */
     public static long getLong(String key) {
 
-        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(sContext);
-        return prefs.getLong(key, 0);
+        synchronized (sLock) {
+            if (sPendingWrites.containsKey(key)) {
+                return (Long) sPendingWrites.get(key);
+            }
+            return getPreferences().getLong(key, 0);
+        }
     }
 
     /**
@@ -130,7 +187,152 @@ public class Preferences {
      */
     public static boolean containsPreference(String key) {
 
-        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(sContext);
-        return prefs.contains(key);
+        synchronized (sLock) {
+            if (sPendingWrites.containsKey(key)) {
+                return sPendingWrites.get(key) != null;
+            }
+            return getPreferences().contains(key);
+        }
+    }
+
+    /**
+     * Write all pending values to the shared preferences with a single asynchronous
+     * {@link SharedPreferences.Editor#apply()}.
+     */
+    public static void flush() {
+
+        synchronized (sLock) {
+            SharedPreferences.Editor editor = drainPendingWrites();
+            if (editor != null) {
+                editor.apply();
+            }
+        }
+    }
+
+    /**
+     * Write all pending values to the shared preferences and wait for them to reach the disk. Use
+     * this before the process is about to be killed.
+     *
+     * @return True if the values were successfully written; false otherwise.
+     */
+    public static boolean flushNow() {
+
+        synchronized (sLock) {
+            SharedPreferences.Editor editor = drainPendingWrites();
+            return editor == null || editor.commit();
+        }
+    }
+
+    /**
+     * Set the shared preferences handle, visible for tests.
+     *
+     * @param preferences Shared preferences to use.
+     */
+    static void setSharedPreferences(SharedPreferences preferences) {
+
+        synchronized (sLock) {
+            sPreferences = preferences;
+            sPendingWrites.clear();
+            sFlushScheduled = false;
+        }
+    }
+
+    /**
+     * Get the cached shared preferences handle, looking it up on first use. Must be called
+     * holding {@link #sLock}.
+     *
+     * @return The shared preferences.
+     */
+    private static SharedPreferences getPreferences() {
+
+        if (sPreferences == null) {
+            sPreferences = PreferenceManager.getDefaultSharedPreferences(sContext);
+        }
+        return sPreferences;
+    }
+
+    /**
+     * Store a value in the pending writes and schedule a flush if none is scheduled.
+     *
+     * @param key   Key value.
+     * @param value Value.
+     */
+    private static void putPending(String key, Object value) {
+
+        synchronized (sLock) {
+            sPendingWrites.put(key, value);
+            if (!sFlushScheduled) {
+                if (sHandler == null) {
+                    sHandler = new Handler(Looper.getMainLooper());
+                }
+                sFlushScheduled = sHandler.postDelayed(sFlushRunnable, FLUSH_DELAY_MS);
+            }
+        }
+    }
+
+    /**
+     * Move the pending writes to a new editor. Must be called holding {@link #sLock}.
+     *
+     * @return The editor with the pending writes, or null if there was nothing to write.
+     */
+    private static SharedPreferences.Editor drainPendingWrites() {
+
+        if (sFlushScheduled && sHandler != null) {
+            sHandler.removeCallbacks(sFlushRunnable);
+        }
+        sFlushScheduled = false;
+        if (sPendingWrites.isEmpty()) {
+            return null;
+        }
+
+        SharedPreferences.Editor editor = getPreferences().edit();
+        for (Map.Entry<String, Object> entry : sPendingWrites.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Boolean) {
+                editor.putBoolean(entry.getKey(), (Boolean) value);
+            }
+            else if (value instanceof Long) {
+                editor.putLong(entry.getKey(), (Long) value);
+            }
+            else {
+                editor.putString(entry.getKey(), (String) value);
+            }
+        }
+        sPendingWrites.clear();
+        return editor;
+    }
+
+    /**
+     * Flush the pending writes when the app's UI is hidden, i.e. when the app goes to the
+     * background.
+     *
+     * @param context Context used to reach the application.
+     */
+    private static void registerBackgroundFlush(Context context) {
+
+        Context appContext = context.getApplicationContext();
+        if (appContext == null) {
+            return;
+        }
+        appContext.registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+
+                if (level >= TRIM_MEMORY_UI_HIDDEN) {
+                    flush();
+                }
+            }
+
+            @Override
+            public void onConfigurationChanged(Configuration newConfig) {
+
+            }
+
+            @Override
+            public void onLowMemory() {
+
+                flush();
+            }
+        });
     }
 }
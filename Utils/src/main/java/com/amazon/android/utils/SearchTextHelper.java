@@ -0,0 +1,171 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.utils;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Helper for building the normalized form of text used by the non-indexed search. The normalized
+ * form is lowercased, accent-folded and has its whitespace runs collapsed to a single space and
+ * trimmed, so "  Caf&eacute;   Society" and "cafe society" compare equal.
+ */
+public class SearchTextHelper {
+
+    /**
+     * Last normalized query of each thread. A type-ahead search compares the same query against
+     * every content, so this turns the per-comparison query normalization into a lookup.
+     */
+    private static final ThreadLocal<NormalizedText> sLastQuery = new ThreadLocal<>();
+
+    /**
+     * Immutable pair of a source string and its normalized form. Holding both in one object lets
+     * callers publish the pair with a single reference write.
+     */
+    public static class NormalizedText {
+
+        /**
+         * The string the normalized form was built from.
+         */
+        private final String mSource;
+
+        /**
+         * Locale used for lowercasing.
+         */
+        private final Locale mLocale;
+
+        /**
+         * Normalized form of the source string.
+         */
+        private final String mNormalized;
+
+        /**
+         * Constructor.
+         *
+         * @param source Source string.
+         * @param locale Locale used for lowercasing.
+         */
+        public NormalizedText(String source, Locale locale) {
+
+            mSource = source;
+            mLocale = locale;
+            mNormalized = normalize(source, locale);
+        }
+
+        /**
+         * Check if this was built from the given string and locale. Strings are compared by
+         * identity first, so the check is free for the common case of an unchanged field.
+         *
+         * @param source Source string.
+         * @param locale Locale used for lowercasing.
+         * @return True if the normalized form is still valid for the given input.
+         */
+        public boolean isFor(String source, Locale locale) {
+
+            return (mSource == source || (mSource != null && mSource.equals(source))) &&
+                    (mLocale == locale || (mLocale != null && mLocale.equals(locale)));
+        }
+
+        /**
+         * Get the normalized form.
+         *
+         * @return Normalized string, null if the source was null.
+         */
+        public String getNormalized() {
+
+            return mNormalized;
+        }
+    }
+
+    /**
+     * Normalize text for searching: lowercase it with the given locale, remove accents and
+     * collapse whitespace. Text that is already normalized is returned as is.
+     *
+     * @param text   Text to normalize.
+     * @param locale Locale used for lowercasing, the default locale if null.
+     * @return Normalized text, or null if the text was null.
+     */
+    public static String normalize(String text, Locale locale) {
+
+        if (text == null) {
+            return null;
+        }
+        if (isNormalized(text)) {
+            return text;
+        }
+
+        String lower = text.toLowerCase(locale != null ? locale : Locale.getDefault());
+        String decomposed = Normalizer.normalize(lower, Normalizer.Form.NFD);
+
+        StringBuilder builder = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                pendingSpace = builder.length() > 0;
+            }
+            else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                if (pendingSpace) {
+                    builder.append(' ');
+                    pendingSpace = false;
+                }
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Get the normalized form of a search query, reusing the result of the previous call on this
+     * thread when the query and locale did not change.
+     *
+     * @param query  Query to normalize.
+     * @param locale Locale used for lowercasing.
+     * @return Normalized query, or null if the query was null.
+     */
+    public static String normalizeQuery(String query, Locale locale) {
+
+        NormalizedText last = sLastQuery.get();
+        if (last == null || !last.isFor(query, locale)) {
+            last = new NormalizedText(query, locale);
+            sLastQuery.set(last);
+        }
+        return last.getNormalized();
+    }
+
+    /**
+     * Check if text is already in normalized form, meaning it only contains lowercase ASCII
+     * letters, digits, punctuation and single inner spaces.
+     *
+     * @param text Text to check.
+     * @return True if normalizing would return an equal string.
+     */
+    private static boolean isNormalized(String text) {
+
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == ' ') {
+                if (i == 0 || i == length - 1 || text.charAt(i - 1) == ' ') {
+                    return false;
+                }
+            }
+            else if (c < 0x21 || c > 0x7e || (c >= 'A' && c <= 'Z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
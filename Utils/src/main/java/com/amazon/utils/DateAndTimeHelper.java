@@ -20,6 +20,9 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 /**
  * Utility for Data and time helpers
@@ -28,6 +31,95 @@ public class DateAndTimeHelper {
 
     public static final String TAG = DateAndTimeHelper.class.getSimpleName();
 
+    /**
+     * Date format used to parse "HH:mm:ss.SSS" times.
+     */
+    private static final String DATE_FORMAT_WITH_MILLIS = "yyyy-MM-dd HH:mm:ss.SSS";
+
+    /**
+     * Date format used to parse "HH:mm:ss" times.
+     */
+    private static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+    /**
+     * Date prefix the times are parsed on.
+     */
+    private static final String EPOCH_DATE = "1970-01-01 ";
+
+    /**
+     * Epoch date and time, used as the origin of the parsed times.
+     */
+    private static final String EPOCH_DATE_TIME = EPOCH_DATE + "00:00:00.000";
+
+    /**
+     * Pattern of "HH:mm:ss.SSS" times. Note that the separator before the milliseconds matches
+     * any character, which the date format then rejects if it is not a '.'.
+     */
+    private static final Pattern TIME_WITH_MILLIS_PATTERN =
+            Pattern.compile("\\d+:\\d{2}:\\d{2}.\\d{3}");
+
+    /**
+     * Pattern of "HH:mm:ss" times.
+     */
+    private static final Pattern TIME_PATTERN = Pattern.compile("\\d+:\\d{2}:\\d{2}");
+
+    /**
+     * Maximum number of hour digits handled by the hand-written time parser; longer hours may
+     * overflow the calendar fields so they are left to the date format.
+     */
+    private static final int MAX_FAST_HOUR_DIGITS = 9;
+
+    /**
+     * Returned by {@link #parseTimeMillis(String)} when the string is not a time.
+     */
+    private static final long NOT_A_TIME = -1;
+
+    /**
+     * Returned by {@link #parseTimeMillis(String)} when the string is a time that the
+     * hand-written parser does not handle.
+     */
+    private static final long UNSUPPORTED_TIME = -2;
+
+    /**
+     * Registry of date formats by pattern. Each pattern has one formatter per thread since
+     * {@link SimpleDateFormat} is not thread safe.
+     */
+    private static final ConcurrentHashMap<String, ThreadLocal<SimpleDateFormat>> sDateFormats =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Epoch origin of the parsed times for the last seen default time zone.
+     */
+    private static volatile EpochOrigin sEpochOrigin;
+
+    /**
+     * Local midnight of the epoch date in a time zone.
+     */
+    private static class EpochOrigin {
+
+        /**
+         * Time zone id.
+         */
+        final String zoneId;
+
+        /**
+         * Milliseconds since the epoch of 1970-01-01 00:00:00.000 in the time zone.
+         */
+        final long millis;
+
+        /**
+         * Constructor.
+         *
+         * @param zoneId Time zone id.
+         * @param millis Milliseconds since the epoch of local midnight.
+         */
+        EpochOrigin(String zoneId, long millis) {
+
+            this.zoneId = zoneId;
+            this.millis = millis;
+        }
+    }
+
     /**
      * Returns current date.
      *
@@ -65,6 +157,71 @@ public class DateAndTimeHelper {
         return oldDate == null || oldDate.before(newDate);
     }
 
+    /**
+     * Get the calling thread's date format for a pattern. The pattern is compiled once per thread
+     * and the returned formatter must not be shared with other threads. Its time zone is the
+     * default time zone at creation time, callers that depend on the current default time zone
+     * should set it before use.
+     *
+     * @param pattern Date format pattern.
+     * @return Date format for the pattern.
+     */
+    public static SimpleDateFormat getDateFormat(final String pattern) {
+
+        ThreadLocal<SimpleDateFormat> formats = sDateFormats.get(pattern);
+        if (formats == null) {
+            formats = new ThreadLocal<SimpleDateFormat>() {
+                @Override
+                protected SimpleDateFormat initialValue() {
+
+                    return new SimpleDateFormat(pattern);
+                }
+            };
+            ThreadLocal<SimpleDateFormat> existing = sDateFormats.putIfAbsent(pattern, formats);
+            if (existing != null) {
+                formats = existing;
+            }
+        }
+        return formats.get();
+    }
+
+    /**
+     * Check if a string is a time with the format "HH:mm:ss.SSS" or "HH:mm:ss".
+     *
+     * @param time String to check.
+     * @return True if the string is a time; false otherwise.
+     */
+    public static boolean isTimeFormat(String time) {
+
+        return time != null && parseTimeMillis(time) != NOT_A_TIME;
+    }
+
+    /**
+     * Parse a percentage with the format "0%" to "999%".
+     *
+     * @param percentage Percentage to parse.
+     * @return The percentage value, or -1 if the string is not a percentage.
+     */
+    public static int parsePercentage(String percentage) {
+
+        if (percentage == null) {
+            return -1;
+        }
+        int length = percentage.length();
+        if (length < 2 || length > 4 || percentage.charAt(length - 1) != '%') {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < length - 1; i++) {
+            int digit = digitAt(percentage, i);
+            if (digit < 0) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
     /**
      * Convert a simple date time with the format "HH:mm:ss.SSS" or "HH:mm:ss" to seconds.
      *
@@ -77,31 +234,177 @@ public class DateAndTimeHelper {
             return -1;
         }
 
+        long timeMillis = parseTimeMillis(timeToConvert);
+        if (timeMillis == NOT_A_TIME) {
+            logInvalidFormat();
+            return -1;
+        }
+
+        TimeZone zone = TimeZone.getDefault();
+        if (timeMillis != UNSUPPORTED_TIME) {
+            long origin = getEpochOrigin(zone);
+            if (origin != UNSUPPORTED_TIME) {
+                long date = origin + timeMillis;
+                // The times are parsed as dates, so a time zone offset change between the origin
+                // and the date shifts the result; leave those rare cases to the date format.
+                if (zone.getOffset(date) == zone.getOffset(origin)) {
+                    return (date / 1000) - (double) (origin / 1000);
+                }
+            }
+        }
+        return convertWithDateFormat(timeToConvert, zone);
+    }
+
+    /**
+     * Convert a time to seconds by parsing it as a date on the epoch date, which is how the
+     * conversion was always defined.
+     *
+     * @param timeToConvert Time to convert.
+     * @param zone          Time zone to parse in.
+     * @return The converted time in seconds, or -1 if the time is not valid.
+     */
+    private static double convertWithDateFormat(String timeToConvert, TimeZone zone) {
+
         try {
             SimpleDateFormat sdf;
 
-            if (timeToConvert.matches("\\d+:\\d{2}:\\d{2}.\\d{3}")) {
-                sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+            if (TIME_WITH_MILLIS_PATTERN.matcher(timeToConvert).matches()) {
+                sdf = getDateFormat(DATE_FORMAT_WITH_MILLIS);
             }
-            else if (timeToConvert.matches("\\d+:\\d{2}:\\d{2}")) {
-                sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+            else if (TIME_PATTERN.matcher(timeToConvert).matches()) {
+                sdf = getDateFormat(DATE_FORMAT);
             }
             else {
                 throw new ParseException("Time format does not match expected.", 0);
             }
+            sdf.setTimeZone(zone);
 
-            double time1 = sdf.parse("1970-01-01 00:00:00.000").getTime() / 1000;
+            double time1 = sdf.parse(EPOCH_DATE_TIME).getTime() / 1000;
 
             // if not valid, it will throw ParseException
-            Date date = sdf.parse("1970-01-01 " + timeToConvert);
+            Date date = sdf.parse(EPOCH_DATE + timeToConvert);
             return (date.getTime() / 1000) - time1;
 
         }
         catch (ParseException e) {
-            Log.e(TAG, "Date to convert is not of a valid date format. Expecting \"HH:mm:ss.SSS\"" +
-                    "or \"HH:mm:ss\"");
-
+            logInvalidFormat();
             return -1;
         }
     }
+
+    /**
+     * Get the milliseconds since the epoch of 1970-01-01 00:00:00.000 in a time zone, parsed once
+     * per time zone.
+     *
+     * @param zone Time zone.
+     * @return The epoch origin, or {@link #UNSUPPORTED_TIME} if it could not be parsed.
+     */
+    private static long getEpochOrigin(TimeZone zone) {
+
+        EpochOrigin origin = sEpochOrigin;
+        if (origin == null || !origin.zoneId.equals(zone.getID())) {
+            SimpleDateFormat sdf = getDateFormat(DATE_FORMAT_WITH_MILLIS);
+            sdf.setTimeZone(zone);
+            try {
+                origin = new EpochOrigin(zone.getID(), sdf.parse(EPOCH_DATE_TIME).getTime());
+            }
+            catch (ParseException e) {
+                Log.e(TAG, "Could not parse the epoch date.", e);
+                return UNSUPPORTED_TIME;
+            }
+            sEpochOrigin = origin;
+        }
+        return origin.millis;
+    }
+
+    /**
+     * Hand-written parser for times with the format "HH:mm:ss.SSS" or "HH:mm:ss". Minutes and
+     * seconds are two digits but not range checked, matching the lenient date format.
+     *
+     * @param time Time to parse.
+     * @return The time in milliseconds, {@link #NOT_A_TIME} if the string is not a time or
+     * {@link #UNSUPPORTED_TIME} if the hours are too long to be handled here.
+     */
+    private static long parseTimeMillis(String time) {
+
+        int length = time.length();
+        int index = 0;
+        long hours = 0;
+        while (index < length && digitAt(time, index) >= 0) {
+            hours = index < MAX_FAST_HOUR_DIGITS ? hours * 10 + digitAt(time, index) : hours;
+            index++;
+        }
+        int hourDigits = index;
+
+        // The hours are followed by ":mm:ss" and optionally ".SSS".
+        if (hourDigits == 0 || (length != index + 6 && length != index + 10)) {
+            return NOT_A_TIME;
+        }
+        if (time.charAt(index) != ':' || time.charAt(index + 3) != ':') {
+            return NOT_A_TIME;
+        }
+        int minutes = parseDigits(time, index + 1, 2);
+        int seconds = parseDigits(time, index + 4, 2);
+        if (minutes < 0 || seconds < 0) {
+            return NOT_A_TIME;
+        }
+        int millis = 0;
+        if (length == index + 10) {
+            millis = parseDigits(time, index + 7, 3);
+            if (millis < 0) {
+                return NOT_A_TIME;
+            }
+            // Any separator matches the time pattern but only '.' is accepted by the date format.
+            if (time.charAt(index + 6) != '.') {
+                return NOT_A_TIME;
+            }
+        }
+        if (hourDigits > MAX_FAST_HOUR_DIGITS) {
+            return UNSUPPORTED_TIME;
+        }
+        return ((hours * 60 + minutes) * 60 + seconds) * 1000 + millis;
+    }
+
+    /**
+     * Parse a fixed number of decimal digits.
+     *
+     * @param value  String to parse.
+     * @param start  Index of the first digit.
+     * @param digits Number of digits.
+     * @return The parsed number, or -1 if a character is not a digit.
+     */
+    private static int parseDigits(String value, int start, int digits) {
+
+        int result = 0;
+        for (int i = start; i < start + digits; i++) {
+            int digit = digitAt(value, i);
+            if (digit < 0) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    /**
+     * Get the ASCII digit at an index.
+     *
+     * @param value String to read.
+     * @param index Index of the character.
+     * @return The digit value, or -1 if the character is not an ASCII digit.
+     */
+    private static int digitAt(String value, int index) {
+
+        char c = value.charAt(index);
+        return c >= '0' && c <= '9' ? c - '0' : -1;
+    }
+
+    /**
+     * Log that a time could not be converted.
+     */
+    private static void logInvalidFormat() {
+
+        Log.e(TAG, "Date to convert is not of a valid date format. Expecting \"HH:mm:ss.SSS\"" +
+                "or \"HH:mm:ss\"");
+    }
 }
@@ -14,20 +14,37 @@
  */
 package com.amazon.utils.ds;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
- * Undirected graph implementation which can hold any object with a name.
+ * Graph implementation which can hold any object with a name. Graphs are undirected by default;
+ * a directed graph can be created for dependency style relations where topological ordering is
+ * needed. Nodes are indexed by name so all lookups and edge insertions are constant time.
  */
 public class Graph {
 
     /**
-     * Node hash map.
+     * Node hash map, holds the outgoing connections of each node.
      */
     private final HashMap<Node, HashSet<Node>> mNodes = new HashMap<>();
 
+    /**
+     * Node name index.
+     */
+    private final HashMap<String, Node> mNodesByName = new HashMap<>();
+
+    /**
+     * True if connections are one way.
+     */
+    private final boolean mDirected;
+
     /**
      * Number of edges with in the graph.
      */
@@ -97,13 +114,25 @@ public class Graph {
     }
 
     /**
-     * Constructor with name.
+     * Constructor with name, creates an undirected graph.
      *
      * @param name Name of the graph.
      */
     public Graph(String name) {
 
+        this(name, false);
+    }
+
+    /**
+     * Constructor with name and direction.
+     *
+     * @param name     Name of the graph.
+     * @param directed True if connections should only go from the first node to the second.
+     */
+    public Graph(String name, boolean directed) {
+
         mName = name;
+        mDirected = directed;
     }
 
     /**
@@ -116,6 +145,16 @@ public class Graph {
         return mName;
     }
 
+    /**
+     * Check if the graph is directed.
+     *
+     * @return True if connections are one way.
+     */
+    public boolean isDirected() {
+
+        return mDirected;
+    }
+
     /**
      * Get node count.
      *
@@ -144,18 +183,7 @@ public class Graph {
      */
     public boolean hasNode(String name) {
 
-        if (name == null) {
-            return false;
-        }
-
-        // Traverse nodes.
-        for (Node node : mNodes.keySet()) {
-            // Check for a match.
-            if (node.getName().equals(name)) {
-                return true;
-            }
-        }
-        return false;
+        return name != null && mNodesByName.containsKey(name);
     }
 
     /**
@@ -173,6 +201,7 @@ public class Graph {
         if (!hasNode(node.getName())) {
             // Add node.
             mNodes.put(node, new HashSet<>());
+            mNodesByName.put(node.getName(), node);
         }
     }
 
@@ -187,52 +216,31 @@ public class Graph {
         if (name == null) {
             return null;
         }
-
-        // Traverse nodes.
-        for (Node node : mNodes.keySet()) {
-            // Check if there is a match.
-            if (node.getName().equals(name)) {
-                return node;
-            }
-        }
-        return null;
+        return mNodesByName.get(name);
     }
 
     /**
-     * Find out if two given nodes are connected.
+     * Find out if two given nodes are connected. For directed graphs this checks for a connection
+     * from the first node to the second.
      *
      * @param nodeName1 First node name.
      * @param nodeName2 Second node name.
      * @return True if connection exists between given nodes.
      */
     public boolean hasConnection(String nodeName1, String nodeName2) {
+
+        Node node1 = getNodeByName(nodeName1);
+        Node node2 = getNodeByName(nodeName2);
         // Check if nodes are in graph or not first.
-        if (!hasNode(nodeName1) || !hasNode(nodeName2)) {
+        if (node1 == null || node2 == null) {
             return false;
         }
-
-        // Traverse nodes.
-        for (Map.Entry<Node, HashSet<Node>> entry : mNodes.entrySet()) {
-            Node node = entry.getKey();
-            // Find first node first.
-            if (node.getName().equals(nodeName1)) {
-                // Traverse connections of first node.
-                for (Node subNode : entry.getValue()) {
-                    // Check if there is a match.
-                    if (subNode.getName().equals(nodeName2)) {
-                        return true;
-                    }
-                }
-                // Skip other nodes if we couldn't find connection.
-                return false;
-            }
-        }
-
-        return false;
+        return mNodes.get(node1).contains(node2);
     }
 
     /**
      * Add connection between two nodes, first add nodes if they are not already in the graph.
+     * For directed graphs the connection goes from the first node to the second.
      *
      * @param node1 First node reference.
      * @param node2 Second node reference.
@@ -244,8 +252,10 @@ public class Graph {
         }
 
         // Make sure we are not adding a different node object with same node name.
-        if ((hasNode(node1.getName()) && node1 != getNodeByName(node1.getName())) ||
-                (hasNode(node2.getName()) && node2 != getNodeByName(node2.getName()))) {
+        Node existing1 = getNodeByName(node1.getName());
+        Node existing2 = getNodeByName(node2.getName());
+        if ((existing1 != null && node1 != existing1) ||
+                (existing2 != null && node2 != existing2)) {
             throw new RuntimeException("Node(s) already exists!");
         }
 
@@ -254,12 +264,12 @@ public class Graph {
         // Add second node.
         addNode(node2);
 
-        // Check if they are already connected or not.
-        if (!hasConnection(node1.getName(), node2.getName())) {
-            // Connect first node to second.
-            mNodes.get(node1).add(node2);
-            // Connect second node to first.
-            mNodes.get(node2).add(node1);
+        // Connect first node to second, the set tells us if they were already connected.
+        if (mNodes.get(node1).add(node2)) {
+            if (!mDirected) {
+                // Connect second node to first.
+                mNodes.get(node2).add(node1);
+            }
             // Increment edge count.
             mEdgeCount++;
         }
@@ -276,18 +286,188 @@ public class Graph {
     }
 
     /**
-     * Get connections of a node.
+     * Get connections of a node. For directed graphs these are the outgoing connections.
      *
      * @param name Name of the node.
      * @return HashSet for node's connections.
      */
     public HashSet<Node> getConnectionsOfANode(String name) {
 
-        if (name == null || getNodeByName(name) == null) {
+        Node node = getNodeByName(name);
+        if (node == null) {
+            return null;
+        }
+
+        return mNodes.get(node);
+    }
+
+    /**
+     * Check if the second node can be reached from the first one by following connections. In a
+     * directed graph connections are only followed from their first node to their second, in an
+     * undirected graph they are followed both ways.
+     *
+     * @param fromName Name of the start node.
+     * @param toName   Name of the target node.
+     * @return True if there is a path, a node is always reachable from itself.
+     */
+    public boolean isReachable(String fromName, String toName) {
+
+        Node from = getNodeByName(fromName);
+        Node to = getNodeByName(toName);
+        if (from == null || to == null) {
+            return false;
+        }
+        if (from == to) {
+            return true;
+        }
+
+        Set<Node> visited = new HashSet<>();
+        Deque<Node> queue = new ArrayDeque<>();
+        visited.add(from);
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            for (Node next : mNodes.get(queue.poll())) {
+                if (next == to) {
+                    return true;
+                }
+                if (visited.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get all nodes reachable from the given node. Connections are followed the same way as by
+     * {@link #isReachable(String, String)}. In a directed graph the node itself is included only
+     * if it is part of a cycle; in an undirected graph it is never included, since every
+     * connection leads back to it.
+     *
+     * @param name Name of the start node.
+     * @return Set of reachable nodes, null if the node does not exist.
+     */
+    public Set<Node> getReachableNodes(String name) {
+
+        Node start = getNodeByName(name);
+        if (start == null) {
             return null;
         }
 
-        return mNodes.get(getNodeByName(name));
+        Set<Node> reachable = new HashSet<>();
+        Deque<Node> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            for (Node next : mNodes.get(queue.poll())) {
+                if (reachable.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        if (!mDirected) {
+            reachable.remove(start);
+        }
+        return reachable;
+    }
+
+    /**
+     * Check if the graph contains a cycle. For undirected graphs a single connection between two
+     * nodes does not count as a cycle.
+     *
+     * @return True if there is a cycle.
+     */
+    public boolean hasCycle() {
+
+        if (!mDirected) {
+            // A forest has exactly (nodes - components) edges, anything more closes a cycle.
+            return mEdgeCount > mNodes.size() - countComponents();
+        }
+        return topologicalSortOrNull() == null;
+    }
+
+    /**
+     * Sort the nodes of a directed graph so that every node comes before the nodes it is
+     * connected to.
+     *
+     * @return List of nodes in topological order.
+     * @throws IllegalStateException If the graph is undirected or has a cycle.
+     */
+    public List<Node> topologicalSort() {
+
+        if (!mDirected) {
+            throw new IllegalStateException("Topological sort requires a directed graph!");
+        }
+        List<Node> sorted = topologicalSortOrNull();
+        if (sorted == null) {
+            throw new IllegalStateException("Graph " + mName + " has a cycle!");
+        }
+        return sorted;
+    }
+
+    /**
+     * Kahn's algorithm over the adjacency map.
+     *
+     * @return Sorted nodes or null if a cycle prevents a complete ordering.
+     */
+    private List<Node> topologicalSortOrNull() {
+
+        Map<Node, Integer> inDegrees = new HashMap<>(mNodes.size() * 2);
+        for (Node node : mNodes.keySet()) {
+            inDegrees.put(node, 0);
+        }
+        for (HashSet<Node> connections : mNodes.values()) {
+            for (Node node : connections) {
+                inDegrees.put(node, inDegrees.get(node) + 1);
+            }
+        }
+
+        Deque<Node> ready = new ArrayDeque<>();
+        for (Map.Entry<Node, Integer> entry : inDegrees.entrySet()) {
+            if (entry.getValue() == 0) {
+                ready.add(entry.getKey());
+            }
+        }
+
+        List<Node> sorted = new ArrayList<>(mNodes.size());
+        while (!ready.isEmpty()) {
+            Node node = ready.poll();
+            sorted.add(node);
+            for (Node next : mNodes.get(node)) {
+                int inDegree = inDegrees.get(next) - 1;
+                inDegrees.put(next, inDegree);
+                if (inDegree == 0) {
+                    ready.add(next);
+                }
+            }
+        }
+        return sorted.size() == mNodes.size() ? sorted : null;
+    }
+
+    /**
+     * Count connected components of an undirected graph.
+     *
+     * @return Number of components.
+     */
+    private int countComponents() {
+
+        Set<Node> visited = new HashSet<>();
+        Deque<Node> queue = new ArrayDeque<>();
+        int components = 0;
+        for (Node start : mNodes.keySet()) {
+            if (!visited.add(start)) {
+                continue;
+            }
+            components++;
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                for (Node next : mNodes.get(queue.poll())) {
+                    if (visited.add(next)) {
+                        queue.add(next);
+                    }
+                }
+            }
+        }
+        return components;
     }
 
     /**
@@ -323,4 +503,3 @@ public class Graph {
         return sb.toString();
     }
 }
-
@@ -16,12 +16,16 @@ package com.amazon.utils.security;
 
 import com.amazon.android.utils.Helpers;
 
+import android.content.Context;
+
 import java.io.UnsupportedEncodingException;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.Key;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.AlgorithmParameterSpec;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
@@ -34,6 +38,9 @@ import javax.crypto.spec.SecretKeySpec;
  * Utility class to Obfuscate a resource. The stream is first encrypted using the cipher algorithm
  * declared in the class and is then base64 encoded. The secret key and initialization vector are
  * generated by the utility itself, user has to provide random strings for key and Iv.
+ * <p>
+ * The key material derived from a set of random strings is cached, each thread keeps its own
+ * initialized ciphers for it, and values unobfuscated from resources are memoized by resource id.
  */
 public class ResourceObfuscator {
 
@@ -42,20 +49,211 @@ public class ResourceObfuscator {
     private static final int IV_LENGTH = 16;
 
     /**
-     * Initializes the {@link Cipher}.
+     * Maximum number of cached key materials and memoized resources; the caches are cleared when
+     * they grow past it.
+     */
+    private static final int MAX_CACHE_SIZE = 64;
+
+    /**
+     * Cipher contexts by the random strings their key material was derived from.
+     */
+    private static final ConcurrentHashMap<KeyMaterialId, CipherContext> sCipherContexts =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Unobfuscated resources by resource id.
+     */
+    private static final ConcurrentHashMap<Integer, MemoizedResource> sMemoizedResources =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Identifies key material by the random strings used to derive it.
+     */
+    private static class KeyMaterialId {
+
+        /**
+         * Random strings used to generate the secret key.
+         */
+        private final String[] mRandomStringsForKey;
+
+        /**
+         * Random strings used to generate the Iv.
+         */
+        private final String[] mRandomStringsForIv;
+
+        /**
+         * Hash code of the random strings.
+         */
+        private final int mHashCode;
+
+        /**
+         * Constructor.
+         *
+         * @param randomStringsForKey Random strings used to generate the secret key.
+         * @param randomStringsForIv  Random strings used to generate the Iv.
+         */
+        KeyMaterialId(String[] randomStringsForKey, String[] randomStringsForIv) {
+
+            mRandomStringsForKey = randomStringsForKey.clone();
+            mRandomStringsForIv = randomStringsForIv.clone();
+            mHashCode = 31 * Arrays.hashCode(mRandomStringsForKey) +
+                    Arrays.hashCode(mRandomStringsForIv);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) return true;
+            if (!(o instanceof KeyMaterialId)) return false;
+
+            KeyMaterialId that = (KeyMaterialId) o;
+            return Arrays.equals(mRandomStringsForKey, that.mRandomStringsForKey) &&
+                    Arrays.equals(mRandomStringsForIv, that.mRandomStringsForIv);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return mHashCode;
+        }
+    }
+
+    /**
+     * Derived key material with the initialized ciphers of each thread.
+     */
+    private static class CipherContext {
+
+        /**
+         * The secret key.
+         */
+        private final Key mKey;
+
+        /**
+         * The Iv.
+         */
+        private final AlgorithmParameterSpec mIv;
+
+        /**
+         * Cipher initialized for encryption, per thread.
+         */
+        private final ThreadLocal<Cipher> mEncryptCipher = new ThreadLocal<>();
+
+        /**
+         * Cipher initialized for decryption, per thread.
+         */
+        private final ThreadLocal<Cipher> mDecryptCipher = new ThreadLocal<>();
+
+        /**
+         * Constructor.
+         *
+         * @param randomStringsForKey Random strings used to generate the secret key.
+         * @param randomStringsForIv  Random strings used to generate the Iv.
+         */
+        CipherContext(String[] randomStringsForKey, String[] randomStringsForIv) throws
+                UnsupportedEncodingException {
+
+            mKey = generateSecretKey(randomStringsForKey);
+            mIv = generateIv(randomStringsForIv);
+        }
+
+        /**
+         * Run the whole encryption or decryption of the input with the calling thread's cipher.
+         * A cipher returns to its initialized state after each operation so it can be reused; it
+         * is dropped if the operation fails.
+         *
+         * @param mode  {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}.
+         * @param input The input bytes.
+         * @return The output bytes.
+         */
+        byte[] doFinal(int mode, byte[] input) throws NoSuchAlgorithmException,
+                NoSuchPaddingException, InvalidKeyException, InvalidAlgorithmParameterException,
+                BadPaddingException, IllegalBlockSizeException {
+
+            ThreadLocal<Cipher> ciphers = mode == Cipher.ENCRYPT_MODE ? mEncryptCipher
+                                                                       : mDecryptCipher;
+            Cipher cipher = ciphers.get();
+            if (cipher == null) {
+                cipher = Cipher.getInstance(cipherAlgorithm);
+                cipher.init(mode, mKey, mIv);
+                ciphers.set(cipher);
+            }
+            try {
+                return cipher.doFinal(input);
+            }
+            catch (BadPaddingException | IllegalBlockSizeException | RuntimeException e) {
+                ciphers.remove();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * A resource unobfuscated with a cipher context.
+     */
+    private static class MemoizedResource {
+
+        /**
+         * The obfuscated resource value.
+         */
+        final String obfuscated;
+
+        /**
+         * The cipher context used to unobfuscate it.
+         */
+        final CipherContext cipherContext;
+
+        /**
+         * The unobfuscated value.
+         */
+        final String plain;
+
+        /**
+         * Constructor.
+         *
+         * @param obfuscated    The obfuscated resource value.
+         * @param cipherContext The cipher context used to unobfuscate it.
+         * @param plain         The unobfuscated value.
+         */
+        MemoizedResource(String obfuscated, CipherContext cipherContext, String plain) {
+
+            this.obfuscated = obfuscated;
+            this.cipherContext = cipherContext;
+            this.plain = plain;
+        }
+    }
+
+    /**
+     * Get the cipher context for a set of random strings, deriving the key material on first use.
      *
-     * @param mode                The mode.
      * @param randomStringsForKey The array of random strings used to generate secret key.
      * @param randomStringsForIv  The array of random strings used to generate Iv.
-     * @return The {@link Cipher}.
+     * @return The cipher context.
+     */
+    private static CipherContext getCipherContext(String[] randomStringsForKey, String[]
+            randomStringsForIv) throws UnsupportedEncodingException {
+
+        KeyMaterialId id = new KeyMaterialId(randomStringsForKey, randomStringsForIv);
+        CipherContext cipherContext = sCipherContexts.get(id);
+        if (cipherContext == null) {
+            cipherContext = new CipherContext(randomStringsForKey, randomStringsForIv);
+            if (sCipherContexts.size() >= MAX_CACHE_SIZE) {
+                sCipherContexts.clear();
+            }
+            CipherContext existing = sCipherContexts.putIfAbsent(id, cipherContext);
+            if (existing != null) {
+                cipherContext = existing;
+            }
+        }
+        return cipherContext;
+    }
+
+    /**
+     * Clear the cached key materials and memoized resources.
      */
-    private static Cipher initializeCipher(int mode, String[] randomStringsForKey, String[]
-            randomStringsForIv) throws NoSuchAlgorithmException, NoSuchPaddingException,
-            UnsupportedEncodingException, InvalidKeyException, InvalidAlgorithmParameterException {
+    public static void clearCache() {
 
-        Cipher cipher = Cipher.getInstance(cipherAlgorithm);
-        cipher.init(mode, generateSecretKey(randomStringsForKey), generateIv(randomStringsForIv));
-        return cipher;
+        sCipherContexts.clear();
+        sMemoizedResources.clear();
     }
 
     /**
@@ -71,10 +269,9 @@ public class ResourceObfuscator {
             NoSuchAlgorithmException, InvalidAlgorithmParameterException, NoSuchPaddingException,
             UnsupportedEncodingException, BadPaddingException, IllegalBlockSizeException {
 
-        Cipher cipher = initializeCipher(Cipher.ENCRYPT_MODE, randomStringsForKey,
-                                         randomStringsForIv);
         byte[] plainBytes = plainString.getBytes(Helpers.getDefaultAppCharset());
-        byte[] encrypted = cipher.doFinal(plainBytes);
+        byte[] encrypted = getCipherContext(randomStringsForKey, randomStringsForIv)
+                .doFinal(Cipher.ENCRYPT_MODE, plainBytes);
         return org.apache.commons.codec.binary.Base64.encodeBase64String(encrypted);
     }
 
@@ -91,18 +288,66 @@ public class ResourceObfuscator {
             NoSuchAlgorithmException, InvalidAlgorithmParameterException, NoSuchPaddingException,
             UnsupportedEncodingException, BadPaddingException, IllegalBlockSizeException {
 
-        Cipher cipher = initializeCipher(Cipher.DECRYPT_MODE, randomStringsForKey,
-                                         randomStringsForIv);
-
         byte[] base64Decoded = android.util.Base64.decode(obfuscatedString,
                                                           android.util.Base64.NO_WRAP);
 
-        byte[] decrypted = cipher.doFinal(base64Decoded);
+        byte[] decrypted = decrypt(base64Decoded, randomStringsForKey, randomStringsForIv);
 
         return new String(decrypted, Helpers.getDefaultAppCharset());
 
     }
 
+    /**
+     * Reads an obfuscated string resource and returns its unobfuscated/plain form. The result is
+     * memoized by resource id, so later calls for the same resource, value and random strings do
+     * not decrypt again.
+     *
+     * @param context             Context to read the resource with.
+     * @param resourceId          Id of the obfuscated string resource.
+     * @param randomStringsForKey Array of random strings used to generate secret key.
+     * @param randomStringsForIv  Array of random strings used to generate Iv.
+     * @return The unobfuscated/plain resource.
+     */
+    public static String unobfuscate(Context context, int resourceId, String[]
+            randomStringsForKey, String[] randomStringsForIv) throws InvalidKeyException,
+            NoSuchAlgorithmException, InvalidAlgorithmParameterException, NoSuchPaddingException,
+            UnsupportedEncodingException, BadPaddingException, IllegalBlockSizeException {
+
+        String obfuscatedString = context.getString(resourceId);
+        CipherContext cipherContext = getCipherContext(randomStringsForKey, randomStringsForIv);
+
+        MemoizedResource memoized = sMemoizedResources.get(resourceId);
+        if (memoized != null && memoized.cipherContext == cipherContext &&
+                memoized.obfuscated.equals(obfuscatedString)) {
+            return memoized.plain;
+        }
+
+        String plain = unobfuscate(obfuscatedString, randomStringsForKey, randomStringsForIv);
+        if (sMemoizedResources.size() >= MAX_CACHE_SIZE) {
+            sMemoizedResources.clear();
+        }
+        sMemoizedResources.put(resourceId, new MemoizedResource(obfuscatedString, cipherContext,
+                                                                plain));
+        return plain;
+    }
+
+    /**
+     * Decrypts obfuscated bytes.
+     *
+     * @param encrypted           The encrypted bytes.
+     * @param randomStringsForKey Array of random strings used to generate secret key.
+     * @param randomStringsForIv  Array of random strings used to generate Iv.
+     * @return The decrypted bytes.
+     */
+    static byte[] decrypt(byte[] encrypted, String[] randomStringsForKey, String[]
+            randomStringsForIv) throws InvalidKeyException, NoSuchAlgorithmException,
+            InvalidAlgorithmParameterException, NoSuchPaddingException,
+            UnsupportedEncodingException, BadPaddingException, IllegalBlockSizeException {
+
+        return getCipherContext(randomStringsForKey, randomStringsForIv)
+                .doFinal(Cipher.DECRYPT_MODE, encrypted);
+    }
+
     /**
      * Generates a secret key using the array of random strings. It can be regenerated with the
      * same resources.
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.navigator;
+
+import com.amazon.android.utils.JsonHelper;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link NavigatorCacheFile}.
+ */
+public class NavigatorCacheFileTest {
+
+    /**
+     * Tests that trees of every supported value type survive a write and read.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRoundTrip() throws Exception {
+
+        Map<String, Object> navigator = JsonHelper.stringToMap(
+                "{\"config\":{\"showRelatedContent\":true,\"maxNumberOfRecentItems\":5," +
+                        "\"searchAlgo\":\"basic\",\"ratio\":1.5,\"big\":12345678901}," +
+                        "\"globalRecipes\":[{\"contents\":{\"dataLoader\":\"recipes/a.json\"}}]," +
+                        "\"empty\":{},\"list\":[],\"unicode\":\"caf\u00e9\"}");
+        navigator.put("javaNull", null);
+        Map<String, Map<String, Object>> recipes = new LinkedHashMap<>();
+        recipes.put("recipes/a.json", JsonHelper.stringToMap(
+                "{\"cooker\":\"DynamicParser\",\"matchList\":[\"title@mTitle\"],\"n\":null}"));
+        byte[] hash = new byte[]{1, 2, 3, 4};
+
+        NavigatorCacheFile read = writeAndRead(new NavigatorCacheFile(
+                hash, Arrays.asList("Navigator.json", "recipes/a.json"), navigator, recipes));
+
+        assertArrayEquals(hash, read.hash);
+        assertEquals(Arrays.asList("Navigator.json", "recipes/a.json"), read.assetPaths);
+        assertEquals(navigator, read.navigator);
+        assertEquals("[config, globalRecipes, empty, list, unicode, javaNull]",
+                     read.navigator.keySet().toString());
+        assertEquals(recipes, read.recipes);
+        assertSame(JSONObject.NULL, read.recipes.get("recipes/a.json").get("n"));
+        assertEquals(12345678901L, ((Map) read.navigator.get("config")).get("big"));
+    }
+
+    /**
+     * Tests that unsupported values and unknown formats are rejected.
+     */
+    @Test
+    public void testInvalid() throws Exception {
+
+        Map<String, Object> navigator = new LinkedHashMap<>();
+        navigator.put("big", new BigInteger("123456789012345678901234567890"));
+        try {
+            writeAndRead(new NavigatorCacheFile(new byte[0], Arrays.asList("Navigator.json"),
+                                                navigator,
+                                                new LinkedHashMap<String, Map<String, Object>>()));
+            fail();
+        }
+        catch (IOException e) {
+            // Expected.
+        }
+
+        try {
+            NavigatorCacheFile.read(new ByteArrayInputStream(new byte[]{0, 0, 0, 1, 0, 0, 0, 1}));
+            fail();
+        }
+        catch (IOException e) {
+            // Expected.
+        }
+    }
+
+    /**
+     * Write contents and read them back.
+     *
+     * @param cacheFile The contents.
+     * @return The contents read back.
+     * @throws IOException If writing or reading failed.
+     */
+    private static NavigatorCacheFile writeAndRead(NavigatorCacheFile cacheFile) throws
+            IOException {
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        cacheFile.write(outputStream);
+        return NavigatorCacheFile.read(new ByteArrayInputStream(outputStream.toByteArray()));
+    }
+}
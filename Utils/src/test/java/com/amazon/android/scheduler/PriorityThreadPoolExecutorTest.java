@@ -0,0 +1,176 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.scheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the {@link PriorityThreadPoolExecutor} class.
+ */
+public class PriorityThreadPoolExecutorTest {
+
+    private PriorityThreadPoolExecutor mExecutor;
+    private CountDownLatch mBlocker;
+    private CountDownLatch mBlockerStarted;
+
+    @Before
+    public void setUp() throws Exception {
+
+        mExecutor = new PriorityThreadPoolExecutor("test", 1, 4, Thread.NORM_PRIORITY,
+                                                   PriorityThreadPoolExecutor.PRIORITY_NORMAL);
+        mBlocker = new CountDownLatch(1);
+        mBlockerStarted = new CountDownLatch(1);
+        // Occupy the only thread so the next tasks are queued.
+        mExecutor.execute(() -> {
+            mBlockerStarted.countDown();
+            try {
+                mBlocker.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(mBlockerStarted.await(5, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        mBlocker.countDown();
+        mExecutor.shutdownNow();
+    }
+
+    /**
+     * Tests that queued tasks run by priority, and in submission order within a priority.
+     */
+    @Test
+    public void testPriorityOrder() throws Exception {
+
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done = new CountDownLatch(4);
+        mExecutor.execute(() -> {
+            order.add("low");
+            done.countDown();
+        }, PriorityThreadPoolExecutor.PRIORITY_LOW);
+        mExecutor.execute(() -> {
+            order.add("normal1");
+            done.countDown();
+        });
+        mExecutor.execute(() -> {
+            order.add("high");
+            done.countDown();
+        }, PriorityThreadPoolExecutor.PRIORITY_HIGH);
+        mExecutor.submit(() -> {
+            order.add("normal2");
+            done.countDown();
+        });
+
+        mBlocker.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("high", "normal1", "normal2", "low"), order);
+    }
+
+    /**
+     * Tests that tasks are rejected when the queue is full, and that the metrics count them.
+     */
+    @Test
+    public void testQueueBoundAndMetrics() throws Exception {
+
+        final CountDownLatch done = new CountDownLatch(4);
+        for (int i = 0; i < 4; i++) {
+            mExecutor.execute(done::countDown);
+        }
+        try {
+            mExecutor.execute(done::countDown);
+            fail("Expected the task to be rejected");
+        }
+        catch (RejectedExecutionException e) {
+            // Expected.
+        }
+
+        PriorityThreadPoolExecutor.Metrics metrics = mExecutor.getMetrics();
+        assertEquals(4, metrics.getQueueDepth());
+        assertEquals(4, metrics.getMaxQueueDepth());
+        assertEquals(1, metrics.getRejectedCount());
+
+        mBlocker.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        mExecutor.shutdown();
+        assertTrue(mExecutor.awaitTermination(5, TimeUnit.SECONDS));
+
+        metrics = mExecutor.getMetrics();
+        assertEquals(0, metrics.getQueueDepth());
+        assertEquals(5, metrics.getSubmittedCount());
+        assertEquals(5, metrics.getCompletedCount());
+    }
+
+    /**
+     * Tests that concurrent callers cannot queue more tasks than the queue bound.
+     */
+    @Test
+    public void testQueueBoundWithConcurrentCallers() throws Exception {
+
+        final int callers = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(callers);
+        final AtomicInteger accepted = new AtomicInteger();
+        for (int i = 0; i < callers; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < 10; j++) {
+                        try {
+                            mExecutor.execute(() -> {
+                            });
+                            accepted.incrementAndGet();
+                        }
+                        catch (RejectedExecutionException e) {
+                            // Expected once the queue is full.
+                        }
+                    }
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                finally {
+                    finished.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+
+        PriorityThreadPoolExecutor.Metrics metrics = mExecutor.getMetrics();
+        assertEquals(4, accepted.get());
+        assertEquals(4, metrics.getQueueDepth());
+        assertEquals(4, metrics.getMaxQueueDepth());
+        assertEquals(callers * 10 - 4, metrics.getRejectedCount());
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.search;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link SearchDebouncer}.
+ */
+public class SearchDebouncerTest {
+
+    /**
+     * Tests that the delay starts at the initial delay and follows the measured latency within
+     * its bounds.
+     */
+    @Test
+    public void testDelayFollowsLatency() throws Exception {
+
+        SearchDebouncer debouncer = new SearchDebouncer();
+        assertEquals(SearchDebouncer.INITIAL_DELAY_MS, debouncer.getDelayMs());
+        assertEquals(-1, debouncer.getAverageLatencyMs());
+
+        debouncer.recordLatency(10);
+        assertEquals(10, debouncer.getAverageLatencyMs());
+        assertEquals(SearchDebouncer.MIN_DELAY_MS, debouncer.getDelayMs());
+
+        for (int i = 0; i < 50; i++) {
+            debouncer.recordLatency(200);
+        }
+        assertEquals(400, debouncer.getDelayMs(), 10);
+
+        for (int i = 0; i < 50; i++) {
+            debouncer.recordLatency(5000);
+        }
+        assertEquals(SearchDebouncer.MAX_DELAY_MS, debouncer.getDelayMs());
+    }
+
+    /**
+     * Tests that a single outlier moves the delay only part of the way.
+     */
+    @Test
+    public void testOutlierIsSmoothed() throws Exception {
+
+        SearchDebouncer debouncer = new SearchDebouncer();
+        debouncer.recordLatency(100);
+        debouncer.recordLatency(900);
+
+        long average = debouncer.getAverageLatencyMs();
+        assertTrue(average > 100 && average < 900);
+        assertEquals(300, average);
+
+        debouncer.recordLatency(-5);
+        assertTrue(debouncer.getAverageLatencyMs() >= 0);
+    }
+}
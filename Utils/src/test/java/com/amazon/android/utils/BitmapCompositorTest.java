@@ -0,0 +1,70 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Tests for the cache keys of {@link BitmapCompositor}.
+ */
+public class BitmapCompositorTest {
+
+    /**
+     * Tests that playback percentages are rounded into buckets and that any progress is shown.
+     */
+    @Test
+    public void testProgressBucket() throws Exception {
+
+        assertEquals(0, BitmapCompositor.getProgressBucket(0));
+        assertEquals(0, BitmapCompositor.getProgressBucket(-0.5));
+        assertEquals(0, BitmapCompositor.getProgressBucket(Double.NaN));
+        assertEquals(1, BitmapCompositor.getProgressBucket(0.0001));
+        assertEquals(42, BitmapCompositor.getProgressBucket(0.4213));
+        assertEquals(42, BitmapCompositor.getProgressBucket(0.4178));
+        assertEquals(BitmapCompositor.PROGRESS_BUCKETS, BitmapCompositor.getProgressBucket(1));
+        assertEquals(BitmapCompositor.PROGRESS_BUCKETS, BitmapCompositor.getProgressBucket(3));
+    }
+
+    /**
+     * Tests that compositions in the same progress bucket share a key and others do not.
+     */
+    @Test
+    public void testKey() throws Exception {
+
+        String key = new BitmapCompositor.Composition().setCornerRadius(8)
+                                                       .setPlaybackPercentage(0.4213)
+                                                       .getKey("http://a/b.png", 320, 180);
+
+        assertEquals(key, new BitmapCompositor.Composition().setCornerRadius(8)
+                                                            .setPlaybackPercentage(0.4178)
+                                                            .getKey("http://a/b.png", 320, 180));
+        assertNotEquals(key, new BitmapCompositor.Composition().setCornerRadius(8)
+                                                               .setPlaybackPercentage(0.43)
+                                                               .getKey("http://a/b.png", 320,
+                                                                       180));
+        assertNotEquals(key, new BitmapCompositor.Composition().setCornerRadius(8)
+                                                               .setPlaybackPercentage(0.4213)
+                                                               .getKey("http://a/b.png", 384,
+                                                                       216));
+        assertNotEquals(key, new BitmapCompositor.Composition().setCornerRadius(8)
+                                                               .setPlaybackPercentage(0.4213)
+                                                               .setTimeRemainingText("1:00")
+                                                               .getKey("http://a/b.png", 320,
+                                                                       180));
+    }
+}
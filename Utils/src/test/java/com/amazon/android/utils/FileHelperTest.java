@@ -0,0 +1,111 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.utils;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for the stream reading and decoding of {@link FileHelper}.
+ */
+public class FileHelperTest {
+
+    /**
+     * Tests that streams are read byte for byte, whether or not they report their length.
+     */
+    @Test
+    public void testReadBytes() throws Exception {
+
+        Random random = new Random(42);
+        for (int size : new int[]{0, 1, 8191, 8192, 8193, 100000}) {
+            byte[] bytes = new byte[size];
+            random.nextBytes(bytes);
+
+            assertArrayEquals(bytes, FileHelper.readBytes(new ByteArrayInputStream(bytes)));
+            assertArrayEquals(bytes, FileHelper.readBytes(new ByteArrayInputStream(bytes) {
+                @Override
+                public synchronized int available() {
+
+                    return 0;
+                }
+            }));
+        }
+    }
+
+    /**
+     * Tests that a byte order mark selects the charset and is dropped.
+     */
+    @Test
+    public void testDecode() throws Exception {
+
+        String text = "{\"caf\u00e9\":\"\u00fc\"}\n";
+
+        assertEquals(text, FileHelper.decode(text.getBytes("UTF-8")));
+        assertEquals(text, FileHelper.decode(concat(new byte[]{(byte) 0xEF, (byte) 0xBB,
+                (byte) 0xBF}, text.getBytes("UTF-8"))));
+        assertEquals(text, FileHelper.decode(concat(new byte[]{(byte) 0xFE, (byte) 0xFF},
+                                                    text.getBytes("UTF-16BE"))));
+        assertEquals(text, FileHelper.decode(concat(new byte[]{(byte) 0xFF, (byte) 0xFE},
+                                                    text.getBytes("UTF-16LE"))));
+        assertEquals("", FileHelper.decode(new byte[0]));
+    }
+
+    /**
+     * Tests that removing line breaks gives the same result as concatenating the lines of a
+     * BufferedReader.
+     */
+    @Test
+    public void testRemoveLineBreaks() throws Exception {
+
+        String[] inputs = new String[]{"", "one line", "a\nb", "a\r\nb\r\n", "\n\n\r\r",
+                "a\rb\n\rc", "{\n  \"key\": \"value\"\n}\n"};
+        for (String input : inputs) {
+            StringBuilder expected = new StringBuilder();
+            BufferedReader reader = new BufferedReader(new StringReader(input));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                expected.append(line);
+            }
+
+            assertEquals(expected.toString(), FileHelper.removeLineBreaks(input));
+        }
+
+        String noLineBreaks = "no line breaks";
+        assertSame(noLineBreaks, FileHelper.removeLineBreaks(noLineBreaks));
+    }
+
+    /**
+     * Concatenate two arrays.
+     *
+     * @param first  First array.
+     * @param second Second array.
+     * @return The concatenation.
+     */
+    private static byte[] concat(byte[] first, byte[] second) {
+
+        byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.utils;
+
+import com.bumptech.glide.request.target.Target;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the size buckets of {@link GlideHelper}.
+ */
+public class GlideHelperTest {
+
+    /**
+     * Tests that sizes are rounded up into buckets that keep the aspect ratio.
+     */
+    @Test
+    public void testBucketSize() throws Exception {
+
+        assertArrayEquals(new int[]{384, 216}, GlideHelper.bucketSize(313, 176));
+        assertArrayEquals(new int[]{384, 216}, GlideHelper.bucketSize(320, 180));
+        assertArrayEquals(new int[]{1920, 1080}, GlideHelper.bucketSize(1920, 1080));
+        assertArrayEquals(new int[]{128, 128}, GlideHelper.bucketSize(1, 1));
+        assertArrayEquals(new int[]{216, 384}, GlideHelper.bucketSize(176, 313));
+        assertArrayEquals(new int[]{3840, 2160}, GlideHelper.bucketSize(3840, 2160));
+        assertArrayEquals(new int[]{Target.SIZE_ORIGINAL, Target.SIZE_ORIGINAL},
+                          GlideHelper.bucketSize(Target.SIZE_ORIGINAL, Target.SIZE_ORIGINAL));
+
+        for (int width = 1; width <= 2560; width += 7) {
+            for (int height = 1; height <= 2560; height += 131) {
+                int[] size = GlideHelper.bucketSize(width, height);
+                assertTrue(size[0] >= width && size[1] >= height);
+                assertEquals((double) width / height, (double) size[0] / size[1],
+                             2.0 / Math.min(size[0], size[1]) * width / height + 0.01);
+            }
+        }
+    }
+}
@@ -0,0 +1,320 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.utils;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the single-pass JSON reader and writer behind {@link JsonHelper#stringToMap(String)}
+ * and {@link JsonHelper#mapToString(Map)}. Expected values are those of the platform's org.json,
+ * written out literally since the org.json on the test classpath behaves differently.
+ */
+public class JsonMapCodecTest {
+
+    /**
+     * Tests that value types match those of a parsed JSONObject.
+     */
+    @Test
+    public void testValueTypes() throws Exception {
+
+        Map map = JsonHelper.stringToMap(
+                "{\"i\":1,\"l\":12345678901,\"d\":1.5,\"e\":1e3,\"h\":0x1F,\"o\":010," +
+                        "\"big\":99999999999999999999,\"t\":true,\"f\":FALSE,\"n\":null," +
+                        "\"s\":\"text\",\"neg\":-0}");
+
+        assertEquals(1, map.get("i"));
+        assertEquals(12345678901L, map.get("l"));
+        assertEquals(1.5, map.get("d"));
+        assertEquals(1000.0, map.get("e"));
+        assertEquals(31, map.get("h"));
+        assertEquals(8, map.get("o"));
+        assertEquals(1e20, map.get("big"));
+        assertEquals(Boolean.TRUE, map.get("t"));
+        assertEquals(Boolean.FALSE, map.get("f"));
+        assertSame(JSONObject.NULL, map.get("n"));
+        assertEquals("text", map.get("s"));
+        assertEquals(0, map.get("neg"));
+    }
+
+    /**
+     * Tests the lenient syntax the platform's tokenizer accepts, including inline comments.
+     */
+    @Test
+    public void testLenientSyntax() throws Exception {
+
+        Map map = JsonHelper.stringToMap(
+                "\ufeff{ /* block\n comment */ 'a' = unquoted; // line comment\n" +
+                        " b => 2, # hash comment\r\n \"c\": [1; 2] } trailing content");
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("a", "unquoted");
+        expected.put("b", 2);
+        expected.put("c", Arrays.asList(1, 2));
+        assertEquals(expected, map);
+        assertEquals("[a, b, c]", map.keySet().toString());
+    }
+
+    /**
+     * Tests string escape sequences.
+     */
+    @Test
+    public void testStringEscapes() throws Exception {
+
+        Map map = JsonHelper.stringToMap(
+                "{\"s\":\"q\\\" b\\\\ s\\/ t\\t b\\b n\\n r\\r f\\f u\\u00e9 x\\x\"}");
+
+        assertEquals("q\" b\\ s/ t\t b\b n\n r\r f\f u\u00e9 xx", map.get("s"));
+    }
+
+    /**
+     * Tests that a duplicate key keeps its first position and its last value.
+     */
+    @Test
+    public void testDuplicateKeys() throws Exception {
+
+        Map map = JsonHelper.stringToMap("{\"a\":1,\"b\":2,\"a\":3}");
+
+        assertEquals("[a, b]", map.keySet().toString());
+        assertEquals(3, map.get("a"));
+
+        // An empty array element in a replaced value is not an error.
+        map = JsonHelper.stringToMap("{\"a\":[1,,2],\"b\":2,\"a\":3}");
+
+        assertEquals(3, map.get("a"));
+    }
+
+    /**
+     * Tests that nested values are built as maps and lists in order.
+     */
+    @Test
+    public void testNestedValues() throws Exception {
+
+        Map map = JsonHelper.stringToMap("{\"z\":{\"y\":[{\"x\":[]},\"w\"]},\"a\":{}}");
+
+        Map<String, Object> x = new LinkedHashMap<>();
+        x.put("x", new ArrayList<>());
+        Map<String, Object> z = new LinkedHashMap<>();
+        z.put("y", Arrays.asList(x, "w"));
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("z", z);
+        expected.put("a", new LinkedHashMap<>());
+
+        assertEquals(expected, map);
+        assertEquals("[z, a]", map.keySet().toString());
+        assertTrue(map.get("z") instanceof LinkedHashMap);
+        assertTrue(((Map) map.get("z")).get("y") instanceof ArrayList);
+    }
+
+    /**
+     * Tests that malformed strings are rejected.
+     */
+    @Test
+    public void testMalformed() throws Exception {
+
+        String[] inputs = new String[]{"{", "[1]", "\"text\"", "{\"a\" 1}", "{\"a\":1 \"b\":2}",
+                "{1:2}", "{null:2}", "{\"a\":\"open}", "{\"a\":1 /* open", "{\"a\":[1,,2]}",
+                "{\"a\":[1,]}", "{\"a\":NaN}", "{\"a\":1e999}", "{\"a\":\"\\u00\"}", "  "};
+        for (String input : inputs) {
+            try {
+                JsonHelper.stringToMap(input);
+                fail("Expected an exception for " + input);
+            }
+            catch (JsonHelper.MalformedJSONException e) {
+                // Expected.
+            }
+        }
+    }
+
+    /**
+     * Tests the message of an empty array element, reported after the first syntax error.
+     */
+    @Test
+    public void testMissingElementMessage() throws Exception {
+
+        try {
+            JsonHelper.stringToMap("{\"a\":[[1],[2,,3]]}");
+            fail();
+        }
+        catch (JsonHelper.MalformedJSONException e) {
+            assertEquals("Malformed JSON. Array contains no value at index: 1", e.getMessage());
+        }
+        try {
+            JsonHelper.stringToMap("{\"a\":[1,,2],\"b\":}");
+            fail();
+        }
+        catch (JsonHelper.MalformedJSONException e) {
+            assertEquals("Malformed JSON-encoded string", e.getMessage());
+        }
+    }
+
+    /**
+     * Tests the written form of values.
+     */
+    @Test
+    public void testWriteValues() throws Exception {
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("i", 1);
+        map.put("l", 12345678901L);
+        map.put("d", 1.5);
+        map.put("whole", 2.0);
+        map.put("negZero", -0.0);
+        map.put("f", 1.1f);
+        map.put("t", true);
+        map.put("null", null);
+        map.put("NULL", JSONObject.NULL);
+        map.put("c", 'c');
+        map.put("big", new BigDecimal("1.25"));
+        map.put("array", new int[]{1, 2});
+        map.put("other", new Object() {
+        });
+
+        assertEquals("{\"i\":1,\"l\":12345678901,\"d\":1.5,\"whole\":2,\"negZero\":-0," +
+                             "\"f\":1.1,\"t\":true,\"null\":null,\"NULL\":null,\"c\":\"c\"," +
+                             "\"big\":\"1.25\",\"array\":[1,2],\"other\":null}",
+                     JsonHelper.mapToString(map));
+    }
+
+    /**
+     * Tests string escaping when writing.
+     */
+    @Test
+    public void testWriteEscapes() throws Exception {
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("k/\"", "q\" b\\ s/ t\t b\b n\n r\r f\f c\u0001 u\u00e9");
+
+        assertEquals("{\"k\\/\\\"\":\"q\\\" b\\\\ s\\/ t\\t b\\b n\\n r\\r f\\f c\\u0001 " +
+                             "u\u00e9\"}", JsonHelper.mapToString(map));
+    }
+
+    /**
+     * Tests maps with keys that are not strings and numbers JSON cannot represent.
+     */
+    @Test
+    public void testWriteInvalid() throws Exception {
+
+        Map<Object, Object> nested = new HashMap<>();
+        nested.put(1, "one");
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("nested", nested);
+        assertEquals("{\"nested\":null}", JsonHelper.mapToString(map));
+
+        map.put("nan", Double.NaN);
+        assertNull(JsonHelper.mapToString(map));
+
+        map.clear();
+        map.put("list", Arrays.asList(1, Float.POSITIVE_INFINITY));
+        assertNull(JsonHelper.mapToString(map));
+
+        map.clear();
+        map.put(null, 1);
+        try {
+            JsonHelper.mapToString(map);
+            fail();
+        }
+        catch (NullPointerException e) {
+            // Expected, as with the JSONObject constructor.
+        }
+    }
+
+    /**
+     * Tests that writing then parsing gives back an equal map, and parsing then writing gives back
+     * the same compact string.
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+
+        String[] inputs = new String[]{
+                "{}",
+                "{\"a\":1,\"b\":-2,\"c\":12345678901,\"d\":1.25,\"e\":-0.5,\"f\":1.0E-7}",
+                "{\"s\":\"\",\"t\":\"q\\\" b\\\\ s\\/ t\\t n\\n c\\u001f u\u00e9\"}",
+                "{\"n\":null,\"t\":true,\"f\":false}",
+                "{\"z\":{\"y\":[{\"x\":[]},\"w\",[1,[2,[3]]]]},\"a\":{},\"b\":[]}"
+        };
+        for (String input : inputs) {
+            Map map = JsonHelper.stringToMap(input);
+            String written = JsonHelper.mapToString(map);
+
+            assertEquals(input, written);
+            assertEquals(input, map, JsonHelper.stringToMap(written));
+        }
+    }
+
+    /**
+     * Tests that comment removal gives the same result as the previous per-call regex.
+     */
+    @Test
+    public void testEscapeCommentsMatchesRegex() throws Exception {
+
+        Pattern pattern = Pattern.compile("\\/\\*(.*?|\n)\\*\\/");
+        String[] inputs = new String[]{"", "no comments", "{/* a */\"b\":1}", "/*\n*/x",
+                "/* one\n two */", "a/* b */c/* d */e", "/*/", "\"http://x/*y*/z\"", "/* open"};
+        for (String input : inputs) {
+            StringBuffer buffer = new StringBuffer();
+            Matcher matcher = pattern.matcher(input);
+            while (matcher.find()) {
+                matcher.appendReplacement(buffer, "");
+            }
+            matcher.appendTail(buffer);
+
+            assertEquals(input, buffer.toString(), JsonHelper.escapeComments(input));
+        }
+        assertNull(JsonHelper.escapeComments(null));
+    }
+
+    /**
+     * Tests that recipe-style maps survive a round trip unchanged.
+     */
+    @Test
+    public void testRecipeRoundTrip() throws Exception {
+
+        Map<String, Object> match = new LinkedHashMap<>();
+        match.put("title", "title");
+        match.put("id", "guid");
+        List<Object> keys = new ArrayList<>();
+        keys.add("rss/channel/item");
+        Map<String, Object> recipe = new LinkedHashMap<>();
+        recipe.put("cooker", "DynamicParser");
+        recipe.put("format", "xml");
+        recipe.put("model", "com.amazon.android.model.content.Content");
+        recipe.put("translator", "ContentTranslator");
+        recipe.put("modelType", "array");
+        recipe.put("query", keys);
+        recipe.put("matchList", match);
+
+        String written = JsonHelper.mapToString(recipe);
+
+        assertEquals(recipe, JsonHelper.stringToMap(written));
+        assertEquals(written, JsonHelper.mapToString(JsonHelper.stringToMap(written)));
+    }
+}
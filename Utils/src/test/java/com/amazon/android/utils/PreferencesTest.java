@@ -0,0 +1,308 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.android.utils;
+
+import android.content.SharedPreferences;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the write batching and read-through view of the {@link Preferences} class.
+ */
+public class PreferencesTest {
+
+    /**
+     * In-memory shared preferences backing the tests.
+     */
+    private FakeSharedPreferences mPreferences;
+
+    @Before
+    public void setUp() {
+
+        mPreferences = new FakeSharedPreferences();
+        Preferences.setSharedPreferences(mPreferences);
+    }
+
+    @After
+    public void tearDown() {
+
+        Preferences.setSharedPreferences(null);
+    }
+
+    /**
+     * Tests that several sets are written with a single apply.
+     */
+    @Test
+    public void testSetsAreCoalesced() {
+
+        Preferences.setString("string", "value");
+        Preferences.setBoolean("boolean", true);
+        Preferences.setLong("long", 42);
+        Preferences.setLong("long", 43);
+        assertEquals(0, mPreferences.mApplyCount);
+        assertFalse(mPreferences.contains("string"));
+
+        Preferences.flush();
+        assertEquals(1, mPreferences.mApplyCount);
+        assertEquals("value", mPreferences.getString("string", ""));
+        assertTrue(mPreferences.getBoolean("boolean", false));
+        assertEquals(43, mPreferences.getLong("long", 0));
+
+        // Nothing pending, nothing written.
+        Preferences.flush();
+        assertEquals(1, mPreferences.mApplyCount);
+    }
+
+    /**
+     * Tests that reads see values that are not written yet.
+     */
+    @Test
+    public void testReadThroughPendingWrites() {
+
+        mPreferences.mValues.put("long", 1L);
+        assertEquals(1, Preferences.getLong("long"));
+
+        Preferences.setLong("long", 2);
+        Preferences.setString("string", "value");
+        assertEquals(2, Preferences.getLong("long"));
+        assertEquals("value", Preferences.getString("string"));
+        assertTrue(Preferences.containsPreference("string"));
+        assertFalse(Preferences.getBoolean("boolean"));
+        assertFalse(Preferences.containsPreference("boolean"));
+    }
+
+    /**
+     * Tests that a null string removes the preference like the shared preferences do.
+     */
+    @Test
+    public void testSetNullString() {
+
+        mPreferences.mValues.put("string", "value");
+        Preferences.setString("string", null);
+        assertEquals("", Preferences.getString("string"));
+        assertFalse(Preferences.containsPreference("string"));
+
+        Preferences.flush();
+        assertFalse(mPreferences.contains("string"));
+        assertEquals("", Preferences.getString("string"));
+    }
+
+    /**
+     * Tests that {@link Preferences#flushNow()} commits synchronously.
+     */
+    @Test
+    public void testFlushNow() {
+
+        assertTrue(Preferences.flushNow());
+        assertEquals(0, mPreferences.mCommitCount);
+
+        Preferences.setBoolean("boolean", true);
+        assertTrue(Preferences.flushNow());
+        assertEquals(1, mPreferences.mCommitCount);
+        assertEquals(0, mPreferences.mApplyCount);
+        assertTrue(mPreferences.getBoolean("boolean", false));
+    }
+
+    /**
+     * Minimal in-memory shared preferences counting the writes.
+     */
+    private static class FakeSharedPreferences implements SharedPreferences {
+
+        /**
+         * Stored values.
+         */
+        final Map<String, Object> mValues = new HashMap<>();
+
+        /**
+         * Number of applied editors.
+         */
+        int mApplyCount;
+
+        /**
+         * Number of committed editors.
+         */
+        int mCommitCount;
+
+        @Override
+        public Map<String, ?> getAll() {
+
+            return new HashMap<>(mValues);
+        }
+
+        @Override
+        public String getString(String key, String defValue) {
+
+            return mValues.containsKey(key) ? (String) mValues.get(key) : defValue;
+        }
+
+        @Override
+        public Set<String> getStringSet(String key, Set<String> defValues) {
+
+            return defValues;
+        }
+
+        @Override
+        public int getInt(String key, int defValue) {
+
+            return defValue;
+        }
+
+        @Override
+        public long getLong(String key, long defValue) {
+
+            return mValues.containsKey(key) ? (Long) mValues.get(key) : defValue;
+        }
+
+        @Override
+        public float getFloat(String key, float defValue) {
+
+            return defValue;
+        }
+
+        @Override
+        public boolean getBoolean(String key, boolean defValue) {
+
+            return mValues.containsKey(key) ? (Boolean) mValues.get(key) : defValue;
+        }
+
+        @Override
+        public boolean contains(String key) {
+
+            return mValues.containsKey(key);
+        }
+
+        @Override
+        public Editor edit() {
+
+            return new FakeEditor();
+        }
+
+        @Override
+        public void registerOnSharedPreferenceChangeListener(
+                OnSharedPreferenceChangeListener listener) {
+
+        }
+
+        @Override
+        public void unregisterOnSharedPreferenceChangeListener(
+                OnSharedPreferenceChangeListener listener) {
+
+        }
+
+        /**
+         * Editor collecting changes until they are applied or committed.
+         */
+        private class FakeEditor implements Editor {
+
+            /**
+             * Pending changes, a null value removes the key.
+             */
+            private final Map<String, Object> mChanges = new HashMap<>();
+
+            @Override
+            public Editor putString(String key, String value) {
+
+                mChanges.put(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor putStringSet(String key, Set<String> values) {
+
+                return this;
+            }
+
+            @Override
+            public Editor putInt(String key, int value) {
+
+                return this;
+            }
+
+            @Override
+            public Editor putLong(String key, long value) {
+
+                mChanges.put(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor putFloat(String key, float value) {
+
+                return this;
+            }
+
+            @Override
+            public Editor putBoolean(String key, boolean value) {
+
+                mChanges.put(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor remove(String key) {
+
+                mChanges.put(key, null);
+                return this;
+            }
+
+            @Override
+            public Editor clear() {
+
+                mValues.clear();
+                return this;
+            }
+
+            @Override
+            public boolean commit() {
+
+                mCommitCount++;
+                write();
+                return true;
+            }
+
+            @Override
+            public void apply() {
+
+                mApplyCount++;
+                write();
+            }
+
+            /**
+             * Write the changes to the stored values.
+             */
+            private void write() {
+
+                for (Map.Entry<String, Object> change : mChanges.entrySet()) {
+                    if (change.getValue() == null) {
+                        mValues.remove(change.getKey());
+                    }
+                    else {
+                        mValues.put(change.getKey(), change.getValue());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -22,7 +22,9 @@ import java.util.List;
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
 import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
 
 /**
  * RecipeTest class is a test for Recipe class.
@@ -210,4 +212,90 @@ public class RecipeTest {
         String mapStr = recipe.getItem("level1/level2/level2String");
         assertEquals("level2String", mapStr);
     }
-}
\ No newline at end of file
+
+    /**
+     * Test resolved items are looked up again after a changed map is set.
+     */
+    @Test
+    public void testGetItemAfterMapSet() throws Exception {
+
+        Recipe recipe = new Recipe();
+        HashMap<String, Object> map = new HashMap<>();
+        map.put("key", "value");
+        recipe.setMap(map);
+
+        assertEquals("value", recipe.getItemAsString("key"));
+        assertFalse(recipe.containsItem("live"));
+
+        HashMap<String, Object> changed = new HashMap<>(recipe.getMap());
+        changed.put("key", "newValue");
+        changed.put("live", true);
+        recipe.setMap(changed);
+
+        assertEquals("newValue", recipe.getItemAsString("key"));
+        assertTrue(recipe.containsItem("live"));
+        assertTrue(recipe.getItemAsBoolean("live"));
+    }
+
+    /**
+     * Test the map handed out by the recipe cannot be modified.
+     */
+    @Test
+    public void testGetMapIsUnmodifiable() throws Exception {
+
+        Recipe recipe = Recipe.newInstance("{\"key\":\"value\"}");
+        try {
+            recipe.getMap().put("key", "newValue");
+            fail("Expected UnsupportedOperationException");
+        }
+        catch (UnsupportedOperationException e) {
+            // Expected.
+        }
+        assertEquals("value", recipe.getItemAsString("key"));
+        assertNull(new Recipe().getMap());
+    }
+
+    /**
+     * Test the canonical key ignores item order and follows map changes.
+     */
+    @Test
+    public void testGetCanonicalKey() throws Exception {
+
+        Recipe recipe = Recipe.newInstance("{\"a\":1,\"b\":{\"c\":[\"x\",true],\"d\":null}}");
+        Recipe reordered = Recipe.newInstance("{\"b\":{\"d\":null,\"c\":[\"x\",true]},\"a\":1}");
+        Recipe different = Recipe.newInstance("{\"a\":2,\"b\":{\"c\":[\"x\",true],\"d\":null}}");
+
+        String key = recipe.getCanonicalKey();
+        assertEquals(40, key.length());
+        assertEquals(key, recipe.getCanonicalKey());
+        assertEquals(key, reordered.getCanonicalKey());
+        assertFalse(key.equals(different.getCanonicalKey()));
+
+        HashMap<String, Object> changed = new HashMap<>(recipe.getMap());
+        changed.put("a", 2);
+        recipe.setMap(changed);
+        assertEquals(different.getCanonicalKey(), recipe.getCanonicalKey());
+    }
+
+    /**
+     * Test reading the map keeps the memoized canonical key, and setting a map clears it.
+     */
+    @Test
+    public void testCanonicalKeyKeptWhenMapIsRead() throws Exception {
+
+        Recipe recipe = new Recipe();
+        HashMap<String, Object> map = new HashMap<>();
+        map.put("a", 1);
+        recipe.setMap(map);
+
+        String key = recipe.getCanonicalKey();
+        assertTrue(recipe.getMap().containsKey("a"));
+        assertEquals(1, recipe.getMap().get("a"));
+        assertEquals(key, recipe.getCanonicalKey());
+
+        HashMap<String, Object> changed = new HashMap<>(recipe.getMap());
+        changed.put("a", 3);
+        recipe.setMap(changed);
+        assertFalse(key.equals(recipe.getCanonicalKey()));
+    }
+}
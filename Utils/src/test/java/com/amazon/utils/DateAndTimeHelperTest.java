@@ -0,0 +1,197 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Table-driven tests for the {@link DateAndTimeHelper} time conversions. The conversion is
+ * checked against known values and against the original date format based implementation in
+ * several time zones.
+ */
+public class DateAndTimeHelperTest {
+
+    /**
+     * Inputs and their expected conversion in UTC. Invalid inputs are logged, so they are tested
+     * on a device, see the instrumented DateAndTimeHelperTest.
+     */
+    private static final Object[][] TIMES = {
+            {"00:01:00.000", 60.0},
+            {"00:00:00.000", 0.0},
+            {"00:00:10.000", 10.0},
+            {"00:01:40.000", 100.0},
+            {"00:00:00.100", 0.0},
+            {"00:00:00.999", 0.0},
+            {"00:00:01.999", 1.0},
+            {"10:00:00.000", 36000.0},
+            {"00:01:00", 60.0},
+            {"100:00:00", 360000.0},
+            {"0:00:30", 30.0},
+            {"00:99:99", 6039.0},
+            {"23:59:59.999", 86399.0},
+            {"876000:00:00", 3153600000.0}
+    };
+
+    /**
+     * Time zones the conversion is compared in, including zones east of UTC where the epoch date
+     * starts before the epoch instant.
+     */
+    private static final String[] TIME_ZONES = {"UTC", "America/Los_Angeles", "Asia/Kolkata",
+            "Australia/Sydney", "Europe/London", "Pacific/Kiritimati", "America/St_Johns"};
+
+    /**
+     * Default time zone before the test.
+     */
+    private TimeZone mDefaultTimeZone;
+
+    @Before
+    public void setUp() {
+
+        mDefaultTimeZone = TimeZone.getDefault();
+    }
+
+    @After
+    public void tearDown() {
+
+        TimeZone.setDefault(mDefaultTimeZone);
+    }
+
+    /**
+     * Tests {@link DateAndTimeHelper#convertDateFormatToSeconds(String)} against known values.
+     */
+    @Test
+    public void testConvertDateFormatToSeconds() throws Exception {
+
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        for (Object[] row : TIMES) {
+            assertEquals("Conversion of " + row[0], (double) row[1],
+                         DateAndTimeHelper.convertDateFormatToSeconds((String) row[0]), 0);
+        }
+        assertEquals(-1, DateAndTimeHelper.convertDateFormatToSeconds(null), 0);
+    }
+
+    /**
+     * Tests {@link DateAndTimeHelper#convertDateFormatToSeconds(String)} gives the same results as
+     * the original implementation in several time zones.
+     */
+    @Test
+    public void testConvertDateFormatToSecondsMatchesDateFormat() throws Exception {
+
+        for (String zone : TIME_ZONES) {
+            TimeZone.setDefault(TimeZone.getTimeZone(zone));
+            for (Object[] row : TIMES) {
+                String time = (String) row[0];
+                assertEquals("Conversion of " + time + " in " + zone, convertWithDateFormat(time),
+                             DateAndTimeHelper.convertDateFormatToSeconds(time), 0);
+            }
+        }
+    }
+
+    /**
+     * Tests the {@link DateAndTimeHelper#isTimeFormat(String)} method.
+     */
+    @Test
+    public void testIsTimeFormat() throws Exception {
+
+        assertTrue(DateAndTimeHelper.isTimeFormat("00:01:00"));
+        assertTrue(DateAndTimeHelper.isTimeFormat("100:01:00.123"));
+        assertTrue(DateAndTimeHelper.isTimeFormat("1234567890:01:00"));
+        assertFalse(DateAndTimeHelper.isTimeFormat("00:01:00,123"));
+        assertFalse(DateAndTimeHelper.isTimeFormat("00:01"));
+        assertFalse(DateAndTimeHelper.isTimeFormat("10%"));
+        assertFalse(DateAndTimeHelper.isTimeFormat(null));
+    }
+
+    /**
+     * Tests the {@link DateAndTimeHelper#parsePercentage(String)} method.
+     */
+    @Test
+    public void testParsePercentage() throws Exception {
+
+        Object[][] percentages = {
+                {"0%", 0}, {"5%", 5}, {"50%", 50}, {"100%", 100}, {"999%", 999}, {"1000%", -1},
+                {"%", -1}, {"50", -1}, {"5.5%", -1}, {"-5%", -1}, {"", -1}, {null, -1}
+        };
+        for (Object[] row : percentages) {
+            assertEquals("Percentage of " + row[0], row[1],
+                         DateAndTimeHelper.parsePercentage((String) row[0]));
+        }
+    }
+
+    /**
+     * Tests {@link DateAndTimeHelper#getDateFormat(String)} returns one formatter per thread.
+     */
+    @Test
+    public void testGetDateFormat() throws Exception {
+
+        final String pattern = "yyyy-MM-dd";
+        final SimpleDateFormat format = DateAndTimeHelper.getDateFormat(pattern);
+        assertSame(format, DateAndTimeHelper.getDateFormat(pattern));
+
+        final SimpleDateFormat[] otherThreadFormat = new SimpleDateFormat[1];
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+
+                otherThreadFormat[0] = DateAndTimeHelper.getDateFormat(pattern);
+            }
+        });
+        thread.start();
+        thread.join();
+        assertFalse(format == otherThreadFormat[0]);
+    }
+
+    /**
+     * The original implementation of the conversion, kept as the reference.
+     *
+     * @param timeToConvert Time to convert.
+     * @return The converted time in seconds.
+     */
+    private static double convertWithDateFormat(String timeToConvert) {
+
+        try {
+            SimpleDateFormat sdf;
+
+            if (timeToConvert.matches("\\d+:\\d{2}:\\d{2}.\\d{3}")) {
+                sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+            }
+            else if (timeToConvert.matches("\\d+:\\d{2}:\\d{2}")) {
+                sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+            }
+            else {
+                throw new ParseException("Time format does not match expected.", 0);
+            }
+
+            double time1 = sdf.parse("1970-01-01 00:00:00.000").getTime() / 1000;
+            Date date = sdf.parse("1970-01-01 " + timeToConvert);
+            return (date.getTime() / 1000) - time1;
+        }
+        catch (ParseException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.utils;
+
+import com.amazon.utils.ds.Graph;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Benchmark for the {@link Graph} class on graphs the size of a content dependency graph. Timings
+ * are printed to standard out. It is skipped unless the runBenchmarks system property is true,
+ * e.g. {@code ./gradlew :Utils:testDebugUnitTest --tests '*GraphBenchmarkTest'
+ * -DrunBenchmarks=true}. The results on such graphs are checked by
+ * {@link GraphTest#testLargeLayeredGraph()}.
+ */
+public class GraphBenchmarkTest {
+
+    /**
+     * Graph sizes to benchmark.
+     */
+    private static final int[] SIZES = {100, 1000, 10000};
+
+    /**
+     * Number of outgoing connections per node.
+     */
+    private static final int FAN_OUT = 4;
+
+    /**
+     * Builds layered directed graphs and times insertion, lookup and traversal queries.
+     */
+    @Test
+    public void benchmarkGraphOperations() {
+
+        assumeTrue(Boolean.getBoolean("runBenchmarks"));
+        for (int size : SIZES) {
+            long start = System.nanoTime();
+            Graph graph = new Graph("benchmark", true);
+            Graph.Node[] nodes = new Graph.Node[size];
+            for (int i = 0; i < size; i++) {
+                nodes[i] = new Graph.Node<Integer>("node" + i);
+                graph.addNode(nodes[i]);
+            }
+            // Every node connects forward only, so the graph stays acyclic.
+            for (int i = 0; i < size; i++) {
+                for (int j = 1; j <= FAN_OUT && i + j < size; j++) {
+                    graph.addConnection(nodes[i], nodes[i + j]);
+                }
+            }
+            long buildNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int found = 0;
+            for (int i = 0; i < size; i++) {
+                if (graph.hasNode("node" + i) &&
+                        graph.hasConnection("node" + i, "node" + (i + 1))) {
+                    found++;
+                }
+            }
+            long lookupNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int sorted = graph.topologicalSort().size();
+            boolean cycle = graph.hasCycle();
+            boolean reachable = graph.isReachable("node0", "node" + (size - 1));
+            long traversalNanos = System.nanoTime() - start;
+
+            assertEquals(size - 1, found);
+            assertEquals(size, sorted);
+            assertFalse(cycle);
+            assertTrue(reachable);
+
+            System.out.println("Graph size " + size +
+                                       " build(ms): " + buildNanos / 1000000.0 +
+                                       " lookups(ms): " + lookupNanos / 1000000.0 +
+                                       " sort+cycle+reach(ms): " + traversalNanos / 1000000.0);
+        }
+    }
+}
@@ -20,6 +20,9 @@ import junit.framework.TestCase;
 
 import org.junit.Test;
 
+import java.util.List;
+import java.util.Set;
+
 /**
  * Test class for Graph class testing.
  */
@@ -220,4 +223,222 @@ public class GraphTest extends TestCase {
         assertTrue((graph.toString().equals(oracleString1) ||
                 graph.toString().equals(oracleString2)));
     }
-}
\ No newline at end of file
+
+    /**
+     * Test directed connections only go one way.
+     */
+    @Test
+    public void testDirectedConnection() throws Exception {
+
+        Graph graph = new Graph("test", true);
+        assertTrue(graph.isDirected());
+
+        graph.addConnection(new Graph.Node<String>("a"), new Graph.Node<String>("b"));
+
+        assertTrue(graph.hasConnection("a", "b"));
+        assertFalse(graph.hasConnection("b", "a"));
+        assertEquals(1, graph.edgeCount());
+
+        // Adding the same connection again should not change the edge count.
+        graph.addConnection(graph.getNodeByName("a"), graph.getNodeByName("b"));
+        assertEquals(1, graph.edgeCount());
+    }
+
+    /**
+     * Test adding a different node object with an existing name fails.
+     */
+    @Test
+    public void testAddConnectionDuplicateName() throws Exception {
+
+        Graph graph = new Graph("test");
+        graph.addNode(new Graph.Node<String>("a"));
+
+        try {
+            graph.addConnection(new Graph.Node<String>("a"), new Graph.Node<String>("b"));
+            fail("Expected exception for duplicate node name");
+        }
+        catch (RuntimeException e) {
+            assertEquals(0, graph.edgeCount());
+        }
+    }
+
+    /**
+     * Test topological sort orders every node before its connections.
+     */
+    @Test
+    public void testTopologicalSort() throws Exception {
+
+        Graph graph = new Graph("test", true);
+        Graph.Node a = new Graph.Node<String>("a");
+        Graph.Node b = new Graph.Node<String>("b");
+        Graph.Node c = new Graph.Node<String>("c");
+        Graph.Node d = new Graph.Node<String>("d");
+        graph.addConnection(a, b);
+        graph.addConnection(a, c);
+        graph.addConnection(b, d);
+        graph.addConnection(c, d);
+
+        List<Graph.Node> sorted = graph.topologicalSort();
+        assertEquals(4, sorted.size());
+        assertEquals(a, sorted.get(0));
+        assertEquals(d, sorted.get(3));
+        assertFalse(graph.hasCycle());
+    }
+
+    /**
+     * Test topological sort fails on a cyclic or undirected graph.
+     */
+    @Test
+    public void testTopologicalSortInvalid() throws Exception {
+
+        Graph graph = new Graph("test", true);
+        Graph.Node a = new Graph.Node<String>("a");
+        Graph.Node b = new Graph.Node<String>("b");
+        graph.addConnection(a, b);
+        graph.addConnection(b, a);
+        assertTrue(graph.hasCycle());
+
+        try {
+            graph.topologicalSort();
+            fail("Expected exception for cyclic graph");
+        }
+        catch (IllegalStateException e) {
+            // Expected.
+        }
+
+        try {
+            new Graph("undirected").topologicalSort();
+            fail("Expected exception for undirected graph");
+        }
+        catch (IllegalStateException e) {
+            // Expected.
+        }
+    }
+
+    /**
+     * Test cycle detection on an undirected graph.
+     */
+    @Test
+    public void testHasCycleUndirected() throws Exception {
+
+        Graph graph = new Graph("test");
+        Graph.Node a = new Graph.Node<String>("a");
+        Graph.Node b = new Graph.Node<String>("b");
+        Graph.Node c = new Graph.Node<String>("c");
+        graph.addConnection(a, b);
+        graph.addConnection(b, c);
+        graph.addNode(new Graph.Node<String>("lonely"));
+
+        // A path is not a cycle.
+        assertFalse(graph.hasCycle());
+
+        graph.addConnection(c, a);
+        assertTrue(graph.hasCycle());
+    }
+
+    /**
+     * Test reachability queries.
+     */
+    @Test
+    public void testReachability() throws Exception {
+
+        Graph graph = new Graph("test", true);
+        Graph.Node a = new Graph.Node<String>("a");
+        Graph.Node b = new Graph.Node<String>("b");
+        Graph.Node c = new Graph.Node<String>("c");
+        graph.addConnection(a, b);
+        graph.addConnection(b, c);
+        graph.addNode(new Graph.Node<String>("d"));
+
+        assertTrue(graph.isReachable("a", "c"));
+        assertFalse(graph.isReachable("c", "a"));
+        assertFalse(graph.isReachable("a", "d"));
+        assertFalse(graph.isReachable("a", "unknown"));
+
+        Set<Graph.Node> reachable = graph.getReachableNodes("a");
+        assertEquals(2, reachable.size());
+        assertTrue(reachable.contains(b));
+        assertTrue(reachable.contains(c));
+        assertNull(graph.getReachableNodes("unknown"));
+    }
+
+    /**
+     * Test the queries on a layered graph the size of a large content dependency graph.
+     */
+    @Test
+    public void testLargeLayeredGraph() throws Exception {
+
+        int size = 10000;
+        int fanOut = 4;
+        Graph graph = new Graph("test", true);
+        Graph.Node[] nodes = new Graph.Node[size];
+        for (int i = 0; i < size; i++) {
+            nodes[i] = new Graph.Node<Integer>("node" + i);
+            graph.addNode(nodes[i]);
+        }
+        // Every node connects forward only, so the graph stays acyclic.
+        int edges = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 1; j <= fanOut && i + j < size; j++) {
+                graph.addConnection(nodes[i], nodes[i + j]);
+                edges++;
+            }
+        }
+
+        assertEquals(size, graph.nodeCount());
+        assertEquals(edges, graph.edgeCount());
+        for (int i = 0; i < size - 1; i++) {
+            assertTrue(graph.hasConnection("node" + i, "node" + (i + 1)));
+            assertFalse(graph.hasConnection("node" + (i + 1), "node" + i));
+        }
+
+        // Every node must come before the nodes it connects to.
+        List<Graph.Node> sorted = graph.topologicalSort();
+        assertEquals(size, sorted.size());
+        int[] position = new int[size];
+        for (int i = 0; i < size; i++) {
+            position[Integer.parseInt(sorted.get(i).getName().substring(4))] = i;
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = 1; j <= fanOut && i + j < size; j++) {
+                assertTrue(position[i] < position[i + j]);
+            }
+        }
+
+        assertFalse(graph.hasCycle());
+        assertTrue(graph.isReachable("node0", "node" + (size - 1)));
+        assertFalse(graph.isReachable("node" + (size - 1), "node0"));
+        assertEquals(size - 1, graph.getReachableNodes("node0").size());
+        assertTrue(graph.getReachableNodes("node" + (size - 1)).isEmpty());
+
+        // One edge back to the start closes a cycle through the whole graph.
+        graph.addConnection(nodes[size - 1], nodes[0]);
+        assertTrue(graph.hasCycle());
+        assertTrue(graph.isReachable("node" + (size - 1), "node0"));
+        assertEquals(size, graph.getReachableNodes("node0").size());
+    }
+
+    /**
+     * Test that reachability follows connections both ways in an undirected graph.
+     */
+    @Test
+    public void testReachabilityUndirected() throws Exception {
+
+        Graph graph = new Graph("test");
+        Graph.Node a = new Graph.Node<String>("a");
+        Graph.Node b = new Graph.Node<String>("b");
+        Graph.Node c = new Graph.Node<String>("c");
+        graph.addConnection(a, b);
+        graph.addConnection(b, c);
+        graph.addNode(new Graph.Node<String>("d"));
+
+        assertTrue(graph.isReachable("a", "c"));
+        assertTrue(graph.isReachable("c", "a"));
+        assertFalse(graph.isReachable("c", "d"));
+
+        Set<Graph.Node> reachable = graph.getReachableNodes("c");
+        assertEquals(2, reachable.size());
+        assertTrue(reachable.contains(a));
+        assertTrue(reachable.contains(b));
+    }
+}
@@ -14,6 +14,8 @@
  */
 package com.amazon.utils;
 
+import com.amazon.android.utils.CompiledPath;
+import com.amazon.android.utils.ParameterTemplate;
 import com.amazon.android.utils.PathHelper;
 
 import junit.framework.TestCase;
@@ -80,4 +82,108 @@ public class PathHelperTest extends TestCase {
         // Positive test case to make sure we got the right map.
         assertEquals("test", PathHelper.getMapByPath(root, "path1").get("key"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Test get value by path method.
+     */
+    @Test
+    public void testGetValueByPath() throws Exception {
+
+        HashMap<String, Object> root = new HashMap<>();
+        HashMap<String, Object> level1 = new HashMap<>();
+        root.put("level1", level1);
+        level1.put("item", "value");
+        level1.put("number", 1);
+
+        assertEquals("value", PathHelper.getValueByPath(root, "level1/item"));
+        // Second lookup goes through the cached compiled path.
+        assertEquals("value", PathHelper.getValueByPath(root, "level1/item"));
+        assertEquals(1, PathHelper.getValueByPath(root, "level1/number"));
+        assertNull(PathHelper.getValueByPath(root, "level1/unknown"));
+        assertNull(PathHelper.getValueByPath(root, "level1/item/deeper"));
+        assertNull(PathHelper.getValueByPath(root, null));
+    }
+
+    /**
+     * Test compiled paths are cached and traverse like get map by path.
+     */
+    @Test
+    public void testCompiledPath() throws Exception {
+
+        HashMap<String, Object> root = new HashMap<>();
+        HashMap<String, Object> level1 = new HashMap<>();
+        root.put("level1", level1);
+        level1.put("item", "value");
+
+        CompiledPath path = CompiledPath.compile("level1/item");
+        assertSame(path, CompiledPath.compile("level1/item"));
+        assertEquals("item", path.getKey());
+        assertEquals(level1, path.getMap(root));
+        assertEquals("value", path.getValue(root));
+        assertNull(CompiledPath.compile(null));
+    }
+
+    /**
+     * Test inject parameters method.
+     */
+    @Test
+    public void testInjectParameters() throws Exception {
+
+        assertEquals("HelloHelloGoodByeGoodBye",
+                     PathHelper.injectParameters("Hello$$par0$$GoodBye$$par1$$",
+                                                 new String[]{"Hello", "GoodBye"}));
+        // Repeated and out of order injection points.
+        assertEquals("b-a-b", PathHelper.injectParameters("$$par1$$-$$par0$$-$$par1$$",
+                                                          new String[]{"a", "b"}));
+        // Partial markers are kept as literals.
+        assertEquals("$$par$$ $$parX$$ $a", PathHelper.injectParameters("$$par$$ $$parX$$ " +
+                                                                         "$$$par0$$",
+                                                                 new String[]{"a"}));
+        assertNull(PathHelper.injectParameters(null, new String[]{}));
+    }
+
+    /**
+     * Test inject parameters method with more than ten parameters.
+     */
+    @Test
+    public void testInjectParametersWithManyPars() throws Exception {
+
+        String[] pars = new String[15];
+        StringBuilder template = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < pars.length; i++) {
+            pars[i] = "v" + i;
+            template.append("$$par").append(i).append("$$,");
+            expected.append("v").append(i).append(",");
+        }
+        assertEquals(expected.toString(), PathHelper.injectParameters(template.toString(), pars));
+        assertEquals(15, ParameterTemplate.compile(template.toString()).getParameterCount());
+    }
+
+    /**
+     * Test inject parameters method with a missing parameter.
+     */
+    @Test
+    public void testInjectParametersWithMissingPars() throws Exception {
+
+        try {
+            PathHelper.injectParameters("$$par0$$ $$par3$$", new String[]{"a"});
+            fail("Expected exception for missing parameter");
+        }
+        catch (PathHelper.MalformedInjectionStringException e) {
+            // Expected.
+        }
+    }
+
+    /**
+     * Test contains parameter matching regex method.
+     */
+    @Test
+    public void testContainsParameterMatchingRegex() throws Exception {
+
+        assertTrue(PathHelper.containsParameterMatchingRegex("here's the pattern $$par1$$ "));
+        assertTrue(PathHelper.containsParameterMatchingRegex("$$$par12$$"));
+        assertFalse(PathHelper.containsParameterMatchingRegex("no $$par$$ pattern $$parA$$"));
+        assertFalse(PathHelper.containsParameterMatchingRegex(null));
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.utils;
+
+import com.amazon.android.utils.SearchTextHelper;
+
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link SearchTextHelper} class.
+ */
+public class SearchTextHelperTest {
+
+    /**
+     * Tests the {@link SearchTextHelper#normalize(String, Locale)} method.
+     */
+    @Test
+    public void testNormalize() {
+
+        assertNull(SearchTextHelper.normalize(null, Locale.ENGLISH));
+        assertEquals("", SearchTextHelper.normalize("", Locale.ENGLISH));
+        assertEquals("", SearchTextHelper.normalize(" \t\n ", Locale.ENGLISH));
+        assertEquals("cafe society", SearchTextHelper.normalize("  Caf\u00e9 \t Society\n",
+                                                                Locale.ENGLISH));
+        assertEquals("creme brulee", SearchTextHelper.normalize("CR\u00c8ME BR\u00dbL\u00c9E",
+                                                                Locale.ENGLISH));
+        assertEquals("uber", SearchTextHelper.normalize("U\u0308ber", Locale.ENGLISH));
+        assertEquals("a b", SearchTextHelper.normalize("a\u00a0b", Locale.ENGLISH));
+
+        // Already normalized text is returned as is.
+        String normalized = "already normalized, 123!";
+        assertSame(normalized, SearchTextHelper.normalize(normalized, Locale.ENGLISH));
+    }
+
+    /**
+     * Tests the {@link SearchTextHelper#normalizeQuery(String, Locale)} method reuses the
+     * previous result.
+     */
+    @Test
+    public void testNormalizeQuery() {
+
+        String first = SearchTextHelper.normalizeQuery("Caf\u00e9", Locale.ENGLISH);
+        assertEquals("cafe", first);
+        assertSame(first, SearchTextHelper.normalizeQuery("Caf\u00e9", Locale.ENGLISH));
+        assertEquals("the", SearchTextHelper.normalizeQuery("The", Locale.ENGLISH));
+        assertNull(SearchTextHelper.normalizeQuery(null, Locale.ENGLISH));
+    }
+
+    /**
+     * Tests the {@link SearchTextHelper.NormalizedText} class.
+     */
+    @Test
+    public void testNormalizedText() {
+
+        String source = "Title";
+        SearchTextHelper.NormalizedText text =
+                new SearchTextHelper.NormalizedText(source, Locale.ENGLISH);
+        assertEquals("title", text.getNormalized());
+        assertTrue(text.isFor(source, Locale.ENGLISH));
+        assertTrue(text.isFor(new String("Title"), Locale.ENGLISH));
+        assertFalse(text.isFor("Other", Locale.ENGLISH));
+        assertFalse(text.isFor(source, Locale.FRENCH));
+        assertFalse(text.isFor(null, Locale.ENGLISH));
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazon.utils.security;
+
+import org.apache.commons.codec.binary.Base64;
+import org.junit.Test;
+
+import javax.crypto.Cipher;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Microbenchmark for {@link ResourceObfuscator} decryption, comparing a freshly initialized cipher
+ * per call with the cached cipher context. Timings are printed to standard out; assertions only
+ * check both give the same bytes. It is skipped unless the runBenchmarks system property is true,
+ * e.g. {@code ./gradlew :Utils:testDebugUnitTest --tests '*ResourceObfuscatorBenchmarkTest'
+ * -DrunBenchmarks=true}. The decryption itself is tested by {@link ResourceObfuscatorTest}.
+ */
+public class ResourceObfuscatorBenchmarkTest {
+
+    /**
+     * Number of timed decryptions per approach.
+     */
+    private static final int ITERATIONS = 20000;
+
+    /**
+     * Times repeated decryption of the same secret.
+     */
+    @Test
+    public void benchmarkDecrypt() throws Exception {
+
+        assumeTrue(Boolean.getBoolean("runBenchmarks"));
+        byte[] encrypted = Base64.decodeBase64("MVfm5qWBLRaEOgocp2ovMaAr0/pB7Pan9ijvQ8MtP3k=");
+        String[] key = ResourceObfuscatorTest.getRandomStringsForKey();
+        String[] iv = ResourceObfuscatorTest.getRandomStringsForIv();
+
+        // Warm up both approaches and check they agree.
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            assertArrayEquals(ResourceObfuscatorTest.runFreshCipher(Cipher.DECRYPT_MODE,
+                                                                    encrypted),
+                              ResourceObfuscator.decrypt(encrypted, key, iv));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            ResourceObfuscatorTest.runFreshCipher(Cipher.DECRYPT_MODE, encrypted);
+        }
+        long freshNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            ResourceObfuscator.decrypt(encrypted, key, iv);
+        }
+        long cachedNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        System.out.println("Decrypt per call: fresh cipher " + freshNanos + "ns, cached context " +
+                                   cachedNanos + "ns");
+    }
+}
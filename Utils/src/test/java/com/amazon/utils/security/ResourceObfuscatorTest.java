@@ -14,8 +14,25 @@
  */
 package com.amazon.utils.security;
 
+import com.amazon.android.utils.Helpers;
+
+import org.apache.commons.codec.binary.Base64;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
@@ -27,6 +44,20 @@ public class ResourceObfuscatorTest {
     private String expectedPlainString = "Encrypt_this_text";
     private String expectedObfuscatedString = "MVfm5qWBLRaEOgocp2ovMaAr0/pB7Pan9ijvQ8MtP3k=";
 
+    /**
+     * Plain strings checked against a freshly initialized cipher, covering empty input, block
+     * boundaries and non-ASCII text.
+     */
+    private static final String[] PLAIN_STRINGS = {
+            "",
+            "a",
+            "Encrypt_this_text",
+            "0123456789abcdef",
+            "0123456789abcdef0123456789abcdef",
+            "\u00e9\u00e8\u00ea \u4e2d\u6587 \ud83d\ude00",
+            "A much longer secret value that spans several cipher blocks of sixteen bytes"
+    };
+
     /**
      * Test for {@link ResourceObfuscator#obfuscate(String, String[], String[])}
      */
@@ -45,14 +76,123 @@ public class ResourceObfuscatorTest {
         assertEquals(actualObfuscatedString, expectedObfuscatedString);
     }
 
+    /**
+     * Test that repeated obfuscation with the cached cipher context gives the same bytes as a
+     * freshly initialized cipher.
+     */
+    @Test
+    public void testObfuscateIsByteIdentical() throws Exception {
+
+        for (int i = 0; i < 3; i++) {
+            for (String plain : PLAIN_STRINGS) {
+                assertEquals(Base64.encodeBase64String(runFreshCipher(Cipher.ENCRYPT_MODE,
+                                                                      getPlainBytes(plain))),
+                             ResourceObfuscator.obfuscate(plain, getRandomStringsForKey(),
+                                                          getRandomStringsForIv()));
+            }
+        }
+    }
+
+    /**
+     * Test that repeated decryption with the cached cipher context gives the same bytes as a
+     * freshly initialized cipher.
+     */
+    @Test
+    public void testDecryptIsByteIdentical() throws Exception {
+
+        for (int i = 0; i < 3; i++) {
+            for (String plain : PLAIN_STRINGS) {
+                byte[] encrypted = runFreshCipher(Cipher.ENCRYPT_MODE, getPlainBytes(plain));
+                byte[] decrypted = ResourceObfuscator.decrypt(encrypted, getRandomStringsForKey(),
+                                                              getRandomStringsForIv());
+                assertArrayEquals(runFreshCipher(Cipher.DECRYPT_MODE, encrypted), decrypted);
+                assertArrayEquals(getPlainBytes(plain), decrypted);
+            }
+        }
+    }
+
+    /**
+     * Test that decrypting from several threads at once gives the expected bytes.
+     */
+    @Test
+    public void testDecryptFromSeveralThreads() throws Exception {
+
+        final byte[] encrypted = Base64.decodeBase64(expectedObfuscatedString);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(executor.submit(new Callable<byte[]>() {
+                    @Override
+                    public byte[] call() throws Exception {
 
+                        return ResourceObfuscator.decrypt(encrypted, getRandomStringsForKey(),
+                                                          getRandomStringsForIv());
+                    }
+                }));
+            }
+            for (Future<byte[]> result : results) {
+                assertArrayEquals(getPlainBytes(expectedPlainString), result.get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test that a failed decryption does not break the next one.
+     */
+    @Test
+    public void testDecryptAfterFailure() throws Exception {
+
+        try {
+            ResourceObfuscator.decrypt(new byte[]{1, 2, 3}, getRandomStringsForKey(),
+                                       getRandomStringsForIv());
+            fail("Decrypting a partial block should fail");
+        }
+        catch (IllegalBlockSizeException | BadPaddingException e) {
+            // Expected.
+        }
+        assertArrayEquals(getPlainBytes(expectedPlainString),
+                          ResourceObfuscator.decrypt(Base64.decodeBase64(expectedObfuscatedString),
+                                                     getRandomStringsForKey(),
+                                                     getRandomStringsForIv()));
+    }
+
+    /**
+     * Run a freshly initialized cipher the way every call did before the cipher context was
+     * cached.
+     *
+     * @param mode  The cipher mode.
+     * @param input The input bytes.
+     * @return The output bytes.
+     */
+    static byte[] runFreshCipher(int mode, byte[] input) throws Exception {
+
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        cipher.init(mode, new SecretKeySpec(getPlainBytes("calypsosomething"), "AES"),
+                    new IvParameterSpec(getPlainBytes("dadadadadaqwertf")));
+        return cipher.doFinal(input);
+    }
+
+    /**
+     * Encode a string with the app charset.
+     *
+     * @param plain The string.
+     * @return The encoded bytes.
+     */
+    static byte[] getPlainBytes(String plain) {
+
+        return plain.getBytes(Helpers.getDefaultAppCharset());
+    }
 
     /**
      * Random keys used to generate encryption key.
      *
      * @return random strings used to generate encryption key.
      */
-    private static String[] getRandomStringsForKey() {
+    static String[] getRandomStringsForKey() {
 
         return new String[]{
                 "calypso",
@@ -66,7 +206,7 @@ public class ResourceObfuscatorTest {
      *
      * @return random strings used to generate encryption Iv.
      */
-    private static String[] getRandomStringsForIv() {
+    static String[] getRandomStringsForIv() {
 
         return new String[]{
                 "dadadadada",
@@ -62,6 +62,8 @@ import com.amazon.android.ads.vast.util.VastAdListener;
 import com.amazon.android.ads.vast.util.DefaultMediaPicker;
 import com.amazon.android.ads.vast.util.HttpTools;
 import com.amazon.android.ads.vast.util.NetworkTools;
+import com.amazon.android.scheduler.PriorityThreadPoolExecutor;
+import com.amazon.android.scheduler.TaskExecutors;
 import com.amazon.android.utils.NetworkUtils;
 
 import android.app.Activity;
@@ -562,7 +564,8 @@ public class VASTAdsPlayer implements IAds,
         resetAdState();
 
         if (NetworkTools.connectedToInternet(mContext)) {
-            (new Thread(new Runnable() {
+            // Playback is waiting for the ad response, so it is loaded with high priority.
+            TaskExecutors.io().execute(new Runnable() {
                 @Override
                 public void run() {
 
@@ -592,7 +595,7 @@ public class VASTAdsPlayer implements IAds,
                         mVASTPlayerListener.vastError(ERROR_XML_PARSE);
                     }
                 }
-            })).start();
+            }, PriorityThreadPoolExecutor.PRIORITY_HIGH);
         }
         else {
             mVASTPlayerListener.vastError(ERROR_NO_NETWORK);
@@ -163,7 +163,7 @@ public class AdElement implements Comparable<AdElement> {
             return null;
         }
 
-        XmlParser parser = new XmlParser();
+        XmlParser parser = new XmlParser(true);
         try {
             Map<String, Map> xmlMap = (Map<String, Map>) parser.parse(xmlData);
 
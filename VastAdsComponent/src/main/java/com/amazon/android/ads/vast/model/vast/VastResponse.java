@@ -152,7 +152,7 @@ public class VastResponse {
             return null;
         }
 
-        XmlParser parser = new XmlParser();
+        XmlParser parser = new XmlParser(true);
         try {
             Map<String, Map> xmlMap = (Map<String, Map>) parser.parse(xmlData);
 
@@ -334,17 +334,17 @@ public class AdBreak {
             return duration;
         }
         // Convert percentage to seconds of duration.
-        else if (mTimeOffset.matches("\\d{1,3}%")) {
-            String[] split = mTimeOffset.split("%");
-            double percentage = Double.valueOf(split[0]) / 100;
-            if (Double.valueOf(split[0]) > 0 && duration == 0) {
+        int percentageValue = DateAndTimeHelper.parsePercentage(mTimeOffset);
+        if (percentageValue >= 0) {
+            double percentage = percentageValue / 100.0;
+            if (percentageValue > 0 && duration == 0) {
                 Log.e(TAG, "Can't calculate offset because duration is unknown.");
                 return -1;
             }
             return duration * percentage;
         }
         // Convert time format to seconds.
-        else if (mTimeOffset.matches(("\\d+:\\d{2}:\\d{2}(.\\d{3})?"))) {
+        if (DateAndTimeHelper.isTimeFormat(mTimeOffset)) {
             return DateAndTimeHelper.convertDateFormatToSeconds(mTimeOffset);
         }
         Log.e(TAG, "Time offset did not match any allowed representations. timeOffset: " +
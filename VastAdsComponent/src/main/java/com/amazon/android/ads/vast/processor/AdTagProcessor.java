@@ -96,7 +96,7 @@ public class AdTagProcessor {
         }
 
         if (xmlData != null) {
-            XmlParser parser = new XmlParser();
+            XmlParser parser = new XmlParser(true);
             try {
                 Map<String, Map> xmlMap = (Map<String, Map>) parser.parse(xmlData);
 
@@ -44,6 +44,8 @@
  */
 package com.amazon.android.ads.vast.util;
 
+import com.amazon.android.scheduler.TaskExecutors;
+
 import android.text.TextUtils;
 import android.util.Log;
 
@@ -63,7 +65,7 @@ public class HttpTools {
     public static void httpGetURL(final String url) {
 
         if (!TextUtils.isEmpty(url)) {
-            new Thread() {
+            TaskExecutors.io().execute(new Runnable() {
                 @Override
                 public void run() {
 
@@ -92,7 +94,7 @@ public class HttpTools {
                         }
                     }
                 }
-            }.start();
+            });
         }
         else {
             Log.e(TAG, "url is null or empty");